@@ -67,6 +67,7 @@ public final class Bootstrapper extends SipServlet implements SipServletListener
 
     private ActorSystem system;
     private ExecutionContext ec;
+    private DaoManager storage;
 
     public Bootstrapper() {
         super();
@@ -75,8 +76,13 @@ public final class Bootstrapper extends SipServlet implements SipServletListener
     @Override
     public void destroy() {
         CustomHttpClientBuilder.stopDefaultClient();
+        DNSUtils.shutdown();
         system.shutdown();
         system.awaitTermination();
+        // Once no actor can write anymore, flushes the write-behind call detail records and registrations.
+        if (storage != null) {
+            storage.shutdown();
+        }
     }
 
     private MediaServerControllerFactory mediaServerControllerFactory(final Configuration configuration, ClassLoader loader, DaoManager storage, ActorRef monitoring)
@@ -340,7 +346,7 @@ public final class Bootstrapper extends SipServlet implements SipServletListener
             context.setAttribute(ActorSystem.class.getName(), system);
             ec = system.dispatchers().lookup("restcomm-blocking-dispatcher");
             // Create the storage system.
-            DaoManager storage = null;
+            storage = null;
             try {
                 storage = storage(xml, daoManagerConf, loader, ec);
             } catch (final ObjectInstantiationException exception) {
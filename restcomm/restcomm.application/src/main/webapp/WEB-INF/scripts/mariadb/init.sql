@@ -451,6 +451,9 @@ INSERT INTO restcomm_clients VALUES('CL3003328d0de04ba68f38de85b732ed56','2013-1
 /* Create index on restcomm_call_detail_records on conference_sid column */
 CREATE INDEX idx_cdr_conference_sid ON restcomm_call_detail_records (conference_sid);
 
+/* Create index on restcomm_call_detail_records for keyset pagination of an account's calls */
+CREATE INDEX idx_cdr_account_date_created_sid ON restcomm_call_detail_records (account_sid, date_created, sid);
+
 /* Create index on restcomm_call_detail_records on conference_sid column */
 CREATE INDEX idx_cdr_conference_status ON restcomm_conference_detail_records (status);
 
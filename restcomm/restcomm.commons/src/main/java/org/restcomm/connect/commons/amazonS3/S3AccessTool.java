@@ -64,7 +64,8 @@ public class S3AccessTool {
     private boolean removeOriginalFile;
     private boolean testing;
     private String testingUrl;
-    private AmazonS3 s3client;
+    // Built on first use and shared by all the callers, volatile for the double-checked locking in getS3client().
+    private volatile AmazonS3 s3client;
     private int maxDelay;
 
     public S3AccessTool(final String accessKey, final String securityKey, final String bucketName, final String folder,
@@ -83,26 +84,41 @@ public class S3AccessTool {
         this.maxDelay = RestcommConfiguration.getInstance().getMain().getRecordingMaxDelay();
     }
 
+    /**
+     * @return the client of this tool, built on the first call. The client is thread safe and reused by every call.
+     */
     public AmazonS3 getS3client() {
+        AmazonS3 client = s3client;
+        if (client == null) {
+            synchronized (this) {
+                client = s3client;
+                if (client == null) {
+                    client = buildS3client();
+                    s3client = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    private AmazonS3 buildS3client() {
         BasicAWSCredentials awsCreds = new BasicAWSCredentials(accessKey, securityKey);
 
+        final AmazonS3 client;
         if (testing && (!testingUrl.isEmpty() || !testingUrl.equals(""))) {
-            s3client = new AmazonS3Client(awsCreds);
-            s3client.setRegion(Region.getRegion(Regions.fromName(bucketRegion)));
-            s3client.setEndpoint(testingUrl);
-            s3client.setS3ClientOptions(S3ClientOptions.builder().setPathStyleAccess(true).disableChunkedEncoding().build());
+            client = new AmazonS3Client(awsCreds);
+            client.setRegion(Region.getRegion(Regions.fromName(bucketRegion)));
+            client.setEndpoint(testingUrl);
+            client.setS3ClientOptions(S3ClientOptions.builder().setPathStyleAccess(true).disableChunkedEncoding().build());
         } else {
-            s3client = AmazonS3ClientBuilder.standard().withRegion(Regions.fromName(bucketRegion))
+            client = AmazonS3ClientBuilder.standard().withRegion(Regions.fromName(bucketRegion))
                     .withCredentials(new AWSStaticCredentialsProvider(awsCreds)).build();
         }
-
-        return s3client;
+        return client;
     }
 
     public boolean uploadFile(final String fileToUpload) {
-        if (s3client == null) {
-            s3client = getS3client();
-        }
+        final AmazonS3 client = getS3client();
         if(logger.isInfoEnabled()){
             logger.info("S3 Region: "+bucketRegion.toString());
         }
@@ -129,7 +145,7 @@ public class S3AccessTool {
                 putRequest.setMetadata(metadata);
                 if (reducedRedundancy)
                     putRequest.setStorageClass(StorageClass.ReducedRedundancy);
-                s3client.putObject(putRequest);
+                client.putObject(putRequest);
 
                 if (removeOriginalFile) {
                     removeLocalFile(file);
@@ -172,9 +188,7 @@ public class S3AccessTool {
     }
 
     public URI getS3Uri(final String fileToUpload) {
-        if (s3client == null) {
-            s3client = getS3client();
-        }
+        final AmazonS3 client = getS3client();
         StringBuffer bucket = new StringBuffer();
         bucket.append(bucketName);
         if (folder != null && !folder.isEmpty())
@@ -183,7 +197,7 @@ public class S3AccessTool {
         File file = new File(fileUri);
         URI recordingS3Uri = null;
         try {
-            recordingS3Uri = s3client.getUrl(bucketName, file.getName()).toURI();
+            recordingS3Uri = client.getUrl(bucketName, file.getName()).toURI();
         } catch (URISyntaxException e) {
             logger.error("Problem during creation of S3 URI");
         }
@@ -194,9 +208,7 @@ public class S3AccessTool {
     }
 
     public URI getPublicUrl (String fileName) throws URISyntaxException {
-        if (s3client == null) {
-            s3client = getS3client();
-        }
+        final AmazonS3 client = getS3client();
         Date date = new Date();
         Calendar cal = Calendar.getInstance();
         cal.setTime(date);
@@ -215,7 +227,7 @@ public class S3AccessTool {
         generatePresignedUrlRequestGET.setMethod(HttpMethod.GET);
         generatePresignedUrlRequestGET.setExpiration(date);
 
-        return s3client.generatePresignedUrl(generatePresignedUrlRequestGET).toURI();
+        return client.generatePresignedUrl(generatePresignedUrlRequestGET).toURI();
     }
 
     private void removeLocalFile(final File file) {
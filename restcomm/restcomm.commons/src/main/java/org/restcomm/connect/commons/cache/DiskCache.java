@@ -27,14 +27,18 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.shiro.crypto.hash.Sha256Hash;
 import org.restcomm.connect.commons.faulttolerance.RestcommUntypedActor;
 
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 /**
  * @author quintana.thomas@gmail.com (Thomas Quintana)
@@ -49,12 +53,14 @@ public final class DiskCache extends RestcommUntypedActor {
     // flag for cache disabling in *.wav files usage case
     private boolean wavNoCache = false;
     private FileDownloader downloader;
+    private final MediaCache media;
 
     public DiskCache(FileDownloader downloader, String cacheDir, String cacheUri, final boolean create, final boolean wavNoCache) {
         super();
 
         this.wavNoCache = wavNoCache;
         this.downloader = downloader;
+        this.media = MediaCache.getInstance();
 
         // Format the cache path.
         if (!cacheDir.endsWith("/")) {
@@ -93,8 +99,27 @@ public final class DiskCache extends RestcommUntypedActor {
     }
 
     public URI cache(final DiskCacheRequest request) throws IOException, URISyntaxException {
+        try {
+            return fetch(request).get();
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IOException(exception);
+        } catch (final ExecutionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof URISyntaxException) {
+                throw (URISyntaxException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private ListenableFuture<URI> fetch(final DiskCacheRequest request) throws IOException, URISyntaxException {
         if (StringUtils.isNotEmpty(request.hash())) {
-            return handleHashedRequest(request);
+            return Futures.immediateFuture(handleHashedRequest(request));
         } else if ("file".equalsIgnoreCase(request.uri().getScheme())) {
             return handleLocalFile(request);
         } else {
@@ -107,9 +132,8 @@ public final class DiskCache extends RestcommUntypedActor {
         final String extension = "wav";
         final String hash = request.hash();
         final String filename = hash + "." + extension;
-        Path p = Paths.get(cacheDir + filename);
 
-        if (Files.exists(p)) {
+        if (media.contains(new File(cacheDir + filename))) {
             // return URI.create(matchedFile.getAbsolutePath());
             return URI.create(this.cacheUri + filename);
         } else {
@@ -117,24 +141,30 @@ public final class DiskCache extends RestcommUntypedActor {
         }
     }
 
-    private URI handleLocalFile(final DiskCacheRequest request) throws IOException {
-        File origFile = new File(request.uri());
-        File destFile = new File(cacheDir + origFile.getName());
-        if (!destFile.exists()) {
-            FileUtils.moveFile(origFile, destFile);
-        }
-        return URI.create(this.cacheUri + destFile.getName());
+    private ListenableFuture<URI> handleLocalFile(final DiskCacheRequest request) {
+        final File origFile = new File(request.uri());
+        final File destFile = new File(cacheDir + origFile.getName());
+        final ListenableFuture<File> file = media.getNow(destFile, new Callable<File>() {
+            @Override
+            public File call() throws IOException {
+                if (!destFile.exists()) {
+                    FileUtils.moveFile(origFile, destFile);
+                }
+                return destFile;
+            }
+        });
+        return uri(file, this.cacheUri + destFile.getName());
     }
 
-    private URI handleExternalUrl(final DiskCacheRequest request) throws IOException, URISyntaxException {
+    private ListenableFuture<URI> handleExternalUrl(final DiskCacheRequest request) throws IOException, URISyntaxException {
         //Handle all the rest
         // This is a request to cache a URI
         String hash;
-        URI uri;
+        final URI uri;
         URI requestUri = request.uri();
         String requestUriText = requestUri.toString();
         if (wavNoCache && "wav".equalsIgnoreCase(extension(requestUri))) {
-            return requestUri;
+            return Futures.immediateFuture(requestUri);
         }else if (requestUriText.contains("hash")) {
             String fragment = requestUri.getFragment();
             hash = fragment.replace("hash=", "");
@@ -146,20 +176,28 @@ public final class DiskCache extends RestcommUntypedActor {
         }
 
         final String extension = extension(uri).toLowerCase();
-        File path = null;
-        if (!extension.equalsIgnoreCase("wav")) {
-            path = new File(cacheDir + hash + "." + extension);
-            if (!path.exists()) {
-                downloader.download(uri, path);
+        final String filename = extension.equalsIgnoreCase("wav") ? hash + ".wav" : hash + "." + extension;
+        final File path = new File(cacheDir + filename);
+        // Downloads run on the threads of the media cache, so the actor is free to serve other requests.
+        final ListenableFuture<File> file = media.get(path, new Callable<File>() {
+            @Override
+            public File call() throws IOException, URISyntaxException {
+                if (!path.exists()) {
+                    downloader.download(uri, path);
+                }
+                return path;
             }
-            return URI.create(this.cacheUri + hash + "." + extension);
-        } else {
-            path = new File(cacheDir + hash + ".wav" );
-            if (!path.exists()) {
-                downloader.download(uri, path);
+        });
+        return uri(file, this.cacheUri + filename);
+    }
+
+    private static ListenableFuture<URI> uri(final ListenableFuture<File> file, final String uri) {
+        return Futures.transform(file, new Function<File, URI>() {
+            @Override
+            public URI apply(final File input) {
+                return URI.create(uri);
             }
-            return URI.create(this.cacheUri + hash + ".wav");
-        }
+        });
     }
 
     @Override
@@ -172,16 +210,26 @@ public final class DiskCache extends RestcommUntypedActor {
         final ActorRef self = self();
         final ActorRef sender = sender();
         if (DiskCacheRequest.class.equals(klass)) {
-            DiskCacheResponse response;
+            ListenableFuture<URI> result;
             try {
-                response = new DiskCacheResponse(cache((DiskCacheRequest) message));
+                result = fetch((DiskCacheRequest) message);
             } catch (final Exception exception) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("Issue while caching", exception);
-                }
-                response = new DiskCacheResponse(exception);
+                result = Futures.immediateFailedFuture(exception);
             }
-            sender.tell(response, self);
+            Futures.addCallback(result, new FutureCallback<URI>() {
+                @Override
+                public void onSuccess(final URI uri) {
+                    sender.tell(new DiskCacheResponse(uri), self);
+                }
+
+                @Override
+                public void onFailure(final Throwable exception) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Issue while caching", exception);
+                    }
+                    sender.tell(new DiskCacheResponse(exception), self);
+                }
+            });
         }
     }
 
@@ -17,6 +17,7 @@ public final class DiskCacheFactory {
     public DiskCacheFactory(RestcommConfiguration cfg) {
         this.cfg = cfg.getCache();
         this.downloader = new FileDownloader();
+        MediaCache.getInstance().setMaximumBytes(this.cfg.getCacheMaxSize() * 1024 * 1024);
     }
 
     public DiskCache getDiskCache() {
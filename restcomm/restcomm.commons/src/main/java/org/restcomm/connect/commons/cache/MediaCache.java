@@ -0,0 +1,319 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.commons.cache;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * The media files cached by all the {@link DiskCache} actors of the node.
+ * <p>
+ * Files are looked up in an in-memory index that is loaded once per cache directory, so a hit does not list or read
+ * the directory; it only checks the file is still there, as files may be deleted outside of Restcomm, and a file that
+ * is gone is dropped from the index and fetched again. Concurrent requests for a file that is still being fetched share the same fetch, and at most {@value #FETCHERS}
+ * files are fetched at once, the others wait in a queue. When the files add up to more than the configured number of
+ * bytes the least recently used ones are deleted.
+ */
+@ThreadSafe
+public final class MediaCache {
+    private static final Logger logger = Logger.getLogger(MediaCache.class);
+    private static final MediaCache instance = new MediaCache(0);
+    static final int FETCHERS = 16;
+
+    private final ConcurrentMap<String, ListenableFuture<File>> inFlight;
+    private final ThreadPoolExecutor executor;
+    // Guards files, loadedDirectories and bytes.
+    private final Object lock;
+    private final LinkedHashMap<String, Long> files;
+    private final Set<String> loadedDirectories;
+    private long bytes;
+    private volatile long maximumBytes;
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong bytesSaved;
+    private final AtomicLong evictions;
+
+    /**
+     * @param maximumBytes the total size of the cached files, 0 for no limit.
+     */
+    public MediaCache(final long maximumBytes) {
+        super();
+        this.inFlight = new ConcurrentHashMap<String, ListenableFuture<File>>();
+        this.executor = new ThreadPoolExecutor(FETCHERS, FETCHERS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("media-cache-%d").build());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.lock = new Object();
+        // Access ordered, the eldest entry is the least recently used file.
+        this.files = new LinkedHashMap<String, Long>(256, 0.75f, true);
+        this.loadedDirectories = new HashSet<String>();
+        this.bytes = 0;
+        this.maximumBytes = maximumBytes;
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.bytesSaved = new AtomicLong();
+        this.evictions = new AtomicLong();
+    }
+
+    public static MediaCache getInstance() {
+        return instance;
+    }
+
+    public void setMaximumBytes(final long maximumBytes) {
+        this.maximumBytes = maximumBytes;
+        evict();
+    }
+
+    /**
+     * @return true if the file is in the cache.
+     */
+    public boolean contains(final File file) {
+        synchronized (lock) {
+            load(file.getParentFile());
+            if (indexed(file) != null) {
+                hits.incrementAndGet();
+                return true;
+            }
+        }
+        // Files may also be written by another node sharing the directory.
+        if (file.exists()) {
+            add(file);
+            hits.incrementAndGet();
+            return true;
+        }
+        misses.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Returns the file if it is cached, otherwise fetches it with the loader on the cache threads. Only one fetch runs
+     * at a time for a file, later requests wait for its result.
+     */
+    public ListenableFuture<File> get(final File file, final Callable<File> loader) {
+        return get(file, loader, executor);
+    }
+
+    /**
+     * Like {@link #get(File, Callable)} but fetches the file on the calling thread, for cheap loaders such as moving a
+     * local file.
+     */
+    public ListenableFuture<File> getNow(final File file, final Callable<File> loader) {
+        return get(file, loader, MoreExecutors.sameThreadExecutor());
+    }
+
+    private ListenableFuture<File> get(final File file, final Callable<File> loader, final Executor executor) {
+        final String path = file.getAbsolutePath();
+        synchronized (lock) {
+            load(file.getParentFile());
+            final Long size = indexed(file);
+            if (size != null) {
+                hits.incrementAndGet();
+                bytesSaved.addAndGet(size);
+                return Futures.immediateFuture(file);
+            }
+        }
+        final SettableFuture<File> future = SettableFuture.create();
+        final ListenableFuture<File> running = inFlight.putIfAbsent(path, future);
+        if (running != null) {
+            hits.incrementAndGet();
+            Futures.addCallback(running, new FutureCallback<File>() {
+                @Override
+                public void onSuccess(final File result) {
+                    bytesSaved.addAndGet(file.length());
+                }
+
+                @Override
+                public void onFailure(final Throwable cause) {
+                }
+            });
+            return running;
+        }
+        synchronized (lock) {
+            // The fetch that just finished may have added it.
+            if (indexed(file) != null) {
+                inFlight.remove(path, future);
+                hits.incrementAndGet();
+                future.set(file);
+                return future;
+            }
+        }
+        misses.incrementAndGet();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    final File result = loader.call();
+                    add(file);
+                    future.set(result);
+                } catch (final Throwable exception) {
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Could not cache " + path, exception);
+                    }
+                    future.setException(exception);
+                } finally {
+                    inFlight.remove(path, future);
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Forgets all the cached files without deleting them, they are read again from the directories when needed.
+     */
+    public void clear() {
+        synchronized (lock) {
+            files.clear();
+            loadedDirectories.clear();
+            bytes = 0;
+        }
+    }
+
+    public long getBytes() {
+        synchronized (lock) {
+            return bytes;
+        }
+    }
+
+    public int getFiles() {
+        synchronized (lock) {
+            return files.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the share of the requests that did not have to fetch the file, between 0 and 1.
+     */
+    public double getHitRate() {
+        final long hits = getHits();
+        final long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * @return the bytes served from the cache instead of being fetched again.
+     */
+    public long getBytesSaved() {
+        return bytesSaved.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return "MediaCache [files=" + getFiles() + ", bytes=" + getBytes() + ", hits=" + getHits() + ", misses="
+                + getMisses() + ", bytesSaved=" + getBytesSaved() + ", evictions=" + getEvictions() + "]";
+    }
+
+    private void add(final File file) {
+        synchronized (lock) {
+            final Long previous = files.put(file.getAbsolutePath(), file.length());
+            bytes += file.length() - (previous == null ? 0 : previous);
+        }
+        evict();
+    }
+
+    // Called with the lock held, returns the size of the file or null if it is not cached.
+    private Long indexed(final File file) {
+        final String path = file.getAbsolutePath();
+        final Long size = files.get(path);
+        if (size != null && !file.isFile()) {
+            // Deleted by someone else, such as a script cleaning the cache directory.
+            files.remove(path);
+            bytes -= size;
+            return null;
+        }
+        return size;
+    }
+
+    // Called with the lock held.
+    private void load(final File directory) {
+        if (directory == null || !loadedDirectories.add(directory.getAbsolutePath())) {
+            return;
+        }
+        final File[] existing = directory.listFiles();
+        if (existing != null) {
+            for (final File file : existing) {
+                if (file.isFile() && !file.getName().endsWith(".tmp")) {
+                    files.put(file.getAbsolutePath(), file.length());
+                    bytes += file.length();
+                }
+            }
+        }
+    }
+
+    private void evict() {
+        final long maximum = maximumBytes;
+        if (maximum <= 0) {
+            return;
+        }
+        final List<File> evicted = new ArrayList<File>();
+        synchronized (lock) {
+            final Iterator<Map.Entry<String, Long>> iterator = files.entrySet().iterator();
+            // The most recently used file stays even if it is bigger than the whole cache.
+            while (bytes > maximum && files.size() > 1 && iterator.hasNext()) {
+                final Map.Entry<String, Long> entry = iterator.next();
+                iterator.remove();
+                bytes -= entry.getValue();
+                evicted.add(new File(entry.getKey()));
+            }
+        }
+        for (final File file : evicted) {
+            evictions.incrementAndGet();
+            if (!file.delete() && logger.isDebugEnabled()) {
+                logger.debug("Could not delete the evicted file " + file);
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@
 package org.restcomm.connect.commons.common.http;
 
 import java.net.InetSocketAddress;
+import javax.net.ssl.SSLContext;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
@@ -28,6 +29,7 @@ import org.apache.http.impl.client.HttpClients;
 import org.apache.http.ssl.SSLContextBuilder;
 import org.restcomm.connect.commons.configuration.sets.MainConfigurationSet;
 
+import java.io.IOException;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
@@ -45,6 +47,15 @@ import org.apache.http.conn.util.PublicSuffixMatcherLoader;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
 import org.apache.http.ssl.SSLContexts;
 
 /**
@@ -58,12 +69,29 @@ public class CustomHttpClientBuilder {
     }
 
     private static CloseableHttpClient defaultClient = null;
+    private static CloseableHttpAsyncClient defaultAsyncClient = null;
 
     public static synchronized void stopDefaultClient() {
         if (defaultClient != null) {
             HttpClientUtils.closeQuietly(defaultClient);
             defaultClient = null;
         }
+        if (defaultAsyncClient != null) {
+            try {
+                defaultAsyncClient.close();
+            } catch (final IOException e) {
+                // Nothing to do, the I/O reactor is going away anyway.
+            }
+            defaultAsyncClient = null;
+        }
+    }
+
+    public static synchronized CloseableHttpAsyncClient buildDefaultAsyncClient(MainConfigurationSet config) {
+        if (defaultAsyncClient == null) {
+            defaultAsyncClient = buildAsync(config);
+            defaultAsyncClient.start();
+        }
+        return defaultAsyncClient;
     }
 
     public static synchronized CloseableHttpClient buildDefaultClient(MainConfigurationSet config) {
@@ -134,6 +162,58 @@ public class CustomHttpClientBuilder {
         return builder.build();
     }
 
+    /**
+     * Builds a non-blocking client with the same timeouts, ssl mode and connection limits as
+     * {@link #build(MainConfigurationSet)}. The caller has to start it.
+     */
+    public static CloseableHttpAsyncClient buildAsync(MainConfigurationSet config) {
+        int timeout = config.getResponseTimeout();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(timeout)
+                .setConnectionRequestTimeout(config.getDefaultHttpConnectionRequestTimeout())
+                .setSocketTimeout(timeout)
+                .setCookieSpec(CookieSpecs.STANDARD).build();
+
+        SSLContext sslContext;
+        try {
+            if (config.getSslMode() == SslMode.strict) {
+                sslContext = SSLContextBuilder.create().build();
+            } else {
+                sslContext = new SSLContextBuilder().loadTrustMaterial(null, new TrustSelfSignedStrategy()).build();
+            }
+        } catch (KeyManagementException | NoSuchAlgorithmException | KeyStoreException e) {
+            throw new RuntimeException("Error creating HttpAsyncClient", e);
+        }
+        Registry<SchemeIOSessionStrategy> reg = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                .register("http", NoopIOSessionStrategy.INSTANCE)
+                .register("https", new SSLIOSessionStrategy(sslContext, getSSLPrototocolsFromSystemProperties(), null,
+                        SSLIOSessionStrategy.getDefaultHostnameVerifier()))
+                .build();
+
+        final PoolingNHttpClientConnectionManager poolingmgr;
+        try {
+            DefaultConnectingIOReactor ioReactor = new DefaultConnectingIOReactor(IOReactorConfig.custom()
+                    .setConnectTimeout(timeout)
+                    .setSoTimeout(timeout).build());
+            poolingmgr = new PoolingNHttpClientConnectionManager(ioReactor, null, reg, null, null,
+                    config.getDefaultHttpTTL(), TimeUnit.MILLISECONDS);
+        } catch (IOReactorException e) {
+            throw new RuntimeException("Error creating HttpAsyncClient", e);
+        }
+        poolingmgr.setMaxTotal(config.getDefaultHttpMaxConns());
+        poolingmgr.setDefaultMaxPerRoute(config.getDefaultHttpMaxConnsPerRoute());
+        if (config.getDefaultHttpRoutes() != null) {
+            for (InetSocketAddress addr : config.getDefaultHttpRoutes().keySet()) {
+                HttpRoute r = new HttpRoute(new HttpHost(addr.getHostName(), addr.getPort()));
+                poolingmgr.setMaxPerRoute(r, config.getDefaultHttpRoutes().get(addr));
+            }
+        }
+        return HttpAsyncClients.custom()
+                .setDefaultRequestConfig(requestConfig)
+                .setConnectionManager(poolingmgr)
+                .build();
+    }
+
     private static String[] getSSLPrototocolsFromSystemProperties() {
         String protocols = System.getProperty("jdk.tls.client.protocols");
         if (protocols == null) {
@@ -30,4 +30,9 @@ public interface CacheConfigurationSet {
     String getCachePath();
 
     String getCacheUri();
+
+    /**
+     * @return the total size of the cached media files in megabytes, 0 for no limit.
+     */
+    long getCacheMaxSize();
 }
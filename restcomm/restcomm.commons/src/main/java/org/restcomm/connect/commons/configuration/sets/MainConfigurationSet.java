@@ -42,6 +42,10 @@ public interface MainConfigurationSet {
 
     Map<InetSocketAddress,Integer> getDefaultHttpRoutes();
 
+    boolean isDefaultHttpAsync();
+
+    int getRcmlCacheSize();
+
     boolean isUseHostnameToResolveRelativeUrls();
 
     String getHostname();
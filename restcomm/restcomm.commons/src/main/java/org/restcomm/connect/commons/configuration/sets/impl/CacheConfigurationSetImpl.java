@@ -27,10 +27,12 @@ public class CacheConfigurationSetImpl extends ConfigurationSet implements Cache
     public static final String CACHE_NO_WAV_KEY = "runtime-settings.cache-no-wav";
     public static final String CACHE_PATH_KEY = "runtime-settings.cache-path";
     public static final String CACHE_URI_KEY = "runtime-settings.cache-uri";
+    public static final String CACHE_MAX_SIZE_KEY = "runtime-settings.cache-max-size";
 
     private boolean noWavCache;
     private String cachePath;
     private String cacheUri;
+    private long cacheMaxSize;
 
     public CacheConfigurationSetImpl (ConfigurationSource source) {
         super(source);
@@ -43,6 +45,14 @@ public class CacheConfigurationSetImpl extends ConfigurationSet implements Cache
         cachePath = source.getProperty(CACHE_PATH_KEY);
 
         cacheUri = source.getProperty(CACHE_URI_KEY);
+
+        // size in megabytes, no limit if absent
+        try {
+            value = source.getProperty(CACHE_MAX_SIZE_KEY);
+            cacheMaxSize = (value == null || value.trim().isEmpty()) ? 0 : Long.parseLong(value.trim());
+        } catch (Exception e) {
+            throw new RuntimeException("Error initializing '" + CACHE_MAX_SIZE_KEY + "' configuration setting", e);
+        }
     }
 
     public CacheConfigurationSetImpl(boolean noWavCache, String cachePath, String cacheUri) {
@@ -67,6 +77,11 @@ public class CacheConfigurationSetImpl extends ConfigurationSet implements Cache
         return cacheUri;
     }
 
+    @Override
+    public long getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+
     public void setNoWavCache(boolean noWavCache) {
         this.noWavCache = noWavCache;
     }
@@ -78,4 +93,8 @@ public class CacheConfigurationSetImpl extends ConfigurationSet implements Cache
     public void setCacheUri(String cacheUri) {
         this.cacheUri = cacheUri;
     }
+
+    public void setCacheMaxSize(long cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
 }
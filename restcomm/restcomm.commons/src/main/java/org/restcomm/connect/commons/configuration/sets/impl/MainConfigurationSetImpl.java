@@ -50,6 +50,8 @@ public class MainConfigurationSetImpl extends ConfigurationSet implements MainCo
     private static final String HTTP_ROUTES_HOST = "http-client.routes-host";
     private static final String HTTP_ROUTES_PORT = "http-client.routes-port";
     private static final String HTTP_ROUTES_CONN = "http-client.routes-conn";
+    private static final String HTTP_ASYNC = "http-client.async";
+    private static final String HTTP_RCML_CACHE_SIZE = "http-client.rcml-cache-size";
     private static final SslMode SSL_MODE_DEFAULT = SslMode.strict;
     private SslMode sslMode;
     private int responseTimeout;
@@ -58,6 +60,8 @@ public class MainConfigurationSetImpl extends ConfigurationSet implements MainCo
     private Integer defaultHttpMaxConnsPerRoute;
     private Integer defaultHttpTTL;
     private Map<InetSocketAddress, Integer> defaultHttpRoutes = new HashMap();
+    private boolean defaultHttpAsync;
+    private int rcmlCacheSize;
     private static final String USE_HOSTNAME_TO_RESOLVE_RELATIVE_URL_KEY = "http-client.use-hostname-to-resolve-relative-url";
     private static final String HOSTNAME_TO_USE_FOR_RELATIVE_URLS_KEY = "http-client.hostname";
     private static final boolean RESOLVE_RELATIVE_URL_WITH_HOSTNAME_DEFAULT = true;
@@ -123,6 +127,12 @@ public class MainConfigurationSetImpl extends ConfigurationSet implements MainCo
         } catch (Throwable e) {//to catch array index out of bounds
             throw new RuntimeException("Error initializing '" + HTTP_ROUTES_CONN + "' configuration setting", e);
         }
+        defaultHttpAsync = Boolean.valueOf(source.getProperty(HTTP_ASYNC, "false"));
+        try {
+            rcmlCacheSize = Integer.parseInt(source.getProperty(HTTP_RCML_CACHE_SIZE, "0"));
+        } catch (Exception e) {
+            throw new RuntimeException("Error initializing '" + HTTP_RCML_CACHE_SIZE + "' configuration setting", e);
+        }
 
         // http-client.ssl-mode
         try {
@@ -248,6 +258,16 @@ public class MainConfigurationSetImpl extends ConfigurationSet implements MainCo
         return defaultHttpRoutes;
     }
 
+    @Override
+    public boolean isDefaultHttpAsync() {
+        return defaultHttpAsync;
+    }
+
+    @Override
+    public int getRcmlCacheSize() {
+        return rcmlCacheSize;
+    }
+
     @Override
     public Integer getDefaultHttpConnectionRequestTimeout() {
         return connectionRequestTimeout;
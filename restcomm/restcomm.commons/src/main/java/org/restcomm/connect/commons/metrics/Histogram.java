@@ -0,0 +1,103 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.commons.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+
+/**
+ * Counts observations in buckets of fixed upper bounds and keeps their sum. Observing only updates atomic fields of
+ * this histogram, it never allocates, so it can be done on every request.
+ */
+@ThreadSafe
+public final class Histogram implements Metric {
+    // Upper bounds in seconds for the latency of a request to a server or database.
+    public static final double[] LATENCY_SECONDS = { 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10 };
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double[] bounds;
+    // Observations per bucket, the last one counts those above every bound.
+    private final AtomicLongArray buckets;
+    // Bits of the sum as a double.
+    private final AtomicLong sum;
+
+    Histogram(final double[] bounds) {
+        super();
+        for (int i = 1; i < bounds.length; i++) {
+            if (bounds[i] <= bounds[i - 1]) {
+                throw new IllegalArgumentException("The bounds of a histogram must be increasing.");
+            }
+        }
+        this.bounds = bounds.clone();
+        this.buckets = new AtomicLongArray(bounds.length + 1);
+        this.sum = new AtomicLong(Double.doubleToLongBits(0.0));
+    }
+
+    public void observe(final double value) {
+        int bucket = 0;
+        while (bucket < bounds.length && value > bounds[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        long current;
+        do {
+            current = sum.get();
+        } while (!sum.compareAndSet(current, Double.doubleToLongBits(Double.longBitsToDouble(current) + value)));
+    }
+
+    /**
+     * Observes a duration, in seconds.
+     */
+    public void observe(final long duration, final TimeUnit unit) {
+        observe(unit.toNanos(duration) / NANOS_PER_SECOND);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            count += buckets.get(i);
+        }
+        return count;
+    }
+
+    public double getSum() {
+        return Double.longBitsToDouble(sum.get());
+    }
+
+    @Override
+    public void write(final Writer writer, final String name, final String labels) throws IOException {
+        final String prefix = labels.isEmpty() ? "" : labels + ",";
+        long count = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            count += buckets.get(i);
+            MetricsRegistry.sample(writer, name + "_bucket", prefix + "le=\"" + bounds[i] + "\"", count);
+        }
+        count += buckets.get(bounds.length);
+        MetricsRegistry.sample(writer, name + "_bucket", prefix + "le=\"+Inf\"", count);
+        MetricsRegistry.sample(writer, name + "_sum", labels, getSum());
+        MetricsRegistry.sample(writer, name + "_count", labels, count);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.commons.metrics;
+
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+
+import scala.Option;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.dispatch.Envelope;
+import akka.dispatch.MailboxType;
+import akka.dispatch.MessageQueue;
+
+import com.typesafe.config.Config;
+
+/**
+ * An unbounded mailbox that keeps count of its messages, so that the messages waiting across the actor system and the
+ * deepest mailbox can be read when the metrics are scraped. Sending a message only touches the counter of the receiving
+ * mailbox, the live mailboxes are walked at scrape time. Selected for a dispatcher with
+ * {@code mailbox-type = "org.restcomm.connect.commons.metrics.MeteredMailbox"}.
+ */
+@ThreadSafe
+public final class MeteredMailbox implements MailboxType {
+    private static final Set<MeteredMessageQueue> queues = Collections
+            .newSetFromMap(new ConcurrentHashMap<MeteredMessageQueue, Boolean>());
+
+    static {
+        final MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.gauge("restcomm_actor_mailbox_messages", "Messages waiting in all metered mailboxes.", new Gauge() {
+            @Override
+            public double get() {
+                return messages();
+            }
+        });
+        registry.gauge("restcomm_actor_mailbox_max_depth", "Messages waiting in the deepest metered mailbox.", new Gauge() {
+            @Override
+            public double get() {
+                return maxDepth();
+            }
+        });
+    }
+
+    public MeteredMailbox(final ActorSystem.Settings settings, final Config config) {
+        super();
+    }
+
+    @Override
+    public MessageQueue create(final Option<ActorRef> owner, final Option<ActorSystem> system) {
+        final MeteredMessageQueue queue = new MeteredMessageQueue();
+        queues.add(queue);
+        return queue;
+    }
+
+    static long messages() {
+        long messages = 0;
+        for (final MeteredMessageQueue queue : queues) {
+            messages += queue.numberOfMessages();
+        }
+        return messages;
+    }
+
+    static int maxDepth() {
+        int depth = 0;
+        for (final MeteredMessageQueue queue : queues) {
+            depth = Math.max(depth, queue.numberOfMessages());
+        }
+        return depth;
+    }
+
+    private static final class MeteredMessageQueue implements MessageQueue {
+        private final Queue<Envelope> queue;
+        private final AtomicInteger size;
+
+        private MeteredMessageQueue() {
+            super();
+            this.queue = new ConcurrentLinkedQueue<Envelope>();
+            this.size = new AtomicInteger();
+        }
+
+        @Override
+        public void enqueue(final ActorRef receiver, final Envelope handle) {
+            queue.add(handle);
+            size.incrementAndGet();
+        }
+
+        @Override
+        public Envelope dequeue() {
+            final Envelope envelope = queue.poll();
+            if (envelope != null) {
+                size.decrementAndGet();
+            }
+            return envelope;
+        }
+
+        @Override
+        public int numberOfMessages() {
+            return size.get();
+        }
+
+        @Override
+        public boolean hasMessages() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public void cleanUp(final ActorRef owner, final MessageQueue deadLetters) {
+            queues.remove(this);
+            Envelope envelope = dequeue();
+            while (envelope != null) {
+                deadLetters.enqueue(owner, envelope);
+                envelope = dequeue();
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.commons.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+
+/**
+ * The metrics of this node, scraped in the Prometheus text exposition format.
+ * <p>
+ * Counters and histograms are created once, usually in a static field, and updated directly by the code that measures
+ * something, without going through an actor. State already counted elsewhere is registered as a {@link Gauge} and only
+ * read on a scrape. A metric family can have one label, each of its values being a series of its own.
+ */
+@ThreadSafe
+public final class MetricsRegistry {
+    private static final MetricsRegistry instance = new MetricsRegistry();
+
+    private final ConcurrentMap<String, Family> families;
+
+    MetricsRegistry() {
+        super();
+        this.families = new ConcurrentSkipListMap<String, Family>();
+    }
+
+    public static MetricsRegistry getInstance() {
+        return instance;
+    }
+
+    public Counter counter(final String name, final String help) {
+        return counter(name, help, null, null);
+    }
+
+    public Counter counter(final String name, final String help, final String label, final String value) {
+        return (Counter) family(name, help, "counter").get(labels(label, value), new Counter());
+    }
+
+    public Histogram histogram(final String name, final String help, final double[] bounds) {
+        return histogram(name, help, bounds, null, null);
+    }
+
+    public Histogram histogram(final String name, final String help, final double[] bounds, final String label,
+            final String value) {
+        return (Histogram) family(name, help, "histogram").get(labels(label, value), new Histogram(bounds));
+    }
+
+    /**
+     * Registers a counter kept by someone else, replacing any previous one of the same name and label.
+     */
+    public void counter(final String name, final String help, final String label, final String value, final Gauge gauge) {
+        family(name, help, "counter").put(labels(label, value), gauge);
+    }
+
+    public void gauge(final String name, final String help, final Gauge gauge) {
+        gauge(name, help, null, null, gauge);
+    }
+
+    /**
+     * Registers a gauge, replacing any previous one of the same name and label.
+     */
+    public void gauge(final String name, final String help, final String label, final String value, final Gauge gauge) {
+        family(name, help, "gauge").put(labels(label, value), gauge);
+    }
+
+    public void write(final Writer writer) throws IOException {
+        for (final Family family : families.values()) {
+            family.write(writer);
+        }
+    }
+
+    private Family family(final String name, final String help, final String type) {
+        Family family = families.get(name);
+        if (family == null) {
+            final Family created = new Family(name, help, type);
+            family = families.putIfAbsent(name, created);
+            if (family == null) {
+                family = created;
+            }
+        }
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException(name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+
+    private static String labels(final String label, final String value) {
+        if (label == null) {
+            return "";
+        }
+        final StringBuilder buffer = new StringBuilder(label).append("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                buffer.append('\\').append(c);
+            } else if (c == '\n') {
+                buffer.append("\\n");
+            } else {
+                buffer.append(c);
+            }
+        }
+        return buffer.append('"').toString();
+    }
+
+    static void sample(final Writer writer, final String name, final String labels, final double value)
+            throws IOException {
+        writer.write(name);
+        if (!labels.isEmpty()) {
+            writer.write('{');
+            writer.write(labels);
+            writer.write('}');
+        }
+        writer.write(' ');
+        if (Double.isInfinite(value)) {
+            writer.write(value > 0 ? "+Inf" : "-Inf");
+        } else if (value == (long) value) {
+            writer.write(Long.toString((long) value));
+        } else {
+            writer.write(Double.toString(value));
+        }
+        writer.write('\n');
+    }
+
+    private static final class Family {
+        private final String name;
+        private final String help;
+        private final String type;
+        private final ConcurrentMap<String, Object> series;
+
+        private Family(final String name, final String help, final String type) {
+            super();
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.series = new ConcurrentSkipListMap<String, Object>();
+        }
+
+        private Object get(final String labels, final Object created) {
+            final Object existing = series.putIfAbsent(labels, created);
+            return existing == null ? created : existing;
+        }
+
+        private void put(final String labels, final Gauge gauge) {
+            series.put(labels, gauge);
+        }
+
+        private void write(final Writer writer) throws IOException {
+            writer.write("# HELP " + name + " " + help + "\n");
+            writer.write("# TYPE " + name + " " + type + "\n");
+            for (final Map.Entry<String, Object> entry : series.entrySet()) {
+                final Object value = entry.getValue();
+                if (value instanceof Metric) {
+                    ((Metric) value).write(writer, name, entry.getKey());
+                } else {
+                    sample(writer, name, entry.getKey(), ((Gauge) value).get());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.commons.patterns;
+
+import org.restcomm.connect.commons.annotations.concurrency.Immutable;
+
+import akka.actor.ActorRef;
+import akka.dispatch.OnComplete;
+import scala.concurrent.ExecutionContext;
+import scala.concurrent.Future;
+
+/**
+ * Delivers the outcome of an ask back to the asking actor as an ordinary message, so a multi step exchange can be
+ * resumed from onReceive instead of parking the actor thread in Await.result while the other side answers.
+ */
+@Immutable
+public final class Continuation {
+    private final Object state;
+    private final Object reply;
+    private final Throwable failure;
+
+    public Continuation(final Object state, final Object reply, final Throwable failure) {
+        super();
+        this.state = state;
+        this.reply = reply;
+        this.failure = failure;
+    }
+
+    /**
+     * Tells the actor a Continuation carrying the given state once the future completes, successfully or not.
+     */
+    public static void resume(final Future<Object> future, final Object state, final ActorRef actor,
+            final ExecutionContext executor) {
+        future.onComplete(new OnComplete<Object>() {
+            @Override
+            public void onComplete(final Throwable failure, final Object reply) {
+                actor.tell(new Continuation(state, reply, failure), actor);
+            }
+        }, executor);
+    }
+
+    public Object state() {
+        return state;
+    }
+
+    public Object reply() {
+        return reply;
+    }
+
+    public Throwable failure() {
+        return failure;
+    }
+
+    public boolean succeeded() {
+        return failure == null;
+    }
+}
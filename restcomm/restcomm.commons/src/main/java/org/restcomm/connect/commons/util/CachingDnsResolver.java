@@ -0,0 +1,233 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.commons.util;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.restcomm.connect.commons.annotations.concurrency.Immutable;
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.net.InetAddresses;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Host name resolution for {@link DNSUtils} that keeps answers around, so call processing does not wait on the resolver
+ * for every INVITE and SDP it handles.
+ * <p>
+ * A resolved name is served from the cache for its time to live. Once three quarters of it have passed, the next lookup
+ * still gets the cached address while the name is resolved again in the background. If that fails the cached address
+ * is kept and the name is resolved again at the next refresh, for at most one more time to live after the address
+ * should have expired. Names that do not resolve are remembered for a shorter time. IP literals are converted in place
+ * and never cached.
+ */
+@ThreadSafe
+public final class CachingDnsResolver {
+    private final Lookup lookup;
+    private final Ticker ticker;
+    private final long negativeTtl;
+    // How old the last good resolution of a name may get while its refreshes keep failing.
+    private final long maximumStaleness;
+    private final ExecutorService refresher;
+    private final LoadingCache<String, Resolution> resolutions;
+    private final LoadingCache<String, HostStatistics> statistics;
+
+    public CachingDnsResolver(final long ttl, final long negativeTtl, final TimeUnit unit, final long maximumSize) {
+        this(new Lookup() {
+            @Override
+            public InetAddress lookup(final String host) throws UnknownHostException {
+                return InetAddress.getByName(host);
+            }
+        }, ttl, negativeTtl, unit, maximumSize, Ticker.systemTicker());
+    }
+
+    CachingDnsResolver(final Lookup lookup, final long ttl, final long negativeTtl, final TimeUnit unit,
+            final long maximumSize, final Ticker ticker) {
+        super();
+        this.lookup = lookup;
+        this.ticker = ticker;
+        this.negativeTtl = unit.toNanos(negativeTtl);
+        this.refresher = Executors.newFixedThreadPool(2, new ThreadFactoryBuilder().setDaemon(true)
+                .setNameFormat("dns-refresh-%d").build());
+        final long ttlNanos = unit.toNanos(ttl);
+        this.maximumStaleness = ttlNanos * 2;
+        this.resolutions = CacheBuilder.newBuilder().maximumSize(maximumSize).ticker(ticker)
+                .expireAfterWrite(ttlNanos, TimeUnit.NANOSECONDS)
+                .refreshAfterWrite(ttlNanos / 4 * 3, TimeUnit.NANOSECONDS)
+                .build(new CacheLoader<String, Resolution>() {
+                    @Override
+                    public Resolution load(final String host) {
+                        return resolve(host);
+                    }
+
+                    @Override
+                    public ListenableFuture<Resolution> reload(final String host, final Resolution previous) {
+                        final ListenableFutureTask<Resolution> task = ListenableFutureTask.create(new Callable<Resolution>() {
+                            @Override
+                            public Resolution call() {
+                                final Resolution resolution = resolve(host);
+                                // A failed refresh keeps serving a good address until it is too old.
+                                if (resolution.address == null && previous.address != null
+                                        && resolution.resolved - previous.resolved < maximumStaleness) {
+                                    return previous;
+                                }
+                                return resolution;
+                            }
+                        });
+                        refresher.execute(task);
+                        return task;
+                    }
+                });
+        this.statistics = CacheBuilder.newBuilder().maximumSize(maximumSize).build(new CacheLoader<String, HostStatistics>() {
+            @Override
+            public HostStatistics load(final String host) {
+                return new HostStatistics();
+            }
+        });
+    }
+
+    public InetAddress getByName(final String host) throws UnknownHostException {
+        if (host == null || isLiteral(host)) {
+            return InetAddress.getByName(host);
+        }
+        final String key = host.toLowerCase();
+        Resolution resolution = resolutions.getIfPresent(key);
+        if (resolution != null && resolution.address == null && ticker.read() - resolution.resolved >= negativeTtl) {
+            resolutions.invalidate(key);
+            resolution = null;
+        }
+        final HostStatistics counters = statistics.getUnchecked(key);
+        if (resolution != null) {
+            counters.hits.incrementAndGet();
+        } else {
+            counters.misses.incrementAndGet();
+        }
+        // Goes through the loader, which also starts a background refresh when one is due
+        resolution = resolutions.getUnchecked(key);
+        if (resolution.address == null) {
+            throw new UnknownHostException(host);
+        }
+        return resolution.address;
+    }
+
+    /**
+     * @return lookup counters and latency per host name, for the hosts this resolver has seen recently.
+     */
+    public Map<String, HostStatistics> statistics() {
+        return Collections.unmodifiableMap(statistics.asMap());
+    }
+
+    public long size() {
+        return resolutions.size();
+    }
+
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private Resolution resolve(final String host) {
+        final HostStatistics counters = statistics.getUnchecked(host);
+        final long start = ticker.read();
+        InetAddress address = null;
+        try {
+            address = lookup.lookup(host);
+        } catch (final UnknownHostException exception) {
+            counters.failures.incrementAndGet();
+        }
+        final long resolved = ticker.read();
+        counters.lookups.incrementAndGet();
+        counters.latency.addAndGet(resolved - start);
+        return new Resolution(address, resolved);
+    }
+
+    private static boolean isLiteral(final String host) {
+        if (host.startsWith("[") && host.endsWith("]")) {
+            return InetAddresses.isInetAddress(host.substring(1, host.length() - 1));
+        }
+        return InetAddresses.isInetAddress(host);
+    }
+
+    interface Lookup {
+        InetAddress lookup(String host) throws UnknownHostException;
+    }
+
+    @Immutable
+    private static final class Resolution {
+        private final InetAddress address;
+        // When the address was looked up, which is kept as is while failed refreshes keep serving it.
+        private final long resolved;
+
+        private Resolution(final InetAddress address, final long resolved) {
+            super();
+            this.address = address;
+            this.resolved = resolved;
+        }
+    }
+
+    @ThreadSafe
+    public static final class HostStatistics {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong lookups = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong latency = new AtomicLong();
+
+        private HostStatistics() {
+            super();
+        }
+
+        public long getHits() {
+            return hits.get();
+        }
+
+        public long getMisses() {
+            return misses.get();
+        }
+
+        /**
+         * @return how many times the host was actually resolved, in the foreground or in the background.
+         */
+        public long getLookups() {
+            return lookups.get();
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+
+        public long getAverageLatency(final TimeUnit unit) {
+            final long count = lookups.get();
+            return count == 0 ? 0 : unit.convert(latency.get() / count, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.restcomm.connect.commons.util;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.configuration.Configuration;
 import org.restcomm.connect.commons.util.mock.InetAddressMock;
@@ -34,12 +35,17 @@ public class DNSUtils {
 
     private static String dnsUtilImplClassName;
     private static final String DEFAULT_DNS_UTIL_CLASS_NAME = "java.net.InetAddress";
+    private static CachingDnsResolver cachingResolver;
 
     public static void initializeDnsUtilImplClassName(Configuration conf) {
         synchronized (DNSUtils.class) {
             if (!initialized) {
                 String configClass = conf.getString("dns-util[@class]");
                 dnsUtilImplClassName = (configClass == null || configClass.trim().equals("")) ? DEFAULT_DNS_UTIL_CLASS_NAME : configClass;
+                if (CachingDnsResolver.class.getName().equals(dnsUtilImplClassName)) {
+                    cachingResolver = new CachingDnsResolver(conf.getLong("dns-util[@ttl]", 60),
+                            conf.getLong("dns-util[@negative-ttl]", 10), TimeUnit.SECONDS, conf.getLong("dns-util[@cache-size]", 10000));
+                }
                 initialized = true;
             }
         }
@@ -56,10 +62,31 @@ public class DNSUtils {
         //case "org.restcomm.connect.testsuite.mocks.InetAddressMock":
             result = InetAddressMock.getByName(host);
             break;
+        case "org.restcomm.connect.commons.util.CachingDnsResolver":
+            result = cachingResolver.getByName(host);
+            break;
         default:
             result = InetAddress.getByName(host);
             break;
         }
         return result == null ? InetAddress.getByName(host): result;
     }
+
+    /**
+     * Stops the background refresh of the {@link CachingDnsResolver}, if one is in use.
+     */
+    public static void shutdown() {
+        synchronized (DNSUtils.class) {
+            if (cachingResolver != null) {
+                cachingResolver.shutdown();
+            }
+        }
+    }
+
+    /**
+     * @return the resolver in use when dns-util is set to {@link CachingDnsResolver}, null otherwise.
+     */
+    public static CachingDnsResolver getCachingResolver() {
+        return cachingResolver;
+    }
 }
\ No newline at end of file
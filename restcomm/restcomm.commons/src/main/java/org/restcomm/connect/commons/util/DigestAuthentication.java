@@ -33,18 +33,6 @@ public final class DigestAuthentication {
         super();
     }
 
-    private static String A1(final String algorithm, final String user, final String realm, final String password,
-            final String nonce, final String cnonce) {
-        if (algorithm == null || algorithm.trim().length() == 0 || algorithm.trim().equalsIgnoreCase("MD5")) {
-            return user + ":" + realm + ":" + password;
-        } else {
-            if (cnonce == null || cnonce.length() == 0) {
-                throw new NullPointerException("The cnonce parameter may not be null.");
-            }
-            return H(user + ":" + realm + ":" + password) + ":" + nonce + ":" + cnonce;
-        }
-    }
-
     private static String A2(final String method, final String uri, String body, final String qop) {
         if (qop == null || qop.trim().length() == 0 || qop.trim().equalsIgnoreCase("auth")) {
             return method + ":" + uri;
@@ -59,12 +47,36 @@ public final class DigestAuthentication {
             final String nonce, final String nc, final String cnonce, final String method, final String uri, String body,
             final String qop) {
         validate(user, realm, password, nonce, method, uri);
-        final String a1 = A1(algorithm, user, realm, password, nonce, cnonce);
+        return response(HA1(user, realm, password), algorithm, nonce, nc, cnonce, method, uri, body, qop);
+    }
+
+    /**
+     * The hash of user:realm:password. It only changes with the password so callers that authenticate the same user
+     * repeatedly can keep it and use {@link #response(String, String, String, String, String, String, String, String, String)}.
+     */
+    public static String HA1(final String user, final String realm, final String password) {
+        return H(user + ":" + realm + ":" + password);
+    }
+
+    public static String response(final String ha1, final String algorithm, final String nonce, final String nc,
+            final String cnonce, final String method, final String uri, String body, final String qop) {
+        final String a1 = A1Hash(ha1, algorithm, nonce, cnonce);
         final String a2 = A2(method, uri, body, qop);
         if (cnonce != null && qop != null && nc != null && (qop.equalsIgnoreCase("auth") || qop.equalsIgnoreCase("auth-int"))) {
-            return KD(H(a1), nonce + ":" + nc + ":" + cnonce + ":" + qop + ":" + H(a2));
+            return KD(a1, nonce + ":" + nc + ":" + cnonce + ":" + qop + ":" + H(a2));
+        } else {
+            return KD(a1, nonce + ":" + H(a2));
+        }
+    }
+
+    private static String A1Hash(final String ha1, final String algorithm, final String nonce, final String cnonce) {
+        if (algorithm == null || algorithm.trim().length() == 0 || algorithm.trim().equalsIgnoreCase("MD5")) {
+            return ha1;
         } else {
-            return KD(H(a1), nonce + ":" + H(a2));
+            if (cnonce == null || cnonce.length() == 0) {
+                throw new NullPointerException("The cnonce parameter may not be null.");
+            }
+            return H(ha1 + ":" + nonce + ":" + cnonce);
         }
     }
 
@@ -0,0 +1,113 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.commons.util;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Remembers the digest nonces handed out in authentication challenges so that a client can keep using one for as long as
+ * it is valid instead of being challenged on every request.
+ * <p>
+ * The store is bounded both in size and in time. Once a nonce expires or gets evicted the client is challenged again,
+ * with stale=true if its credentials were otherwise right, and picks up a fresh one.
+ */
+@ThreadSafe
+public final class DigestNonceCache {
+    private final Cache<String, Nonce> nonces;
+
+    public DigestNonceCache(final long maximumSize, final long lifetime, final TimeUnit unit) {
+        super();
+        this.nonces = CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterWrite(lifetime, unit).build();
+    }
+
+    /**
+     * @return a new nonce, valid from now on for the lifetime of this cache.
+     */
+    public String issue() {
+        final String nonce = UUID.randomUUID().toString().replace("-", "");
+        nonces.put(nonce, new Nonce());
+        return nonce;
+    }
+
+    /**
+     * @return the state of a nonce issued by this cache or null if it expired, got evicted or was never issued here.
+     */
+    public Nonce get(final String nonce) {
+        return nonce == null ? null : nonces.getIfPresent(nonce);
+    }
+
+    public long size() {
+        return nonces.size();
+    }
+
+    /**
+     * What is known about one issued nonce: the highest nonce count a client used it with and the HA1 of the user who
+     * authenticated with it, so that later requests with the same nonce skip the user lookup and the hashing.
+     */
+    @ThreadSafe
+    public static final class Nonce {
+        private long count;
+        private String user;
+        private String ha1;
+
+        private Nonce() {
+            super();
+            this.count = 0;
+        }
+
+        /**
+         * Records the nonce count (nc) of a request. Counts must increase, anything else is a replay.
+         *
+         * @param nc the eight hex digits nonce count of the request.
+         * @return true if the count is higher than any seen so far with this nonce.
+         */
+        public synchronized boolean count(final String nc) {
+            final long value;
+            try {
+                value = Long.parseLong(nc, 16);
+            } catch (final NumberFormatException exception) {
+                return false;
+            }
+            if (value <= count) {
+                return false;
+            }
+            count = value;
+            return true;
+        }
+
+        /**
+         * @return the HA1 remembered for this user or null if the nonce was used by nobody or by somebody else.
+         */
+        public synchronized String getHA1(final String user) {
+            return user.equals(this.user) ? ha1 : null;
+        }
+
+        public synchronized void setHA1(final String user, final String ha1) {
+            this.user = user;
+            this.ha1 = ha1;
+        }
+    }
+}
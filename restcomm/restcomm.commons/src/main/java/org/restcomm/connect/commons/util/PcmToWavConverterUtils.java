@@ -19,107 +19,93 @@
  */
 package org.restcomm.connect.commons.util;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 
 /**
  * @author ricardo.limonta@gmail.com (Ricardo Limonta)
  */
 public class PcmToWavConverterUtils {
+    private static final int HEADER_SIZE = 44;
+    private static final int BUFFER_SIZE = 8192;
+    private static final int SAMPLE_RATE = 8000;
+    private static final short CHANNELS = 1;
+    private static final short BITS_PER_SAMPLE = 16;
 
     public void rawToWave(final File rawFile, final File waveFile) throws IOException {
-
-        byte[] rawData = new byte[(int) rawFile.length()];
-        DataInputStream input = null;
-        try {
-            input = new DataInputStream(new FileInputStream(rawFile));
-            input.read(rawData);
-        } finally {
-            if (input != null) {
-                input.close();
-            }
-        }
-
-        DataOutputStream output = null;
+        final InputStream input = new FileInputStream(rawFile);
         try {
-            output = new DataOutputStream(new FileOutputStream(waveFile));
-            // WAVE header
-            writeString(output, "RIFF"); // chunk id
-            writeInt(output, 36 + rawData.length); // chunk size
-            writeString(output, "WAVE"); // format
-            writeString(output, "fmt "); // subchunk 1 id
-            writeInt(output, 16); // subchunk 1 size
-            writeShort(output, (short) 1); // audio format (1 = PCM)
-            writeShort(output, (short) 1); // number of channels
-            writeInt(output, 8000); // sample rate
-            writeInt(output, 8 * 2); // byte rate
-            writeShort(output, (short) 2); // block align
-            writeShort(output, (short) 16); // bits per sample
-            writeString(output, "data"); // subchunk 2 id
-            writeInt(output, rawData.length); // subchunk 2 size
-            // Audio data (conversion big endian -> little endian)
-            short[] shorts = new short[rawData.length / 2];
-            ByteBuffer.wrap(rawData).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(shorts);
-            ByteBuffer bytes = ByteBuffer.allocate(shorts.length * 2);
-            for (short s : shorts) {
-                bytes.putShort(s);
-            }
-
-            output.write(fullyReadFileToBytes(rawFile));
+            rawToWave(input, waveFile);
         } finally {
-            if (output != null) {
-                output.close();
-            }
+            input.close();
         }
     }
 
-    byte[] fullyReadFileToBytes(File f) throws IOException {
-        int size = (int) f.length();
-        byte[] bytes = new byte[size];
-        byte[] tmpBuff = new byte[size];
-        FileInputStream fis = new FileInputStream(f);
+    /**
+     * Streams 16 bit little endian mono PCM at 8 kHz into a WAVE file in a single pass. Space for the
+     * header is left first and filled in once the length of the audio data is known, so only one small
+     * buffer is held whatever the length of the audio.
+     *
+     * @return the number of audio bytes written
+     */
+    public long rawToWave(final InputStream raw, final File waveFile) throws IOException {
+        final RandomAccessFile file = new RandomAccessFile(waveFile, "rw");
         try {
-
-            int read = fis.read(bytes, 0, size);
-            if (read < size) {
-                int remain = size - read;
-                while (remain > 0) {
-                    read = fis.read(tmpBuff, 0, remain);
-                    System.arraycopy(tmpBuff, 0, bytes, size - remain, read);
-                    remain -= read;
+            final FileChannel channel = file.getChannel();
+            channel.truncate(0);
+            channel.position(HEADER_SIZE);
+            final byte[] chunk = new byte[BUFFER_SIZE];
+            final ByteBuffer buffer = ByteBuffer.wrap(chunk);
+            long length = 0;
+            int read;
+            while ((read = raw.read(chunk)) != -1) {
+                buffer.clear().limit(read);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
                 }
+                length += read;
             }
-        } catch (IOException e) {
-            throw e;
+            final ByteBuffer header = header(length);
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            return length;
         } finally {
-            fis.close();
+            file.close();
         }
-
-        return bytes;
-    }
-
-    private void writeInt(final DataOutputStream output, final int value) throws IOException {
-        output.write(value >> 0);
-        output.write(value >> 8);
-        output.write(value >> 16);
-        output.write(value >> 24);
     }
 
-    private void writeShort(final DataOutputStream output, final short value) throws IOException {
-        output.write(value >> 0);
-        output.write(value >> 8);
+    private ByteBuffer header(final long length) {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(ascii("RIFF")); // chunk id
+        header.putInt((int) (36 + length)); // chunk size
+        header.put(ascii("WAVE")); // format
+        header.put(ascii("fmt ")); // subchunk 1 id
+        header.putInt(16); // subchunk 1 size
+        header.putShort((short) 1); // audio format (1 = PCM)
+        header.putShort(CHANNELS); // number of channels
+        header.putInt(SAMPLE_RATE); // sample rate
+        header.putInt(SAMPLE_RATE * CHANNELS * BITS_PER_SAMPLE / 8); // byte rate
+        header.putShort((short) (CHANNELS * BITS_PER_SAMPLE / 8)); // block align
+        header.putShort(BITS_PER_SAMPLE); // bits per sample
+        header.put(ascii("data")); // subchunk 2 id
+        header.putInt((int) length); // subchunk 2 size
+        header.flip();
+        return header;
     }
 
-    private void writeString(final DataOutputStream output, final String value) throws IOException {
+    private byte[] ascii(final String value) {
+        final byte[] bytes = new byte[value.length()];
         for (int i = 0; i < value.length(); i++) {
-            output.write(value.charAt(i));
+            bytes[i] = (byte) value.charAt(i);
         }
+        return bytes;
     }
 
 }
@@ -50,6 +50,46 @@ public final class StringUtils {
         return numberPattern.matcher(text).matches();
     }
 
+    /**
+     * Escapes the ampersands that do not start a character or entity reference, so that loosely written documents
+     * can still be read by an XML parser. The text is copied only when there is something to escape.
+     */
+    public static String escapeAmpersands(final String text) {
+        StringBuilder buffer = null;
+        int copied = 0;
+        for (int index = text.indexOf('&'); index >= 0; index = text.indexOf('&', index + 1)) {
+            if (!isReference(text, index)) {
+                if (buffer == null) {
+                    buffer = new StringBuilder(text.length() + 16);
+                }
+                buffer.append(text, copied, index + 1).append("amp;");
+                copied = index + 1;
+            }
+        }
+        if (buffer == null) {
+            return text;
+        }
+        return buffer.append(text, copied, text.length()).toString();
+    }
+
+    // A reference is one character other than ';' followed by word characters up to a ';'.
+    private static boolean isReference(final String text, final int ampersand) {
+        int index = ampersand + 1;
+        if (index >= text.length() || text.charAt(index) == ';') {
+            return index < text.length();
+        }
+        for (index++; index < text.length(); index++) {
+            final char character = text.charAt(index);
+            if (character == ';') {
+                return true;
+            } else if (!(character >= 'a' && character <= 'z') && !(character >= 'A' && character <= 'Z')
+                    && !(character >= '0' && character <= '9') && character != '_') {
+                return false;
+            }
+        }
+        return false;
+    }
+
     public static String toString(final InputStream input) throws IOException {
         final InputStreamReader reader = new InputStreamReader(input);
         final StringWriter writer = new StringWriter();
@@ -0,0 +1,114 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.commons.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.restcomm.connect.commons.annotations.concurrency.NotThreadSafe;
+
+/**
+ * A hashed timer wheel: deadlines are hashed into a ring of slots by tick, and advancing the wheel only looks at the
+ * slots of the ticks that went by. When the ring covers the usual delay each timer is looked at once, so the cost of
+ * a tick is proportional to the timers falling due rather than to all the timers held.
+ *
+ * The wheel keeps no clock of its own; the owner passes the current time in milliseconds, which keeps it usable from
+ * an actor driven by a scheduled tick message.
+ */
+@NotThreadSafe
+public final class TimerWheel<K> {
+    private final long tickMillis;
+    private final long start;
+    private final List<Map<K, Long>> slots;
+    // Deadline tick of every scheduled key.
+    private final Map<K, Long> deadlines;
+    private long tick;
+
+    public TimerWheel(final long tickDuration, final TimeUnit unit, final int slots, final long now) {
+        super();
+        this.tickMillis = Math.max(1, unit.toMillis(tickDuration));
+        this.start = now;
+        this.slots = new ArrayList<Map<K, Long>>(slots);
+        for (int i = 0; i < Math.max(1, slots); i++) {
+            this.slots.add(new LinkedHashMap<K, Long>());
+        }
+        this.deadlines = new HashMap<K, Long>();
+        this.tick = 0;
+    }
+
+    /**
+     * Schedules the key to fall due at the given time, replacing any deadline it had. Deadlines in the past fall due on
+     * the next tick.
+     */
+    public void schedule(final K key, final long deadline) {
+        cancel(key);
+        final long ticks = Math.max(tick + 1, (deadline - start + tickMillis - 1) / tickMillis);
+        deadlines.put(key, ticks);
+        slot(ticks).put(key, ticks);
+    }
+
+    public boolean cancel(final K key) {
+        final Long ticks = deadlines.remove(key);
+        if (ticks == null) {
+            return false;
+        }
+        slot(ticks).remove(key);
+        return true;
+    }
+
+    public boolean contains(final K key) {
+        return deadlines.containsKey(key);
+    }
+
+    public int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Moves the wheel to the given time and returns, unscheduled, the keys that fell due.
+     */
+    public List<K> advance(final long now) {
+        final long target = (now - start) / tickMillis;
+        final List<K> due = new ArrayList<K>();
+        final long visits = Math.min(target - tick, slots.size());
+        for (long i = 1; i <= visits; i++) {
+            final Iterator<Map.Entry<K, Long>> entries = slot(tick + i).entrySet().iterator();
+            while (entries.hasNext()) {
+                final Map.Entry<K, Long> entry = entries.next();
+                if (entry.getValue() <= target) {
+                    entries.remove();
+                    deadlines.remove(entry.getKey());
+                    due.add(entry.getKey());
+                }
+            }
+        }
+        tick = Math.max(tick, target);
+        return due;
+    }
+
+    private Map<K, Long> slot(final long ticks) {
+        return slots.get((int) (ticks % slots.size()));
+    }
+}
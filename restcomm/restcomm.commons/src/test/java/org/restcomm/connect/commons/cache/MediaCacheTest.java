@@ -0,0 +1,175 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.commons.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+public class MediaCacheTest {
+    private File directory;
+
+    @Before
+    public void before() throws IOException {
+        directory = Files.createTempDirectory("media-cache").toFile();
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    private static Callable<File> writer(final File file, final int size, final AtomicInteger calls, final CountDownLatch release) {
+        return new Callable<File>() {
+            @Override
+            public File call() throws Exception {
+                calls.incrementAndGet();
+                if (release != null) {
+                    release.await(10, TimeUnit.SECONDS);
+                }
+                FileUtils.writeByteArrayToFile(file, new byte[size]);
+                return file;
+            }
+        };
+    }
+
+    @Test
+    public void concurrentRequestsShareOneFetch() throws Exception {
+        final MediaCache cache = new MediaCache(0);
+        final File file = new File(directory, "prompt.wav");
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final ListenableFuture<File> first = cache.get(file, writer(file, 100, calls, release));
+        final ListenableFuture<File> second = cache.get(file, writer(file, 100, calls, release));
+        assertSame(first, second);
+        release.countDown();
+        assertEquals(file, first.get(10, TimeUnit.SECONDS));
+        assertEquals(file, cache.get(file, writer(file, 100, calls, null)).get());
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+        // The request that joined the fetch is counted once the fetch has completed its listeners.
+        for (int i = 0; i < 100 && cache.getBytesSaved() < 200; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(200, cache.getBytesSaved());
+        assertEquals(100, cache.getBytes());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedFiles() throws Exception {
+        final MediaCache cache = new MediaCache(250);
+        final AtomicInteger calls = new AtomicInteger();
+        final File a = new File(directory, "a.wav");
+        final File b = new File(directory, "b.wav");
+        final File c = new File(directory, "c.wav");
+        cache.getNow(a, writer(a, 100, calls, null)).get();
+        cache.getNow(b, writer(b, 100, calls, null)).get();
+        // a is now more recently used than b.
+        assertTrue(cache.contains(a));
+        cache.getNow(c, writer(c, 100, calls, null)).get();
+        assertEquals(200, cache.getBytes());
+        assertEquals(1, cache.getEvictions());
+        assertFalse(b.exists());
+        assertTrue(a.exists());
+        assertTrue(c.exists());
+    }
+
+    @Test
+    public void boundsTheConcurrentFetches() throws Exception {
+        final MediaCache cache = new MediaCache(0);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(MediaCache.FETCHERS);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<ListenableFuture<File>> futures = new ArrayList<ListenableFuture<File>>();
+        for (int count = 0; count < MediaCache.FETCHERS * 2; count++) {
+            final File file = new File(directory, count + ".wav");
+            futures.add(cache.get(file, new Callable<File>() {
+                @Override
+                public File call() throws Exception {
+                    synchronized (peak) {
+                        peak.set(Math.max(peak.get(), running.incrementAndGet()));
+                    }
+                    started.countDown();
+                    release.await(10, TimeUnit.SECONDS);
+                    running.decrementAndGet();
+                    FileUtils.writeByteArrayToFile(file, new byte[1]);
+                    return file;
+                }
+            }));
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        release.countDown();
+        for (final ListenableFuture<File> future : futures) {
+            assertTrue(future.get(10, TimeUnit.SECONDS).exists());
+        }
+        assertEquals(MediaCache.FETCHERS, peak.get());
+    }
+
+    @Test
+    public void readsExistingFilesOnce() throws Exception {
+        final File existing = new File(directory, "existing.wav");
+        FileUtils.writeByteArrayToFile(existing, new byte[10]);
+        final MediaCache cache = new MediaCache(0);
+        assertTrue(cache.contains(existing));
+        assertFalse(cache.contains(new File(directory, "missing.wav")));
+        assertEquals(10, cache.getBytes());
+        assertEquals(0.5, cache.getHitRate(), 0.001);
+    }
+
+    @Test
+    public void filesDeletedFromTheDirectoryAreFetchedAgain() throws Exception {
+        final MediaCache cache = new MediaCache(0);
+        final AtomicInteger calls = new AtomicInteger();
+        final File file = new File(directory, "tts.wav");
+        cache.getNow(file, writer(file, 100, calls, null)).get();
+        assertTrue(cache.contains(file));
+        assertTrue(file.delete());
+        assertFalse(cache.contains(file));
+        assertEquals(0, cache.getFiles());
+        assertEquals(0, cache.getBytes());
+        assertTrue(cache.getNow(file, writer(file, 100, calls, null)).get().exists());
+        assertEquals(2, calls.get());
+        // Also when the index still held it.
+        assertTrue(file.delete());
+        assertTrue(cache.getNow(file, writer(file, 100, calls, null)).get().exists());
+        assertEquals(3, calls.get());
+        assertEquals(100, cache.getBytes());
+    }
+}
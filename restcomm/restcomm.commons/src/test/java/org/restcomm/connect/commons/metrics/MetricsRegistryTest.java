@@ -0,0 +1,104 @@
+package org.restcomm.connect.commons.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.actor.UntypedActor;
+
+import com.typesafe.config.ConfigFactory;
+
+public class MetricsRegistryTest {
+    @Test
+    public void testTextFormat() throws Exception {
+        final MetricsRegistry registry = new MetricsRegistry();
+        final Counter calls = registry.counter("test_calls_total", "Calls.", "direction", "inbound");
+        calls.inc();
+        calls.inc(2);
+        assertSame(calls, registry.counter("test_calls_total", "Calls.", "direction", "inbound"));
+        registry.gauge("test_live", "Live \"calls\".", new Gauge() {
+            @Override
+            public double get() {
+                return 1.5;
+            }
+        });
+        final Histogram latency = registry.histogram("test_latency_seconds", "Latency.", new double[] { 0.1, 1 });
+        latency.observe(50, TimeUnit.MILLISECONDS);
+        latency.observe(500, TimeUnit.MILLISECONDS);
+        latency.observe(5, TimeUnit.SECONDS);
+        assertEquals(3, latency.getCount());
+        assertEquals(5.55, latency.getSum(), 0.0001);
+        final StringWriter writer = new StringWriter();
+        registry.write(writer);
+        final String expected = "# HELP test_calls_total Calls.\n"
+                + "# TYPE test_calls_total counter\n"
+                + "test_calls_total{direction=\"inbound\"} 3\n"
+                + "# HELP test_latency_seconds Latency.\n"
+                + "# TYPE test_latency_seconds histogram\n"
+                + "test_latency_seconds_bucket{le=\"0.1\"} 1\n"
+                + "test_latency_seconds_bucket{le=\"1.0\"} 2\n"
+                + "test_latency_seconds_bucket{le=\"+Inf\"} 3\n"
+                + "test_latency_seconds_sum 5.55\n"
+                + "test_latency_seconds_count 3\n"
+                + "# HELP test_live Live \"calls\".\n"
+                + "# TYPE test_live gauge\n"
+                + "test_live 1.5\n";
+        assertEquals(expected, writer.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTypeMismatch() {
+        final MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("test_metric", "A counter.");
+        registry.histogram("test_metric", "Not a counter.", Histogram.LATENCY_SECONDS);
+    }
+
+    @Test
+    public void testMeteredMailbox() throws Exception {
+        final ActorSystem system = ActorSystem.create("metered", ConfigFactory.parseString(
+                "akka.actor.default-dispatcher.mailbox-type = \"" + MeteredMailbox.class.getName() + "\"")
+                .withFallback(ConfigFactory.load()));
+        try {
+            final ActorRef actor = system.actorOf(new Props(Sink.class));
+            // The first message holds the actor until the others are counted.
+            for (int i = 0; i < 10; i++) {
+                actor.tell("message", null);
+            }
+            for (int i = 0; i < 100 && MeteredMailbox.maxDepth() < 9; i++) {
+                Thread.sleep(10);
+            }
+            assertTrue(MeteredMailbox.maxDepth() >= 9);
+            assertTrue(MeteredMailbox.messages() >= 9);
+            Sink.release.countDown();
+            for (int i = 0; i < 100 && MeteredMailbox.messages() > 0; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, MeteredMailbox.messages());
+        } finally {
+            system.shutdown();
+        }
+    }
+
+    private static final class Sink extends UntypedActor {
+        private static final CountDownLatch release = new CountDownLatch(1);
+
+        @SuppressWarnings("unused")
+        public Sink() {
+            super();
+        }
+
+        @Override
+        public void onReceive(final Object message) throws Exception {
+            release.await(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.restcomm.connect.commons.patterns;
+
+import static akka.pattern.Patterns.ask;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.restcomm.connect.commons.faulttolerance.RestcommUntypedActor;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.pattern.AskTimeoutException;
+import akka.testkit.JavaTestKit;
+import akka.util.Timeout;
+import scala.concurrent.duration.Duration;
+
+public class ContinuationTest {
+    private static final int PINGS = 1000;
+    private static final long ASK_TIMEOUT_MILLIS = 2000;
+
+    private static ActorSystem system;
+
+    @BeforeClass
+    public static void before() {
+        system = ActorSystem.create();
+    }
+
+    @AfterClass
+    public static void after() {
+        system.shutdown();
+    }
+
+    @Test
+    public void testThroughputWhileTargetIsUnresponsive() {
+        new JavaTestKit(system) {
+            {
+                final ActorRef client = getRef();
+                final ActorRef switchboard = system.actorOf(new Props(Switchboard.class));
+                final ActorRef target = system.actorOf(new Props(Unresponsive.class));
+                // Start a transfer towards a target that never answers.
+                switchboard.tell(new Transfer(target), client);
+                // Every other request must still be served long before the transfer times out.
+                final long start = System.nanoTime();
+                for (int i = 0; i < PINGS; i++) {
+                    switchboard.tell("ping", client);
+                }
+                for (int i = 0; i < PINGS; i++) {
+                    expectMsgEquals(duration("1 second"), "pong");
+                }
+                assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < ASK_TIMEOUT_MILLIS);
+                // The transfer then resumes with the ask timeout.
+                final Continuation continuation = expectMsgClass(duration("5 seconds"), Continuation.class);
+                assertFalse(continuation.succeeded());
+                assertTrue(continuation.failure() instanceof AskTimeoutException);
+                assertEquals(target, continuation.state());
+            }
+        };
+    }
+
+    @Test
+    public void testReplyIsDeliveredWithState() {
+        new JavaTestKit(system) {
+            {
+                final ActorRef client = getRef();
+                final ActorRef switchboard = system.actorOf(new Props(Switchboard.class));
+                final ActorRef target = system.actorOf(new Props(Echo.class));
+                switchboard.tell(new Transfer(target), client);
+                final Continuation continuation = expectMsgClass(Continuation.class);
+                assertTrue(continuation.succeeded());
+                assertEquals(target, continuation.state());
+                assertTrue(continuation.reply() instanceof Transfer);
+            }
+        };
+    }
+
+    private static final class Transfer {
+        private final ActorRef target;
+
+        private Transfer(final ActorRef target) {
+            super();
+            this.target = target;
+        }
+    }
+
+    // Asks the target on every transfer and keeps serving pings until the answer comes back.
+    private static final class Switchboard extends RestcommUntypedActor {
+        private ActorRef client;
+
+        @SuppressWarnings("unused")
+        public Switchboard() {
+            super();
+        }
+
+        @Override
+        public void onReceive(final Object message) throws Exception {
+            final Class<?> klass = message.getClass();
+            if (Transfer.class.equals(klass)) {
+                client = sender();
+                final ActorRef target = ((Transfer) message).target;
+                final Timeout expires = new Timeout(Duration.create(ASK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+                Continuation.resume(ask(target, message, expires), target, self(), getContext().dispatcher());
+            } else if (Continuation.class.equals(klass)) {
+                client.tell(message, self());
+            } else if ("ping".equals(message)) {
+                sender().tell("pong", self());
+            }
+        }
+    }
+
+    private static final class Unresponsive extends RestcommUntypedActor {
+        @SuppressWarnings("unused")
+        public Unresponsive() {
+            super();
+        }
+
+        @Override
+        public void onReceive(final Object message) throws Exception {
+        }
+    }
+
+    private static final class Echo extends RestcommUntypedActor {
+        @SuppressWarnings("unused")
+        public Echo() {
+            super();
+        }
+
+        @Override
+        public void onReceive(final Object message) throws Exception {
+            sender().tell(message, self());
+        }
+    }
+}
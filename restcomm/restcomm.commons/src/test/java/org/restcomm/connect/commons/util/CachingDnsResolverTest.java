@@ -0,0 +1,213 @@
+package org.restcomm.connect.commons.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+public class CachingDnsResolverTest {
+    private FakeTicker ticker;
+    private FakeLookup lookup;
+    private CachingDnsResolver resolver;
+
+    @Before
+    public void before() {
+        ticker = new FakeTicker();
+        lookup = new FakeLookup();
+        resolver = new CachingDnsResolver(lookup, 60, 10, TimeUnit.SECONDS, 100, ticker);
+    }
+
+    @After
+    public void after() {
+        resolver.shutdown();
+    }
+
+    @Test
+    public void testAnswersAreCached() throws Exception {
+        lookup.put("sip.example.com", "10.0.0.1");
+        assertEquals("10.0.0.1", resolver.getByName("sip.example.com").getHostAddress());
+        assertEquals("10.0.0.1", resolver.getByName("SIP.example.com").getHostAddress());
+        assertEquals(1, lookup.count());
+        final CachingDnsResolver.HostStatistics statistics = resolver.statistics().get("sip.example.com");
+        assertEquals(1, statistics.getHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(1, statistics.getLookups());
+    }
+
+    @Test
+    public void testLiteralsAreNotLookedUp() throws Exception {
+        assertEquals("192.168.1.10", resolver.getByName("192.168.1.10").getHostAddress());
+        assertEquals(InetAddress.getByName("::1"), resolver.getByName("[::1]"));
+        assertEquals(0, lookup.count());
+        assertEquals(0, resolver.size());
+    }
+
+    @Test
+    public void testFailuresAreCachedForTheNegativeTtl() throws Exception {
+        assertUnknown("missing.example.com");
+        assertUnknown("missing.example.com");
+        assertEquals(1, lookup.count());
+        ticker.advance(11, TimeUnit.SECONDS);
+        lookup.put("missing.example.com", "10.0.0.2");
+        assertEquals("10.0.0.2", resolver.getByName("missing.example.com").getHostAddress());
+        assertEquals(2, lookup.count());
+        assertEquals(1, resolver.statistics().get("missing.example.com").getFailures());
+    }
+
+    @Test
+    public void testRefreshesInTheBackgroundBeforeExpiry() throws Exception {
+        lookup.put("media.example.com", "10.0.0.3");
+        resolver.getByName("media.example.com");
+        ticker.advance(50, TimeUnit.SECONDS);
+        lookup.put("media.example.com", "10.0.0.4");
+        lookup.hold();
+        // Still served from the cache while the refresh runs
+        assertEquals("10.0.0.3", resolver.getByName("media.example.com").getHostAddress());
+        lookup.release();
+        awaitLookups(2);
+        assertEquals("10.0.0.4", resolver.getByName("media.example.com").getHostAddress());
+    }
+
+    @Test
+    public void testFailedRefreshKeepsTheCachedAddress() throws Exception {
+        lookup.put("flaky.example.com", "10.0.0.7");
+        resolver.getByName("flaky.example.com");
+        ticker.advance(50, TimeUnit.SECONDS);
+        lookup.remove("flaky.example.com");
+        resolver.getByName("flaky.example.com");
+        for (int i = 0; i < 100 && lookup.count() < 2; i++) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        assertEquals(2, lookup.count());
+        assertEquals("10.0.0.7", resolver.getByName("flaky.example.com").getHostAddress());
+        // Retried at the next refresh.
+        lookup.put("flaky.example.com", "10.0.0.8");
+        ticker.advance(50, TimeUnit.SECONDS);
+        resolver.getByName("flaky.example.com");
+        for (int i = 0; i < 100 && lookup.count() < 3; i++) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        assertEquals("10.0.0.8", resolver.getByName("flaky.example.com").getHostAddress());
+    }
+
+    @Test
+    public void testStaleAddressesAreDroppedOnceTooOld() throws Exception {
+        lookup.put("gone.example.com", "10.0.0.9");
+        resolver.getByName("gone.example.com");
+        lookup.remove("gone.example.com");
+        // Every refresh fails, the address is kept up to one extra time to live after it expired.
+        for (int refresh = 2; refresh <= 3; refresh++) {
+            ticker.advance(50, TimeUnit.SECONDS);
+            resolver.getByName("gone.example.com");
+            awaitLookups(refresh);
+            assertEquals("10.0.0.9", resolver.getByName("gone.example.com").getHostAddress());
+        }
+        ticker.advance(50, TimeUnit.SECONDS);
+        try {
+            resolver.getByName("gone.example.com");
+        } catch (final UnknownHostException exception) {
+            // The refresh was quick enough to answer this lookup already.
+        }
+        awaitLookups(4);
+        assertUnknown("gone.example.com");
+    }
+
+    @Test
+    public void testExpiredAnswersAreResolvedAgain() throws Exception {
+        lookup.put("old.example.com", "10.0.0.5");
+        resolver.getByName("old.example.com");
+        ticker.advance(61, TimeUnit.SECONDS);
+        lookup.put("old.example.com", "10.0.0.6");
+        assertEquals("10.0.0.6", resolver.getByName("old.example.com").getHostAddress());
+        assertEquals(2, lookup.count());
+    }
+
+    private void awaitLookups(final int count) throws InterruptedException {
+        for (int i = 0; i < 100 && lookup.count() < count; i++) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        assertEquals(count, lookup.count());
+    }
+
+    private void assertUnknown(final String host) {
+        try {
+            resolver.getByName(host);
+            fail("Expected an UnknownHostException for " + host);
+        } catch (final UnknownHostException exception) {
+            assertEquals(host, exception.getMessage());
+        }
+    }
+
+    private static final class FakeLookup implements CachingDnsResolver.Lookup {
+        private final ConcurrentHashMap<String, String> hosts = new ConcurrentHashMap<String, String>();
+        private final AtomicInteger count = new AtomicInteger();
+        private volatile CountDownLatch gate;
+
+        private void put(final String host, final String address) {
+            hosts.put(host, address);
+        }
+
+        private void remove(final String host) {
+            hosts.remove(host);
+        }
+
+        private int count() {
+            return count.get();
+        }
+
+        // Lookups wait until released.
+        private void hold() {
+            gate = new CountDownLatch(1);
+        }
+
+        private void release() {
+            gate.countDown();
+        }
+
+        @Override
+        public InetAddress lookup(final String host) throws UnknownHostException {
+            final CountDownLatch gate = this.gate;
+            if (gate != null) {
+                try {
+                    gate.await(10, TimeUnit.SECONDS);
+                } catch (final InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            count.incrementAndGet();
+            final String address = hosts.get(host);
+            if (address == null) {
+                throw new UnknownHostException(host);
+            }
+            return InetAddress.getByAddress(host, InetAddress.getByName(address).getAddress());
+        }
+    }
+
+    private static final class FakeTicker extends Ticker {
+        private final AtomicLong nanos = new AtomicLong();
+
+        private void advance(final long time, final TimeUnit unit) {
+            nanos.addAndGet(unit.toNanos(time));
+        }
+
+        @Override
+        public long read() {
+            return nanos.get();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.restcomm.connect.commons.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class DigestNonceCacheTest {
+
+    @Test
+    public void testOnlyIssuedNoncesAreKnown() {
+        final DigestNonceCache cache = new DigestNonceCache(10, 1, TimeUnit.MINUTES);
+        final String nonce = cache.issue();
+        assertNotNull(cache.get(nonce));
+        assertNull(cache.get("dcd98b7102dd2f0e8b11d0f600bfb0c093"));
+        assertNull(cache.get(null));
+    }
+
+    @Test
+    public void testNonceCountMustIncrease() {
+        final DigestNonceCache cache = new DigestNonceCache(10, 1, TimeUnit.MINUTES);
+        final DigestNonceCache.Nonce nonce = cache.get(cache.issue());
+        assertTrue(nonce.count("00000001"));
+        assertFalse(nonce.count("00000001"));
+        assertTrue(nonce.count("0000000a"));
+        assertFalse(nonce.count("00000009"));
+        assertFalse(nonce.count(null));
+    }
+
+    @Test
+    public void testHA1IsBoundToOneUser() {
+        final DigestNonceCache cache = new DigestNonceCache(10, 1, TimeUnit.MINUTES);
+        final DigestNonceCache.Nonce nonce = cache.get(cache.issue());
+        assertNull(nonce.getHA1("alice"));
+        nonce.setHA1("alice", "939e7578ed9e3c518a452acee763bce9");
+        assertEquals("939e7578ed9e3c518a452acee763bce9", nonce.getHA1("alice"));
+        assertNull(nonce.getHA1("bob"));
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        final DigestNonceCache cache = new DigestNonceCache(1, 1, TimeUnit.MINUTES);
+        final String first = cache.issue();
+        final String second = cache.issue();
+        assertNull(cache.get(first));
+        assertNotNull(cache.get(second));
+    }
+
+    @Test
+    public void testResponseFromHA1MatchesRfc2617() {
+        // The example exchange from section 3.5 of RFC 2617.
+        final String ha1 = DigestAuthentication.HA1("Mufasa", "testrealm@host.com", "Circle Of Life");
+        assertEquals("6629fae49393a05397450978507c4ef1", DigestAuthentication.response(ha1, null,
+                "dcd98b7102dd2f0e8b11d0f600bfb0c093", "00000001", "0a4f113b", "GET", "/dir/index.html", null, "auth"));
+        assertEquals("6629fae49393a05397450978507c4ef1", DigestAuthentication.response(null, "Mufasa",
+                "testrealm@host.com", "Circle Of Life", "dcd98b7102dd2f0e8b11d0f600bfb0c093", "00000001", "0a4f113b", "GET",
+                "/dir/index.html", null, "auth"));
+    }
+}
@@ -0,0 +1,71 @@
+package org.restcomm.connect.commons.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PcmToWavConverterUtilsTest {
+    private File wave;
+
+    @Before
+    public void before() throws Exception {
+        wave = File.createTempFile("prompt", ".wav");
+    }
+
+    @After
+    public void after() {
+        wave.delete();
+    }
+
+    @Test
+    public void testStreamsAudioAfterHeader() throws Exception {
+        final byte[] pcm = new byte[20001];
+        for (int i = 0; i < pcm.length; i++) {
+            pcm[i] = (byte) i;
+        }
+        assertEquals(pcm.length, new PcmToWavConverterUtils().rawToWave(new ByteArrayInputStream(pcm), wave));
+        assertEquals(44 + pcm.length, wave.length());
+
+        final byte[] contents = read(wave);
+        final ByteBuffer header = ByteBuffer.wrap(contents, 0, 44).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals("RIFF", new String(contents, 0, 4, "US-ASCII"));
+        assertEquals(36 + pcm.length, header.getInt(4));
+        assertEquals("WAVEfmt ", new String(contents, 8, 8, "US-ASCII"));
+        assertEquals(8000, header.getInt(24));
+        assertEquals(16000, header.getInt(28));
+        assertEquals(16, header.getShort(34));
+        assertEquals("data", new String(contents, 36, 4, "US-ASCII"));
+        assertEquals(pcm.length, header.getInt(40));
+        final byte[] data = new byte[pcm.length];
+        System.arraycopy(contents, 44, data, 0, data.length);
+        assertArrayEquals(pcm, data);
+    }
+
+    @Test
+    public void testReplacesPreviousContents() throws Exception {
+        final PcmToWavConverterUtils converter = new PcmToWavConverterUtils();
+        converter.rawToWave(new ByteArrayInputStream(new byte[5000]), wave);
+        converter.rawToWave(new ByteArrayInputStream(new byte[10]), wave);
+        assertEquals(54, wave.length());
+    }
+
+    private byte[] read(final File file) throws Exception {
+        final RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            final byte[] contents = new byte[(int) input.length()];
+            input.readFully(contents);
+            return contents;
+        } finally {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.restcomm.connect.commons.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class TimerWheelTest {
+    @Test
+    public void testKeysFallDueAtTheirTick() {
+        final TimerWheel<String> wheel = new TimerWheel<String>(1, TimeUnit.SECONDS, 8, 0);
+        wheel.schedule("a", 2000);
+        wheel.schedule("b", 2500);
+        wheel.schedule("c", 5000);
+        assertTrue(wheel.advance(1999).isEmpty());
+        assertEquals(Arrays.asList("a"), wheel.advance(2000));
+        assertEquals(Arrays.asList("b"), wheel.advance(3000));
+        assertTrue(wheel.advance(4000).isEmpty());
+        assertEquals(Arrays.asList("c"), wheel.advance(5000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testDeadlinesBeyondOneTurnWaitForTheirRound() {
+        final TimerWheel<String> wheel = new TimerWheel<String>(1, TimeUnit.SECONDS, 4, 0);
+        wheel.schedule("near", 1000);
+        wheel.schedule("far", 9000);
+        assertEquals(Arrays.asList("near"), wheel.advance(1000));
+        assertTrue(wheel.advance(5000).isEmpty());
+        assertTrue(wheel.contains("far"));
+        assertEquals(Arrays.asList("far"), wheel.advance(9000));
+    }
+
+    @Test
+    public void testLongPausesCollectEverythingDue() {
+        final TimerWheel<Integer> wheel = new TimerWheel<Integer>(1, TimeUnit.SECONDS, 4, 0);
+        for (int i = 1; i <= 10; i++) {
+            wheel.schedule(i, i * 1000);
+        }
+        assertEquals(new HashSet<Integer>(Arrays.asList(1, 2, 3, 4, 5, 6, 7)), new HashSet<Integer>(wheel.advance(7000)));
+        assertEquals(3, wheel.size());
+    }
+
+    @Test
+    public void testRescheduleAndCancel() {
+        final TimerWheel<String> wheel = new TimerWheel<String>(1, TimeUnit.SECONDS, 8, 0);
+        wheel.schedule("a", 1000);
+        wheel.schedule("a", 3000);
+        wheel.schedule("b", 2000);
+        assertTrue(wheel.cancel("b"));
+        assertFalse(wheel.cancel("b"));
+        assertTrue(wheel.advance(2000).isEmpty());
+        assertEquals(Arrays.asList("a"), wheel.advance(3000));
+        // A deadline already passed falls due on the next tick.
+        wheel.schedule("late", 0);
+        assertEquals(Arrays.asList("late"), wheel.advance(4000));
+    }
+}
@@ -20,9 +20,11 @@
 package org.restcomm.connect.dao;
 
 import java.text.ParseException;
+import java.util.Collection;
 import java.util.List;
 
 import org.joda.time.DateTime;
+import org.restcomm.connect.dao.common.RecordHandler;
 import org.restcomm.connect.dao.entities.CallDetailRecordFilter;
 import org.restcomm.connect.dao.entities.CallDetailRecord;
 import org.restcomm.connect.commons.dao.Sid;
@@ -73,6 +75,11 @@ public interface CallDetailRecordsDao {
 
     void updateCallDetailRecord(CallDetailRecord cdr);
 
+    /**
+     * Updates the records in a single batch.
+     */
+    void updateCallDetailRecords(Collection<CallDetailRecord> cdrs);
+
     void updateInCompleteCallDetailRecordsToCompletedByInstanceId(Sid instanceId);
 
     // Support for filtering of calls list result, Issue 153
@@ -80,6 +87,12 @@ public interface CallDetailRecordsDao {
 
     Integer getTotalCallDetailRecords(CallDetailRecordFilter filter);
 
+    /**
+     * Hands at most filter.getLimit() records ordered by date created and sid, starting after the filter's page token,
+     * to the handler as they are read instead of collecting them in a list.
+     */
+    void getCallDetailRecords(CallDetailRecordFilter filter, RecordHandler<CallDetailRecord> handler);
+
     Integer getInProgressCallsByClientName(String client);
 
     Integer getInProgressCallsByAccountSid(String accountSid);
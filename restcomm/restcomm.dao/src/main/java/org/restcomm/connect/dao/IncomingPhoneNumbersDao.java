@@ -24,6 +24,7 @@ import java.util.List;
 import org.restcomm.connect.commons.dao.Sid;
 import org.restcomm.connect.dao.entities.IncomingPhoneNumber;
 import org.restcomm.connect.dao.entities.IncomingPhoneNumberFilter;
+import org.restcomm.connect.dao.entities.MostOptimalNumberResponse;
 
 /**
  * @author quintana.thomas@gmail.com (Thomas Quintana)
@@ -41,6 +42,26 @@ public interface IncomingPhoneNumbersDao {
 
     List<IncomingPhoneNumber> getIncomingPhoneNumber(String phoneNumber);
 
+    /**
+     * Looks up several spellings of the same dialed number at once. Matches are ranked by the order of the spellings, the
+     * numbers hosted with a spelling before its Regex match, and the wildcard '*' number is only returned when none of the
+     * spellings matched.
+     *
+     * @param phoneNumbers the spellings of the dialed number, most specific first
+     */
+    List<IncomingPhoneNumber> getIncomingPhoneNumbersByValues(List<String> phoneNumbers);
+
+    /**
+     * Picks the first of {@link #getIncomingPhoneNumbersByValues(List)} that belongs to the destination organization and
+     * can be reached from the source organization.
+     *
+     * @param phoneNumbers the spellings of the dialed number, most specific first
+     * @param destinationOrganizationSid organization the request is addressed to
+     * @param sourceOrganizationSid organization of the request initiator, null if unknown
+     */
+    MostOptimalNumberResponse getMostOptimalIncomingPhoneNumber(List<String> phoneNumbers, Sid destinationOrganizationSid,
+            Sid sourceOrganizationSid);
+
     void removeIncomingPhoneNumber(Sid sid);
 
     void removeIncomingPhoneNumbers(Sid accountSid);
@@ -0,0 +1,160 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.dao.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+import org.restcomm.connect.commons.dao.Sid;
+import org.restcomm.connect.dao.AccountsDao;
+import org.restcomm.connect.dao.entities.Account;
+import org.restcomm.connect.dao.exceptions.AccountHierarchyDepthCrossed;
+
+/**
+ * Serves single account lookups and account lineages from {@link EntityCache}s and writes through to the decorated
+ * DAO. Both caches are cleared by any account write, re-parenting included.
+ */
+@ThreadSafe
+public final class CachingAccountsDao implements AccountsDao {
+    private final AccountsDao dao;
+    private final EntityCache<Account> cache;
+    private final EntityCache<List<String>> lineages;
+
+    public CachingAccountsDao(final AccountsDao dao, final EntityCache<Account> cache,
+            final EntityCache<List<String>> lineages) {
+        super();
+        this.dao = dao;
+        this.cache = cache;
+        this.lineages = lineages;
+    }
+
+    public EntityCache<Account> getCache() {
+        return cache;
+    }
+
+    public EntityCache<List<String>> getLineageCache() {
+        return lineages;
+    }
+
+    private void invalidateAll() {
+        cache.invalidateAll();
+        lineages.invalidateAll();
+    }
+
+    @Override
+    public void addAccount(final Account account) {
+        dao.addAccount(account);
+        invalidateAll();
+    }
+
+    @Override
+    public Account getAccount(final Sid sid) {
+        return cache.get(new Callable<Account>() {
+            @Override
+            public Account call() {
+                return dao.getAccount(sid);
+            }
+        }, "sid", sid);
+    }
+
+    @Override
+    public Account getAccount(final String name) {
+        return cache.get(new Callable<Account>() {
+            @Override
+            public Account call() {
+                return dao.getAccount(name);
+            }
+        }, "name", name);
+    }
+
+    @Override
+    public Account getAccountToAuthenticate(final String name) {
+        return cache.get(new Callable<Account>() {
+            @Override
+            public Account call() {
+                return dao.getAccountToAuthenticate(name);
+            }
+        }, "authenticate", name);
+    }
+
+    @Override
+    public List<Account> getChildAccounts(final Sid parentSid) {
+        return dao.getChildAccounts(parentSid);
+    }
+
+    @Override
+    public void removeAccount(final Sid sid) {
+        dao.removeAccount(sid);
+        invalidateAll();
+    }
+
+    @Override
+    public void updateAccount(final Account account) {
+        dao.updateAccount(account);
+        invalidateAll();
+    }
+
+    @Override
+    public List<String> getSubAccountSidsRecursive(final Sid parentAccountSid) {
+        return dao.getSubAccountSidsRecursive(parentAccountSid);
+    }
+
+    @Override
+    public List<String> getAccountLineage(final Sid accountSid) throws AccountHierarchyDepthCrossed {
+        if (accountSid == null) {
+            return null;
+        }
+        try {
+            return lineages.get(new Callable<List<String>>() {
+                @Override
+                public List<String> call() throws AccountHierarchyDepthCrossed {
+                    return Collections.unmodifiableList(dao.getAccountLineage(accountSid));
+                }
+            }, accountSid);
+        } catch (final RuntimeException exception) {
+            if (exception.getCause() instanceof AccountHierarchyDepthCrossed) {
+                throw (AccountHierarchyDepthCrossed) exception.getCause();
+            }
+            throw exception;
+        }
+    }
+
+    @Override
+    public List<String> getAccountLineage(final Account account) throws AccountHierarchyDepthCrossed {
+        if (account == null) {
+            return null;
+        }
+        final List<String> lineage = new ArrayList<String>();
+        final Sid parentSid = account.getParentSid();
+        if (parentSid != null) {
+            lineage.add(parentSid.toString());
+            lineage.addAll(getAccountLineage(parentSid));
+        }
+        return lineage;
+    }
+
+    @Override
+    public List<Account> getAccountsByOrganization(final Sid organizationSid) {
+        return dao.getAccountsByOrganization(organizationSid);
+    }
+}
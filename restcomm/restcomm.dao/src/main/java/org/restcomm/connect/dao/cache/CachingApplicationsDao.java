@@ -0,0 +1,101 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.dao.cache;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+import org.restcomm.connect.commons.dao.Sid;
+import org.restcomm.connect.dao.ApplicationsDao;
+import org.restcomm.connect.dao.entities.Application;
+
+/**
+ * Serves single application lookups from an {@link EntityCache} and writes through to the decorated DAO.
+ */
+@ThreadSafe
+public final class CachingApplicationsDao implements ApplicationsDao {
+    private final ApplicationsDao dao;
+    private final EntityCache<Application> cache;
+
+    public CachingApplicationsDao(final ApplicationsDao dao, final EntityCache<Application> cache) {
+        super();
+        this.dao = dao;
+        this.cache = cache;
+    }
+
+    public EntityCache<Application> getCache() {
+        return cache;
+    }
+
+    @Override
+    public void addApplication(final Application application) {
+        dao.addApplication(application);
+        cache.invalidateAll();
+    }
+
+    @Override
+    public Application getApplication(final Sid sid) {
+        return cache.get(new Callable<Application>() {
+            @Override
+            public Application call() {
+                return dao.getApplication(sid);
+            }
+        }, "sid", sid);
+    }
+
+    @Override
+    public Application getApplication(final String friendlyName) {
+        return cache.get(new Callable<Application>() {
+            @Override
+            public Application call() {
+                return dao.getApplication(friendlyName);
+            }
+        }, "name", friendlyName);
+    }
+
+    @Override
+    public List<Application> getApplications(final Sid accountSid) {
+        return dao.getApplications(accountSid);
+    }
+
+    @Override
+    public List<Application> getApplicationsWithNumbers(final Sid accountSid) {
+        return dao.getApplicationsWithNumbers(accountSid);
+    }
+
+    @Override
+    public void removeApplication(final Sid sid) {
+        dao.removeApplication(sid);
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void removeApplications(final Sid accountSid) {
+        dao.removeApplications(accountSid);
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void updateApplication(final Application application) {
+        dao.updateApplication(application);
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.dao.cache;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+import org.restcomm.connect.commons.dao.Sid;
+import org.restcomm.connect.dao.ClientsDao;
+import org.restcomm.connect.dao.entities.Client;
+
+/**
+ * Serves single client lookups from an {@link EntityCache} and writes through to the decorated DAO.
+ */
+@ThreadSafe
+public final class CachingClientsDao implements ClientsDao {
+    private final ClientsDao dao;
+    private final EntityCache<Client> cache;
+
+    public CachingClientsDao(final ClientsDao dao, final EntityCache<Client> cache) {
+        super();
+        this.dao = dao;
+        this.cache = cache;
+    }
+
+    public EntityCache<Client> getCache() {
+        return cache;
+    }
+
+    @Override
+    public void addClient(final Client client) {
+        dao.addClient(client);
+        cache.invalidateAll();
+    }
+
+    @Override
+    public Client getClient(final Sid sid) {
+        return cache.get(new Callable<Client>() {
+            @Override
+            public Client call() {
+                return dao.getClient(sid);
+            }
+        }, "sid", sid);
+    }
+
+    @Override
+    public Client getClient(final String user, final Sid organizationSid) {
+        return cache.get(new Callable<Client>() {
+            @Override
+            public Client call() {
+                return dao.getClient(user, organizationSid);
+            }
+        }, "user", user, organizationSid);
+    }
+
+    @Override
+    public List<Client> getClients(final Sid accountSid) {
+        return dao.getClients(accountSid);
+    }
+
+    @Override
+    public List<Client> getAllClients() {
+        return dao.getAllClients();
+    }
+
+    @Override
+    public void removeClient(final Sid sid) {
+        dao.removeClient(sid);
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void removeClients(final Sid accountSid) {
+        dao.removeClients(accountSid);
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void updateClient(final Client client) {
+        dao.updateClient(client);
+        cache.invalidateAll();
+    }
+}
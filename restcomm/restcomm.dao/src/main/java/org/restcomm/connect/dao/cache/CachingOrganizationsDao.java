@@ -0,0 +1,89 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.dao.cache;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+import org.restcomm.connect.commons.dao.Sid;
+import org.restcomm.connect.dao.OrganizationsDao;
+import org.restcomm.connect.dao.entities.Organization;
+
+/**
+ * Serves single organization lookups from an {@link EntityCache} and writes through to the decorated DAO.
+ */
+@ThreadSafe
+public final class CachingOrganizationsDao implements OrganizationsDao {
+    private final OrganizationsDao dao;
+    private final EntityCache<Organization> cache;
+
+    public CachingOrganizationsDao(final OrganizationsDao dao, final EntityCache<Organization> cache) {
+        super();
+        this.dao = dao;
+        this.cache = cache;
+    }
+
+    public EntityCache<Organization> getCache() {
+        return cache;
+    }
+
+    @Override
+    public void addOrganization(final Organization organization) {
+        dao.addOrganization(organization);
+        cache.invalidateAll();
+    }
+
+    @Override
+    public Organization getOrganization(final Sid sid) {
+        return cache.get(new Callable<Organization>() {
+            @Override
+            public Organization call() {
+                return dao.getOrganization(sid);
+            }
+        }, "sid", sid);
+    }
+
+    @Override
+    public Organization getOrganizationByDomainName(final String domainName) {
+        return cache.get(new Callable<Organization>() {
+            @Override
+            public Organization call() {
+                return dao.getOrganizationByDomainName(domainName);
+            }
+        }, "domain", domainName);
+    }
+
+    @Override
+    public List<Organization> getOrganizationsByStatus(final Organization.Status status) {
+        return dao.getOrganizationsByStatus(status);
+    }
+
+    @Override
+    public List<Organization> getAllOrganizations() {
+        return dao.getAllOrganizations();
+    }
+
+    @Override
+    public void updateOrganization(final Organization organization) {
+        dao.updateOrganization(organization);
+        cache.invalidateAll();
+    }
+}
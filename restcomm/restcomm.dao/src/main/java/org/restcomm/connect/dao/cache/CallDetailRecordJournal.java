@@ -0,0 +1,318 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.dao.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.joda.time.DateTime;
+import org.restcomm.connect.commons.annotations.concurrency.NotThreadSafe;
+import org.restcomm.connect.commons.dao.Sid;
+import org.restcomm.connect.dao.entities.CallDetailRecord;
+
+/**
+ * An append only log of the call detail records held by a {@link WriteBehindCallDetailRecordsDao} that have not
+ * reached the database yet.
+ *
+ * Records are written to numbered segment files. Before a flush the journal moves on to a new segment, and once the
+ * flush is committed every older segment is deleted. After a crash {@link #recover()} replays the segments that are
+ * left, oldest first, so the latest state of each call wins. Each record is length prefixed so a record torn by the
+ * crash ends the replay of its segment instead of corrupting it.
+ */
+@NotThreadSafe
+public final class CallDetailRecordJournal {
+    private static final Logger logger = Logger.getLogger(CallDetailRecordJournal.class);
+    private static final String prefix = "cdr-";
+    private static final String suffix = ".journal";
+    private static final int maximumRecordLength = 1 << 20;
+
+    private final File directory;
+    private long segment;
+    private DataOutputStream output;
+
+    public CallDetailRecordJournal(final File directory) throws IOException {
+        super();
+        this.directory = directory;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Can not create the journal directory " + directory);
+        }
+        final List<File> segments = segments();
+        this.segment = segments.isEmpty() ? 0 : sequence(segments.get(segments.size() - 1));
+        this.output = open(++segment);
+    }
+
+    /**
+     * Appends a record and hands it to the operating system, so it survives the process but not the host.
+     */
+    public void append(final CallDetailRecord cdr) throws IOException {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+        write(new DataOutputStream(buffer), cdr);
+        output.writeInt(buffer.size());
+        buffer.writeTo(output);
+        output.flush();
+    }
+
+    /**
+     * Starts a new segment.
+     *
+     * @return the sequence of the segment that was just closed, to be passed to {@link #release(long)} once the
+     *         records it holds are stored.
+     */
+    public long rotate() throws IOException {
+        output.close();
+        final long closed = segment;
+        output = open(++segment);
+        return closed;
+    }
+
+    /**
+     * Deletes the segments up to and including the given one.
+     */
+    public void release(final long last) {
+        for (final File file : segments()) {
+            if (sequence(file) <= last && !file.delete()) {
+                logger.warn("Could not delete the call detail record journal " + file);
+            }
+        }
+    }
+
+    /**
+     * @return the latest record of every call found in the segments written before this journal was opened.
+     */
+    public Map<Sid, CallDetailRecord> recover() {
+        final Map<Sid, CallDetailRecord> records = new LinkedHashMap<Sid, CallDetailRecord>();
+        for (final File file : segments()) {
+            if (sequence(file) >= segment) {
+                break;
+            }
+            try {
+                final DataInputStream input = new DataInputStream(new FileInputStream(file));
+                try {
+                    read(input, records);
+                } finally {
+                    input.close();
+                }
+            } catch (final IOException exception) {
+                logger.error("Could not replay the call detail record journal " + file, exception);
+            }
+        }
+        return records;
+    }
+
+    public void close() throws IOException {
+        output.close();
+    }
+
+    private DataOutputStream open(final long sequence) throws IOException {
+        final File file = new File(directory, prefix + sequence + suffix);
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+    }
+
+    private List<File> segments() {
+        final File[] files = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(final File dir, final String name) {
+                return name.startsWith(prefix) && name.endsWith(suffix);
+            }
+        });
+        if (files == null) {
+            return Collections.emptyList();
+        }
+        final List<File> segments = new ArrayList<File>(Arrays.asList(files));
+        Collections.sort(segments, new Comparator<File>() {
+            @Override
+            public int compare(final File first, final File second) {
+                final long left = sequence(first);
+                final long right = sequence(second);
+                return left < right ? -1 : (left == right ? 0 : 1);
+            }
+        });
+        return segments;
+    }
+
+    private static long sequence(final File file) {
+        final String name = file.getName();
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (final NumberFormatException exception) {
+            return -1;
+        }
+    }
+
+    private static void read(final DataInputStream input, final Map<Sid, CallDetailRecord> records) throws IOException {
+        while (true) {
+            final byte[] record;
+            try {
+                final int length = input.readInt();
+                if (length <= 0 || length > maximumRecordLength) {
+                    logger.warn("Stopped replaying a call detail record journal at a record of " + length + " bytes");
+                    return;
+                }
+                record = new byte[length];
+                input.readFully(record);
+            } catch (final EOFException exception) {
+                // The end of the segment, or a record torn by a crash.
+                return;
+            }
+            final CallDetailRecord cdr = read(new DataInputStream(new ByteArrayInputStream(record)));
+            records.put(cdr.getSid(), cdr);
+        }
+    }
+
+    static void write(final DataOutputStream output, final CallDetailRecord cdr) throws IOException {
+        writeSid(output, cdr.getSid());
+        writeString(output, cdr.getInstanceId());
+        writeSid(output, cdr.getParentCallSid());
+        writeSid(output, cdr.getConferenceSid());
+        writeDateTime(output, cdr.getDateCreated());
+        writeDateTime(output, cdr.getDateUpdated());
+        writeSid(output, cdr.getAccountSid());
+        writeString(output, cdr.getTo());
+        writeString(output, cdr.getFrom());
+        writeSid(output, cdr.getPhoneNumberSid());
+        writeString(output, cdr.getStatus());
+        writeDateTime(output, cdr.getStartTime());
+        writeDateTime(output, cdr.getEndTime());
+        writeInteger(output, cdr.getDuration());
+        writeString(output, cdr.getPrice() == null ? null : cdr.getPrice().toPlainString());
+        writeString(output, cdr.getPriceUnit() == null ? null : cdr.getPriceUnit().getCurrencyCode());
+        writeString(output, cdr.getDirection());
+        writeString(output, cdr.getAnsweredBy());
+        writeString(output, cdr.getApiVersion());
+        writeString(output, cdr.getForwardedFrom());
+        writeString(output, cdr.getCallerName());
+        writeString(output, cdr.getUri() == null ? null : cdr.getUri().toString());
+        writeString(output, cdr.getCallPath());
+        writeInteger(output, cdr.getRingDuration());
+        writeBoolean(output, cdr.isMuted());
+        writeBoolean(output, cdr.isStartConferenceOnEnter());
+        writeBoolean(output, cdr.isEndConferenceOnExit());
+        writeBoolean(output, cdr.isOnHold());
+        writeString(output, cdr.getMsId());
+    }
+
+    static CallDetailRecord read(final DataInputStream input) throws IOException {
+        final Sid sid = readSid(input);
+        final String instanceId = readString(input);
+        final Sid parentCallSid = readSid(input);
+        final Sid conferenceSid = readSid(input);
+        final DateTime dateCreated = readDateTime(input);
+        final DateTime dateUpdated = readDateTime(input);
+        final Sid accountSid = readSid(input);
+        final String to = readString(input);
+        final String from = readString(input);
+        final Sid phoneNumberSid = readSid(input);
+        final String status = readString(input);
+        final DateTime startTime = readDateTime(input);
+        final DateTime endTime = readDateTime(input);
+        final Integer duration = readInteger(input);
+        final String price = readString(input);
+        final String priceUnit = readString(input);
+        final String direction = readString(input);
+        final String answeredBy = readString(input);
+        final String apiVersion = readString(input);
+        final String forwardedFrom = readString(input);
+        final String callerName = readString(input);
+        final String uri = readString(input);
+        final String callPath = readString(input);
+        final Integer ringDuration = readInteger(input);
+        final Boolean muted = readBoolean(input);
+        final Boolean startConferenceOnEnter = readBoolean(input);
+        final Boolean endConferenceOnExit = readBoolean(input);
+        final Boolean onHold = readBoolean(input);
+        final String msId = readString(input);
+        return new CallDetailRecord(sid, instanceId, parentCallSid, conferenceSid, dateCreated, dateUpdated, accountSid, to,
+                from, phoneNumberSid, status, startTime, endTime, duration, price == null ? null : new BigDecimal(price),
+                priceUnit == null ? null : Currency.getInstance(priceUnit), direction, answeredBy, apiVersion, forwardedFrom,
+                callerName, uri == null ? null : URI.create(uri), callPath, ringDuration, muted, startConferenceOnEnter,
+                endConferenceOnExit, onHold, msId);
+    }
+
+    private static void writeString(final DataOutputStream output, final String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readString(final DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private static void writeSid(final DataOutputStream output, final Sid value) throws IOException {
+        writeString(output, value == null ? null : value.toString());
+    }
+
+    private static Sid readSid(final DataInputStream input) throws IOException {
+        final String value = readString(input);
+        return value == null ? null : new Sid(value);
+    }
+
+    private static void writeDateTime(final DataOutputStream output, final DateTime value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeLong(value.getMillis());
+        }
+    }
+
+    private static DateTime readDateTime(final DataInputStream input) throws IOException {
+        return input.readBoolean() ? new DateTime(input.readLong()) : null;
+    }
+
+    private static void writeInteger(final DataOutputStream output, final Integer value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeInt(value);
+        }
+    }
+
+    private static Integer readInteger(final DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readInt() : null;
+    }
+
+    private static void writeBoolean(final DataOutputStream output, final Boolean value) throws IOException {
+        output.writeByte(value == null ? 0 : (value ? 2 : 1));
+    }
+
+    private static Boolean readBoolean(final DataInputStream input) throws IOException {
+        final byte value = input.readByte();
+        return value == 0 ? null : value == 2;
+    }
+}
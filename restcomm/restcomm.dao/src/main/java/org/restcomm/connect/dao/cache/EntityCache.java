@@ -0,0 +1,107 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.dao.cache;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * A bounded, time limited cache of immutable entities read through a DAO. Misses are cached too so that repeated
+ * lookups of something that does not exist (an unknown domain name, a wrong user name) stay off the database.
+ *
+ * Every write made through the owning DAO must call {@link #invalidateAll()} once it reaches the database. A load
+ * that raced with such a write is returned to its caller but never stored, so the cache can only serve rows written
+ * by other nodes for as long as the time to live.
+ */
+@ThreadSafe
+public final class EntityCache<T> {
+    private final String name;
+    private final Cache<Object, Optional<T>> entries;
+    private final AtomicLong generation;
+
+    public EntityCache(final String name, final long maximumSize, final long timeToLive, final TimeUnit unit) {
+        super();
+        this.name = name;
+        this.entries = CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterWrite(timeToLive, unit)
+                .recordStats().build();
+        this.generation = new AtomicLong();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param key the values identifying the lookup, including which selector was used.
+     * @param loader reads the entity from the database, returning null when it does not exist.
+     */
+    public T get(final Callable<T> loader, final Object... key) {
+        final Object cacheKey = Arrays.asList(key);
+        final Optional<T> cached = entries.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached.orNull();
+        }
+        final long version = generation.get();
+        final T entity;
+        try {
+            entity = loader.call();
+        } catch (final RuntimeException exception) {
+            throw exception;
+        } catch (final Exception exception) {
+            throw new RuntimeException(exception);
+        }
+        if (version == generation.get()) {
+            entries.put(cacheKey, Optional.fromNullable(entity));
+        }
+        return entity;
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.invalidateAll();
+    }
+
+    public long size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the hit, miss and eviction counters since this cache was created.
+     */
+    public CacheStats getStatistics() {
+        return entries.stats();
+    }
+
+    @Override
+    public String toString() {
+        final CacheStats statistics = entries.stats();
+        return name + " cache [size=" + entries.size() + ", hits=" + statistics.hitCount() + ", misses="
+                + statistics.missCount() + ", evictions=" + statistics.evictionCount() + "]";
+    }
+}
@@ -0,0 +1,628 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.dao.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+import org.restcomm.connect.commons.dao.Sid;
+import org.restcomm.connect.dao.RegistrationsDao;
+import org.restcomm.connect.dao.entities.Registration;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Serves registrations from memory, indexed by user and by the host:port of the contact, and writes them to the
+ * decorated DAO in the background. The database becomes the store registrations are recovered from after a restart
+ * instead of the lookup path of every REGISTER, OPTIONS answer and call to a client.
+ *
+ * A REGISTER refresh or OPTIONS answer that only moves the dates of a registration is written at most once every
+ * persist interval; changes to the time to live or owning instance, new registrations and removals are written on
+ * the next flush. Registrations of an instance are taken into memory the first time that instance lists its
+ * registrations, which the UserAgentManager does on startup; from then on this DAO is the authority for them. When
+ * clustered, lookups by user also ask the database and merge in what it holds for other instances, so a user registered
+ * through several nodes is reachable on all of its contacts; a lookup by host:port that finds a contact of this
+ * instance is still answered from memory alone.
+ */
+@ThreadSafe
+public final class InMemoryRegistrationsDao implements RegistrationsDao {
+    private static final Logger logger = Logger.getLogger(InMemoryRegistrationsDao.class);
+
+    private final RegistrationsDao dao;
+    private final long persistInterval;
+    private final boolean clustered;
+
+    // Guarded by this.
+    private final Map<Key, Entry> entries;
+    private final Map<String, Set<Key>> byUser;
+    private final Map<String, Set<Key>> byHostPort;
+    private final Set<String> adopted;
+    private final Set<Key> dirty;
+    private final Map<Location, Registration> removals;
+
+    // Only one flush runs at a time.
+    private final Object flushLock;
+    private final ScheduledExecutorService flusher;
+
+    private final AtomicLong refreshes;
+    private final AtomicLong deferred;
+    private final AtomicLong written;
+    private final AtomicLong failures;
+
+    /**
+     * @param persistInterval how long a refresh that only moves the dates of a registration may go unwritten.
+     * @param clustered whether other instances may hold registrations in the same database.
+     */
+    public InMemoryRegistrationsDao(final RegistrationsDao dao, final long interval, final long persistInterval,
+            final TimeUnit unit, final boolean clustered) {
+        super();
+        this.dao = dao;
+        this.persistInterval = unit.toMillis(persistInterval);
+        this.clustered = clustered;
+        this.entries = new HashMap<Key, Entry>();
+        this.byUser = new HashMap<String, Set<Key>>();
+        this.byHostPort = new HashMap<String, Set<Key>>();
+        this.adopted = new HashSet<String>();
+        this.dirty = new HashSet<Key>();
+        this.removals = new LinkedHashMap<Location, Registration>();
+        this.flushLock = new Object();
+        this.refreshes = new AtomicLong();
+        this.deferred = new AtomicLong();
+        this.written = new AtomicLong();
+        this.failures = new AtomicLong();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("registrations-write-behind-%d").setDaemon(true).build());
+        flusher.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    flush();
+                } catch (final RuntimeException exception) {
+                    logger.error("Unexpected failure while flushing registrations", exception);
+                }
+            }
+        }, interval, interval, unit);
+    }
+
+    /**
+     * Writes pending additions, changes and removals to the decorated DAO. Writes that fail are retried on the next
+     * flush.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            final List<Registration> removed;
+            final List<Write> writes = new ArrayList<Write>();
+            synchronized (this) {
+                removed = new ArrayList<Registration>(removals.values());
+                removals.clear();
+                for (final Key key : dirty) {
+                    final Entry entry = entries.get(key);
+                    writes.add(new Write(key, entry.registration, !entry.persisted));
+                    entry.persisted = true;
+                    entry.persistedUpdate = entry.registration.getDateUpdated().getMillis();
+                }
+                dirty.clear();
+            }
+            // Removals first so a registration removed and then added again ends up in the database.
+            for (final Registration registration : removed) {
+                try {
+                    dao.removeRegistration(registration);
+                    written.incrementAndGet();
+                } catch (final RuntimeException exception) {
+                    failures.incrementAndGet();
+                    logger.warn("Could not remove registration " + registration.getLocation() + ", will retry", exception);
+                    synchronized (this) {
+                        final Location location = new Location(registration);
+                        if (!removals.containsKey(location)) {
+                            removals.put(location, registration);
+                        }
+                    }
+                }
+            }
+            for (final Write write : writes) {
+                try {
+                    if (write.insert) {
+                        dao.addRegistration(write.registration);
+                    } else {
+                        dao.updateRegistration(write.registration);
+                    }
+                    written.incrementAndGet();
+                } catch (final RuntimeException exception) {
+                    failures.incrementAndGet();
+                    logger.warn("Could not write registration " + write.registration.getLocation() + ", will retry",
+                            exception);
+                    synchronized (this) {
+                        final Entry entry = entries.get(write.key);
+                        if (entry != null) {
+                            entry.persisted = entry.persisted && !write.insert;
+                            dirty.add(write.key);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Flushes the pending changes and stops flushing.
+     */
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    public synchronized int getPendingCount() {
+        return dirty.size() + removals.size();
+    }
+
+    public long getRefreshCount() {
+        return refreshes.get();
+    }
+
+    /**
+     * @return the number of refreshes that were not written because only their dates changed.
+     */
+    public long getDeferredCount() {
+        return deferred.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    @Override
+    public String toString() {
+        return "registrations location service [size=" + getSize() + ", pending=" + getPendingCount() + ", refreshes="
+                + refreshes + ", deferred=" + deferred + ", written=" + written + ", failures=" + failures + "]";
+    }
+
+    @Override
+    public void addRegistration(final Registration registration) {
+        final Key key = new Key(registration);
+        synchronized (this) {
+            final Entry entry = entries.get(key);
+            if (entry != null) {
+                update(key, entry, registration);
+            } else {
+                put(key, new Entry(registration, false));
+            }
+            dirty.add(key);
+        }
+    }
+
+    @Override
+    public Registration getRegistration(final String user, final Sid organizationSid) {
+        final List<Registration> registrations = getRegistrations(user, organizationSid);
+        return registrations == null ? null : registrations.get(0);
+    }
+
+    @Override
+    public List<Registration> getRegistrationsByLocation(final String user, final String location) {
+        final String pattern = location.concat("%");
+        final List<Registration> result = new ArrayList<Registration>();
+        boolean byContact = false;
+        synchronized (this) {
+            Collection<Key> candidates = null;
+            if (location.startsWith("%") && location.indexOf('%', 1) < 0) {
+                candidates = byHostPort.get(location.substring(1));
+                byContact = candidates != null;
+            }
+            if (candidates == null) {
+                candidates = byUser.get(user);
+            }
+            if (candidates != null) {
+                for (final Key key : candidates) {
+                    final Registration registration = entries.get(key).registration;
+                    if (Objects.equals(user, registration.getUserName()) && like(registration.getLocation(), pattern)) {
+                        result.add(registration);
+                    }
+                }
+            }
+        }
+        // A contact of this instance is not registered through another one as well.
+        if (clustered && (!byContact || result.isEmpty())) {
+            result.addAll(remote(dao.getRegistrationsByLocation(user, location)));
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    @Override
+    public Registration getRegistrationByInstanceId(final String user, final String instanceId) {
+        final List<Registration> result = new ArrayList<Registration>();
+        synchronized (this) {
+            for (final Registration registration : local(byUser.get(user))) {
+                if (Objects.equals(instanceId, registration.getInstanceId())) {
+                    result.add(registration);
+                }
+            }
+            if (result.isEmpty() && adopted.contains(instanceId)) {
+                return null;
+            }
+        }
+        if (result.isEmpty()) {
+            final Registration registration = dao.getRegistrationByInstanceId(user, instanceId);
+            return registration == null || remote(Collections.singletonList(registration)).isEmpty() ? null : registration;
+        }
+        Collections.sort(result);
+        return result.get(0);
+    }
+
+    @Override
+    public List<Registration> getRegistrationsByInstanceId(final String instanceId) {
+        final boolean known;
+        synchronized (this) {
+            known = adopted.contains(instanceId);
+        }
+        if (!known) {
+            adopt(instanceId, dao.getRegistrationsByInstanceId(instanceId));
+        }
+        final List<Registration> result = new ArrayList<Registration>();
+        synchronized (this) {
+            for (final Entry entry : entries.values()) {
+                if (Objects.equals(instanceId, entry.registration.getInstanceId())) {
+                    result.add(entry.registration);
+                }
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    @Override
+    public List<Registration> getRegistrations(final String user, final Sid organizationSid) {
+        final List<Registration> result = new ArrayList<Registration>();
+        synchronized (this) {
+            for (final Registration registration : local(byUser.get(user))) {
+                if (Objects.equals(organizationSid, registration.getOrganizationSid())) {
+                    result.add(registration);
+                }
+            }
+        }
+        if (clustered) {
+            result.addAll(remote(dao.getRegistrations(user, organizationSid)));
+        }
+        if (result.isEmpty()) {
+            return null;
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    @Override
+    public List<Registration> getRegistrations() {
+        final List<Registration> result = remote(dao.getRegistrations());
+        synchronized (this) {
+            for (final Entry entry : entries.values()) {
+                result.add(entry.registration);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean hasRegistration(final Registration registration) {
+        synchronized (this) {
+            if (entries.containsKey(new Key(registration))) {
+                return true;
+            }
+            if (removals.containsKey(new Location(registration))) {
+                return false;
+            }
+        }
+        // Only the first REGISTER of a contact seen by this node gets here.
+        return dao.hasRegistration(registration);
+    }
+
+    @Override
+    public void removeRegistration(final Registration registration) {
+        final Location location = new Location(registration);
+        synchronized (this) {
+            final Set<Key> keys = byHostPort.get(hostPort(registration.getLocation()));
+            if (keys != null) {
+                for (final Key key : new ArrayList<Key>(keys)) {
+                    if (location.equals(new Location(entries.get(key).registration))) {
+                        remove(key);
+                    }
+                }
+            }
+            removals.put(location, registration);
+        }
+    }
+
+    @Override
+    public void updateRegistration(final Registration registration) {
+        refreshes.incrementAndGet();
+        final Key key = new Key(registration);
+        synchronized (this) {
+            final Entry entry = entries.get(key);
+            if (entry != null) {
+                update(key, entry, registration);
+                return;
+            }
+        }
+        // A contact registered through another node, or not yet taken into memory: take over the stored registration.
+        final List<Registration> stored = dao.getRegistrations(registration.getUserName(), registration.getOrganizationSid());
+        if (stored != null) {
+            for (final Registration candidate : stored) {
+                if (key.equals(new Key(candidate))) {
+                    synchronized (this) {
+                        Entry entry = entries.get(key);
+                        if (entry == null) {
+                            entry = new Entry(candidate, true);
+                            put(key, entry);
+                        }
+                        update(key, entry, registration);
+                    }
+                    return;
+                }
+            }
+        }
+        dao.updateRegistration(registration);
+    }
+
+    // Mirrors the columns the database update statement changes.
+    private void update(final Key key, final Entry entry, final Registration registration) {
+        final Registration current = entry.registration;
+        final boolean changed = current.getTimeToLive() != registration.getTimeToLive()
+                || !Objects.equals(current.getInstanceId(), registration.getInstanceId());
+        entry.registration = new Registration(current.getSid(), registration.getInstanceId(), current.getDateCreated(),
+                registration.getDateUpdated(), registration.getDateExpires(), current.getAddressOfRecord(),
+                current.getDisplayName(), current.getUserName(), current.getUserAgent(), registration.getTimeToLive(),
+                current.getLocation(), current.isWebRTC(), current.isLBPresent(), current.getOrganizationSid());
+        if (changed || !entry.persisted
+                || registration.getDateUpdated().getMillis() - entry.persistedUpdate >= persistInterval) {
+            dirty.add(key);
+        } else if (!dirty.contains(key)) {
+            deferred.incrementAndGet();
+        }
+    }
+
+    private void adopt(final String instanceId, final List<Registration> registrations) {
+        synchronized (this) {
+            if (!adopted.add(instanceId)) {
+                return;
+            }
+            for (final Registration registration : registrations) {
+                final Key key = new Key(registration);
+                if (!entries.containsKey(key) && !removals.containsKey(new Location(registration))) {
+                    put(key, new Entry(registration, true));
+                }
+            }
+        }
+        if (logger.isInfoEnabled()) {
+            logger.info("Took " + registrations.size() + " registrations of instance " + instanceId + " into memory");
+        }
+    }
+
+    // Drops stored registrations this node holds or is removing, and those of instances held in memory.
+    private List<Registration> remote(final List<Registration> registrations) {
+        final List<Registration> result = new ArrayList<Registration>();
+        if (registrations == null) {
+            return result;
+        }
+        synchronized (this) {
+            for (final Registration registration : registrations) {
+                if (!entries.containsKey(new Key(registration)) && !removals.containsKey(new Location(registration))
+                        && !adopted.contains(registration.getInstanceId())) {
+                    result.add(registration);
+                }
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private List<Registration> local(final Set<Key> keys) {
+        if (keys == null) {
+            return Collections.emptyList();
+        }
+        final List<Registration> result = new ArrayList<Registration>(keys.size());
+        for (final Key key : keys) {
+            result.add(entries.get(key).registration);
+        }
+        return result;
+    }
+
+    private void put(final Key key, final Entry entry) {
+        entries.put(key, entry);
+        index(byUser, entry.registration.getUserName(), key);
+        index(byHostPort, hostPort(entry.registration.getLocation()), key);
+    }
+
+    private void remove(final Key key) {
+        final Entry entry = entries.remove(key);
+        dirty.remove(key);
+        unindex(byUser, entry.registration.getUserName(), key);
+        unindex(byHostPort, hostPort(entry.registration.getLocation()), key);
+    }
+
+    private static void index(final Map<String, Set<Key>> index, final String value, final Key key) {
+        Set<Key> keys = index.get(value);
+        if (keys == null) {
+            keys = new HashSet<Key>(2);
+            index.put(value, keys);
+        }
+        keys.add(key);
+    }
+
+    private static void unindex(final Map<String, Set<Key>> index, final String value, final Key key) {
+        final Set<Key> keys = index.get(value);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            index.remove(value);
+        }
+    }
+
+    /**
+     * @return the host:port of a contact such as sip:alice@10.0.0.1:5060;transport=udp
+     */
+    static String hostPort(final String location) {
+        if (location == null) {
+            return "";
+        }
+        int start = location.indexOf('@') + 1;
+        if (start == 0) {
+            start = location.indexOf(':') + 1;
+        }
+        int end = location.length();
+        for (final char delimiter : new char[] { ';', '?', '>' }) {
+            final int index = location.indexOf(delimiter, start);
+            if (index >= 0 && index < end) {
+                end = index;
+            }
+        }
+        return location.substring(start, end);
+    }
+
+    /**
+     * Matches a value against an SQL LIKE pattern where only % is a wildcard.
+     */
+    static boolean like(final String value, final String pattern) {
+        if (value == null) {
+            return false;
+        }
+        final String[] parts = pattern.split("%", -1);
+        if (!value.startsWith(parts[0])) {
+            return false;
+        }
+        int position = parts[0].length();
+        for (int i = 1; i < parts.length - 1; i++) {
+            final int index = value.indexOf(parts[i], position);
+            if (index < 0) {
+                return false;
+            }
+            position = index + parts[i].length();
+        }
+        final String last = parts[parts.length - 1];
+        return parts.length == 1 ? value.length() == position : value.length() - last.length() >= position
+                && value.endsWith(last);
+    }
+
+    // The columns the database matches registrations on when checking for and updating them.
+    private static final class Key {
+        private final String addressOfRecord;
+        private final String displayName;
+        private final String location;
+        private final String userAgent;
+
+        private Key(final Registration registration) {
+            super();
+            this.addressOfRecord = registration.getAddressOfRecord();
+            this.displayName = registration.getDisplayName();
+            this.location = registration.getLocation();
+            this.userAgent = registration.getUserAgent();
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            if (!(object instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) object;
+            return Objects.equals(addressOfRecord, other.addressOfRecord) && Objects.equals(displayName, other.displayName)
+                    && Objects.equals(location, other.location) && Objects.equals(userAgent, other.userAgent);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(addressOfRecord, displayName, location, userAgent);
+        }
+    }
+
+    // The columns the database matches registrations on when removing them.
+    private static final class Location {
+        private final String addressOfRecord;
+        private final String location;
+
+        private Location(final Registration registration) {
+            super();
+            this.addressOfRecord = registration.getAddressOfRecord();
+            this.location = registration.getLocation();
+        }
+
+        @Override
+        public boolean equals(final Object object) {
+            if (!(object instanceof Location)) {
+                return false;
+            }
+            final Location other = (Location) object;
+            return Objects.equals(addressOfRecord, other.addressOfRecord) && Objects.equals(location, other.location);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(addressOfRecord, location);
+        }
+    }
+
+    private static final class Entry {
+        private Registration registration;
+        // Whether the database holds a row for this registration, and the update date that was written to it.
+        private boolean persisted;
+        private long persistedUpdate;
+
+        private Entry(final Registration registration, final boolean persisted) {
+            super();
+            this.registration = registration;
+            this.persisted = persisted;
+            this.persistedUpdate = persisted ? registration.getDateUpdated().getMillis() : 0;
+        }
+    }
+
+    private static final class Write {
+        private final Key key;
+        private final Registration registration;
+        private final boolean insert;
+
+        private Write(final Key key, final Registration registration, final boolean insert) {
+            super();
+            this.key = key;
+            this.registration = registration;
+            this.insert = insert;
+        }
+    }
+}
@@ -0,0 +1,494 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.dao.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.joda.time.DateTime;
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+import org.restcomm.connect.commons.dao.Sid;
+import org.restcomm.connect.dao.CallDetailRecordsDao;
+import org.restcomm.connect.dao.common.RecordHandler;
+import org.restcomm.connect.dao.entities.CallDetailRecord;
+import org.restcomm.connect.dao.entities.CallDetailRecordFilter;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Keeps call detail record updates in memory and writes them to the decorated DAO in batches, so the actors driving a
+ * call do not wait on the database for each state change.
+ *
+ * Updates to the same call are coalesced: only the latest record of each call is written. Pending records are flushed
+ * every interval and as soon as a call ends. Single record reads and the lists of records see the pending state, while
+ * counts and averages are computed by the database and may lag by up to one interval. When a journal directory is
+ * given every update is appended to a {@link CallDetailRecordJournal} first, and the records it still holds are
+ * replayed to the database when this DAO is created again after a crash.
+ *
+ * A batch the database rejects is written again record by record, so one bad record does not hold back the others. A
+ * record that still fails is retried on the next flushes and dropped after {@link #MAX_ATTEMPTS} failed flushes in
+ * which other records could be written, while a database that accepts nothing keeps every record pending.
+ */
+@ThreadSafe
+public final class WriteBehindCallDetailRecordsDao implements CallDetailRecordsDao {
+    private static final Logger logger = Logger.getLogger(WriteBehindCallDetailRecordsDao.class);
+    public static final int MAX_ATTEMPTS = 3;
+
+    private final CallDetailRecordsDao dao;
+    private final ConcurrentMap<Sid, CallDetailRecord> pending;
+    private final int batchSize;
+    private final CallDetailRecordJournal journal;
+    // Orders journal appends against segment rotation.
+    private final Object journalLock;
+    private boolean journaled;
+    // Only one flush runs at a time.
+    private final Object flushLock;
+    // Failed flushes of the records still pending, guarded by the flush lock.
+    private final Map<Sid, Integer> attempts;
+    // The last rotated segment that still holds records to retry, guarded by the flush lock.
+    private long rotated;
+    private final ScheduledExecutorService flusher;
+    private final Runnable flush;
+
+    private final AtomicLong updates;
+    private final AtomicLong coalesced;
+    private final AtomicLong written;
+    private final AtomicLong batches;
+    private final AtomicLong failures;
+    private final AtomicLong dropped;
+
+    /**
+     * @param journalDirectory where the journal segments are kept, or null to keep pending records in memory only.
+     */
+    public WriteBehindCallDetailRecordsDao(final CallDetailRecordsDao dao, final long interval, final TimeUnit unit,
+            final int batchSize, final File journalDirectory) throws IOException {
+        super();
+        this.dao = dao;
+        this.pending = new ConcurrentHashMap<Sid, CallDetailRecord>();
+        this.batchSize = batchSize < 1 ? 1 : batchSize;
+        this.journalLock = new Object();
+        this.flushLock = new Object();
+        this.attempts = new HashMap<Sid, Integer>();
+        this.rotated = -1;
+        this.updates = new AtomicLong();
+        this.coalesced = new AtomicLong();
+        this.written = new AtomicLong();
+        this.batches = new AtomicLong();
+        this.failures = new AtomicLong();
+        this.dropped = new AtomicLong();
+        if (journalDirectory != null) {
+            this.journal = new CallDetailRecordJournal(journalDirectory);
+            final Map<Sid, CallDetailRecord> recovered = journal.recover();
+            if (!recovered.isEmpty()) {
+                logger.info("Recovered " + recovered.size() + " call detail records from " + journalDirectory);
+                pending.putAll(recovered);
+            }
+        } else {
+            this.journal = null;
+        }
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("cdr-write-behind-%d").setDaemon(true).build());
+        this.flush = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    flush();
+                } catch (final RuntimeException exception) {
+                    logger.error("Unexpected failure while flushing call detail records", exception);
+                }
+            }
+        };
+        if (!pending.isEmpty()) {
+            // The recovered records are only in older segments.
+            synchronized (journalLock) {
+                journaled = true;
+            }
+            flusher.execute(flush);
+        }
+        flusher.scheduleWithFixedDelay(flush, interval, interval, unit);
+    }
+
+    /**
+     * Writes every pending record to the decorated DAO. Records that fail to be written stay pending and are retried
+     * on the next flush, until they are dropped.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            final long segment;
+            final List<CallDetailRecord> records;
+            synchronized (journalLock) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                segment = rotate();
+                records = new ArrayList<CallDetailRecord>(pending.values());
+            }
+            if (segment >= 0) {
+                rotated = segment;
+            }
+            final List<CallDetailRecord> done = new ArrayList<CallDetailRecord>(records.size());
+            final List<CallDetailRecord> failed = new ArrayList<CallDetailRecord>();
+            for (int from = 0; from < records.size(); from += batchSize) {
+                final List<CallDetailRecord> batch = records.subList(from, Math.min(from + batchSize, records.size()));
+                try {
+                    dao.updateCallDetailRecords(batch);
+                    batches.incrementAndGet();
+                    done.addAll(batch);
+                } catch (final RuntimeException exception) {
+                    failures.incrementAndGet();
+                    logger.warn("Could not write a batch of " + batch.size()
+                            + " call detail records, writing them one by one", exception);
+                    for (final CallDetailRecord cdr : batch) {
+                        try {
+                            dao.updateCallDetailRecord(cdr);
+                            done.add(cdr);
+                        } catch (final RuntimeException cause) {
+                            failures.incrementAndGet();
+                            logger.error("Could not write the call detail record " + cdr.getSid(), cause);
+                            failed.add(cdr);
+                        }
+                    }
+                }
+            }
+            written.addAndGet(done.size());
+            for (final CallDetailRecord cdr : done) {
+                attempts.remove(cdr.getSid());
+                // Keeps the record if the call was updated again in the meantime.
+                pending.remove(cdr.getSid(), cdr);
+            }
+            boolean retry = false;
+            for (final CallDetailRecord cdr : failed) {
+                // Only counts when other records could be written, a database accepting nothing is down instead.
+                final Integer previous = attempts.get(cdr.getSid());
+                final int attempt = (previous == null ? 0 : previous) + (done.isEmpty() ? 0 : 1);
+                if (attempt < MAX_ATTEMPTS) {
+                    attempts.put(cdr.getSid(), attempt);
+                    retry = true;
+                } else {
+                    attempts.remove(cdr.getSid());
+                    if (pending.remove(cdr.getSid(), cdr)) {
+                        dropped.incrementAndGet();
+                        logger.error("Dropping the call detail record " + cdr.getSid() + " after " + attempt
+                                + " failed attempts: " + cdr);
+                    }
+                }
+            }
+            // The records to retry are only in the rotated segments, later updates are in the current one.
+            if (!retry && journal != null && rotated >= 0) {
+                journal.release(rotated);
+                rotated = -1;
+            }
+        }
+    }
+
+    // Called holding the journal lock.
+    private long rotate() {
+        if (journal == null || !journaled) {
+            return -1;
+        }
+        try {
+            final long segment = journal.rotate();
+            journaled = false;
+            return segment;
+        } catch (final IOException exception) {
+            logger.error("Could not rotate the call detail record journal", exception);
+            return -1;
+        }
+    }
+
+    /**
+     * Flushes the pending records and stops flushing.
+     */
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (journal != null) {
+            synchronized (journalLock) {
+                try {
+                    journal.close();
+                } catch (final IOException exception) {
+                    logger.warn("Could not close the call detail record journal", exception);
+                }
+            }
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getUpdateCount() {
+        return updates.get();
+    }
+
+    /**
+     * @return the number of updates that replaced a record still waiting to be written.
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * @return the number of records given up after {@link #MAX_ATTEMPTS} failed flushes.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public String toString() {
+        return "call detail records write-behind [pending=" + pending.size() + ", updates=" + updates + ", coalesced="
+                + coalesced + ", written=" + written + ", batches=" + batches + ", failures=" + failures + ", dropped="
+                + dropped + "]";
+    }
+
+    @Override
+    public void addCallDetailRecord(final CallDetailRecord cdr) {
+        dao.addCallDetailRecord(cdr);
+    }
+
+    @Override
+    public CallDetailRecord getCallDetailRecord(final Sid sid) {
+        final CallDetailRecord cdr = pending.get(sid);
+        return cdr != null ? cdr : dao.getCallDetailRecord(sid);
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecordsByAccountSid(final Sid accountSid) {
+        return overlay(dao.getCallDetailRecordsByAccountSid(accountSid));
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecordsByRecipient(final String recipient) {
+        return overlay(dao.getCallDetailRecordsByRecipient(recipient));
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecordsBySender(final String sender) {
+        return overlay(dao.getCallDetailRecordsBySender(sender));
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecordsByStatus(final String status) {
+        return overlay(dao.getCallDetailRecordsByStatus(status));
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecordsByStartTime(final DateTime startTime) {
+        return overlay(dao.getCallDetailRecordsByStartTime(startTime));
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecordsByEndTime(final DateTime endTime) {
+        return overlay(dao.getCallDetailRecordsByEndTime(endTime));
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecordsByStarTimeAndEndTime(final DateTime endTime) {
+        return overlay(dao.getCallDetailRecordsByStarTimeAndEndTime(endTime));
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecordsByParentCall(final Sid parentCallSid) {
+        return overlay(dao.getCallDetailRecordsByParentCall(parentCallSid));
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecordsByConferenceSid(final Sid conferenceSid) {
+        return overlay(dao.getCallDetailRecordsByConferenceSid(conferenceSid));
+    }
+
+    @Override
+    public List<CallDetailRecord> getRunningCallDetailRecordsByConferenceSid(final Sid conferenceSid) {
+        return overlay(dao.getRunningCallDetailRecordsByConferenceSid(conferenceSid));
+    }
+
+    @Override
+    public Integer getTotalRunningCallDetailRecordsByConferenceSid(final Sid conferenceSid) {
+        return dao.getTotalRunningCallDetailRecordsByConferenceSid(conferenceSid);
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecordsByInstanceId(final Sid instanceId) {
+        return overlay(dao.getCallDetailRecordsByInstanceId(instanceId));
+    }
+
+    @Override
+    public List<CallDetailRecord> getInCompleteCallDetailRecordsByInstanceId(final Sid instanceId) {
+        return overlay(dao.getInCompleteCallDetailRecordsByInstanceId(instanceId));
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecordsByMsId(final String msId) {
+        return overlay(dao.getCallDetailRecordsByMsId(msId));
+    }
+
+    @Override
+    public Double getAverageCallDurationLast24Hours(final Sid instanceId) throws ParseException {
+        return dao.getAverageCallDurationLast24Hours(instanceId);
+    }
+
+    @Override
+    public Double getAverageCallDurationLastHour(final Sid instanceId) throws ParseException {
+        return dao.getAverageCallDurationLastHour(instanceId);
+    }
+
+    @Override
+    public void removeCallDetailRecord(final Sid sid) {
+        pending.remove(sid);
+        dao.removeCallDetailRecord(sid);
+    }
+
+    @Override
+    public void removeCallDetailRecords(final Sid accountSid) {
+        final Iterator<CallDetailRecord> records = pending.values().iterator();
+        while (records.hasNext()) {
+            if (accountSid.equals(records.next().getAccountSid())) {
+                records.remove();
+            }
+        }
+        dao.removeCallDetailRecords(accountSid);
+    }
+
+    @Override
+    public void updateCallDetailRecord(final CallDetailRecord cdr) {
+        if (flusher.isShutdown()) {
+            dao.updateCallDetailRecord(cdr);
+            return;
+        }
+        synchronized (journalLock) {
+            if (journal != null) {
+                try {
+                    journal.append(cdr);
+                    journaled = true;
+                } catch (final IOException exception) {
+                    logger.error("Could not journal the call detail record " + cdr.getSid(), exception);
+                }
+            }
+            if (pending.put(cdr.getSid(), cdr) != null) {
+                coalesced.incrementAndGet();
+            }
+        }
+        updates.incrementAndGet();
+        if (isEnded(cdr)) {
+            flusher.execute(flush);
+        }
+    }
+
+    @Override
+    public void updateCallDetailRecords(final Collection<CallDetailRecord> cdrs) {
+        for (final CallDetailRecord cdr : cdrs) {
+            updateCallDetailRecord(cdr);
+        }
+    }
+
+    @Override
+    public void updateInCompleteCallDetailRecordsToCompletedByInstanceId(final Sid instanceId) {
+        flush();
+        dao.updateInCompleteCallDetailRecordsToCompletedByInstanceId(instanceId);
+    }
+
+    @Override
+    public List<CallDetailRecord> getCallDetailRecords(final CallDetailRecordFilter filter) {
+        return overlay(dao.getCallDetailRecords(filter));
+    }
+
+    @Override
+    public Integer getTotalCallDetailRecords(final CallDetailRecordFilter filter) {
+        return dao.getTotalCallDetailRecords(filter);
+    }
+
+    @Override
+    public void getCallDetailRecords(final CallDetailRecordFilter filter, final RecordHandler<CallDetailRecord> handler) {
+        dao.getCallDetailRecords(filter, new RecordHandler<CallDetailRecord>() {
+            @Override
+            public void handle(final CallDetailRecord record) {
+                final CallDetailRecord cdr = pending.get(record.getSid());
+                handler.handle(cdr != null ? cdr : record);
+            }
+        });
+    }
+
+    @Override
+    public Integer getInProgressCallsByClientName(final String client) {
+        return dao.getInProgressCallsByClientName(client);
+    }
+
+    @Override
+    public Integer getInProgressCallsByAccountSid(final String accountSid) {
+        return dao.getInProgressCallsByAccountSid(accountSid);
+    }
+
+    private List<CallDetailRecord> overlay(final List<CallDetailRecord> records) {
+        if (records == null || pending.isEmpty()) {
+            return records;
+        }
+        final List<CallDetailRecord> result = new ArrayList<CallDetailRecord>(records.size());
+        for (final CallDetailRecord record : records) {
+            final CallDetailRecord cdr = pending.get(record.getSid());
+            result.add(cdr != null ? cdr : record);
+        }
+        return result;
+    }
+
+    private static boolean isEnded(final CallDetailRecord cdr) {
+        if (cdr.getEndTime() != null) {
+            return true;
+        }
+        final String status = cdr.getStatus();
+        if (status == null) {
+            return false;
+        }
+        final String state = status.toLowerCase().replace('_', '-');
+        return "completed".equals(state) || "canceled".equals(state) || "busy".equals(state) || "failed".equals(state)
+                || "no-answer".equals(state) || "not-found".equals(state);
+    }
+}
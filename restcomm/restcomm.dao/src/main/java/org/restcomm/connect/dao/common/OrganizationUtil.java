@@ -58,7 +58,6 @@ public class OrganizationUtil {
 
         IncomingPhoneNumber number = null;
         boolean failCall = false;
-        List<IncomingPhoneNumber> numbers = new ArrayList<IncomingPhoneNumber>();
         final IncomingPhoneNumbersDao numbersDao = storage.getIncomingPhoneNumbersDao();
         try{
             Sid destinationOrganizationSid = getOrganizationSidBySipURIHost(storage, (SipURI)request.getRequestURI());
@@ -70,67 +69,10 @@ public class OrganizationUtil {
                 if(logger.isDebugEnabled())
                     logger.debug("getMostOptimalIncomingPhoneNumber: sourceOrganizationSid: "+sourceOrganizationSid+" : destinationOrganizationSid: "+destinationOrganizationSid +" request Uri is: "+(SipURI)request.getRequestURI()+ " To Uri is: "+(SipURI)request.getTo().getURI());
 
-                // Format the destination to an E.164 phone number.
-                final PhoneNumberUtil phoneNumberUtil = PhoneNumberUtil.getInstance();
-                String formatedPhone = null;
-                if (!(phone.contains("*") || phone.contains("#"))) {
-                    try {
-                        formatedPhone = phoneNumberUtil.format(phoneNumberUtil.parse(phone, "US"), PhoneNumberFormat.E164);
-                    } catch (NumberParseException e) {
-                        //logger.error("Exception when try to format : " + e);
-                    }
-                }
-                if (formatedPhone == null) {
-                    //Don't format to E.164 if phone contains # or * as this is
-                    //for a Regex or USSD short number
-                    formatedPhone = phone;
-                }else {
-                    //get all number with same number, by both formatedPhone and unformatedPhone
-                    numbers = OrganizationUtil.searchAndAddNumberToTheList(numbers, formatedPhone, numbersDao);
-                }
-                numbers = OrganizationUtil.searchAndAddNumberToTheList(numbers, phone, numbersDao);
-                if (phone.startsWith("+")) {
-                    //remove the (+) and check if exists
-                    phone= phone.replaceFirst("\\+","");
-                    numbers = OrganizationUtil.searchAndAddNumberToTheList(numbers, phone, numbersDao);
-                } else {
-                    //Add "+" add check if number exists
-                    phone = "+".concat(phone);
-                    numbers = OrganizationUtil.searchAndAddNumberToTheList(numbers, phone, numbersDao);
-                }
-                if(numbers == null || numbers.isEmpty()){
-                    // https://github.com/Mobicents/RestComm/issues/84 using wildcard as default application
-                    numbers = OrganizationUtil.searchAndAddNumberToTheList(numbers, "*", numbersDao);
-                }
-                if(numbers != null && !numbers.isEmpty()){
-                    // find number in same organization
-                    for(IncomingPhoneNumber n : numbers){
-                        if(n != null){
-                            if(logger.isDebugEnabled())
-                                logger.debug(String.format("getMostOptimalIncomingPhoneNumber: Got a similar number from DB: Analysis report: Number:Sid = %s : %s | Is Number pure sip? %s | Number's organizations: %s", n.getPhoneNumber(), n.getSid(), n.isPureSip(), n.getOrganizationSid()));
-                            if(n.getOrganizationSid().equals(destinationOrganizationSid)){
-                                /*
-                                 * check if request is coming from same org
-                                 * if not then only allow provider numbers
-                                 */
-                                if((sourceOrganizationSid != null && sourceOrganizationSid.equals(destinationOrganizationSid)) || (sourceOrganizationSid == null) || !n.isPureSip()){
-                                    number = n;
-                                    if(logger.isInfoEnabled())
-                                        logger.info(String.format("Found most optimal phone number: Number:Sid = %s : %s", n.getPhoneNumber(), n.getSid()));
-                                }else{
-                                    if(logger.isDebugEnabled())
-                                        logger.debug("not allowed to call this number due to organizational restrictions");
-                                }
-                            }else{
-                                if(logger.isDebugEnabled())
-                                    logger.debug(String.format("getMostOptimalIncomingPhoneNumber: Number:Sid = %s : %s does not belong to requested/destination organization: %s", n.getPhoneNumber(), n.getSid(), destinationOrganizationSid));
-                            }
-                            if(number != null)
-                                break;
-                        }
-                    }
-                    failCall = number == null;
-                }
+                // all spellings of the number are resolved with a single query
+                final MostOptimalNumberResponse response = numbersDao.getMostOptimalIncomingPhoneNumber(getPhoneNumberSpellings(phone), destinationOrganizationSid, sourceOrganizationSid);
+                number = response.number();
+                failCall = response.isRelevant();
             }
         }catch(Exception e){
             logger.error("Error while trying to retrive getMostOptimalIncomingPhoneNumber: ", e);
@@ -140,6 +82,34 @@ public class OrganizationUtil {
         return new MostOptimalNumberResponse(number, failCall);
     }
 
+    /**
+     * @param phone
+     * @return the spellings a dialed number can be hosted with, most specific first: E.164, as dialed, and with or without
+     * the leading '+'
+     */
+    public static List<String> getPhoneNumberSpellings(String phone) {
+        final List<String> spellings = new ArrayList<String>(3);
+        // Format the destination to an E.164 phone number.
+        final PhoneNumberUtil phoneNumberUtil = PhoneNumberUtil.getInstance();
+        //Don't format to E.164 if phone contains # or * as this is
+        //for a Regex or USSD short number
+        if (!(phone.contains("*") || phone.contains("#"))) {
+            try {
+                spellings.add(phoneNumberUtil.format(phoneNumberUtil.parse(phone, "US"), PhoneNumberFormat.E164));
+            } catch (NumberParseException e) {
+                //logger.error("Exception when try to format : " + e);
+            }
+        }
+        spellings.add(phone);
+        if (phone.startsWith("+")) {
+            //remove the (+) and check if exists
+            spellings.add(phone.replaceFirst("\\+",""));
+        } else {
+            //Add "+" add check if number exists
+            spellings.add("+".concat(phone));
+        }
+        return spellings;
+    }
 
     /**
      * getOrganizationSidBySipURIHost
@@ -163,22 +133,4 @@ public class OrganizationUtil {
     public static Sid getOrganizationSidByAccountSid(DaoManager storage, final Sid accountSid){
         return storage.getAccountsDao().getAccount(accountSid).getOrganizationSid();
     }
-
-    /**
-     * @param numbers
-     * @param phone
-     * @param numbersDao
-     * @return
-     */
-    private static List<IncomingPhoneNumber> searchAndAddNumberToTheList(List<IncomingPhoneNumber> numbers, String phone, IncomingPhoneNumbersDao numbersDao){
-        List<IncomingPhoneNumber> listOfNumbers = numbersDao.getIncomingPhoneNumber(phone);
-        if(listOfNumbers !=null && !listOfNumbers.isEmpty()){
-            if(numbers == null || numbers.isEmpty()){
-                numbers = listOfNumbers;
-            }else{
-                numbers.addAll(listOfNumbers);
-            }
-        }
-        return numbers;
-    }
 }
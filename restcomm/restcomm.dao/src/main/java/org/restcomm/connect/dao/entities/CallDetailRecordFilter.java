@@ -45,6 +45,9 @@ public class CallDetailRecordFilter {
     private final Integer limit;
     private final Integer offset;
     private final String instanceid;
+    private final Date afterDateCreated; // keyset bound, only records after (afterDateCreated, afterSid) are returned
+    private final String afterSid;
+    private final boolean descending; // keyset order, newest records first when set
 
     public CallDetailRecordFilter(String accountSid, List<String> accountSidSet, String recipient, String sender, String status, String startTime, String endTime,
                                   String parentCallSid, String conferenceSid, Integer limit, Integer offset) throws ParseException {
@@ -53,6 +56,18 @@ public class CallDetailRecordFilter {
 
     public CallDetailRecordFilter(String accountSid, List<String> accountSidSet, String recipient, String sender, String status, String startTime, String endTime,
                                   String parentCallSid, String conferenceSid, Integer limit, Integer offset, String instanceId) throws ParseException {
+        this(accountSid, accountSidSet, recipient,sender,status,startTime,endTime,parentCallSid, conferenceSid, limit,offset,instanceId,null);
+    }
+
+    public CallDetailRecordFilter(String accountSid, List<String> accountSidSet, String recipient, String sender, String status, String startTime, String endTime,
+                                  String parentCallSid, String conferenceSid, Integer limit, Integer offset, String instanceId,
+                                  PageToken pageToken) throws ParseException {
+        this(accountSid, accountSidSet, recipient,sender,status,startTime,endTime,parentCallSid, conferenceSid, limit,offset,instanceId,pageToken,false);
+    }
+
+    public CallDetailRecordFilter(String accountSid, List<String> accountSidSet, String recipient, String sender, String status, String startTime, String endTime,
+                                  String parentCallSid, String conferenceSid, Integer limit, Integer offset, String instanceId,
+                                  PageToken pageToken, boolean descending) throws ParseException {
         this.accountSid = accountSid;
         this.accountSidSet = accountSidSet;
 
@@ -89,6 +104,14 @@ public class CallDetailRecordFilter {
         } else {
             this.instanceid = null;
         }
+        if (pageToken != null) {
+            this.afterDateCreated = pageToken.getDateCreated().toDate();
+            this.afterSid = pageToken.getSid().toString();
+        } else {
+            this.afterDateCreated = null;
+            this.afterSid = null;
+        }
+        this.descending = descending;
     }
 
     public String getSid() {
@@ -136,4 +159,16 @@ public class CallDetailRecordFilter {
     }
 
     public String getInstanceid() { return instanceid; }
+
+    public Date getAfterDateCreated() {
+        return afterDateCreated;
+    }
+
+    public String getAfterSid() {
+        return afterSid;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
 }
@@ -0,0 +1,72 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.dao.entities;
+
+import org.joda.time.DateTime;
+import org.restcomm.connect.commons.annotations.concurrency.Immutable;
+import org.restcomm.connect.commons.dao.Sid;
+
+/**
+ * The position of the last record on a page of a list ordered by date created and sid. Handing it back seeks
+ * straight to the next page instead of counting past all the records before it.
+ */
+@Immutable
+public final class PageToken {
+    private static final char SEPARATOR = '-';
+
+    private final DateTime dateCreated;
+    private final Sid sid;
+
+    public PageToken(final DateTime dateCreated, final Sid sid) {
+        super();
+        this.dateCreated = dateCreated;
+        this.sid = sid;
+    }
+
+    /**
+     * @param token a value previously returned by {@link #toString()}.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static PageToken parse(final String token) throws IllegalArgumentException {
+        final int separator = token.indexOf(SEPARATOR);
+        if (separator <= 0) {
+            throw new IllegalArgumentException(token + " is not a valid page token.");
+        }
+        try {
+            final long millis = Long.parseLong(token.substring(0, separator));
+            return new PageToken(new DateTime(millis), new Sid(token.substring(separator + 1)));
+        } catch (final NumberFormatException exception) {
+            throw new IllegalArgumentException(token + " is not a valid page token.", exception);
+        }
+    }
+
+    public DateTime getDateCreated() {
+        return dateCreated;
+    }
+
+    public Sid getSid() {
+        return sid;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(dateCreated.getMillis()) + SEPARATOR + sid;
+    }
+}
@@ -0,0 +1,401 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.dao.mybatis;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.apache.log4j.Logger;
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+import org.restcomm.connect.commons.dao.Sid;
+import org.restcomm.connect.dao.entities.IncomingPhoneNumber;
+
+/**
+ * Resident matching index for the regex/wildcard incoming phone numbers.
+ * <p>
+ * Every pattern is compiled once when it enters the index. Patterns anchored with '^' are keyed by their literal prefix in a
+ * trie walked from the start of the dialed number, unanchored patterns are keyed by their literal prefix in an Aho-Corasick
+ * automaton run over the dialed number, and patterns without a usable literal are always evaluated. Only the candidates found
+ * this way are handed to the regex engine, in the same order the numbers were loaded, so the first match is the same one
+ * the sequential scan over the database rows used to return.
+ * <p>
+ * Readers work on an immutable snapshot and never block. Writers are serialized and publish a new snapshot without
+ * recompiling the patterns that were already indexed. Between loads the index only reflects the changes made through this
+ * node's DAO, which reloads it once it is older than its time to live.
+ */
+@ThreadSafe
+final class IncomingPhoneNumberRegexIndex {
+    // Characters that make the getIncomingPhoneNumbersRegex statement select a phone number.
+    private static final String REGEX_MARKERS = "*#^|.$\\[]";
+    private static final String META_CHARACTERS = "\\[](){}.*+?^$|";
+    private static final String QUANTIFIERS = "*+?{";
+
+    private static final Logger logger = Logger.getLogger(IncomingPhoneNumberRegexIndex.class);
+
+    private volatile Snapshot snapshot;
+    private volatile long loaded;
+
+    IncomingPhoneNumberRegexIndex() {
+        super();
+    }
+
+    /**
+     * Mirrors the WHERE clause of the getIncomingPhoneNumbersRegex statement.
+     */
+    static boolean isRegex(final String phoneNumber) {
+        if (phoneNumber == null) {
+            return false;
+        }
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            if (REGEX_MARKERS.indexOf(phoneNumber.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * @return true if the index was never loaded or was last loaded more than the given time ago.
+     */
+    boolean isOlderThan(final long millis, final long now) {
+        return snapshot == null || now - loaded > millis;
+    }
+
+    int size() {
+        final Snapshot current = snapshot;
+        return current == null ? 0 : current.entries.length;
+    }
+
+    synchronized void load(final List<IncomingPhoneNumber> numbers) {
+        final List<Entry> entries = new ArrayList<Entry>(numbers.size());
+        for (final IncomingPhoneNumber number : numbers) {
+            entries.add(new Entry(number));
+        }
+        snapshot = new Snapshot(entries);
+        loaded = System.currentTimeMillis();
+        if (logger.isInfoEnabled()) {
+            logger.info(String.format("Indexed %d Regex IncomingPhone numbers", entries.size()));
+        }
+    }
+
+    /**
+     * Adds or replaces the phone number with the same sid. Numbers that are not regular expressions are dropped from the index.
+     */
+    synchronized void put(final IncomingPhoneNumber number) {
+        if (snapshot == null) {
+            // Will be picked up from the database on first use.
+            return;
+        }
+        final List<Entry> entries = new ArrayList<Entry>(snapshot.entries.length + 1);
+        boolean replaced = false;
+        for (final Entry entry : snapshot.entries) {
+            if (entry.number.getSid().equals(number.getSid())) {
+                if (isRegex(number.getPhoneNumber())) {
+                    entries.add(entry.pattern.equals(toPattern(number.getPhoneNumber())) ? entry.with(number) : new Entry(number));
+                }
+                replaced = true;
+            } else {
+                entries.add(entry);
+            }
+        }
+        if (!replaced && isRegex(number.getPhoneNumber())) {
+            entries.add(new Entry(number));
+        }
+        snapshot = new Snapshot(entries);
+    }
+
+    synchronized void remove(final Sid sid) {
+        if (snapshot == null) {
+            return;
+        }
+        final List<Entry> entries = new ArrayList<Entry>(snapshot.entries.length);
+        for (final Entry entry : snapshot.entries) {
+            if (!entry.number.getSid().equals(sid)) {
+                entries.add(entry);
+            }
+        }
+        snapshot = new Snapshot(entries);
+    }
+
+    synchronized void removeByAccount(final Sid accountSid) {
+        if (snapshot == null) {
+            return;
+        }
+        final List<Entry> entries = new ArrayList<Entry>(snapshot.entries.length);
+        for (final Entry entry : snapshot.entries) {
+            if (!accountSid.equals(entry.number.getAccountSid())) {
+                entries.add(entry);
+            }
+        }
+        snapshot = new Snapshot(entries);
+    }
+
+    boolean contains(final Sid sid) {
+        final Snapshot current = snapshot;
+        if (current != null) {
+            for (final Entry entry : current.entries) {
+                if (entry.number.getSid().equals(sid)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the first indexed phone number whose pattern is found in the inbound phone number, or null.
+     */
+    IncomingPhoneNumber match(final String inboundPhoneNumber) {
+        final Snapshot current = snapshot;
+        if (current == null || current.entries.length == 0) {
+            return null;
+        }
+        final BitSet candidates = current.candidates(inboundPhoneNumber);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            final Entry entry = current.entries[i];
+            if (entry.compiled == null) {
+                // An invalid pattern used to abort the whole scan.
+                if (logger.isDebugEnabled()) {
+                    logger.debug(String.format("Invalid Regex \"%s\" while matching phone number \"%s\"", entry.pattern, inboundPhoneNumber));
+                }
+                return null;
+            }
+            if (!entry.compiled.matcher(inboundPhoneNumber).find()) {
+                continue;
+            }
+            // The matched pattern is resolved back to the hosted number by value, like the select by phone number did.
+            final List<IncomingPhoneNumber> hosted = current.byPhoneNumber.get(entry.pattern);
+            if (hosted == null) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug(String.format("Regex \"%s\" cannot be matched for phone number \"%s\"", entry.pattern, inboundPhoneNumber));
+                }
+                continue;
+            }
+            if (hosted.size() > 1) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug(String.format("Regex \"%s\" is hosted %d times, cannot match phone number \"%s\"", entry.pattern, hosted.size(), inboundPhoneNumber));
+                }
+                return null;
+            }
+            if (logger.isInfoEnabled()) {
+                logger.info(String.format("Pattern \"%s\" matched the phone number \"%s\"", entry.pattern, inboundPhoneNumber));
+            }
+            return hosted.get(0);
+        }
+        return null;
+    }
+
+    static String toPattern(final String phoneNumber) {
+        if (phoneNumber.startsWith("+")) {
+            return phoneNumber.replace("+", "/+");
+        } else if (phoneNumber.startsWith("*")) {
+            return phoneNumber.replace("*", "/*");
+        }
+        return phoneNumber;
+    }
+
+    private static final class Entry {
+        private final IncomingPhoneNumber number;
+        private final String pattern;
+        private final Pattern compiled;
+        private final boolean anchored;
+        private final String literal;
+
+        private Entry(final IncomingPhoneNumber number) {
+            this.number = number;
+            this.pattern = toPattern(number.getPhoneNumber());
+            Pattern compiled = null;
+            try {
+                compiled = Pattern.compile(pattern);
+            } catch (final PatternSyntaxException exception) {
+                logger.warn(String.format("Regex IncomingPhone number \"%s\" is not a valid pattern", number.getPhoneNumber()));
+            }
+            this.compiled = compiled;
+            this.anchored = pattern.startsWith("^");
+            this.literal = compiled == null ? "" : literalPrefix(pattern, anchored);
+        }
+
+        private Entry(final Entry entry, final IncomingPhoneNumber number) {
+            this.number = number;
+            this.pattern = entry.pattern;
+            this.compiled = entry.compiled;
+            this.anchored = entry.anchored;
+            this.literal = entry.literal;
+        }
+
+        private Entry with(final IncomingPhoneNumber number) {
+            return new Entry(this, number);
+        }
+
+        // The characters every match must start with, or an empty string if there is no such guarantee.
+        private static String literalPrefix(final String pattern, final boolean anchored) {
+            if (pattern.indexOf('|') >= 0) {
+                return "";
+            }
+            final StringBuilder buffer = new StringBuilder();
+            for (int i = anchored ? 1 : 0; i < pattern.length(); i++) {
+                final char c = pattern.charAt(i);
+                if (META_CHARACTERS.indexOf(c) >= 0) {
+                    break;
+                }
+                if (i + 1 < pattern.length() && QUANTIFIERS.indexOf(pattern.charAt(i + 1)) >= 0) {
+                    break;
+                }
+                buffer.append(c);
+            }
+            return buffer.toString();
+        }
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<Character, Node>(4);
+        private final List<Integer> terminals = new ArrayList<Integer>(1);
+        private Node fail;
+        private int[] outputs;
+
+        private Node child(final char c) {
+            Node child = children.get(c);
+            if (child == null) {
+                child = new Node();
+                children.put(c, child);
+            }
+            return child;
+        }
+    }
+
+    private static final class Snapshot {
+        private final Entry[] entries;
+        private final Map<String, List<IncomingPhoneNumber>> byPhoneNumber;
+        // Entries that must always be evaluated: no literal prefix or not a valid pattern.
+        private final BitSet unconditional;
+        // Literal prefixes of the '^' anchored patterns.
+        private final Node prefixes;
+        // Aho-Corasick automaton over the literal prefixes of the unanchored patterns.
+        private final Node automaton;
+
+        private Snapshot(final List<Entry> entries) {
+            this.entries = entries.toArray(new Entry[entries.size()]);
+            this.byPhoneNumber = new HashMap<String, List<IncomingPhoneNumber>>();
+            this.unconditional = new BitSet(this.entries.length);
+            this.prefixes = new Node();
+            this.automaton = new Node();
+            for (final Entry entry : this.entries) {
+                List<IncomingPhoneNumber> hosted = byPhoneNumber.get(entry.number.getPhoneNumber());
+                if (hosted == null) {
+                    hosted = new ArrayList<IncomingPhoneNumber>(1);
+                    byPhoneNumber.put(entry.number.getPhoneNumber(), hosted);
+                }
+                hosted.add(entry.number);
+            }
+            for (int i = 0; i < this.entries.length; i++) {
+                final Entry entry = this.entries[i];
+                if (entry.compiled != null && !byPhoneNumber.containsKey(entry.pattern)) {
+                    // An escaped pattern that does not resolve to a hosted number can never be returned.
+                    continue;
+                }
+                if (entry.literal.isEmpty()) {
+                    unconditional.set(i);
+                } else {
+                    Node node = entry.anchored ? prefixes : automaton;
+                    for (int j = 0; j < entry.literal.length(); j++) {
+                        node = node.child(entry.literal.charAt(j));
+                    }
+                    node.terminals.add(i);
+                }
+            }
+            link(automaton);
+        }
+
+        // Computes the failure links and the merged outputs of the automaton, breadth first.
+        private static void link(final Node root) {
+            root.fail = root;
+            root.outputs = toArray(root.terminals, null);
+            final LinkedList<Node> queue = new LinkedList<Node>();
+            for (final Node child : root.children.values()) {
+                child.fail = root;
+                child.outputs = toArray(child.terminals, root.outputs);
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                final Node node = queue.removeFirst();
+                for (final Map.Entry<Character, Node> edge : node.children.entrySet()) {
+                    final char c = edge.getKey();
+                    final Node child = edge.getValue();
+                    Node fail = node.fail;
+                    while (fail != root && !fail.children.containsKey(c)) {
+                        fail = fail.fail;
+                    }
+                    final Node target = fail.children.get(c);
+                    child.fail = target != null ? target : root;
+                    child.outputs = toArray(child.terminals, child.fail.outputs);
+                    queue.add(child);
+                }
+            }
+        }
+
+        private static int[] toArray(final List<Integer> terminals, final int[] inherited) {
+            final int extra = inherited == null ? 0 : inherited.length;
+            final int[] outputs = new int[terminals.size() + extra];
+            for (int i = 0; i < terminals.size(); i++) {
+                outputs[i] = terminals.get(i);
+            }
+            if (extra > 0) {
+                System.arraycopy(inherited, 0, outputs, terminals.size(), extra);
+            }
+            return outputs;
+        }
+
+        private BitSet candidates(final String input) {
+            final BitSet candidates = (BitSet) unconditional.clone();
+            Node node = prefixes;
+            for (int i = 0; i < input.length() && node != null; i++) {
+                node = node.children.get(input.charAt(i));
+                if (node != null) {
+                    for (final Integer terminal : node.terminals) {
+                        candidates.set(terminal);
+                    }
+                }
+            }
+            node = automaton;
+            for (int i = 0; i < input.length(); i++) {
+                final char c = input.charAt(i);
+                while (node != automaton && !node.children.containsKey(c)) {
+                    node = node.fail;
+                }
+                final Node next = node.children.get(c);
+                node = next == null ? automaton : next;
+                for (final int output : node.outputs) {
+                    candidates.set(output);
+                }
+            }
+            return candidates;
+        }
+    }
+}
@@ -25,12 +25,16 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Currency;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.joda.time.DateTime;
@@ -40,6 +44,7 @@ import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
 import org.restcomm.connect.commons.dao.Sid;
 import org.restcomm.connect.dao.CallDetailRecordsDao;
 import org.restcomm.connect.dao.DaoUtils;
+import org.restcomm.connect.dao.common.RecordHandler;
 import org.restcomm.connect.dao.entities.CallDetailRecord;
 import org.restcomm.connect.dao.entities.CallDetailRecordFilter;
 
@@ -151,6 +156,22 @@ public final class MybatisCallDetailRecordsDao implements CallDetailRecordsDao {
         }
     }
 
+    @Override
+    public void getCallDetailRecords(final CallDetailRecordFilter filter, final RecordHandler<CallDetailRecord> handler) {
+        final SqlSession session = sessions.openSession();
+        try {
+            session.select(namespace + "getCallDetailRecordsPageByUsingFilters", filter, new ResultHandler() {
+                @SuppressWarnings("unchecked")
+                @Override
+                public void handleResult(final ResultContext context) {
+                    handler.handle(toCallDetailRecord((Map<String, Object>) context.getResultObject()));
+                }
+            });
+        } finally {
+            session.close();
+        }
+    }
+
     @Override
     public List<CallDetailRecord> getCallDetailRecordsByAccountSid(final Sid accountSid) {
         return getCallDetailRecords(namespace + "getCallDetailRecords", accountSid.toString());
@@ -303,6 +324,19 @@ public final class MybatisCallDetailRecordsDao implements CallDetailRecordsDao {
         }
     }
 
+    @Override
+    public void updateCallDetailRecords(final Collection<CallDetailRecord> cdrs) {
+        final SqlSession session = sessions.openSession(ExecutorType.BATCH);
+        try {
+            for (final CallDetailRecord cdr : cdrs) {
+                session.update(namespace + "updateCallDetailRecord", toMap(cdr));
+            }
+            session.commit();
+        } finally {
+            session.close();
+        }
+    }
+
     @Override
     public void updateInCompleteCallDetailRecordsToCompletedByInstanceId(Sid instanceId) {
         final SqlSession session = sessions.openSession();
@@ -19,16 +19,24 @@
  */
 package org.restcomm.connect.dao.mybatis;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.IOException;
 import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.configuration.Configuration;
+import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
 import org.restcomm.connect.commons.amazonS3.S3AccessTool;
 import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+import org.restcomm.connect.commons.metrics.Gauge;
+import org.restcomm.connect.commons.metrics.MetricsRegistry;
 import org.restcomm.connect.dao.AccountsDao;
 import org.restcomm.connect.dao.AnnouncementsDao;
 import org.restcomm.connect.dao.ApplicationsDao;
@@ -54,6 +62,17 @@ import org.restcomm.connect.dao.ShortCodesDao;
 import org.restcomm.connect.dao.SmsMessagesDao;
 import org.restcomm.connect.dao.TranscriptionsDao;
 import org.restcomm.connect.dao.UsageDao;
+import org.restcomm.connect.dao.cache.CachingAccountsDao;
+import org.restcomm.connect.dao.cache.CachingApplicationsDao;
+import org.restcomm.connect.dao.cache.CachingClientsDao;
+import org.restcomm.connect.dao.cache.CachingOrganizationsDao;
+import org.restcomm.connect.dao.cache.EntityCache;
+import org.restcomm.connect.dao.cache.InMemoryRegistrationsDao;
+import org.restcomm.connect.dao.cache.WriteBehindCallDetailRecordsDao;
+import org.restcomm.connect.dao.entities.Account;
+import org.restcomm.connect.dao.entities.Application;
+import org.restcomm.connect.dao.entities.Client;
+import org.restcomm.connect.dao.entities.Organization;
 import scala.concurrent.ExecutionContext;
 
 /**
@@ -90,6 +109,9 @@ public final class MybatisDaoManager implements DaoManager {
     private ExtensionsConfigurationDao extensionsConfigurationDao;
     private GeolocationDao geolocationDao;
     private OrganizationsDao organizationsDao;
+    private final List<EntityCache<?>> entityCaches = new ArrayList<EntityCache<?>>();
+    private WriteBehindCallDetailRecordsDao writeBehindCallDetailRecordsDao;
+    private InMemoryRegistrationsDao inMemoryRegistrationsDao;
 
     private ExecutionContext ec;
 
@@ -225,9 +247,23 @@ public final class MybatisDaoManager implements DaoManager {
         return organizationsDao;
     }
 
+    /**
+     * @return the entity caches switched on in the dao-manager configuration.
+     */
+    public List<EntityCache<?>> getEntityCaches() {
+        return entityCaches;
+    }
+
     @Override
     public void shutdown() {
-        // Nothing to do.
+        if (writeBehindCallDetailRecordsDao != null) {
+            writeBehindCallDetailRecordsDao.shutdown();
+            writeBehindCallDetailRecordsDao = null;
+        }
+        if (inMemoryRegistrationsDao != null) {
+            inMemoryRegistrationsDao.shutdown();
+            inMemoryRegistrationsDao = null;
+        }
     }
 
     @Override
@@ -269,19 +305,44 @@ public final class MybatisDaoManager implements DaoManager {
     }
 
     public void start(final SqlSessionFactory sessions) {
+        timeStatements(sessions);
         // Instantiate the DAO objects.
+        entityCaches.clear();
         accountsDao = new MybatisAccountsDao(sessions);
+        final EntityCache<Account> accounts = createEntityCache("accounts");
+        if (accounts != null) {
+            final EntityCache<List<String>> lineages = createEntityCache("accounts", "account-lineages");
+            accountsDao = new CachingAccountsDao(accountsDao, accounts, lineages);
+        }
         applicationsDao = new MybatisApplicationsDao(sessions);
+        final EntityCache<Application> applications = createEntityCache("applications");
+        if (applications != null) {
+            applicationsDao = new CachingApplicationsDao(applicationsDao, applications);
+        }
         announcementsDao = new MybatisAnnouncementsDao(sessions);
         availablePhoneNumbersDao = new MybatisAvailablePhoneNumbersDao(sessions);
         callDetailRecordsDao = new MybatisCallDetailRecordsDao(sessions);
+        writeBehindCallDetailRecordsDao = createWriteBehindCallDetailRecordsDao(callDetailRecordsDao);
+        if (writeBehindCallDetailRecordsDao != null) {
+            callDetailRecordsDao = writeBehindCallDetailRecordsDao;
+            exposeMetrics(writeBehindCallDetailRecordsDao);
+        }
         conferenceDetailRecordsDao = new MybatisConferenceDetailRecordsDao(sessions);
         clientsDao = new MybatisClientsDao(sessions);
+        final EntityCache<Client> clients = createEntityCache("clients");
+        if (clients != null) {
+            clientsDao = new CachingClientsDao(clientsDao, clients);
+        }
         httpCookiesDao = new MybatisHttpCookiesDao(sessions);
         incomingPhoneNumbersDao = new MybatisIncomingPhoneNumbersDao(sessions);
         notificationsDao = new MybatisNotificationsDao(sessions);
         outgoingCallerIdsDao = new MybatisOutgoingCallerIdsDao(sessions);
         presenceRecordsDao = new MybatisRegistrationsDao(sessions);
+        inMemoryRegistrationsDao = createInMemoryRegistrationsDao(presenceRecordsDao);
+        if (inMemoryRegistrationsDao != null) {
+            presenceRecordsDao = inMemoryRegistrationsDao;
+            exposeMetrics(inMemoryRegistrationsDao);
+        }
         if (s3AccessTool != null) {
             final String recordingPath = runtimeConfiguration.getString("recordings-path");
             recordingsDao = new MybatisRecordingsDao(sessions, s3AccessTool, recordingPath, ec);
@@ -299,5 +360,138 @@ public final class MybatisDaoManager implements DaoManager {
         extensionsConfigurationDao = new MybatisExtensionsConfigurationDao(sessions);
         geolocationDao = new MybatisGeolocationDao(sessions);
         organizationsDao = new MybatisOrganizationDao(sessions);
+        final EntityCache<Organization> organizations = createEntityCache("organizations");
+        if (organizations != null) {
+            organizationsDao = new CachingOrganizationsDao(organizationsDao, organizations);
+        }
+    }
+
+    // Sessions opened from now on run their statements through the timer.
+    private void timeStatements(final SqlSessionFactory sessions) {
+        for (final Interceptor interceptor : sessions.getConfiguration().getInterceptors()) {
+            if (interceptor instanceof StatementTimer) {
+                return;
+            }
+        }
+        sessions.getConfiguration().addInterceptor(new StatementTimer());
+    }
+
+    private void exposeMetrics(final WriteBehindCallDetailRecordsDao dao) {
+        final MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.gauge("restcomm_cdr_write_behind_pending", "Call detail records waiting to be written.", new Gauge() {
+            @Override
+            public double get() {
+                return dao.getPendingCount();
+            }
+        });
+        final String name = "restcomm_cdr_write_behind_total";
+        final String help = "Call detail record updates handled by the write-behind store.";
+        registry.counter(name, help, "result", "coalesced", new Gauge() {
+            @Override
+            public double get() {
+                return dao.getCoalescedCount();
+            }
+        });
+        registry.counter(name, help, "result", "written", new Gauge() {
+            @Override
+            public double get() {
+                return dao.getWrittenCount();
+            }
+        });
+        registry.counter(name, help, "result", "failed", new Gauge() {
+            @Override
+            public double get() {
+                return dao.getFailureCount();
+            }
+        });
+        registry.counter(name, help, "result", "dropped", new Gauge() {
+            @Override
+            public double get() {
+                return dao.getDroppedCount();
+            }
+        });
+    }
+
+    private void exposeMetrics(final InMemoryRegistrationsDao dao) {
+        final MetricsRegistry registry = MetricsRegistry.getInstance();
+        registry.gauge("restcomm_registrations", "Registrations held by the location service.", new Gauge() {
+            @Override
+            public double get() {
+                return dao.getSize();
+            }
+        });
+        registry.gauge("restcomm_registrations_pending", "Registration changes waiting to be written.", new Gauge() {
+            @Override
+            public double get() {
+                return dao.getPendingCount();
+            }
+        });
+        final String name = "restcomm_registrations_refreshes_total";
+        final String help = "Registration refreshes handled by the location service.";
+        registry.counter(name, help, "result", "deferred", new Gauge() {
+            @Override
+            public double get() {
+                return dao.getDeferredCount();
+            }
+        });
+        registry.counter(name, help, "result", "written", new Gauge() {
+            @Override
+            public double get() {
+                return dao.getWrittenCount();
+            }
+        });
+        registry.counter(name, help, "result", "failed", new Gauge() {
+            @Override
+            public double get() {
+                return dao.getFailureCount();
+            }
+        });
+    }
+
+    // Reads <write-behind><call-detail-records enabled="true" interval="..." batch-size="..." journal="..."/></write-behind>,
+    // returning null if it is switched off.
+    private WriteBehindCallDetailRecordsDao createWriteBehindCallDetailRecordsDao(final CallDetailRecordsDao dao) {
+        final String element = "write-behind.call-detail-records";
+        if (configuration == null || !configuration.getBoolean(element + "[@enabled]", false)) {
+            return null;
+        }
+        final long interval = configuration.getLong(element + "[@interval]", 250);
+        final int batchSize = configuration.getInt(element + "[@batch-size]", 500);
+        final String journal = configuration.getString(element + "[@journal]");
+        try {
+            return new WriteBehindCallDetailRecordsDao(dao, interval, TimeUnit.MILLISECONDS, batchSize,
+                    journal == null || journal.isEmpty() ? null : new File(journal));
+        } catch (final IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    // Reads <write-behind><registrations enabled="true" interval="..." persist-interval="..." clustered="..."/>
+    // </write-behind>, returning null if it is switched off.
+    private InMemoryRegistrationsDao createInMemoryRegistrationsDao(final RegistrationsDao dao) {
+        final String element = "write-behind.registrations";
+        if (configuration == null || !configuration.getBoolean(element + "[@enabled]", false)) {
+            return null;
+        }
+        final long interval = configuration.getLong(element + "[@interval]", 1000);
+        final long persistInterval = configuration.getLong(element + "[@persist-interval]", 120000);
+        final boolean clustered = configuration.getBoolean(element + "[@clustered]", false);
+        return new InMemoryRegistrationsDao(dao, interval, persistInterval, TimeUnit.MILLISECONDS, clustered);
+    }
+
+    // Reads <cache><name enabled="true" maximum-size="..." ttl="..."/></cache>, returning null if it is switched off.
+    private <T> EntityCache<T> createEntityCache(final String name) {
+        return createEntityCache(name, name);
+    }
+
+    private <T> EntityCache<T> createEntityCache(final String element, final String name) {
+        if (configuration == null || !configuration.getBoolean("cache." + element + "[@enabled]", false)) {
+            return null;
+        }
+        final long maximumSize = configuration.getLong("cache." + element + "[@maximum-size]", 10000);
+        final long timeToLive = configuration.getLong("cache." + element + "[@ttl]", 60);
+        final EntityCache<T> cache = new EntityCache<T>(name, maximumSize, timeToLive, TimeUnit.SECONDS);
+        entityCaches.add(cache);
+        return cache;
     }
 }
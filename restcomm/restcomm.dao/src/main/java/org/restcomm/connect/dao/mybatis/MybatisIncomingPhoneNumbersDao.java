@@ -21,11 +21,14 @@ package org.restcomm.connect.dao.mybatis;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -37,6 +40,10 @@ import org.restcomm.connect.dao.entities.IncomingPhoneNumberFilter;
 import org.restcomm.connect.commons.dao.Sid;
 import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
 import org.restcomm.connect.dao.entities.IncomingPhoneNumber;
+import org.restcomm.connect.dao.entities.MostOptimalNumberResponse;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 /**
  * @author quintana.thomas@gmail.com (Thomas Quintana)
@@ -46,13 +53,26 @@ import org.restcomm.connect.dao.entities.IncomingPhoneNumber;
 @ThreadSafe
 public final class MybatisIncomingPhoneNumbersDao implements IncomingPhoneNumbersDao {
     private static final String namespace = "org.mobicents.servlet.sip.restcomm.dao.IncomingPhoneNumbersDao.";
+    private static final String WILDCARD = "*";
+    private static final int RESOLUTIONS_MAXIMUM_SIZE = 10000;
+    // Bounds how long changes made by other nodes of a cluster stay invisible, to the resolutions and to the regex index.
+    private static final int RESOLUTIONS_TTL_SECONDS = 60;
     private final SqlSessionFactory sessions;
     private final Logger logger = Logger.getLogger(MybatisIncomingPhoneNumbersDao.class.getName());
-    private List<IncomingPhoneNumber> listPhones;
+    private final IncomingPhoneNumberRegexIndex regexIndex;
+    // Ranked matches per list of spellings of a dialed number.
+    private final Cache<List<String>, List<IncomingPhoneNumber>> resolutions;
+    private final AtomicLong generation;
+    private final AtomicBoolean reloadingRegexIndex;
 
     public MybatisIncomingPhoneNumbersDao(final SqlSessionFactory sessions) {
         super();
         this.sessions = sessions;
+        this.regexIndex = new IncomingPhoneNumberRegexIndex();
+        this.resolutions = CacheBuilder.newBuilder().maximumSize(RESOLUTIONS_MAXIMUM_SIZE)
+                .expireAfterWrite(RESOLUTIONS_TTL_SECONDS, TimeUnit.SECONDS).build();
+        this.generation = new AtomicLong();
+        this.reloadingRegexIndex = new AtomicBoolean();
     }
 
     @Override
@@ -64,6 +84,10 @@ public final class MybatisIncomingPhoneNumbersDao implements IncomingPhoneNumber
         } finally {
             session.close();
         }
+        if (IncomingPhoneNumberRegexIndex.isRegex(incomingPhoneNumber.getPhoneNumber())) {
+            refreshRegexIndex(incomingPhoneNumber.getSid());
+        }
+        invalidateResolutions();
     }
 
     @Override
@@ -74,12 +98,105 @@ public final class MybatisIncomingPhoneNumbersDao implements IncomingPhoneNumber
 
     @Override
     public List<IncomingPhoneNumber> getIncomingPhoneNumber(final String phoneNumber) {
-        return getIncomingPhoneNumber("getIncomingPhoneNumberByValue", phoneNumber);
+        final List<IncomingPhoneNumber> incomingPhoneNumbers = getIncomingPhoneNumber("getIncomingPhoneNumberByValue", phoneNumber);
+        final IncomingPhoneNumber incomingPhoneNumber = getIncomingPhoneNumberRegexMatch(phoneNumber);
+        if (incomingPhoneNumber != null) {
+            incomingPhoneNumbers.add(incomingPhoneNumber);
+        }
+        return incomingPhoneNumbers;
+    }
+
+    @Override
+    public List<IncomingPhoneNumber> getIncomingPhoneNumbersByValues(final List<String> phoneNumbers) {
+        final List<String> key = Collections.unmodifiableList(new ArrayList<String>(phoneNumbers));
+        List<IncomingPhoneNumber> incomingPhoneNumbers = resolutions.getIfPresent(key);
+        if (incomingPhoneNumbers == null) {
+            final long current = generation.get();
+            incomingPhoneNumbers = Collections.unmodifiableList(resolveIncomingPhoneNumbers(key));
+            // Do not cache a resolution that raced with a change made through this DAO.
+            if (current == generation.get()) {
+                resolutions.put(key, incomingPhoneNumbers);
+            }
+        }
+        return incomingPhoneNumbers;
+    }
+
+    private List<IncomingPhoneNumber> resolveIncomingPhoneNumbers(final List<String> phoneNumbers) {
+        final LinkedHashSet<String> values = new LinkedHashSet<String>(phoneNumbers);
+        values.add(WILDCARD);
+        // One round trip for all the spellings, the Regex numbers are matched against the resident index.
+        final List<IncomingPhoneNumber> hosted = getIncomingPhoneNumber("getIncomingPhoneNumbersByValues", new ArrayList<String>(values));
+        final List<IncomingPhoneNumber> incomingPhoneNumbers = new ArrayList<IncomingPhoneNumber>();
+        for (final String phoneNumber : phoneNumbers) {
+            addResolution(incomingPhoneNumbers, hosted, phoneNumber);
+        }
+        if (incomingPhoneNumbers.isEmpty()) {
+            // https://github.com/Mobicents/RestComm/issues/84 using wildcard as default application
+            addResolution(incomingPhoneNumbers, hosted, WILDCARD);
+        }
+        return incomingPhoneNumbers;
+    }
+
+    private void addResolution(final List<IncomingPhoneNumber> incomingPhoneNumbers, final List<IncomingPhoneNumber> hosted,
+            final String phoneNumber) {
+        for (final IncomingPhoneNumber incomingPhoneNumber : hosted) {
+            if (phoneNumber.equals(incomingPhoneNumber.getPhoneNumber())) {
+                incomingPhoneNumbers.add(incomingPhoneNumber);
+            }
+        }
+        final IncomingPhoneNumber incomingPhoneNumber = getIncomingPhoneNumberRegexMatch(phoneNumber);
+        if (incomingPhoneNumber != null) {
+            incomingPhoneNumbers.add(incomingPhoneNumber);
+        }
+    }
+
+    @Override
+    public MostOptimalNumberResponse getMostOptimalIncomingPhoneNumber(final List<String> phoneNumbers,
+            final Sid destinationOrganizationSid, final Sid sourceOrganizationSid) {
+        final List<IncomingPhoneNumber> incomingPhoneNumbers = getIncomingPhoneNumbersByValues(phoneNumbers);
+        for (final IncomingPhoneNumber n : incomingPhoneNumbers) {
+            if (logger.isDebugEnabled()) {
+                logger.debug(String.format("getMostOptimalIncomingPhoneNumber: Got a similar number from DB: Analysis report: Number:Sid = %s : %s | Is Number pure sip? %s | Number's organizations: %s", n.getPhoneNumber(), n.getSid(), n.isPureSip(), n.getOrganizationSid()));
+            }
+            if (!n.getOrganizationSid().equals(destinationOrganizationSid)) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug(String.format("getMostOptimalIncomingPhoneNumber: Number:Sid = %s : %s does not belong to requested/destination organization: %s", n.getPhoneNumber(), n.getSid(), destinationOrganizationSid));
+                }
+                continue;
+            }
+            /*
+             * check if request is coming from same org
+             * if not then only allow provider numbers
+             */
+            if (sourceOrganizationSid == null || sourceOrganizationSid.equals(destinationOrganizationSid) || !n.isPureSip()) {
+                if (logger.isInfoEnabled()) {
+                    logger.info(String.format("Found most optimal phone number: Number:Sid = %s : %s", n.getPhoneNumber(), n.getSid()));
+                }
+                return new MostOptimalNumberResponse(n, false);
+            } else if (logger.isDebugEnabled()) {
+                logger.debug("not allowed to call this number due to organizational restrictions");
+            }
+        }
+        // The call fails if the number is hosted but not for the destination organization.
+        return new MostOptimalNumberResponse(null, !incomingPhoneNumbers.isEmpty());
+    }
+
+    private IncomingPhoneNumber getIncomingPhoneNumberRegexMatch(final String phoneNumber) {
+        //check if there is a Regex match only if parameter is a String aka phone Number
+        final String inboundPhoneNumber = phoneNumber.replace("+1", "");
+        if (inboundPhoneNumber.matches("[\\d,*,#,+]+")) {
+            return checkIncomingPhoneNumberRegexMatch(inboundPhoneNumber);
+        }
+        return null;
+    }
+
+    private void invalidateResolutions() {
+        generation.incrementAndGet();
+        resolutions.invalidateAll();
     }
 
     private List<IncomingPhoneNumber> getIncomingPhoneNumber(final String selector, Object parameter) {
         final SqlSession session = sessions.openSession();
-        String inboundPhoneNumber = null;
         final List<IncomingPhoneNumber> incomingPhoneNumbers = new ArrayList<IncomingPhoneNumber>();
         try {
             final List<Map<String, Object>> resultList = session.selectList(namespace + selector, parameter);
@@ -88,74 +205,65 @@ public final class MybatisIncomingPhoneNumbersDao implements IncomingPhoneNumber
                     incomingPhoneNumbers.add(toIncomingPhoneNumber(result));
                 }
             }
-            //check if there is a Regex match only if parameter is a String aka phone Number
-            listPhones = getIncomingPhoneNumbersRegex();
-            if (listPhones != null && listPhones.size() > 0) {
-                inboundPhoneNumber = ((String)parameter).replace("+1", "");
-                if (inboundPhoneNumber.matches("[\\d,*,#,+]+")) {
-                    IncomingPhoneNumber incomingPhoneNumber = checkIncomingPhoneNumberRegexMatch(selector, inboundPhoneNumber);
-                    if(incomingPhoneNumber != null)
-                        incomingPhoneNumbers.add(checkIncomingPhoneNumberRegexMatch(selector, inboundPhoneNumber));
-                }
-            }
-        }finally {
+        } finally {
             session.close();
         }
         return incomingPhoneNumbers;
     }
 
-   public IncomingPhoneNumber checkIncomingPhoneNumberRegexMatch ( String selector, String inboundPhoneNumber){
-               final SqlSession session = sessions.openSession();
-               String phoneRegexPattern = null;
-               try {
-                   if (logger.isInfoEnabled()) {
-                       final String msg = String.format("Found %d Regex IncomingPhone numbers. Will try to match a REGEX for incoming phone number for phoneNumber : %s", listPhones.size(), inboundPhoneNumber);
-                       logger.info(msg);
-                   }
-                   for (IncomingPhoneNumber listPhone : listPhones){
-                       if (listPhone.getPhoneNumber().startsWith("+")){
-                            phoneRegexPattern = listPhone.getPhoneNumber().replace("+", "/+");
-                        }else if (listPhone.getPhoneNumber().startsWith("*")){
-                            phoneRegexPattern = listPhone.getPhoneNumber().replace("*", "/*");
-                        }else{
-                            phoneRegexPattern = listPhone.getPhoneNumber();
-                        }
-                        Pattern p = Pattern.compile(phoneRegexPattern);
-                        Matcher m = p.matcher(inboundPhoneNumber);
-                        if (m.find()) {
-                            final Map<String, Object> resultRestcommRegexHostedNumber = session.selectOne(namespace + selector, phoneRegexPattern);
-                            if (resultRestcommRegexHostedNumber != null) {
-                                if (logger.isInfoEnabled()) {
-                                    String msg = String.format("Pattern \"%s\" matched the phone number \"%s\"",phoneRegexPattern, inboundPhoneNumber);
-                                    logger.info(msg);
-                                }
-                                return toIncomingPhoneNumber(resultRestcommRegexHostedNumber);
-                            } else{
-                                if (logger.isInfoEnabled()) {
-                                    String msg = String.format("Regex \"%s\" cannot be matched for phone number \"%s\"", phoneRegexPattern, inboundPhoneNumber);
-                                    logger.info(msg);
-                                }
-                            }
-                        } else {
-                            if (logger.isInfoEnabled()) {
-                                String msg = String.format("Regex \"%s\" cannot be matched for phone number \"%s\"", phoneRegexPattern, inboundPhoneNumber);
-                                logger.info(msg);
-                            }
-                        }
-                    }
-                        logger.info("No matching phone number found, make sure your Restcomm Regex phone number is correctly defined");
-               } catch (Exception e) {
-                   if (logger.isDebugEnabled()) {
-                       String msg = String.format("Exception while trying to match for a REGEX for incoming phone number %s, exception: %s", inboundPhoneNumber, e);
-                       logger.debug(msg);
-                   }
-               }
-               finally {
-            session.close();
+    /**
+     * Matches the inbound phone number against the Regex IncomingPhone numbers using the resident index, the database is
+     * only read the first time the index is used.
+     */
+    public IncomingPhoneNumber checkIncomingPhoneNumberRegexMatch(final String inboundPhoneNumber) {
+        loadRegexIndex();
+        if (regexIndex.size() == 0) {
+            return null;
+        }
+        if (logger.isDebugEnabled()) {
+            final String msg = String.format("Found %d Regex IncomingPhone numbers. Will try to match a REGEX for incoming phone number for phoneNumber : %s", regexIndex.size(), inboundPhoneNumber);
+            logger.debug(msg);
+        }
+        final IncomingPhoneNumber incomingPhoneNumber = regexIndex.match(inboundPhoneNumber);
+        if (incomingPhoneNumber == null && logger.isInfoEnabled()) {
+            logger.info("No matching phone number found, make sure your Restcomm Regex phone number is correctly defined");
         }
-       return null;
+        return incomingPhoneNumber;
+    }
 
-   }
+    private void loadRegexIndex() {
+        if (!regexIndex.isLoaded()) {
+            // Mutations wait for the load so none of them can be lost between the select and the index publication.
+            synchronized (regexIndex) {
+                if (!regexIndex.isLoaded()) {
+                    regexIndex.load(getIncomingPhoneNumbersRegex());
+                }
+            }
+        } else if (regexIndex.isOlderThan(TimeUnit.SECONDS.toMillis(RESOLUTIONS_TTL_SECONDS), System.currentTimeMillis())
+                && reloadingRegexIndex.compareAndSet(false, true)) {
+            // Picks up the numbers changed by other nodes, the other readers keep matching against the current snapshot.
+            try {
+                synchronized (regexIndex) {
+                    regexIndex.load(getIncomingPhoneNumbersRegex());
+                }
+            } finally {
+                reloadingRegexIndex.set(false);
+            }
+        }
+    }
+
+    private void refreshRegexIndex(final Sid sid) {
+        synchronized (regexIndex) {
+            if (regexIndex.isLoaded()) {
+                final IncomingPhoneNumber incomingPhoneNumber = getIncomingPhoneNumber(sid);
+                if (incomingPhoneNumber != null) {
+                    regexIndex.put(incomingPhoneNumber);
+                } else {
+                    regexIndex.remove(sid);
+                }
+            }
+        }
+    }
 
     @Override
     public List<IncomingPhoneNumber> getIncomingPhoneNumbers(final Sid accountSid) {
@@ -230,11 +338,15 @@ public final class MybatisIncomingPhoneNumbersDao implements IncomingPhoneNumber
     @Override
     public void removeIncomingPhoneNumber(final Sid sid) {
         removeIncomingPhoneNumbers("removeIncomingPhoneNumber", sid);
+        regexIndex.remove(sid);
+        invalidateResolutions();
     }
 
     @Override
     public void removeIncomingPhoneNumbers(final Sid accountSid) {
         removeIncomingPhoneNumbers("removeIncomingPhoneNumbers", accountSid);
+        regexIndex.removeByAccount(accountSid);
+        invalidateResolutions();
     }
 
     private void removeIncomingPhoneNumbers(final String selector, final Sid sid) {
@@ -256,6 +368,10 @@ public final class MybatisIncomingPhoneNumbersDao implements IncomingPhoneNumber
         } finally {
             session.close();
         }
+        if (regexIndex.contains(incomingPhoneNumber.getSid()) || IncomingPhoneNumberRegexIndex.isRegex(incomingPhoneNumber.getPhoneNumber())) {
+            refreshRegexIndex(incomingPhoneNumber.getSid());
+        }
+        invalidateResolutions();
     }
 
     @Override
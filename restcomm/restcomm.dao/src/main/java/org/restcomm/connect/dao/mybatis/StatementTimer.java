@@ -0,0 +1,85 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.dao.mybatis;
+
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+import org.restcomm.connect.commons.metrics.Histogram;
+import org.restcomm.connect.commons.metrics.MetricsRegistry;
+
+/**
+ * Times every mapped statement run through the sessions of a factory, in a histogram per statement id.
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class }),
+        @Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class, RowBounds.class,
+                ResultHandler.class }) })
+@ThreadSafe
+public final class StatementTimer implements Interceptor {
+    private final ConcurrentMap<String, Histogram> statements;
+
+    public StatementTimer() {
+        super();
+        this.statements = new ConcurrentHashMap<String, Histogram>();
+    }
+
+    @Override
+    public Object intercept(final Invocation invocation) throws Throwable {
+        final long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            final MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+            histogram(statement.getId()).observe(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Histogram histogram(final String id) {
+        Histogram histogram = statements.get(id);
+        if (histogram == null) {
+            histogram = MetricsRegistry.getInstance().histogram("restcomm_dao_statement_seconds",
+                    "Time to run a mapped statement against the database.", Histogram.LATENCY_SECONDS, "statement", id);
+            statements.put(id, histogram);
+        }
+        return histogram;
+    }
+
+    @Override
+    public Object plugin(final Object target) {
+        return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(final Properties properties) {
+    }
+}
@@ -0,0 +1,81 @@
+package org.restcomm.connect.dao.mybatis;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.restcomm.connect.commons.dao.Sid;
+import org.restcomm.connect.dao.AccountsDao;
+import org.restcomm.connect.dao.cache.CachingAccountsDao;
+import org.restcomm.connect.dao.cache.EntityCache;
+import org.restcomm.connect.dao.entities.Account;
+import org.restcomm.connect.dao.exceptions.AccountHierarchyDepthCrossed;
+
+public class CachingAccountsDaoTest extends DaoTest {
+    private static MybatisDaoManager manager;
+    private EntityCache<Account> accounts;
+    private EntityCache<List<String>> lineages;
+    private AccountsDao dao;
+
+    public CachingAccountsDaoTest() {
+        super();
+    }
+
+    @Before
+    public void before() throws Exception {
+        sandboxRoot = createTempDir("cachingAccountsTest");
+        String mybatisFilesPath = getClass().getResource("/accountsDao").getFile();
+        setupSandbox(mybatisFilesPath, sandboxRoot);
+
+        String mybatisXmlPath = sandboxRoot.getPath() + "/mybatis_updated.xml";
+        final InputStream data = new FileInputStream(mybatisXmlPath);
+        final SqlSessionFactoryBuilder builder = new SqlSessionFactoryBuilder();
+        final SqlSessionFactory factory = builder.build(data);
+        manager = new MybatisDaoManager();
+        manager.start(factory);
+        accounts = new EntityCache<Account>("accounts", 100, 60, TimeUnit.SECONDS);
+        lineages = new EntityCache<List<String>>("account-lineages", 100, 60, TimeUnit.SECONDS);
+        dao = new CachingAccountsDao(manager.getAccountsDao(), accounts, lineages);
+    }
+
+    @After
+    public void after() throws Exception {
+        manager.shutdown();
+        removeTempDir(sandboxRoot.getAbsolutePath());
+    }
+
+    @Test
+    public void lineageIsMemoized() throws AccountHierarchyDepthCrossed {
+        final Sid sid = new Sid("AC11000000000000000000000000000000");
+        final List<String> lineage = dao.getAccountLineage(sid);
+        Assert.assertEquals(2, lineage.size());
+        Assert.assertSame(lineage, dao.getAccountLineage(sid));
+        // The overloaded version starts from the parent, whose lineage is memoized separately.
+        final List<String> fromAccount = dao.getAccountLineage(dao.getAccount(sid));
+        Assert.assertEquals(lineage, fromAccount);
+        Assert.assertEquals(2, lineages.size());
+        Assert.assertEquals(1, lineages.getStatistics().hitCount());
+    }
+
+    @Test
+    public void updatesClearLineages() throws AccountHierarchyDepthCrossed {
+        final Sid sid = new Sid("AC11000000000000000000000000000000");
+        dao.getAccountLineage(sid);
+        final Account account = dao.getAccount(sid);
+        dao.updateAccount(account.setFriendlyName("renamed"));
+        Assert.assertEquals(0, lineages.size());
+        Assert.assertEquals("renamed", dao.getAccount(sid).getFriendlyName());
+    }
+
+    @Test(expected=AccountHierarchyDepthCrossed.class)
+    public void checkAccountRecursionLimit() throws AccountHierarchyDepthCrossed {
+        dao.getAccountLineage(new Sid("AC11100000000000000000000000000000"));
+    }
+}
@@ -0,0 +1,75 @@
+package org.restcomm.connect.dao.mybatis;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.restcomm.connect.commons.dao.Sid;
+import org.restcomm.connect.dao.OrganizationsDao;
+import org.restcomm.connect.dao.cache.CachingOrganizationsDao;
+import org.restcomm.connect.dao.cache.EntityCache;
+import org.restcomm.connect.dao.entities.Organization;
+
+import junit.framework.Assert;
+
+public class CachingOrganizationsDaoTest extends DaoTest {
+    private static MybatisDaoManager manager;
+    private EntityCache<Organization> cache;
+    private OrganizationsDao dao;
+
+    public CachingOrganizationsDaoTest() {
+        super();
+    }
+
+    @Before
+    public void before() throws Exception {
+        sandboxRoot = createTempDir("cachingOrganizationsTest");
+        String mybatisFilesPath = getClass().getResource("/organizationsDao").getFile();
+        setupSandbox(mybatisFilesPath, sandboxRoot);
+
+        String mybatisXmlPath = sandboxRoot.getPath() + "/mybatis_updated.xml";
+        final InputStream data = new FileInputStream(mybatisXmlPath);
+        final SqlSessionFactoryBuilder builder = new SqlSessionFactoryBuilder();
+        final SqlSessionFactory factory = builder.build(data);
+        manager = new MybatisDaoManager();
+        manager.start(factory);
+        cache = new EntityCache<Organization>("organizations", 100, 60, TimeUnit.SECONDS);
+        dao = new CachingOrganizationsDao(manager.getOrganizationsDao(), cache);
+    }
+
+    @After
+    public void after() throws Exception {
+        manager.shutdown();
+        removeTempDir(sandboxRoot.getAbsolutePath());
+    }
+
+    @Test
+    public void repeatedLookupsAreServedFromCache() {
+        final Sid sid = new Sid("ORafbe225ad37541eba518a74248f0ac4d");
+        final Organization organization = dao.getOrganization(sid);
+        Assert.assertNotNull("Organization not found", organization);
+        Assert.assertSame(organization, dao.getOrganization(sid));
+        Assert.assertEquals(1, cache.getStatistics().missCount());
+        Assert.assertEquals(1, cache.getStatistics().hitCount());
+    }
+
+    @Test
+    public void writesInvalidateCachedEntries() {
+        final String domainName = "cached.restcomm.com";
+        Assert.assertNull(dao.getOrganizationByDomainName(domainName));
+        final Sid sid = Sid.generate(Sid.Type.ORGANIZATION);
+        dao.addOrganization(new Organization(sid, domainName, new DateTime(), new DateTime(), Organization.Status.ACTIVE));
+        Assert.assertEquals(sid, dao.getOrganizationByDomainName(domainName).getSid());
+
+        final Organization organization = dao.getOrganization(sid);
+        dao.updateOrganization(organization.setDomainName("renamed.restcomm.com"));
+        Assert.assertEquals("renamed.restcomm.com", dao.getOrganization(sid).getDomainName());
+        Assert.assertNull(dao.getOrganizationByDomainName(domainName));
+    }
+}
@@ -29,7 +29,9 @@ import java.net.URI;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Currency;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionFactoryBuilder;
@@ -39,8 +41,10 @@ import org.junit.Before;
 import org.junit.Test;
 import org.restcomm.connect.commons.dao.Sid;
 import org.restcomm.connect.dao.CallDetailRecordsDao;
+import org.restcomm.connect.dao.common.RecordHandler;
 import org.restcomm.connect.dao.entities.CallDetailRecord;
 import org.restcomm.connect.dao.entities.CallDetailRecordFilter;
+import org.restcomm.connect.dao.entities.PageToken;
 
 import junit.framework.Assert;
 import org.junit.Rule;
@@ -455,4 +459,56 @@ public class CallDetailRecordsDaoTest extends DaoTest {
         filter = new CallDetailRecordFilter("AC00000000000000000000000000000000", null, null, null, null, null, null, null, null, null, null);
         Assert.assertEquals(12, dao.getTotalCallDetailRecords(filter).intValue());
     }
+
+    @Test
+    public void keysetPagination() throws ParseException {
+        final List<Integer> pageSizes = new ArrayList<Integer>();
+        final List<CallDetailRecord> all = keysetPages(false, pageSizes);
+        Assert.assertEquals("[5, 5, 2, 0]", pageSizes.toString());
+        final Set<Sid> sids = new HashSet<Sid>();
+        for (int i = 0; i < all.size(); i++) {
+            sids.add(all.get(i).getSid());
+            if (i > 0) {
+                Assert.assertFalse(all.get(i).getDateCreated().isBefore(all.get(i - 1).getDateCreated()));
+            }
+        }
+        Assert.assertEquals(12, sids.size());
+        final PageToken parsed = PageToken.parse(new PageToken(all.get(0).getDateCreated(), all.get(0).getSid()).toString());
+        Assert.assertEquals(all.get(0).getSid(), parsed.getSid());
+        Assert.assertEquals(all.get(0).getDateCreated().getMillis(), parsed.getDateCreated().getMillis());
+    }
+
+    @Test
+    public void keysetPaginationInReverse() throws ParseException {
+        final List<Integer> pageSizes = new ArrayList<Integer>();
+        final List<CallDetailRecord> descending = keysetPages(true, pageSizes);
+        Assert.assertEquals("[5, 5, 2, 0]", pageSizes.toString());
+        final List<CallDetailRecord> ascending = keysetPages(false, new ArrayList<Integer>());
+        Assert.assertEquals(ascending.size(), descending.size());
+        for (int i = 0; i < descending.size(); i++) {
+            Assert.assertEquals(ascending.get(ascending.size() - 1 - i).getSid(), descending.get(i).getSid());
+        }
+    }
+
+    private List<CallDetailRecord> keysetPages(final boolean descending, final List<Integer> pageSizes) throws ParseException {
+        CallDetailRecordsDao dao = manager.getCallDetailRecordsDao();
+        final List<CallDetailRecord> all = new ArrayList<CallDetailRecord>();
+        PageToken token = null;
+        do {
+            final List<CallDetailRecord> page = new ArrayList<CallDetailRecord>();
+            CallDetailRecordFilter filter = new CallDetailRecordFilter("AC00000000000000000000000000000000", null, null, null,
+                    null, null, null, null, null, 5, 0, null, token, descending);
+            dao.getCallDetailRecords(filter, new RecordHandler<CallDetailRecord>() {
+                @Override
+                public void handle(CallDetailRecord cdr) {
+                    page.add(cdr);
+                }
+            });
+            pageSizes.add(page.size());
+            all.addAll(page);
+            token = page.isEmpty() ? null : new PageToken(page.get(page.size() - 1).getDateCreated(),
+                    page.get(page.size() - 1).getSid());
+        } while (token != null);
+        return all;
+    }
 }
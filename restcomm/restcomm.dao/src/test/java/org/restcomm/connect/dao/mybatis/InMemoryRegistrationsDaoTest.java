@@ -0,0 +1,194 @@
+package org.restcomm.connect.dao.mybatis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.restcomm.connect.commons.dao.Sid;
+import org.restcomm.connect.dao.RegistrationsDao;
+import org.restcomm.connect.dao.cache.InMemoryRegistrationsDao;
+import org.restcomm.connect.dao.entities.Registration;
+
+public class InMemoryRegistrationsDaoTest {
+    private static MybatisDaoManager manager;
+    private RegistrationsDao store;
+    private InMemoryRegistrationsDao dao;
+    private Sid organizationSid;
+
+    @Before
+    public void before() {
+        final InputStream data = getClass().getResourceAsStream("/mybatis.xml");
+        final SqlSessionFactoryBuilder builder = new SqlSessionFactoryBuilder();
+        final SqlSessionFactory factory = builder.build(data);
+        manager = new MybatisDaoManager();
+        manager.start(factory);
+        store = manager.getRegistrationsDao();
+        // Long enough for the tests to decide when changes are written.
+        dao = new InMemoryRegistrationsDao(store, 1, 1, TimeUnit.HOURS, true);
+        organizationSid = Sid.generate(Sid.Type.ORGANIZATION);
+    }
+
+    @After
+    public void after() {
+        dao.shutdown();
+        // The database file is shared with the other tests.
+        for (final Registration registration : store.getRegistrations()) {
+            store.removeRegistration(registration);
+        }
+        manager.shutdown();
+    }
+
+    /**
+     * The database, counting the reads made through it.
+     */
+    private RegistrationsDao counting(final int[] reads) {
+        return (RegistrationsDao) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { RegistrationsDao.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] arguments)
+                            throws Throwable {
+                        if (method.getName().startsWith("get") || method.getName().startsWith("has")) {
+                            reads[0]++;
+                        }
+                        try {
+                            return method.invoke(store, arguments);
+                        } catch (final InvocationTargetException exception) {
+                            throw exception.getCause();
+                        }
+                    }
+                });
+    }
+
+    private Registration registration(final String user, final String location, final DateTime updated, final int ttl) {
+        return new Registration(Sid.generate(Sid.Type.REGISTRATION), "node", updated, updated, updated.plusSeconds(ttl),
+                "sip:" + user + "@company.com", user, user, "TestUserAgent/1.0", ttl, location, false, false,
+                organizationSid);
+    }
+
+    @Test
+    public void refreshesAreServedFromMemoryAndWrittenLater() {
+        final String user = "alice" + System.nanoTime();
+        final DateTime now = DateTime.now();
+        final Registration registration = registration(user, "sip:" + user + "@10.0.0.1:5060;transport=udp", now, 3600);
+        assertFalse(dao.hasRegistration(registration));
+        dao.addRegistration(registration);
+        assertTrue(dao.hasRegistration(registration));
+        assertEquals(registration.getSid(), dao.getRegistration(user, organizationSid).getSid());
+        assertNull(store.getRegistration(user, organizationSid));
+        dao.flush();
+        assertEquals(registration.getSid(), store.getRegistration(user, organizationSid).getSid());
+
+        // A refresh that only moves the dates stays in memory.
+        final DateTime later = now.plusMinutes(1);
+        dao.updateRegistration(registration(user, registration.getLocation(), later, 3600));
+        assertEquals(later, dao.getRegistration(user, organizationSid).getDateUpdated());
+        assertEquals(registration.getSid(), dao.getRegistration(user, organizationSid).getSid());
+        assertEquals(1, dao.getDeferredCount());
+        dao.flush();
+        assertEquals(now.getMillis(), store.getRegistration(user, organizationSid).getDateUpdated().getMillis());
+
+        // A new time to live is written.
+        dao.updateRegistration(registration(user, registration.getLocation(), later, 600));
+        dao.flush();
+        assertEquals(600, store.getRegistration(user, organizationSid).getTimeToLive());
+    }
+
+    @Test
+    public void lookupByContactHostAndPort() {
+        final String user = "bob" + System.nanoTime();
+        final Registration registration = registration(user, "sip:" + user + "@10.0.0.7:5070;transport=tcp",
+                DateTime.now(), 3600);
+        dao.addRegistration(registration);
+        final List<Registration> found = dao.getRegistrationsByLocation(user, "%10.0.0.7:5070");
+        assertEquals(1, found.size());
+        assertEquals(registration.getSid(), found.get(0).getSid());
+        assertTrue(dao.getRegistrationsByLocation(user, "%10.0.0.7:5071").isEmpty());
+        assertTrue(dao.getRegistrationsByLocation("someone-else", "%10.0.0.7:5070").isEmpty());
+    }
+
+    @Test
+    public void contactsRegisteredThroughOtherNodesAreMerged() {
+        final String user = "erin" + System.nanoTime();
+        final Registration local = registration(user, "sip:" + user + "@10.0.0.13:5060", DateTime.now(), 3600);
+        dao.addRegistration(local);
+        dao.flush();
+        final Registration other = new Registration(Sid.generate(Sid.Type.REGISTRATION), "other-node", DateTime.now(),
+                DateTime.now(), "sip:" + user + "@company.com", user, user, "TestUserAgent/1.0", 3600,
+                "sip:" + user + "@10.0.0.14:5060", false, false, organizationSid);
+        store.addRegistration(other);
+        final List<Registration> found = dao.getRegistrations(user, organizationSid);
+        assertEquals(2, found.size());
+        assertEquals(2, dao.getRegistrationsByLocation(user, "sip:" + user + "@10.0.0.1").size());
+        assertEquals(1, dao.getRegistrationsByLocation(user, "%10.0.0.14:5060").size());
+    }
+
+    @Test
+    public void removalsAreWritten() {
+        final String user = "carol" + System.nanoTime();
+        final Registration registration = registration(user, "sip:" + user + "@10.0.0.9:5060", DateTime.now(), 3600);
+        dao.addRegistration(registration);
+        dao.flush();
+        dao.removeRegistration(registration);
+        assertFalse(dao.hasRegistration(registration));
+        assertNull(dao.getRegistrations(user, organizationSid));
+        assertTrue(store.hasRegistration(registration));
+        dao.flush();
+        assertFalse(store.hasRegistration(registration));
+        assertEquals(0, dao.getPendingCount());
+    }
+
+    @Test
+    public void storedRegistrationsAreTakenOverPerInstance() {
+        final String user = "dave" + System.nanoTime();
+        final Registration registration = new Registration(Sid.generate(Sid.Type.REGISTRATION), "restarted-node",
+                DateTime.now(), DateTime.now(), "sip:" + user + "@company.com", user, user, "TestUserAgent/1.0", 3600,
+                "sip:" + user + "@10.0.0.11:5060", false, false, organizationSid);
+        store.addRegistration(registration);
+        assertEquals(1, dao.getRegistrationsByInstanceId("restarted-node").size());
+        assertEquals(1, dao.getSize());
+        // Memory is now the authority for that instance.
+        store.removeRegistration(registration);
+        assertEquals(registration.getSid(), dao.getRegistration(user, organizationSid).getSid());
+    }
+
+    @Test
+    public void localHitsDoNotReadTheDatabase() {
+        final String user = "frank" + System.nanoTime();
+        final Registration registration = registration(user, "sip:" + user + "@10.0.0.21:5060", DateTime.now(), 3600);
+        final int[] reads = new int[1];
+        final InMemoryRegistrationsDao clustered = new InMemoryRegistrationsDao(counting(reads), 1, 1, TimeUnit.HOURS,
+                true);
+        final InMemoryRegistrationsDao single = new InMemoryRegistrationsDao(counting(reads), 1, 1, TimeUnit.HOURS,
+                false);
+        try {
+            clustered.addRegistration(registration);
+            single.addRegistration(registration);
+            // The OPTIONS answers of this instance's contacts are matched by host:port.
+            assertEquals(1, clustered.getRegistrationsByLocation(user, "%10.0.0.21:5060").size());
+            assertEquals(1, single.getRegistrationsByLocation(user, "%10.0.0.21:5060").size());
+            assertEquals(1, single.getRegistrations(user, organizationSid).size());
+            assertEquals(0, reads[0]);
+            // Other instances may hold contacts of the same user.
+            assertEquals(1, clustered.getRegistrations(user, organizationSid).size());
+            assertEquals(1, reads[0]);
+        } finally {
+            clustered.shutdown();
+            single.shutdown();
+        }
+    }
+}
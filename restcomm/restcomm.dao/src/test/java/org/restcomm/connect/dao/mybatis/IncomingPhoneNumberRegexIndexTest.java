@@ -0,0 +1,126 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.dao.mybatis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+import org.restcomm.connect.commons.dao.Sid;
+import org.restcomm.connect.dao.entities.IncomingPhoneNumber;
+
+public class IncomingPhoneNumberRegexIndexTest {
+
+    private static IncomingPhoneNumber number(final String phoneNumber) {
+        final IncomingPhoneNumber.Builder builder = IncomingPhoneNumber.builder();
+        builder.setSid(Sid.generate(Sid.Type.PHONE_NUMBER));
+        builder.setAccountSid(Sid.generate(Sid.Type.ACCOUNT));
+        builder.setPhoneNumber(phoneNumber);
+        return builder.build();
+    }
+
+    // The sequential scan the index replaces.
+    private static IncomingPhoneNumber scan(final List<IncomingPhoneNumber> numbers, final String inbound) {
+        for (final IncomingPhoneNumber number : numbers) {
+            final String pattern = IncomingPhoneNumberRegexIndex.toPattern(number.getPhoneNumber());
+            if (Pattern.compile(pattern).matcher(inbound).find()) {
+                final List<IncomingPhoneNumber> hosted = new ArrayList<IncomingPhoneNumber>();
+                for (final IncomingPhoneNumber candidate : numbers) {
+                    if (candidate.getPhoneNumber().equals(pattern)) {
+                        hosted.add(candidate);
+                    }
+                }
+                if (hosted.size() == 1) {
+                    return hosted.get(0);
+                } else if (hosted.size() > 1) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void matchesLikeSequentialScan() {
+        final List<IncomingPhoneNumber> numbers = Arrays.asList(number("^1555.*"), number("7.*"), number("23[0-9]#"),
+                number("*12"), number("+1444.*"), number("^9+$"), number("^55|^66"), number("123.*"), number("12345.*"));
+        final IncomingPhoneNumberRegexIndex index = new IncomingPhoneNumberRegexIndex();
+        index.load(numbers);
+        final String[] inbounds = { "15551234", "2555", "4447", "12345", "1234", "99", "55", "66", "230#", "*12", "#", "0", "8" };
+        for (final String inbound : inbounds) {
+            assertEquals(inbound, scan(numbers, inbound), index.match(inbound));
+        }
+    }
+
+    @Test
+    public void firstMatchWinsRegardlessOfLiteral() {
+        final IncomingPhoneNumber wildcard = number(".*");
+        final IncomingPhoneNumber prefixed = number("^1234.*");
+        final IncomingPhoneNumberRegexIndex index = new IncomingPhoneNumberRegexIndex();
+        index.load(Arrays.asList(wildcard, prefixed));
+        assertEquals(wildcard.getSid(), index.match("12345").getSid());
+        index.remove(wildcard.getSid());
+        assertEquals(prefixed.getSid(), index.match("12345").getSid());
+        assertNull(index.match("2345"));
+    }
+
+    @Test
+    public void invalidPatternStopsMatching() {
+        final IncomingPhoneNumberRegexIndex index = new IncomingPhoneNumberRegexIndex();
+        index.load(Arrays.asList(number("1[2"), number("12.*")));
+        assertNull(index.match("123"));
+    }
+
+    @Test
+    public void putAndRemove() {
+        final IncomingPhoneNumberRegexIndex index = new IncomingPhoneNumberRegexIndex();
+        final IncomingPhoneNumber number = number("^1234.*");
+        // Changes before the first load are read back from the database.
+        index.put(number);
+        assertFalse(index.isLoaded());
+        index.load(new ArrayList<IncomingPhoneNumber>());
+        assertNull(index.match("12345"));
+        index.put(number);
+        index.put(number);
+        assertEquals(1, index.size());
+        assertTrue(index.contains(number.getSid()));
+        assertEquals(number.getSid(), index.match("12345").getSid());
+        index.removeByAccount(number.getAccountSid());
+        assertNull(index.match("12345"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void agesFromTheLastLoad() {
+        final IncomingPhoneNumberRegexIndex index = new IncomingPhoneNumberRegexIndex();
+        assertTrue(index.isOlderThan(60000, System.currentTimeMillis()));
+        index.load(new ArrayList<IncomingPhoneNumber>());
+        final long now = System.currentTimeMillis();
+        assertFalse(index.isOlderThan(60000, now));
+        assertTrue(index.isOlderThan(60000, now + 60001));
+    }
+}
@@ -21,6 +21,7 @@ package org.restcomm.connect.dao.mybatis;
 
 import java.io.InputStream;
 import java.net.URI;
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -36,6 +37,7 @@ import org.junit.Test;
 import org.restcomm.connect.dao.IncomingPhoneNumbersDao;
 import org.restcomm.connect.dao.entities.IncomingPhoneNumber;
 import org.restcomm.connect.dao.entities.IncomingPhoneNumberFilter;
+import org.restcomm.connect.dao.entities.MostOptimalNumberResponse;
 import org.restcomm.connect.commons.dao.Sid;
 
 /**
@@ -260,4 +262,93 @@ public class IncomingPhoneNumbersDaoTest {
         numbers.removeIncomingPhoneNumbers(account);
         assertTrue(numbers.getIncomingPhoneNumbers(account).size() == 0);
     }
+
+    @Test
+    public void getByRegexPhoneNumber() {
+        final Sid sid = Sid.generate(Sid.Type.PHONE_NUMBER);
+        Sid account = Sid.generate(Sid.Type.ACCOUNT);
+        URI url = URI.create("http://127.0.0.1:8080/restcomm/demos/hello-world.xml");
+        final IncomingPhoneNumber.Builder builder = IncomingPhoneNumber.builder();
+        builder.setSid(sid);
+        builder.setFriendlyName("Regex Incoming Phone Number Test");
+        builder.setAccountSid(account);
+        builder.setPhoneNumber("5556.*");
+        builder.setApiVersion("2012-04-24");
+        builder.setHasVoiceCallerIdLookup(false);
+        builder.setVoiceUrl(url);
+        builder.setVoiceMethod("GET");
+        builder.setUri(url);
+        builder.setOrganizationSid(Sid.generate(Sid.Type.ORGANIZATION));
+        final IncomingPhoneNumbersDao numbers = manager.getIncomingPhoneNumbersDao();
+        // Nothing matches before the number is hosted.
+        assertTrue(numbers.getIncomingPhoneNumber("+15556123").isEmpty());
+        numbers.addIncomingPhoneNumber(builder.build());
+        List<IncomingPhoneNumber> incomingPhoneNumbers = numbers.getIncomingPhoneNumber("+15556123");
+        assertEquals(1, incomingPhoneNumbers.size());
+        assertEquals(sid, incomingPhoneNumbers.get(0).getSid());
+        assertTrue(numbers.getIncomingPhoneNumber("+15557123").isEmpty());
+        // Updates are visible to the matching.
+        builder.setFriendlyName("Updated Regex Incoming Phone Number Test");
+        numbers.updateIncomingPhoneNumber(builder.build());
+        incomingPhoneNumbers = numbers.getIncomingPhoneNumber("+15556123");
+        assertEquals("Updated Regex Incoming Phone Number Test", incomingPhoneNumbers.get(0).getFriendlyName());
+        // Removed numbers stop matching.
+        numbers.removeIncomingPhoneNumber(sid);
+        assertTrue(numbers.getIncomingPhoneNumber("+15556123").isEmpty());
+    }
+
+    @Test
+    public void getMostOptimalByValues() {
+        final Sid organization = Sid.generate(Sid.Type.ORGANIZATION);
+        final Sid otherOrganization = Sid.generate(Sid.Type.ORGANIZATION);
+        final IncomingPhoneNumbersDao numbers = manager.getIncomingPhoneNumbersDao();
+        final List<String> spellings = Arrays.asList("+15557778888", "15557778888");
+        // Not hosted at all.
+        MostOptimalNumberResponse response = numbers.getMostOptimalIncomingPhoneNumber(spellings, organization, organization);
+        assertNull(response.number());
+        assertFalse(response.isRelevant());
+        // Hosted by another organization only.
+        final IncomingPhoneNumber other = number("15557778888", otherOrganization, false);
+        numbers.addIncomingPhoneNumber(other);
+        response = numbers.getMostOptimalIncomingPhoneNumber(spellings, organization, organization);
+        assertNull(response.number());
+        assertTrue(response.isRelevant());
+        // The most specific spelling wins.
+        final IncomingPhoneNumber e164 = number("+15557778888", organization, false);
+        numbers.addIncomingPhoneNumber(e164);
+        assertEquals(e164.getSid(), numbers.getIncomingPhoneNumbersByValues(spellings).get(0).getSid());
+        assertEquals(other.getSid(), numbers.getIncomingPhoneNumbersByValues(spellings).get(1).getSid());
+        response = numbers.getMostOptimalIncomingPhoneNumber(spellings, organization, organization);
+        assertEquals(e164.getSid(), response.number().getSid());
+        // Pure SIP numbers cannot be reached from another organization.
+        numbers.removeIncomingPhoneNumber(e164.getSid());
+        final IncomingPhoneNumber pureSip = number("+15557778888", organization, true);
+        numbers.addIncomingPhoneNumber(pureSip);
+        assertEquals(pureSip.getSid(), numbers.getMostOptimalIncomingPhoneNumber(spellings, organization, null).number().getSid());
+        response = numbers.getMostOptimalIncomingPhoneNumber(spellings, organization, otherOrganization);
+        assertNull(response.number());
+        assertTrue(response.isRelevant());
+        numbers.removeIncomingPhoneNumber(pureSip.getSid());
+        numbers.removeIncomingPhoneNumber(other.getSid());
+        // The wildcard is only used when no spelling is hosted.
+        final IncomingPhoneNumber wildcard = number("*", organization, false);
+        numbers.addIncomingPhoneNumber(wildcard);
+        assertEquals(wildcard.getSid(), numbers.getMostOptimalIncomingPhoneNumber(spellings, organization, organization).number().getSid());
+        numbers.removeIncomingPhoneNumber(wildcard.getSid());
+        assertTrue(numbers.getIncomingPhoneNumbersByValues(spellings).isEmpty());
+    }
+
+    private IncomingPhoneNumber number(final String phoneNumber, final Sid organizationSid, final boolean pureSip) {
+        final IncomingPhoneNumber.Builder builder = IncomingPhoneNumber.builder();
+        builder.setSid(Sid.generate(Sid.Type.PHONE_NUMBER));
+        builder.setFriendlyName("Incoming Phone Number Test");
+        builder.setAccountSid(Sid.generate(Sid.Type.ACCOUNT));
+        builder.setPhoneNumber(phoneNumber);
+        builder.setApiVersion("2012-04-24");
+        builder.setHasVoiceCallerIdLookup(false);
+        builder.setPureSip(pureSip);
+        builder.setUri(URI.create("/2012-04-24/Accounts/IncomingPhoneNumbers"));
+        builder.setOrganizationSid(organizationSid);
+        return builder.build();
+    }
 }
@@ -0,0 +1,219 @@
+package org.restcomm.connect.dao.mybatis;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.joda.time.DateTime;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.restcomm.connect.commons.dao.Sid;
+import org.restcomm.connect.dao.CallDetailRecordsDao;
+import org.restcomm.connect.dao.cache.WriteBehindCallDetailRecordsDao;
+import org.restcomm.connect.dao.entities.CallDetailRecord;
+
+public class WriteBehindCallDetailRecordsDaoTest extends DaoTest {
+    private static MybatisDaoManager manager;
+    private CallDetailRecordsDao store;
+    private File journal;
+    private WriteBehindCallDetailRecordsDao dao;
+
+    public WriteBehindCallDetailRecordsDaoTest() {
+        super();
+    }
+
+    @Before
+    public void before() throws Exception {
+        sandboxRoot = createTempDir("writeBehindCdrTest");
+        String mybatisFilesPath = getClass().getResource("/callDetailRecordsDao").getFile();
+        setupSandbox(mybatisFilesPath, sandboxRoot);
+
+        String mybatisXmlPath = sandboxRoot.getPath() + "/mybatis_updated.xml";
+        final InputStream data = new FileInputStream(mybatisXmlPath);
+        final SqlSessionFactoryBuilder builder = new SqlSessionFactoryBuilder();
+        final SqlSessionFactory factory = builder.build(data);
+        manager = new MybatisDaoManager();
+        manager.start(factory);
+        store = manager.getCallDetailRecordsDao();
+        journal = new File(sandboxRoot, "journal");
+        // Long enough for the tests to decide when records are flushed.
+        dao = new WriteBehindCallDetailRecordsDao(store, 1, TimeUnit.HOURS, 2, journal);
+    }
+
+    @After
+    public void after() throws Exception {
+        dao.shutdown();
+        manager.shutdown();
+        removeTempDir(sandboxRoot.getAbsolutePath());
+    }
+
+    private CallDetailRecord cdr(final Sid sid, final String status) {
+        final CallDetailRecord.Builder builder = CallDetailRecord.builder();
+        builder.setSid(sid);
+        builder.setInstanceId(instanceId.toString());
+        builder.setDateCreated(DateTime.now());
+        builder.setAccountSid(new Sid("ACae6e420f425248d6a26948c17a9e2acf"));
+        builder.setTo("+12223334444");
+        builder.setFrom("+17778889999");
+        builder.setStatus(status);
+        builder.setStartTime(DateTime.now());
+        builder.setDirection("inbound");
+        builder.setApiVersion("2012-04-24");
+        builder.setUri(URI.create("/2012-04-24/Accounts/ACae6e420f425248d6a26948c17a9e2acf/Calls/" + sid));
+        return builder.build();
+    }
+
+    @Test
+    public void updatesAreCoalescedUntilFlushed() {
+        final Sid sid = Sid.generate(Sid.Type.CALL);
+        dao.addCallDetailRecord(cdr(sid, "queued"));
+        CallDetailRecord record = dao.getCallDetailRecord(sid);
+        dao.updateCallDetailRecord(record.setStatus("ringing"));
+        dao.updateCallDetailRecord(dao.getCallDetailRecord(sid).setStatus("in-progress"));
+        dao.updateCallDetailRecord(dao.getCallDetailRecord(sid).setDuration(5));
+        // Readers see the latest state while the database still has the first one.
+        record = dao.getCallDetailRecord(sid);
+        Assert.assertEquals("in-progress", record.getStatus());
+        Assert.assertEquals(Integer.valueOf(5), record.getDuration());
+        Assert.assertEquals("in-progress", dao.getCallDetailRecordsByInstanceId(instanceId).get(0).getStatus());
+        Assert.assertEquals("queued", store.getCallDetailRecord(sid).getStatus());
+        Assert.assertEquals(2, dao.getCoalescedCount());
+
+        dao.flush();
+        Assert.assertEquals(0, dao.getPendingCount());
+        Assert.assertEquals(1, dao.getWrittenCount());
+        record = store.getCallDetailRecord(sid);
+        Assert.assertEquals("in-progress", record.getStatus());
+        Assert.assertEquals(Integer.valueOf(5), record.getDuration());
+    }
+
+    @Test
+    public void endedCallsAreFlushed() throws Exception {
+        final Sid sid = Sid.generate(Sid.Type.CALL);
+        dao.addCallDetailRecord(cdr(sid, "queued"));
+        dao.updateCallDetailRecord(dao.getCallDetailRecord(sid).setStatus("completed"));
+        for (int attempt = 0; attempt < 50 && !"completed".equals(store.getCallDetailRecord(sid).getStatus()); attempt++) {
+            Thread.sleep(100);
+        }
+        Assert.assertEquals("completed", store.getCallDetailRecord(sid).getStatus());
+    }
+
+    @Test
+    public void journalIsReplayedAfterCrash() throws Exception {
+        final Sid first = Sid.generate(Sid.Type.CALL);
+        final Sid second = Sid.generate(Sid.Type.CALL);
+        final Sid third = Sid.generate(Sid.Type.CALL);
+        for (final Sid sid : new Sid[] { first, second, third }) {
+            dao.addCallDetailRecord(cdr(sid, "queued"));
+            dao.updateCallDetailRecord(dao.getCallDetailRecord(sid).setStatus("ringing"));
+        }
+        dao.updateCallDetailRecord(dao.getCallDetailRecord(first).setStatus("in-progress").setMuted(true));
+        Assert.assertEquals("queued", store.getCallDetailRecord(first).getStatus());
+
+        // Nothing was flushed when the node went down, a new instance replays the journal in batches of two.
+        final WriteBehindCallDetailRecordsDao recovered = new WriteBehindCallDetailRecordsDao(store, 1, TimeUnit.HOURS, 2,
+                journal);
+        try {
+            Assert.assertEquals("in-progress", recovered.getCallDetailRecord(first).getStatus());
+            recovered.flush();
+            CallDetailRecord record = store.getCallDetailRecord(first);
+            Assert.assertEquals("in-progress", record.getStatus());
+            Assert.assertTrue(record.isMuted());
+            Assert.assertEquals("ringing", store.getCallDetailRecord(second).getStatus());
+            Assert.assertEquals("ringing", store.getCallDetailRecord(third).getStatus());
+            Assert.assertEquals(2, recovered.getBatchCount());
+        } finally {
+            recovered.shutdown();
+        }
+        // Only the segment opened by the recovered instance is left.
+        Assert.assertEquals(1, journal.list().length);
+    }
+
+    @Test
+    public void aRecordThatCannotBeWrittenIsDropped() throws Exception {
+        final Sid poison = Sid.generate(Sid.Type.CALL);
+        final WriteBehindCallDetailRecordsDao rejecting = new WriteBehindCallDetailRecordsDao(rejecting(poison), 1,
+                TimeUnit.HOURS, 2, new File(sandboxRoot, "rejecting"));
+        try {
+            rejecting.addCallDetailRecord(cdr(poison, "queued"));
+            rejecting.updateCallDetailRecord(rejecting.getCallDetailRecord(poison).setStatus("ringing"));
+            for (int flush = 1; flush <= WriteBehindCallDetailRecordsDao.MAX_ATTEMPTS; flush++) {
+                Assert.assertEquals(1, rejecting.getPendingCount());
+                final Sid sid = Sid.generate(Sid.Type.CALL);
+                rejecting.addCallDetailRecord(cdr(sid, "queued"));
+                rejecting.updateCallDetailRecord(rejecting.getCallDetailRecord(sid).setStatus("ringing"));
+                rejecting.flush();
+                // The other records of the batch are written anyway.
+                Assert.assertEquals("ringing", store.getCallDetailRecord(sid).getStatus());
+            }
+            Assert.assertEquals(0, rejecting.getPendingCount());
+            Assert.assertEquals(1, rejecting.getDroppedCount());
+            Assert.assertEquals(WriteBehindCallDetailRecordsDao.MAX_ATTEMPTS, rejecting.getWrittenCount());
+            Assert.assertEquals("queued", store.getCallDetailRecord(poison).getStatus());
+        } finally {
+            rejecting.shutdown();
+        }
+        // The segments holding the dropped record were released.
+        Assert.assertEquals(1, new File(sandboxRoot, "rejecting").list().length);
+    }
+
+    @Test
+    public void recordsAreKeptWhileTheDatabaseIsDown() throws Exception {
+        final Sid sid = Sid.generate(Sid.Type.CALL);
+        dao.addCallDetailRecord(cdr(sid, "queued"));
+        final WriteBehindCallDetailRecordsDao down = new WriteBehindCallDetailRecordsDao(rejecting(sid), 1,
+                TimeUnit.HOURS, 2, null);
+        try {
+            down.updateCallDetailRecord(down.getCallDetailRecord(sid).setStatus("ringing"));
+            for (int flush = 0; flush <= WriteBehindCallDetailRecordsDao.MAX_ATTEMPTS; flush++) {
+                down.flush();
+            }
+            Assert.assertEquals(1, down.getPendingCount());
+            Assert.assertEquals(0, down.getDroppedCount());
+        } finally {
+            down.shutdown();
+        }
+    }
+
+    /**
+     * The database, except that every update of the given call fails.
+     */
+    private CallDetailRecordsDao rejecting(final Sid poison) {
+        return (CallDetailRecordsDao) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { CallDetailRecordsDao.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] arguments)
+                            throws Throwable {
+                        if ("updateCallDetailRecord".equals(method.getName())) {
+                            reject((CallDetailRecord) arguments[0]);
+                        } else if ("updateCallDetailRecords".equals(method.getName())) {
+                            for (final Object cdr : (Collection<?>) arguments[0]) {
+                                reject((CallDetailRecord) cdr);
+                            }
+                        }
+                        try {
+                            return method.invoke(store, arguments);
+                        } catch (final InvocationTargetException exception) {
+                            throw exception.getCause();
+                        }
+                    }
+
+                    private void reject(final CallDetailRecord cdr) {
+                        if (poison.equals(cdr.getSid())) {
+                            throw new IllegalStateException("Rejected " + cdr.getSid());
+                        }
+                    }
+                });
+    }
+}
@@ -102,17 +102,29 @@ public class AccountsEndpoint extends SecuredEndpoint {
         runtimeConfiguration = rootConfiguration.subset("runtime-settings");
         super.init(runtimeConfiguration);
         clientDao = ((DaoManager) context.getAttribute(DaoManager.class.getName())).getClientsDao();
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(AccountsEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+        // Make sure there is an authenticated account present when this endpoint is used
+    }
+
+    private Serializers createSerializers() {
         final AccountConverter converter = new AccountConverter(runtimeConfiguration);
         final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(Account.class, converter);
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(new AccountListConverter(runtimeConfiguration));
         xstream.registerConverter(new RestCommResponseConverter(runtimeConfiguration));
-        // Make sure there is an authenticated account present when this endpoint is used
+        return new Serializers(builder.create(), xstream);
     }
 
     private Account createFrom(final Sid accountSid, final MultivaluedMap<String, String> data, Account parent) throws PasswordTooWeak {
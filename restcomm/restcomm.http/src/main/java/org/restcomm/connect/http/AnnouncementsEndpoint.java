@@ -4,7 +4,6 @@ import akka.actor.Actor;
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.Props;
-import akka.actor.UntypedActor;
 import akka.actor.UntypedActorFactory;
 import akka.util.Timeout;
 import com.google.gson.Gson;
@@ -21,6 +20,7 @@ import org.restcomm.connect.http.converter.AnnouncementConverter;
 import org.restcomm.connect.http.converter.AnnouncementListConverter;
 import org.restcomm.connect.http.converter.RestCommResponseConverter;
 import org.restcomm.connect.tts.api.SpeechSynthesizerRequest;
+import org.restcomm.connect.tts.api.SpeechSynthesizers;
 import org.restcomm.connect.tts.api.SpeechSynthesizerResponse;
 import scala.concurrent.Await;
 import scala.concurrent.Future;
@@ -72,16 +72,28 @@ public abstract class AnnouncementsEndpoint extends SecuredEndpoint {
         runtime = configuration.subset("runtime-settings");
         synthesizer = tts(ttsConfiguration);
         super.init(runtime);
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(AnnouncementsEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+    }
+
+    private Serializers createSerializers() {
         final AnnouncementConverter converter = new AnnouncementConverter(configuration);
         final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(Announcement.class, converter);
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(new AnnouncementListConverter(configuration));
         xstream.registerConverter(new RestCommResponseConverter(configuration));
+        return new Serializers(builder.create(), xstream);
     }
 
     public Response putAnnouncement(final String accountSid, final MultivaluedMap<String, String> data,
@@ -156,17 +168,7 @@ public abstract class AnnouncementsEndpoint extends SecuredEndpoint {
     }
 
     private ActorRef tts(final Configuration configuration) {
-        final String classpath = configuration.getString("[@class]");
-
-        final Props props = new Props(new UntypedActorFactory() {
-            private static final long serialVersionUID = 1L;
-
-            @Override
-            public Actor create() throws Exception {
-                return (UntypedActor) Class.forName(classpath).getConstructor(Configuration.class).newInstance(configuration);
-            }
-        });
-        return system.actorOf(props);
+        return SpeechSynthesizers.frontEnd(system, configuration);
     }
 
     private ActorRef cache(final String path, final String uri) {
@@ -187,6 +189,5 @@ public abstract class AnnouncementsEndpoint extends SecuredEndpoint {
             logger.info("Stopping actors before endpoint destroy");
         }
         system.stop(cache);
-        system.stop(synthesizer);
     }
 }
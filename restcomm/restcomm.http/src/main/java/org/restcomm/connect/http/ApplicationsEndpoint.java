@@ -85,19 +85,31 @@ public class ApplicationsEndpoint extends SecuredEndpoint {
         configuration = (Configuration) context.getAttribute(Configuration.class.getName());
         configuration = configuration.subset("runtime-settings");
         super.init(configuration);
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(ApplicationsEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+    }
+
+    private Serializers createSerializers() {
         final ApplicationConverter converter = new ApplicationConverter(configuration);
         final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(Application.class, converter);
         builder.setFieldNamingPolicy(FieldNamingPolicy.LOWER_CASE_WITH_UNDERSCORES); // if custom converter is not provided, rename camelCase to camel_case. Needed for serializing ApplicationNumberSummary and hopefully other entities too at some point.
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(new ApplicationListConverter(configuration));
         xstream.registerConverter(new RestCommResponseConverter(configuration));
         xstream.registerConverter(new ApplicationNumberSummaryConverter());
         xstream.alias("Number",ApplicationNumberSummary.class);
+        return new Serializers(builder.create(), xstream);
     }
 
     private Application createFrom(final Sid accountSid, final MultivaluedMap<String, String> data) {
@@ -0,0 +1,72 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.http;
+
+import static akka.pattern.Patterns.ask;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+
+import akka.actor.ActorRef;
+import akka.dispatch.Futures;
+import akka.util.Timeout;
+import scala.concurrent.Await;
+import scala.concurrent.ExecutionContext;
+import scala.concurrent.Future;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+/**
+ * Bounded asks for endpoints that have to answer an HTTP request with an actor's reply. The ask gives up when the
+ * request does, so no temporary ask actor outlives the request thread that was waiting on it.
+ */
+@ThreadSafe
+public final class AskUtils {
+    private AskUtils() {
+        super();
+    }
+
+    public static Object askAndWait(final ActorRef actor, final Object message, final long seconds) throws Exception {
+        final FiniteDuration duration = Duration.create(seconds, TimeUnit.SECONDS);
+        return Await.result(ask(actor, message, new Timeout(duration)), duration);
+    }
+
+    /**
+     * Asks every actor at once and waits for all of the replies, so asking N actors costs one round trip instead of N.
+     * Fails like {@link #askAndWait} if any single ask fails or the replies are not all in within the given time.
+     */
+    public static List<Object> askAllAndWait(final List<ActorRef> actors, final Object message, final long seconds,
+            final ExecutionContext executor) throws Exception {
+        final FiniteDuration duration = Duration.create(seconds, TimeUnit.SECONDS);
+        final Timeout expires = new Timeout(duration);
+        final List<Future<Object>> futures = new ArrayList<Future<Object>>(actors.size());
+        for (final ActorRef actor : actors) {
+            futures.add(ask(actor, message, expires));
+        }
+        final List<Object> replies = new ArrayList<Object>(actors.size());
+        for (final Object reply : Await.result(Futures.sequence(futures, executor), duration)) {
+            replies.add(reply);
+        }
+        return replies;
+    }
+}
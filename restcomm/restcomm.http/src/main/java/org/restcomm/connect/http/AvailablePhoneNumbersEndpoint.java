@@ -88,7 +88,19 @@ public abstract class AvailablePhoneNumbersEndpoint extends SecuredEndpoint {
         phoneNumberProvisioningManager = new PhoneNumberProvisioningManagerProvider(configuration, context).get();
 
 
-        xstream = new XStream();
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(AvailablePhoneNumbersEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+    }
+
+    private Serializers createSerializers() {
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(new AvailablePhoneNumberConverter(configuration));
         xstream.registerConverter(new AvailablePhoneNumberListConverter(configuration));
@@ -96,7 +108,7 @@ public abstract class AvailablePhoneNumbersEndpoint extends SecuredEndpoint {
         final GsonBuilder builder = new GsonBuilder();
         builder.setPrettyPrinting();
 //        builder.serializeNulls();
-        gson = builder.create();
+        return new Serializers(builder.create(), xstream);
     }
 
     protected Response getAvailablePhoneNumbers(final String accountSid, final String isoCountryCode, PhoneNumberSearchFilters listFilters, String filterPattern, final MediaType responseType) {
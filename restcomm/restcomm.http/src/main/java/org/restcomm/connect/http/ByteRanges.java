@@ -0,0 +1,186 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.http;
+
+import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
+import static javax.servlet.http.HttpServletResponse.SC_PARTIAL_CONTENT;
+import static javax.servlet.http.HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Date;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+
+/**
+ * Serves files with support for single byte range and conditional requests, so a media player seeking through a
+ * recording only fetches the part it needs and a cached copy is revalidated without a download.
+ */
+@ThreadSafe
+public final class ByteRanges {
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    private ByteRanges() {
+        super();
+    }
+
+    public static Response serve(final File file, final String contentType, final String range, final String ifRange,
+            final String ifNoneMatch) {
+        final long length = file.length();
+        final long lastModified = file.lastModified();
+        final String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        if (matches(ifNoneMatch, etag)) {
+            return Response.status(SC_NOT_MODIFIED).header("ETag", etag).build();
+        }
+        long[] bytes = null;
+        if (range != null && (ifRange == null || ifRange.trim().equals(etag))) {
+            bytes = parse(range, length);
+        }
+        if (bytes == UNSATISFIABLE) {
+            return Response.status(SC_REQUESTED_RANGE_NOT_SATISFIABLE).header("Content-Range", "bytes */" + length).build();
+        }
+        final Response.ResponseBuilder builder;
+        final long start;
+        final long count;
+        if (bytes == null) {
+            start = 0;
+            count = length;
+            builder = Response.ok();
+        } else {
+            start = bytes[0];
+            count = bytes[1] - bytes[0] + 1;
+            builder = Response.status(SC_PARTIAL_CONTENT).header("Content-Range",
+                    "bytes " + bytes[0] + "-" + bytes[1] + "/" + length);
+        }
+        return builder.entity(new FileRegion(file, start, count)).type(contentType).header("Content-Length", count)
+                .header("Accept-Ranges", "bytes").header("ETag", etag).lastModified(new Date(lastModified)).build();
+    }
+
+    /**
+     * Parses a Range header against a resource of the given length.
+     *
+     * @return the first and last byte of the requested range, null when the header asks for something other than a
+     *         single byte range and the whole resource should be sent, or an empty array when the range is not
+     *         satisfiable.
+     */
+    static long[] parse(final String range, final long length) {
+        if (range == null) {
+            return null;
+        }
+        final String header = range.trim();
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        final String spec = header.substring("bytes=".length()).trim();
+        final int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            final String first = spec.substring(0, dash).trim();
+            final String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // Suffix range, the last N bytes
+                if (last.isEmpty()) {
+                    return null;
+                }
+                final long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return UNSATISFIABLE;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+                if (start >= length) {
+                    return UNSATISFIABLE;
+                }
+                if (end < start) {
+                    return null;
+                }
+            }
+            return new long[] { start, end };
+        } catch (final NumberFormatException exception) {
+            return null;
+        }
+    }
+
+    private static boolean matches(final String ifNoneMatch, final String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (final String candidate : ifNoneMatch.split(",")) {
+            final String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Copies a region of the file with FileChannel.transferTo, without staging it in the heap when the container's
+    // stream allows it.
+    private static final class FileRegion implements StreamingOutput {
+        private final File file;
+        private final long start;
+        private final long count;
+
+        private FileRegion(final File file, final long start, final long count) {
+            super();
+            this.file = file;
+            this.start = start;
+            this.count = count;
+        }
+
+        @Override
+        public void write(final OutputStream output) throws IOException, WebApplicationException {
+            final FileInputStream input = new FileInputStream(file);
+            try {
+                final FileChannel channel = input.getChannel();
+                final WritableByteChannel target = Channels.newChannel(output);
+                long position = start;
+                long remaining = count;
+                while (remaining > 0) {
+                    final long sent = channel.transferTo(position, remaining, target);
+                    if (sent <= 0) {
+                        break;
+                    }
+                    position += sent;
+                    remaining -= sent;
+                }
+                output.flush();
+            } finally {
+                input.close();
+            }
+        }
+    }
+}
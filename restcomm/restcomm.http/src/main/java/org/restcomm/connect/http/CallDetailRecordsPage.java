@@ -0,0 +1,155 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.restcomm.connect.commons.annotations.concurrency.NotThreadSafe;
+import org.restcomm.connect.dao.CallDetailRecordsDao;
+import org.restcomm.connect.dao.common.RecordHandler;
+import org.restcomm.connect.dao.entities.CallDetailRecord;
+import org.restcomm.connect.dao.entities.CallDetailRecordFilter;
+import org.restcomm.connect.dao.entities.PageToken;
+import org.restcomm.connect.http.converter.CallDetailRecordConverter;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import com.thoughtworks.xstream.io.xml.PrettyPrintWriter;
+
+import static javax.ws.rs.core.MediaType.APPLICATION_XML_TYPE;
+
+/**
+ * Writes one keyset page of calls straight from the database cursor to the response, so memory use does not depend
+ * on the page size. The filter must ask for one record more than the page size; that record is not written but tells
+ * whether a next page exists. Since the next page uri is only known once the rows are written it comes after them.
+ */
+@NotThreadSafe
+final class CallDetailRecordsPage implements StreamingOutput {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final CallDetailRecordsDao dao;
+    private final CallDetailRecordFilter filter;
+    private final int pageSize;
+    private final String uri;
+    private final String nextPageUri;
+    private final MediaType responseType;
+    private final Gson gson;
+    private final CallDetailRecordConverter converter;
+
+    private int count;
+    private CallDetailRecord last;
+    private boolean more;
+
+    /**
+     * @param nextPageUri the uri of this page up to the value of the PageToken parameter, which must come last.
+     */
+    CallDetailRecordsPage(final CallDetailRecordsDao dao, final CallDetailRecordFilter filter, final int pageSize,
+            final String uri, final String nextPageUri, final MediaType responseType, final Gson gson,
+            final CallDetailRecordConverter converter) {
+        super();
+        this.dao = dao;
+        this.filter = filter;
+        this.pageSize = pageSize;
+        this.uri = uri;
+        this.nextPageUri = nextPageUri;
+        this.responseType = responseType;
+        this.gson = gson;
+        this.converter = converter;
+    }
+
+    @Override
+    public void write(final OutputStream output) throws IOException {
+        if (APPLICATION_XML_TYPE == responseType) {
+            writeXml(output);
+        } else {
+            writeJson(output);
+        }
+    }
+
+    private void writeJson(final OutputStream output) throws IOException {
+        final JsonWriter writer = new JsonWriter(new OutputStreamWriter(output, UTF_8));
+        writer.setIndent("  ");
+        writer.beginObject();
+        writer.name("page_size").value(pageSize);
+        writer.name("uri").value(uri);
+        writer.name("calls").beginArray();
+        read(new RecordHandler<CallDetailRecord>() {
+            @Override
+            public void handle(final CallDetailRecord cdr) {
+                gson.toJson(cdr, CallDetailRecord.class, writer);
+            }
+        });
+        writer.endArray();
+        writer.name("next_page_uri");
+        if (more) {
+            writer.value(getNextPageUri());
+        } else {
+            writer.nullValue();
+        }
+        writer.endObject();
+        writer.flush();
+    }
+
+    private void writeXml(final OutputStream output) throws IOException {
+        final OutputStreamWriter stream = new OutputStreamWriter(output, UTF_8);
+        final PrettyPrintWriter writer = new PrettyPrintWriter(stream);
+        writer.startNode("RestcommResponse");
+        writer.startNode("Calls");
+        writer.addAttribute("pagesize", String.valueOf(pageSize));
+        writer.addAttribute("uri", uri);
+        read(new RecordHandler<CallDetailRecord>() {
+            @Override
+            public void handle(final CallDetailRecord cdr) {
+                converter.marshal(cdr, writer, null);
+            }
+        });
+        writer.startNode("NextPageUri");
+        writer.setValue(more ? getNextPageUri() : "null");
+        writer.endNode();
+        writer.endNode();
+        writer.endNode();
+        writer.flush();
+        stream.flush();
+    }
+
+    private void read(final RecordHandler<CallDetailRecord> handler) {
+        dao.getCallDetailRecords(filter, new RecordHandler<CallDetailRecord>() {
+            @Override
+            public void handle(final CallDetailRecord cdr) {
+                if (++count > pageSize) {
+                    more = true;
+                } else {
+                    last = cdr;
+                    handler.handle(cdr);
+                }
+            }
+        });
+    }
+
+    private String getNextPageUri() {
+        return nextPageUri + new PageToken(last.getDateCreated(), last.getSid());
+    }
+}
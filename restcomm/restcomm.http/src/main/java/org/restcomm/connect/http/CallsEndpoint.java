@@ -20,8 +20,8 @@
 package org.restcomm.connect.http;
 
 import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
 import akka.pattern.AskTimeoutException;
-import akka.util.Timeout;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -44,11 +44,13 @@ import org.restcomm.connect.dao.entities.Account;
 import org.restcomm.connect.dao.entities.CallDetailRecord;
 import org.restcomm.connect.dao.entities.CallDetailRecordFilter;
 import org.restcomm.connect.dao.entities.CallDetailRecordList;
+import org.restcomm.connect.dao.entities.PageToken;
 import org.restcomm.connect.dao.entities.Recording;
 import org.restcomm.connect.dao.entities.RecordingList;
 import org.restcomm.connect.dao.entities.RestCommResponse;
 import org.restcomm.connect.http.converter.CallDetailRecordConverter;
 import org.restcomm.connect.http.converter.CallDetailRecordListConverter;
+import org.restcomm.connect.http.converter.ListPage;
 import org.restcomm.connect.http.converter.RecordingConverter;
 import org.restcomm.connect.http.converter.RecordingListConverter;
 import org.restcomm.connect.http.converter.RestCommResponseConverter;
@@ -64,10 +66,6 @@ import org.restcomm.connect.telephony.api.GetCallInfo;
 import org.restcomm.connect.telephony.api.Hangup;
 import org.restcomm.connect.telephony.api.UpdateCallScript;
 
-import scala.concurrent.Await;
-import scala.concurrent.Future;
-import scala.concurrent.duration.Duration;
-
 import javax.annotation.PostConstruct;
 import javax.servlet.ServletContext;
 import javax.servlet.sip.SipServletResponse;
@@ -77,17 +75,18 @@ import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
+import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URL;
+import java.net.URLEncoder;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.TimeUnit;
 
-import static akka.pattern.Patterns.ask;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE;
 import static javax.ws.rs.core.MediaType.APPLICATION_XML;
@@ -112,11 +111,11 @@ public abstract class CallsEndpoint extends SecuredEndpoint {
     protected ServletContext context;
     protected Configuration configuration;
     protected ActorRef callManager;
+    protected ActorSystem system;
     protected DaoManager daos;
     protected Gson gson;
-    protected GsonBuilder builder;
     protected XStream xstream;
-    protected CallDetailRecordListConverter listConverter;
+    protected CallDetailRecordConverter converter;
     protected AccountsDao accountsDao;
     protected RecordingsDao recordingsDao;
     protected String instanceId;
@@ -130,33 +129,36 @@ public abstract class CallsEndpoint extends SecuredEndpoint {
     @PostConstruct
     public void init() {
         configuration = (Configuration) context.getAttribute(Configuration.class.getName());
-        Configuration amazonS3Configuration = configuration.subset("amazon-s3");
+        final Configuration amazonS3Configuration = configuration.subset("amazon-s3");
         configuration = configuration.subset("runtime-settings");
         callManager = (ActorRef) context.getAttribute("org.restcomm.connect.telephony.CallManager");
+        system = (ActorSystem) context.getAttribute(ActorSystem.class.getName());
         daos = (DaoManager) context.getAttribute(DaoManager.class.getName());
         accountsDao = daos.getAccountsDao();
         recordingsDao = daos.getRecordingsDao();
         super.init(configuration);
-        CallDetailRecordConverter converter = new CallDetailRecordConverter(configuration);
-        listConverter = new CallDetailRecordListConverter(configuration);
-        final RecordingConverter recordingConverter = new RecordingConverter(configuration);
-        builder = new GsonBuilder();
-        builder.registerTypeAdapter(CallDetailRecord.class, converter);
-        builder.registerTypeAdapter(CallDetailRecordList.class, listConverter);
-        builder.registerTypeAdapter(Recording.class, recordingConverter);
-        builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
-        xstream.alias("RestcommResponse", RestCommResponse.class);
-        xstream.registerConverter(converter);
-        xstream.registerConverter(recordingConverter);
-        xstream.registerConverter(new RecordingListConverter(configuration));
-        xstream.registerConverter(new RestCommResponseConverter(configuration));
-        xstream.registerConverter(listConverter);
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(CallsEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers(amazonS3Configuration);
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+        converter = serializers.get(CallDetailRecordConverter.class);
+        securityLevel = serializers.get(RecordingSecurityLevel.class);
 
         instanceId = RestcommConfiguration.getInstance().getMain().getInstanceId();
 
         normalizePhoneNumbers = configuration.getBoolean("normalize-numbers-for-outbound-calls");
+    }
+
+    private Serializers createSerializers(final Configuration amazonS3Configuration) {
+        final CallDetailRecordConverter converter = new CallDetailRecordConverter(configuration);
+        final CallDetailRecordListConverter listConverter = new CallDetailRecordListConverter(configuration);
+        final RecordingConverter recordingConverter = new RecordingConverter(configuration);
+        RecordingSecurityLevel securityLevel = RecordingSecurityLevel.SECURE;
         if(!amazonS3Configuration.isEmpty()) { // Do not fail with NPE is amazonS3Configuration is not present for older install
             boolean amazonS3Enabled = amazonS3Configuration.getBoolean("enabled");
             if (amazonS3Enabled) {
@@ -164,6 +166,19 @@ public abstract class CallsEndpoint extends SecuredEndpoint {
                 recordingConverter.setSecurityLevel(securityLevel);
             }
         }
+        final GsonBuilder builder = new GsonBuilder();
+        builder.registerTypeAdapter(CallDetailRecord.class, converter);
+        builder.registerTypeAdapter(CallDetailRecordList.class, listConverter);
+        builder.registerTypeAdapter(Recording.class, recordingConverter);
+        builder.setPrettyPrinting();
+        final XStream xstream = new XStream();
+        xstream.alias("RestcommResponse", RestCommResponse.class);
+        xstream.registerConverter(converter);
+        xstream.registerConverter(recordingConverter);
+        xstream.registerConverter(new RecordingListConverter(configuration));
+        xstream.registerConverter(new RestCommResponseConverter(configuration));
+        xstream.registerConverter(listConverter);
+        return new Serializers(builder.create(), xstream, converter, securityLevel);
     }
 
     protected Response getCall(final String accountSid, final String sid, final MediaType responseType) {
@@ -216,6 +231,7 @@ public abstract class CallsEndpoint extends SecuredEndpoint {
         String parentCallSid = info.getQueryParameters().getFirst("ParentCallSid");
         String conferenceSid = info.getQueryParameters().getFirst("ConferenceSid");
         String reverse = info.getQueryParameters().getFirst("Reverse");
+        String pageToken = info.getQueryParameters().getFirst("PageToken");
 
         if (pageSize == null) {
             pageSize = "50";
@@ -240,6 +256,32 @@ public abstract class CallsEndpoint extends SecuredEndpoint {
 
         CallDetailRecordsDao dao = daos.getCallDetailRecordsDao();
 
+        // Keyset pagination: seek past the record named by the token and skip the count. Reverse pages newest first.
+        if (pageToken != null) {
+            final int size = Integer.parseInt(pageSize);
+            final CallDetailRecordFilter filter;
+            try {
+                final PageToken after = pageToken.isEmpty() ? null : PageToken.parse(pageToken);
+                filter = new CallDetailRecordFilter(accountSid, ownerAccounts, recipient, sender, status, startTime, endTime,
+                        parentCallSid, conferenceSid, size + 1, 0, localInstanceOnly ? null : instanceId, after,
+                        "true".equalsIgnoreCase(reverse));
+            } catch (ParseException e) {
+                return status(BAD_REQUEST).build();
+            } catch (IllegalArgumentException e) {
+                return status(BAD_REQUEST).build();
+            }
+            final String pathUri = "/" + getApiVersion(null) + "/" + info.getPath();
+            final CallDetailRecordsPage calls = new CallDetailRecordsPage(dao, filter, size, pathUri,
+                    getNextPageUri(pathUri, info.getQueryParameters()), responseType, gson, converter);
+            if (APPLICATION_XML_TYPE == responseType) {
+                return ok(calls, APPLICATION_XML).build();
+            } else if (APPLICATION_JSON_TYPE == responseType) {
+                return ok(calls, APPLICATION_JSON).build();
+            } else {
+                return null;
+            }
+        }
+
         CallDetailRecordFilter filterForTotal;
         try {
 
@@ -290,21 +332,37 @@ public abstract class CallsEndpoint extends SecuredEndpoint {
 
         final List<CallDetailRecord> cdrs = dao.getCallDetailRecords(filter);
 
-        listConverter.setCount(total);
-        listConverter.setPage(Integer.parseInt(page));
-        listConverter.setPageSize(Integer.parseInt(pageSize));
-        listConverter.setPathUri("/"+getApiVersion(null)+"/"+info.getPath());
+        final ListPage listPage = new ListPage(Integer.parseInt(page), Integer.parseInt(pageSize), total,
+                "/"+getApiVersion(null)+"/"+info.getPath());
 
         if (APPLICATION_XML_TYPE == responseType) {
             final RestCommResponse response = new RestCommResponse(new CallDetailRecordList(cdrs));
-            return ok(xstream.toXML(response), APPLICATION_XML).build();
+            return ok(listPage.toXml(xstream, response), APPLICATION_XML).build();
         } else if (APPLICATION_JSON_TYPE == responseType) {
-            return ok(gson.toJson(new CallDetailRecordList(cdrs)), APPLICATION_JSON).build();
+            return ok(listPage.toJson(gson, new CallDetailRecordList(cdrs)), APPLICATION_JSON).build();
         } else {
             return null;
         }
     }
 
+    // The request uri with its PageToken parameter moved to the end so that the next token can be appended.
+    private String getNextPageUri(final String pathUri, final MultivaluedMap<String, String> parameters) {
+        final StringBuilder buffer = new StringBuilder(pathUri).append("?");
+        try {
+            for (final Map.Entry<String, List<String>> parameter : parameters.entrySet()) {
+                if (!"PageToken".equals(parameter.getKey())) {
+                    for (final String value : parameter.getValue()) {
+                        buffer.append(URLEncoder.encode(parameter.getKey(), "UTF-8")).append("=");
+                        buffer.append(URLEncoder.encode(value, "UTF-8")).append("&");
+                    }
+                }
+            }
+        } catch (final UnsupportedEncodingException exception) {
+            throw new IllegalStateException(exception);
+        }
+        return buffer.append("PageToken=").toString();
+    }
+
     private void normalize(final MultivaluedMap<String, String> data) throws IllegalArgumentException {
         final PhoneNumberUtil phoneNumberUtil = PhoneNumberUtil.getInstance();
         final String from = data.getFirst("From");
@@ -364,7 +422,6 @@ public abstract class CallsEndpoint extends SecuredEndpoint {
         final String username = data.getFirst("Username");
         final String password = data.getFirst("Password");
         final Integer timeout = getTimeout(data);
-        final Timeout expires = new Timeout(Duration.create(60, TimeUnit.SECONDS));
         final URI rcmlUrl = getUrl("Url", data);
 
         try {
@@ -399,8 +456,7 @@ public abstract class CallsEndpoint extends SecuredEndpoint {
             create.setCreateCDR(false);
             if (callManager == null)
                 callManager = (ActorRef) context.getAttribute("org.restcomm.connect.telephony.CallManager");
-            Future<Object> future = (Future<Object>) ask(callManager, create, expires);
-            Object object = Await.result(future, Duration.create(10, TimeUnit.SECONDS));
+            Object object = AskUtils.askAndWait(callManager, create, 10);
             Class<?> klass = object.getClass();
             if (CallManagerResponse.class.equals(klass)) {
                 final CallManagerResponse<ActorRef> managerResponse = (CallManagerResponse<ActorRef>) object;
@@ -413,9 +469,11 @@ public abstract class CallsEndpoint extends SecuredEndpoint {
                         dialBranches.add(managerResponse.get());
                     }
                     List<CallDetailRecord> cdrs = new CopyOnWriteArrayList<CallDetailRecord>();
-                    for (ActorRef call : dialBranches) {
-                        future = (Future<Object>) ask(call, new GetCallInfo(), expires);
-                        object = Await.result(future, Duration.create(10, TimeUnit.SECONDS));
+                    // Ask all dial branches at once instead of waiting on each one in turn
+                    final List<Object> replies = AskUtils.askAllAndWait(dialBranches, new GetCallInfo(), 10, system.dispatcher());
+                    for (int i = 0; i < dialBranches.size(); i++) {
+                        final ActorRef call = dialBranches.get(i);
+                        object = replies.get(i);
                         klass = object.getClass();
                         if (CallResponse.class.equals(klass)) {
                             final CallResponse<CallInfo> callResponse = (CallResponse<CallInfo>) object;
@@ -474,8 +532,6 @@ public abstract class CallsEndpoint extends SecuredEndpoint {
         Account account = daos.getAccountsDao().getAccount(accountSid);
         secure(account, "RestComm:Modify:Calls");
 
-        final Timeout expires = new Timeout(Duration.create(60, TimeUnit.SECONDS));
-
         final CallDetailRecordsDao dao = daos.getCallDetailRecordsDao();
         CallDetailRecord cdr = null;
         try {
@@ -507,12 +563,9 @@ public abstract class CallsEndpoint extends SecuredEndpoint {
 
         try {
             callPath = cdr.getCallPath();
-            Future<Object> future = (Future<Object>) ask(callManager, new GetCall(callPath), expires);
-            call = (ActorRef) Await.result(future, Duration.create(10, TimeUnit.SECONDS));
+            call = (ActorRef) AskUtils.askAndWait(callManager, new GetCall(callPath), 10);
 
-            future = (Future<Object>) ask(call, new GetCallInfo(), expires);
-            CallResponse<CallInfo> response = (CallResponse<CallInfo>) Await.result(future,
-                    Duration.create(10, TimeUnit.SECONDS));
+            CallResponse<CallInfo> response = (CallResponse<CallInfo>) AskUtils.askAndWait(call, new GetCallInfo(), 10);
             callInfo = response.get();
         } catch (AskTimeoutException ate) {
             final String msg ="Call is already completed.";
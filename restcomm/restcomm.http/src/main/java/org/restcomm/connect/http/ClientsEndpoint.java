@@ -83,16 +83,28 @@ public abstract class ClientsEndpoint extends SecuredEndpoint {
         configuration = (Configuration) context.getAttribute(Configuration.class.getName());
         configuration = configuration.subset("runtime-settings");
         super.init(configuration);
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(ClientsEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+    }
+
+    private Serializers createSerializers() {
         final ClientConverter converter = new ClientConverter(configuration);
         final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(Client.class, converter);
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(new ClientListConverter(configuration));
         xstream.registerConverter(new RestCommResponseConverter(configuration));
+        return new Serializers(builder.create(), xstream);
     }
 
     private Client createFrom(final Sid accountSid, final MultivaluedMap<String, String> data) throws PasswordTooWeak {
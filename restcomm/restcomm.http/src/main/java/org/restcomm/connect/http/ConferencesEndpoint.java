@@ -44,6 +44,7 @@ import org.apache.shiro.authz.AuthorizationException;
 import org.restcomm.connect.commons.annotations.concurrency.NotThreadSafe;
 import org.restcomm.connect.http.converter.ConferenceDetailRecordConverter;
 import org.restcomm.connect.http.converter.ConferenceDetailRecordListConverter;
+import org.restcomm.connect.http.converter.ListPage;
 import org.restcomm.connect.dao.ConferenceDetailRecordsDao;
 import org.restcomm.connect.dao.DaoManager;
 import org.restcomm.connect.dao.entities.Account;
@@ -68,9 +69,7 @@ public abstract class ConferencesEndpoint extends SecuredEndpoint {
     protected Configuration configuration;
     private DaoManager daoManager;
     private Gson gson;
-    private GsonBuilder builder;
     private XStream xstream;
-    private ConferenceDetailRecordListConverter listConverter;
 
     public ConferencesEndpoint() {
         super();
@@ -82,18 +81,30 @@ public abstract class ConferencesEndpoint extends SecuredEndpoint {
         configuration = configuration.subset("runtime-settings");
         daoManager = (DaoManager) context.getAttribute(DaoManager.class.getName());
         super.init(configuration);
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(ConferencesEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+    }
+
+    private Serializers createSerializers() {
         ConferenceDetailRecordConverter converter = new ConferenceDetailRecordConverter(configuration);
-        listConverter = new ConferenceDetailRecordListConverter(configuration);
-        builder = new GsonBuilder();
+        final ConferenceDetailRecordListConverter listConverter = new ConferenceDetailRecordListConverter(configuration);
+        final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(ConferenceDetailRecord.class, converter);
         builder.registerTypeAdapter(ConferenceDetailRecordList.class, listConverter);
         builder.setPrettyPrinting();
         builder.disableHtmlEscaping();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(listConverter);
+        return new Serializers(builder.create(), xstream);
     }
 
     protected Response getConference(final String accountSid, final String sid, final MediaType responseType) {
@@ -179,16 +190,14 @@ public abstract class ConferencesEndpoint extends SecuredEndpoint {
 
         final List<ConferenceDetailRecord> cdrs = dao.getConferenceDetailRecords(filter);
 
-        listConverter.setCount(total);
-        listConverter.setPage(Integer.parseInt(page));
-        listConverter.setPageSize(Integer.parseInt(pageSize));
-        listConverter.setPathUri("/"+getApiVersion(null)+"/"+info.getPath());
+        final ListPage listPage = new ListPage(Integer.parseInt(page), Integer.parseInt(pageSize), total,
+                "/"+getApiVersion(null)+"/"+info.getPath());
 
         if (APPLICATION_XML_TYPE == responseType) {
             final RestCommResponse response = new RestCommResponse(new ConferenceDetailRecordList(cdrs));
-            return ok(xstream.toXML(response), APPLICATION_XML).build();
+            return ok(listPage.toXml(xstream, response), APPLICATION_XML).build();
         } else if (APPLICATION_JSON_TYPE == responseType) {
-            return ok(gson.toJson(new ConferenceDetailRecordList(cdrs)), APPLICATION_JSON).build();
+            return ok(listPage.toJson(gson, new ConferenceDetailRecordList(cdrs)), APPLICATION_JSON).build();
         } else {
             return null;
         }
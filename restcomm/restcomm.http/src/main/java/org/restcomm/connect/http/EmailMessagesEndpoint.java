@@ -72,15 +72,27 @@ public class EmailMessagesEndpoint extends SecuredEndpoint {
         accountsDao = storage.getAccountsDao();
         system = (ActorSystem) context.getAttribute(ActorSystem.class.getName());
         super.init(configuration);
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(EmailMessagesEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+    }
+
+    private Serializers createSerializers() {
         final EmailMessageConverter converter = new EmailMessageConverter(configuration);
         final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(Mail.class, converter);
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(new RestCommResponseConverter(configuration));
+        return new Serializers(builder.create(), xstream);
     }
 
     private void normalize(final MultivaluedMap<String, String> data) throws IllegalArgumentException {
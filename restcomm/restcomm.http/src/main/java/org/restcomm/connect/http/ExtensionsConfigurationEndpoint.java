@@ -68,18 +68,30 @@ public class ExtensionsConfigurationEndpoint extends SecuredEndpoint {
         configuration = allConfiguration.subset("runtime-settings");
         super.init(configuration);
         extensionsConfigurationDao = ((DaoManager) context.getAttribute(DaoManager.class.getName())).getExtensionsConfigurationDao();
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(ExtensionsConfigurationEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+        // Make sure there is an authenticated account present when this endpoint is used
+        checkAuthenticatedAccount();
+    }
+
+    private Serializers createSerializers() {
         final ExtensionConfigurationConverter converter = new ExtensionConfigurationConverter(configuration);
         final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(ExtensionConfiguration.class, converter);
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(new ExtensionConfigurationConverter(configuration));
         xstream.registerConverter(new RestCommResponseConverter(configuration));
-        // Make sure there is an authenticated account present when this endpoint is used
-        checkAuthenticatedAccount();
+        return new Serializers(builder.create(), xstream);
     }
 
     /**
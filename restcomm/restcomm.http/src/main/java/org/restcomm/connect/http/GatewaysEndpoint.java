@@ -56,17 +56,29 @@ public class GatewaysEndpoint extends SecuredEndpoint {
         configuration = configuration.subset("runtime-settings");
         super.init(configuration);
         dao = storage.getGatewaysDao();
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(GatewaysEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+        proxyManager = (ActorRef) context.getAttribute("org.restcomm.connect.telephony.proxy.ProxyManager");
+    }
+
+    private Serializers createSerializers() {
         final GatewayConverter converter = new GatewayConverter(configuration);
         final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(Gateway.class, converter);
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(new GatewayListConverter(configuration));
         xstream.registerConverter(new RestCommResponseConverter(configuration));
-        proxyManager = (ActorRef) context.getAttribute("org.restcomm.connect.telephony.proxy.ProxyManager");
+        return new Serializers(builder.create(), xstream);
     }
 
     private Gateway createFrom(final MultivaluedMap<String, String> data) {
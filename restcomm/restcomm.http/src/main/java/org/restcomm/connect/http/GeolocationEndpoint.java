@@ -127,17 +127,29 @@ public abstract class GeolocationEndpoint extends SecuredEndpoint {
         configuration = (Configuration) context.getAttribute(Configuration.class.getName());
         configuration = configuration.subset("runtime-settings");
         super.init(configuration);
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(GeolocationEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+    }
+
+    private Serializers createSerializers() {
         final GeolocationConverter converter = new GeolocationConverter(configuration);
         final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(Geolocation.class, converter);
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(new ClientListConverter(configuration));
         xstream.registerConverter(new GeolocationListConverter(configuration));
         xstream.registerConverter(new RestCommResponseConverter(configuration));
+        return new Serializers(builder.create(), xstream);
     }
 
     protected Response getGeolocation(final String accountSid, final String sid, final MediaType responseType) {
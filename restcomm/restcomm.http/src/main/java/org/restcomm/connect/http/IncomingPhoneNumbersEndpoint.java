@@ -61,6 +61,7 @@ import org.restcomm.connect.http.converter.AvailableCountriesConverter;
 import org.restcomm.connect.http.converter.AvailableCountriesList;
 import org.restcomm.connect.http.converter.IncomingPhoneNumberConverter;
 import org.restcomm.connect.http.converter.IncomingPhoneNumberListConverter;
+import org.restcomm.connect.http.converter.ListPage;
 import org.restcomm.connect.http.converter.RestCommResponseConverter;
 import org.restcomm.connect.provisioning.number.api.PhoneNumberParameters;
 import org.restcomm.connect.provisioning.number.api.PhoneNumberProvisioningManager;
@@ -87,7 +88,6 @@ public abstract class IncomingPhoneNumbersEndpoint extends SecuredEndpoint {
     @Context
     protected ServletContext context;
     protected PhoneNumberProvisioningManager phoneNumberProvisioningManager;
-    protected IncomingPhoneNumberListConverter listConverter;
     PhoneNumberParameters phoneNumberParameters;
     String callbackPort = "";
     private IncomingPhoneNumbersDao dao;
@@ -142,21 +142,32 @@ public abstract class IncomingPhoneNumbersEndpoint extends SecuredEndpoint {
                 callbackUrlsConfiguration.getString("ussd[@url]"),
                 callbackUrlsConfiguration.getString("ussd[@method]"));
 
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(IncomingPhoneNumbersEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+    }
+
+    private Serializers createSerializers() {
         final IncomingPhoneNumberConverter converter = new IncomingPhoneNumberConverter(configuration);
-        listConverter = new IncomingPhoneNumberListConverter(configuration);
+        final IncomingPhoneNumberListConverter listConverter = new IncomingPhoneNumberListConverter(configuration);
         final GsonBuilder builder = new GsonBuilder();
         builder.serializeNulls();
         builder.registerTypeAdapter(IncomingPhoneNumber.class, converter);
         builder.registerTypeAdapter(IncomingPhoneNumberList.class, listConverter);
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(listConverter);
         xstream.registerConverter(new AvailableCountriesConverter(configuration));
         xstream.registerConverter(new RestCommResponseConverter(configuration));
-
+        return new Serializers(builder.create(), xstream);
     }
 
     private IncomingPhoneNumber createFrom(final Sid accountSid, final MultivaluedMap<String, String> data, Sid organizationSid) {
@@ -318,16 +329,14 @@ public abstract class IncomingPhoneNumbersEndpoint extends SecuredEndpoint {
 
             final List<IncomingPhoneNumber> incomingPhoneNumbers = dao.getIncomingPhoneNumbersByFilter(incomingPhoneNumberFilter);
 
-            listConverter.setCount(total);
-            listConverter.setPage(pageAsInt);
-            listConverter.setPageSize(limit);
-            listConverter.setPathUri("/" + getApiVersion(null) + "/" + info.getPath());
+            final ListPage listPage = new ListPage(pageAsInt, limit, total,
+                    "/" + getApiVersion(null) + "/" + info.getPath());
 
             if (APPLICATION_JSON_TYPE == responseType) {
-                return ok(gson.toJson(new IncomingPhoneNumberList(incomingPhoneNumbers)), APPLICATION_JSON).build();
+                return ok(listPage.toJson(gson, new IncomingPhoneNumberList(incomingPhoneNumbers)), APPLICATION_JSON).build();
             } else if (APPLICATION_XML_TYPE == responseType) {
                 final RestCommResponse response = new RestCommResponse(new IncomingPhoneNumberList(incomingPhoneNumbers));
-                return ok(xstream.toXML(response), APPLICATION_XML).build();
+                return ok(listPage.toXml(xstream, response), APPLICATION_XML).build();
             } else {
                 return null;
             }
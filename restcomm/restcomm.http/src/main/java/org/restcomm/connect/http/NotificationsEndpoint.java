@@ -42,6 +42,7 @@ import javax.ws.rs.core.UriInfo;
 import org.apache.commons.configuration.Configuration;
 import org.restcomm.connect.commons.annotations.concurrency.NotThreadSafe;
 import org.restcomm.connect.commons.configuration.RestcommConfiguration;
+import org.restcomm.connect.http.converter.ListPage;
 import org.restcomm.connect.http.converter.NotificationConverter;
 import org.restcomm.connect.http.converter.NotificationListConverter;
 import org.restcomm.connect.http.converter.RestCommResponseConverter;
@@ -65,7 +66,6 @@ public abstract class NotificationsEndpoint extends SecuredEndpoint {
     protected NotificationsDao dao;
     protected Gson gson;
     protected XStream xstream;
-    protected NotificationListConverter listConverter;
     protected String instanceId;
 
     public NotificationsEndpoint() {
@@ -79,21 +79,33 @@ public abstract class NotificationsEndpoint extends SecuredEndpoint {
         configuration = configuration.subset("runtime-settings");
         super.init(configuration);
         dao = storage.getNotificationsDao();
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(NotificationsEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+
+        instanceId = RestcommConfiguration.getInstance().getMain().getInstanceId();
+    }
+
+    private Serializers createSerializers() {
         final NotificationConverter converter = new NotificationConverter(configuration);
-        listConverter = new NotificationListConverter(configuration);
+        final NotificationListConverter listConverter = new NotificationListConverter(configuration);
         final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(Notification.class, converter);
         builder.registerTypeAdapter(NotificationList.class, listConverter);
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(new NotificationListConverter(configuration));
         xstream.registerConverter(new RestCommResponseConverter(configuration));
         xstream.registerConverter(listConverter);
-
-        instanceId = RestcommConfiguration.getInstance().getMain().getInstanceId();
+        return new Serializers(builder.create(), xstream);
     }
 
     protected Response getNotification(final String accountSid, final String sid, final MediaType responseType) {
@@ -198,16 +210,14 @@ public abstract class NotificationsEndpoint extends SecuredEndpoint {
 
         final List<Notification> cdrs = dao.getNotifications(filter);
 
-        listConverter.setCount(total);
-        listConverter.setPage(Integer.parseInt(page));
-        listConverter.setPageSize(Integer.parseInt(pageSize));
-        listConverter.setPathUri(info.getRequestUri().getPath());
+        final ListPage listPage = new ListPage(Integer.parseInt(page), Integer.parseInt(pageSize), total,
+                info.getRequestUri().getPath());
 
         if (APPLICATION_XML_TYPE == responseType) {
             final RestCommResponse response = new RestCommResponse(new NotificationList(cdrs));
-            return ok(xstream.toXML(response), APPLICATION_XML).build();
+            return ok(listPage.toXml(xstream, response), APPLICATION_XML).build();
         } else if (APPLICATION_JSON_TYPE == responseType) {
-            return ok(gson.toJson(new NotificationList(cdrs)), APPLICATION_JSON).build();
+            return ok(listPage.toJson(gson, new NotificationList(cdrs)), APPLICATION_JSON).build();
         } else {
             return null;
         }
@@ -73,8 +73,6 @@ public class OrganizationsEndpoint extends SecuredEndpoint {
     protected String SUB_DOMAIN_NAME_VALIDATION_PATTERN="[A-Za-z0-9\\-]{1,255}";
     protected Pattern pattern;
 
-    protected OrganizationListConverter listConverter;
-
     public OrganizationsEndpoint() {
         super();
     }
@@ -89,7 +87,15 @@ public class OrganizationsEndpoint extends SecuredEndpoint {
         configuration = (Configuration) context.getAttribute(Configuration.class.getName());
         super.init(configuration.subset("runtime-settings"));
 
-        registerConverters();
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(OrganizationsEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
 
         // Make sure there is an authenticated account present when this endpoint is used
         // get manager from context or create it if it does not exist
@@ -101,19 +107,19 @@ public class OrganizationsEndpoint extends SecuredEndpoint {
         pattern = Pattern.compile(SUB_DOMAIN_NAME_VALIDATION_PATTERN);
     }
 
-    private void registerConverters(){
+    private Serializers createSerializers(){
         final OrganizationConverter converter = new OrganizationConverter(configuration);
-        listConverter = new OrganizationListConverter(configuration);
+        final OrganizationListConverter listConverter = new OrganizationListConverter(configuration);
         final GsonBuilder builder = new GsonBuilder();
         builder.serializeNulls();
         builder.registerTypeAdapter(Organization.class, converter);
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(listConverter);
         xstream.registerConverter(new RestCommResponseConverter(configuration));
+        return new Serializers(builder.create(), xstream);
     }
 
     /**
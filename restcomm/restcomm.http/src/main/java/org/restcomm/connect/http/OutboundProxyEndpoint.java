@@ -67,7 +67,6 @@ public class OutboundProxyEndpoint extends SecuredEndpoint {
     protected Configuration configuration;
     private ActorRef callManager;
     private Gson gson;
-    private GsonBuilder builder;
     private XStream xstream;
 
     public OutboundProxyEndpoint() {
@@ -80,12 +79,24 @@ public class OutboundProxyEndpoint extends SecuredEndpoint {
         configuration = configuration.subset("runtime-settings");
         callManager = (ActorRef) context.getAttribute("org.restcomm.connect.telephony.CallManager");
         super.init(configuration);
-        builder = new GsonBuilder();
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(OutboundProxyEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+    }
+
+    private Serializers createSerializers() {
+        final GsonBuilder builder = new GsonBuilder();
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(new RestCommResponseConverter(configuration));
+        return new Serializers(builder.create(), xstream);
     }
 
     protected Response getProxies(final String accountSid, final MediaType responseType) {
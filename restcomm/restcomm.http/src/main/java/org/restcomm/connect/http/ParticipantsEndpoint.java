@@ -19,7 +19,6 @@
  */
 package org.restcomm.connect.http;
 
-import static akka.pattern.Patterns.ask;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE;
 import static javax.ws.rs.core.MediaType.APPLICATION_XML;
@@ -33,7 +32,6 @@ import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 import static javax.ws.rs.core.Response.Status.UNAUTHORIZED;
 
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
 import javax.servlet.ServletContext;
@@ -59,6 +57,7 @@ import org.restcomm.connect.dao.entities.Recording;
 import org.restcomm.connect.dao.entities.RestCommResponse;
 import org.restcomm.connect.http.converter.CallDetailRecordListConverter;
 import org.restcomm.connect.http.converter.ConferenceParticipantConverter;
+import org.restcomm.connect.http.converter.ListPage;
 import org.restcomm.connect.http.converter.RecordingConverter;
 import org.restcomm.connect.http.converter.RecordingListConverter;
 import org.restcomm.connect.http.converter.RestCommResponseConverter;
@@ -72,10 +71,6 @@ import com.google.gson.GsonBuilder;
 import com.thoughtworks.xstream.XStream;
 
 import akka.actor.ActorRef;
-import akka.util.Timeout;
-import scala.concurrent.Await;
-import scala.concurrent.Future;
-import scala.concurrent.duration.Duration;
 
 /**
  * @author maria-farooq@live.com (Maria Farooq)
@@ -88,9 +83,7 @@ public abstract class ParticipantsEndpoint extends CallsEndpoint {
     protected ActorRef callManager;
     protected DaoManager daos;
     protected Gson gson;
-    protected GsonBuilder builder;
     protected XStream xstream;
-    protected CallDetailRecordListConverter listConverter;
     protected AccountsDao accountsDao;
     protected RecordingsDao recordingsDao;
     protected String instanceId;
@@ -108,24 +101,36 @@ public abstract class ParticipantsEndpoint extends CallsEndpoint {
         accountsDao = daos.getAccountsDao();
         recordingsDao = daos.getRecordingsDao();
         super.init(configuration);
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(ParticipantsEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+
+        instanceId = RestcommConfiguration.getInstance().getMain().getInstanceId();
+    }
+
+    private Serializers createSerializers() {
         ConferenceParticipantConverter converter = new ConferenceParticipantConverter(configuration);
-        listConverter = new CallDetailRecordListConverter(configuration);
+        final CallDetailRecordListConverter listConverter = new CallDetailRecordListConverter(configuration);
         final RecordingConverter recordingConverter = new RecordingConverter(configuration);
-        builder = new GsonBuilder();
+        final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(CallDetailRecord.class, converter);
         builder.registerTypeAdapter(CallDetailRecordList.class, listConverter);
         builder.registerTypeAdapter(Recording.class, recordingConverter);
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(recordingConverter);
         xstream.registerConverter(new RecordingListConverter(configuration));
         xstream.registerConverter(new RestCommResponseConverter(configuration));
         xstream.registerConverter(listConverter);
-
-        instanceId = RestcommConfiguration.getInstance().getMain().getInstanceId();
+        return new Serializers(builder.create(), xstream);
     }
 
     protected Response getCall(final String accountSid, final String sid, final MediaType responseType) {
@@ -198,16 +203,14 @@ public abstract class ParticipantsEndpoint extends CallsEndpoint {
             }
         }
 
-        listConverter.setCount(total);
-        listConverter.setPage(Integer.parseInt(page));
-        listConverter.setPageSize(Integer.parseInt(pageSize));
-        listConverter.setPathUri("/"+getApiVersion(null)+"/"+info.getPath());
+        final ListPage listPage = new ListPage(Integer.parseInt(page), Integer.parseInt(pageSize), total,
+                "/"+getApiVersion(null)+"/"+info.getPath());
 
         if (APPLICATION_XML_TYPE == responseType) {
             final RestCommResponse response = new RestCommResponse(new CallDetailRecordList(cdrs));
-            return ok(xstream.toXML(response), APPLICATION_XML).build();
+            return ok(listPage.toXml(xstream, response), APPLICATION_XML).build();
         } else if (APPLICATION_JSON_TYPE == responseType) {
-            return ok(gson.toJson(new CallDetailRecordList(cdrs)), APPLICATION_JSON).build();
+            return ok(listPage.toJson(gson, new CallDetailRecordList(cdrs)), APPLICATION_JSON).build();
         } else {
             return null;
         }
@@ -223,7 +226,6 @@ public abstract class ParticipantsEndpoint extends CallsEndpoint {
             return status(UNAUTHORIZED).build();
         }
 
-        final Timeout expires = new Timeout(Duration.create(60, TimeUnit.SECONDS));
         final CallDetailRecordsDao dao = daos.getCallDetailRecordsDao();
         CallDetailRecord cdr = null;
         try {
@@ -250,12 +252,9 @@ public abstract class ParticipantsEndpoint extends CallsEndpoint {
             final CallInfo callInfo;
             try {
                 callPath = cdr.getCallPath();
-                Future<Object> future = (Future<Object>) ask(callManager, new GetCall(callPath), expires);
-                call = (ActorRef) Await.result(future, Duration.create(100000, TimeUnit.SECONDS));
+                call = (ActorRef) AskUtils.askAndWait(callManager, new GetCall(callPath), 10);
 
-                future = (Future<Object>) ask(call, new GetCallInfo(), expires);
-                CallResponse<CallInfo> response = (CallResponse<CallInfo>) Await.result(future,
-                        Duration.create(100000, TimeUnit.SECONDS));
+                CallResponse<CallInfo> response = (CallResponse<CallInfo>) AskUtils.askAndWait(call, new GetCallInfo(), 10);
                 callInfo = response.get();
             } catch (Exception exception) {
                 return status(INTERNAL_SERVER_ERROR).entity(exception.getMessage()).build();
@@ -35,6 +35,7 @@ import org.restcomm.connect.dao.entities.Recording;
 import org.restcomm.connect.dao.entities.RecordingFilter;
 import org.restcomm.connect.dao.entities.RecordingList;
 import org.restcomm.connect.dao.entities.RestCommResponse;
+import org.restcomm.connect.http.converter.ListPage;
 import org.restcomm.connect.http.converter.RecordingConverter;
 import org.restcomm.connect.http.converter.RecordingListConverter;
 import org.restcomm.connect.http.converter.RestCommResponseConverter;
@@ -46,6 +47,7 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 import java.io.File;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.text.ParseException;
 import java.util.ArrayList;
@@ -74,7 +76,6 @@ public abstract class RecordingsEndpoint extends SecuredEndpoint {
     protected XStream xstream;
     protected S3AccessTool s3AccessTool;
     protected RecordingSecurityLevel securityLevel = RecordingSecurityLevel.SECURE;
-    protected RecordingListConverter listConverter;
     protected String instanceId;
 
     public RecordingsEndpoint() {
@@ -85,21 +86,38 @@ public abstract class RecordingsEndpoint extends SecuredEndpoint {
     public void init() {
         final DaoManager storage = (DaoManager) context.getAttribute(DaoManager.class.getName());
         configuration = (Configuration) context.getAttribute(Configuration.class.getName());
-        Configuration amazonS3Configuration = configuration.subset("amazon-s3");
+        final Configuration amazonS3Configuration = configuration.subset("amazon-s3");
         configuration = configuration.subset("runtime-settings");
         super.init(configuration);
         dao = storage.getRecordingsDao();
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(RecordingsEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers(amazonS3Configuration);
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+        // The S3 client is heavy and thread safe so it is built once along with the serializers.
+        s3AccessTool = serializers.get(S3AccessTool.class);
+        securityLevel = serializers.get(RecordingSecurityLevel.class);
+
+        instanceId = RestcommConfiguration.getInstance().getMain().getInstanceId();
+    }
+
+    private Serializers createSerializers(final Configuration amazonS3Configuration) {
+        S3AccessTool s3AccessTool = null;
+        RecordingSecurityLevel securityLevel = RecordingSecurityLevel.SECURE;
         final RecordingConverter converter = new RecordingConverter(configuration);
-        listConverter = new RecordingListConverter(configuration);
+        final RecordingListConverter listConverter = new RecordingListConverter(configuration);
         final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(Recording.class, converter);
         builder.registerTypeAdapter(RecordingList.class, listConverter);
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
-        xstream.registerConverter(new RecordingListConverter(configuration));
         xstream.registerConverter(new RestCommResponseConverter(configuration));
         if(!amazonS3Configuration.isEmpty()) { // Do not fail with NPE is amazonS3Configuration is not present for older install
             boolean amazonS3Enabled = amazonS3Configuration.getBoolean("enabled");
@@ -122,8 +140,7 @@ public abstract class RecordingsEndpoint extends SecuredEndpoint {
         }
 
         xstream.registerConverter(listConverter);
-
-        instanceId = RestcommConfiguration.getInstance().getMain().getInstanceId();
+        return new Serializers(builder.create(), xstream, s3AccessTool, securityLevel);
     }
 
     protected Response getRecording(final String accountSid, final String sid, final MediaType responseType) {
@@ -226,16 +243,14 @@ public abstract class RecordingsEndpoint extends SecuredEndpoint {
 
         final List<Recording> cdrs = dao.getRecordings(filter);
 
-        listConverter.setCount(total);
-        listConverter.setPage(Integer.parseInt(page));
-        listConverter.setPageSize(Integer.parseInt(pageSize));
-        listConverter.setPathUri(info.getRequestUri().getPath());
+        final ListPage listPage = new ListPage(Integer.parseInt(page), Integer.parseInt(pageSize), total,
+                info.getRequestUri().getPath());
 
         if (APPLICATION_XML_TYPE == responseType) {
             final RestCommResponse response = new RestCommResponse(new RecordingList(cdrs));
-            return ok(xstream.toXML(response), APPLICATION_XML).build();
+            return ok(listPage.toXml(xstream, response), APPLICATION_XML).build();
         } else if (APPLICATION_JSON_TYPE == responseType) {
-            return ok(gson.toJson(new RecordingList(cdrs)), APPLICATION_JSON).build();
+            return ok(listPage.toJson(gson, new RecordingList(cdrs)), APPLICATION_JSON).build();
         } else {
             return null;
         }
@@ -275,7 +290,18 @@ public abstract class RecordingsEndpoint extends SecuredEndpoint {
                     if (securityLevel.equals(RecordingSecurityLevel.REDIRECT)) {
                         return temporaryRedirect(recordingUri).build();
                     } else {
-                        String contentType = recordingUri.toURL().openConnection().getContentType();
+                        //Fetch recording and serve it from here, handing the Range on so a seek only fetches what it needs
+                        final HttpURLConnection connection = (HttpURLConnection) recordingUri.toURL().openConnection();
+                        final String range = header("Range");
+                        if (range != null) {
+                            connection.setRequestProperty("Range", range);
+                        }
+                        final int code = connection.getResponseCode();
+                        if (code >= 400) {
+                            connection.disconnect();
+                            return status(code).build();
+                        }
+                        String contentType = connection.getContentType();
                         if (contentType == null || contentType.isEmpty()) {
                             if (fileExtension.equals(".wav")) {
                                 contentType = "audio/x-wav";
@@ -283,8 +309,15 @@ public abstract class RecordingsEndpoint extends SecuredEndpoint {
                                 contentType = "video/mp4";
                             }
                         }
-                        //Fetch recording and serve it from here
-                        return ok(recordingUri.toURL().openStream(), contentType).build();
+                        final Response.ResponseBuilder builder = status(code).entity(connection.getInputStream()).type(contentType)
+                                .header("Accept-Ranges", "bytes");
+                        if (connection.getHeaderField("Content-Range") != null) {
+                            builder.header("Content-Range", connection.getHeaderField("Content-Range"));
+                        }
+                        if (connection.getContentLength() >= 0) {
+                            builder.header("Content-Length", connection.getContentLength());
+                        }
+                        return builder.build();
                     }
                 } else {
 //                    String recFile = "/restcomm/recordings/" + recording.getSid() + ".wav";
@@ -308,7 +341,8 @@ public abstract class RecordingsEndpoint extends SecuredEndpoint {
                         } else {
                             contentType = "video/mp4";
                         }
-                        return ok(recordingFile, contentType).build();
+                        return ByteRanges.serve(recordingFile, contentType, header("Range"), header("If-Range"),
+                                header("If-None-Match"));
                     } else {
                         return status(NOT_FOUND).build();
                     }
@@ -322,4 +356,8 @@ public abstract class RecordingsEndpoint extends SecuredEndpoint {
         return status(Response.Status.NOT_FOUND).build();
     }
 
+    private String header(final String name) {
+        return request == null ? null : request.getHeader(name);
+    }
+
 }
@@ -0,0 +1,80 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.http;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.servlet.ServletContext;
+
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+
+/**
+ * Holds the {@link Serializers} of every REST endpoint so that they are built once per endpoint type rather than once per
+ * request. Jersey creates a new endpoint instance for each request, so building them in {@code @PostConstruct} used to mean
+ * a fresh XStream, Gson and converter set every time.
+ * <p>
+ * The registry lives in the servlet context. Converters registered through it are shared by concurrent requests and must
+ * not keep per-request state; list paging goes through {@link org.restcomm.connect.http.converter.ListPage} for that reason.
+ */
+@ThreadSafe
+public final class SerializerRegistry {
+    public interface Factory {
+        Serializers create();
+    }
+
+    private final ConcurrentMap<Class<?>, Serializers> serializers;
+
+    public SerializerRegistry() {
+        super();
+        this.serializers = new ConcurrentHashMap<Class<?>, Serializers>();
+    }
+
+    /**
+     * Returns the serializers registered for an endpoint type, building them with the factory the first time. Two
+     * requests racing on the first build may both call the factory but only one result is ever handed out.
+     */
+    public Serializers get(final Class<?> endpoint, final Factory factory) {
+        Serializers existing = serializers.get(endpoint);
+        if (existing == null) {
+            final Serializers created = factory.create();
+            existing = serializers.putIfAbsent(endpoint, created);
+            if (existing == null) {
+                existing = created;
+            }
+        }
+        return existing;
+    }
+
+    public static SerializerRegistry getInstance(final ServletContext context) {
+        final String name = SerializerRegistry.class.getName();
+        SerializerRegistry registry = (SerializerRegistry) context.getAttribute(name);
+        if (registry == null) {
+            synchronized (SerializerRegistry.class) {
+                registry = (SerializerRegistry) context.getAttribute(name);
+                if (registry == null) {
+                    registry = new SerializerRegistry();
+                    context.setAttribute(name, registry);
+                }
+            }
+        }
+        return registry;
+    }
+}
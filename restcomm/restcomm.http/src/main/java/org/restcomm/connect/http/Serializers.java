@@ -0,0 +1,69 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.http;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.restcomm.connect.commons.annotations.concurrency.Immutable;
+
+import com.google.gson.Gson;
+import com.thoughtworks.xstream.XStream;
+
+/**
+ * The fully configured Gson and XStream instances of one endpoint, plus any other collaborators built along with them
+ * (converters, access tools) that the endpoint needs to keep a reference to.
+ * <p>
+ * Both Gson and XStream are thread safe once configured so a single instance is shared by every request. Nothing may be
+ * registered on them after construction.
+ */
+@Immutable
+public final class Serializers {
+    private final Gson gson;
+    private final XStream xstream;
+    private final List<Object> components;
+
+    public Serializers(final Gson gson, final XStream xstream, final Object... components) {
+        super();
+        this.gson = gson;
+        this.xstream = xstream;
+        this.components = Arrays.asList(components);
+    }
+
+    public Gson getGson() {
+        return gson;
+    }
+
+    public XStream getXStream() {
+        return xstream;
+    }
+
+    /**
+     * @return the component of the given type that was built with these serializers or null if there is none.
+     */
+    public <T> T get(final Class<T> type) {
+        for (final Object component : components) {
+            if (type.isInstance(component)) {
+                return type.cast(component);
+            }
+        }
+        return null;
+    }
+}
@@ -25,7 +25,6 @@ import akka.actor.Props;
 import akka.actor.UntypedActor;
 import akka.actor.UntypedActorContext;
 import akka.actor.UntypedActorFactory;
-import akka.util.Timeout;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.i18n.phonenumbers.NumberParseException;
@@ -47,6 +46,7 @@ import org.restcomm.connect.dao.entities.SmsMessage;
 import org.restcomm.connect.dao.entities.SmsMessage.Status;
 import org.restcomm.connect.dao.entities.SmsMessageFilter;
 import org.restcomm.connect.dao.entities.SmsMessageList;
+import org.restcomm.connect.http.converter.ListPage;
 import org.restcomm.connect.http.converter.RestCommResponseConverter;
 import org.restcomm.connect.http.converter.SmsMessageConverter;
 import org.restcomm.connect.http.converter.SmsMessageListConverter;
@@ -56,9 +56,6 @@ import org.restcomm.connect.sms.api.SmsSessionAttribute;
 import org.restcomm.connect.sms.api.SmsSessionInfo;
 import org.restcomm.connect.sms.api.SmsSessionRequest;
 import org.restcomm.connect.sms.api.SmsSessionResponse;
-import scala.concurrent.Await;
-import scala.concurrent.Future;
-import scala.concurrent.duration.Duration;
 
 import javax.annotation.PostConstruct;
 import javax.servlet.ServletContext;
@@ -75,9 +72,7 @@ import java.util.Currency;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
 
-import static akka.pattern.Patterns.ask;
 import static javax.ws.rs.core.MediaType.*;
 import static javax.ws.rs.core.Response.Status.*;
 import static javax.ws.rs.core.Response.ok;
@@ -96,7 +91,6 @@ public abstract class SmsMessagesEndpoint extends SecuredEndpoint {
     protected SmsMessagesDao dao;
     protected Gson gson;
     protected XStream xstream;
-    protected SmsMessageListConverter listConverter;
     protected String instanceId;
 
     private boolean normalizePhoneNumbers;
@@ -114,23 +108,35 @@ public abstract class SmsMessagesEndpoint extends SecuredEndpoint {
         aggregator = (ActorRef) context.getAttribute("org.restcomm.connect.sms.SmsService");
         system = (ActorSystem) context.getAttribute(ActorSystem.class.getName());
         super.init(configuration);
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(SmsMessagesEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+
+        instanceId = RestcommConfiguration.getInstance().getMain().getInstanceId();
+
+        normalizePhoneNumbers = configuration.getBoolean("normalize-numbers-for-outbound-calls");
+    }
+
+    private Serializers createSerializers() {
         final SmsMessageConverter converter = new SmsMessageConverter(configuration);
-        listConverter = new SmsMessageListConverter(configuration);
+        final SmsMessageListConverter listConverter = new SmsMessageListConverter(configuration);
         final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(SmsMessage.class, converter);
         builder.registerTypeAdapter(SmsMessageList.class, listConverter);
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(new SmsMessageListConverter(configuration));
         xstream.registerConverter(new RestCommResponseConverter(configuration));
         xstream.registerConverter(listConverter);
-
-        instanceId = RestcommConfiguration.getInstance().getMain().getInstanceId();
-
-        normalizePhoneNumbers = configuration.getBoolean("normalize-numbers-for-outbound-calls");
+        return new Serializers(builder.create(), xstream);
     }
 
     protected Response getSmsMessage(final String accountSid, final String sid, final MediaType responseType) {
@@ -236,16 +242,14 @@ public abstract class SmsMessagesEndpoint extends SecuredEndpoint {
 
         final List<SmsMessage> cdrs = dao.getSmsMessages(filter);
 
-        listConverter.setCount(total);
-        listConverter.setPage(Integer.parseInt(page));
-        listConverter.setPageSize(Integer.parseInt(pageSize));
-        listConverter.setPathUri(info.getRequestUri().getPath());
+        final ListPage listPage = new ListPage(Integer.parseInt(page), Integer.parseInt(pageSize), total,
+                info.getRequestUri().getPath());
 
         if (APPLICATION_XML_TYPE == responseType) {
             final RestCommResponse response = new RestCommResponse(new SmsMessageList(cdrs));
-            return ok(xstream.toXML(response), APPLICATION_XML).build();
+            return ok(listPage.toXml(xstream, response), APPLICATION_XML).build();
         } else if (APPLICATION_JSON_TYPE == responseType) {
-            return ok(gson.toJson(new SmsMessageList(cdrs)), APPLICATION_JSON).build();
+            return ok(listPage.toJson(gson, new SmsMessageList(cdrs)), APPLICATION_JSON).build();
         } else {
             return null;
         }
@@ -302,10 +306,8 @@ public abstract class SmsMessagesEndpoint extends SecuredEndpoint {
                 customRestOutgoingHeaderMap.put(name, data.getFirst(name));
             }
         }
-        final Timeout expires = new Timeout(Duration.create(60, TimeUnit.SECONDS));
         try {
-            Future<Object> future = (Future<Object>) ask(aggregator, new CreateSmsSession(sender, recipient, accountSid, true), expires);
-            Object object = Await.result(future, Duration.create(10, TimeUnit.SECONDS));
+            Object object = AskUtils.askAndWait(aggregator, new CreateSmsSession(sender, recipient, accountSid, true), 10);
             Class<?> klass = object.getClass();
             if (SmsServiceResponse.class.equals(klass)) {
                 final SmsServiceResponse<ActorRef> smsServiceResponse = (SmsServiceResponse<ActorRef>) object;
@@ -21,12 +21,12 @@
 package org.restcomm.connect.http;
 
 import akka.actor.ActorRef;
-import akka.util.Timeout;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.thoughtworks.xstream.XStream;
 import org.apache.commons.configuration.Configuration;
 import org.apache.log4j.Logger;
+import org.restcomm.connect.commons.metrics.MetricsRegistry;
 import org.restcomm.connect.dao.DaoManager;
 import org.restcomm.connect.dao.entities.CallDetailRecordFilter;
 import org.restcomm.connect.dao.entities.RestCommResponse;
@@ -40,9 +40,6 @@ import org.restcomm.connect.telephony.api.CallInfo;
 import org.restcomm.connect.telephony.api.GetLiveCalls;
 import org.restcomm.connect.telephony.api.GetStatistics;
 import org.restcomm.connect.telephony.api.MonitoringServiceResponse;
-import scala.concurrent.Await;
-import scala.concurrent.Future;
-import scala.concurrent.duration.Duration;
 
 import javax.annotation.PostConstruct;
 import javax.servlet.ServletContext;
@@ -51,15 +48,16 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.text.ParseException;
-import java.util.concurrent.TimeUnit;
 
-import static akka.pattern.Patterns.ask;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE;
 import static javax.ws.rs.core.MediaType.APPLICATION_XML;
 import static javax.ws.rs.core.MediaType.APPLICATION_XML_TYPE;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
+import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 import static javax.ws.rs.core.Response.ok;
 import static javax.ws.rs.core.Response.status;
 
@@ -69,13 +67,13 @@ import static javax.ws.rs.core.Response.status;
  */
 public class SupervisorEndpoint extends SecuredEndpoint{
     private static Logger logger = Logger.getLogger(SupervisorEndpoint.class);
+    private static final String PROMETHEUS_TEXT = "text/plain; version=0.0.4";
 
     @Context
     protected ServletContext context;
     protected Configuration configuration;
     private DaoManager daos;
     private Gson gson;
-    private GsonBuilder builder;
     private XStream xstream;
     private ActorRef monitoringService;
 
@@ -90,21 +88,33 @@ public class SupervisorEndpoint extends SecuredEndpoint{
         configuration = configuration.subset("runtime-settings");
         daos = (DaoManager) context.getAttribute(DaoManager.class.getName());
         super.init(configuration);
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(SupervisorEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+    }
+
+    private Serializers createSerializers() {
         CallinfoConverter converter = new CallinfoConverter(configuration);
         MonitoringServiceConverter listConverter = new MonitoringServiceConverter(configuration);
         MonitoringServiceConverterCallDetails callDetailsConverter = new MonitoringServiceConverterCallDetails(configuration);
-        builder = new GsonBuilder();
+        final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(CallInfo.class, converter);
         builder.registerTypeAdapter(MonitoringServiceResponse.class, listConverter);
         builder.registerTypeAdapter(LiveCallsDetails.class, callDetailsConverter);
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(listConverter);
         xstream.registerConverter(callDetailsConverter);
         xstream.registerConverter(new RestCommResponseConverter(configuration));
+        return new Serializers(builder.create(), xstream);
     }
 
     protected Response pong(final String accountSid, final MediaType responseType) {
@@ -145,10 +155,8 @@ public class SupervisorEndpoint extends SecuredEndpoint{
         //Get the list of live calls from Monitoring Service
         MonitoringServiceResponse monitoringServiceResponse;
         try {
-            final Timeout expires = new Timeout(Duration.create(5, TimeUnit.SECONDS));
             GetStatistics getStatistics = new GetStatistics(withLiveCallDetails, withMgcpStats, accountSid);
-            Future<Object> future = (Future<Object>) ask(monitoringService, getStatistics, expires);
-            monitoringServiceResponse = (MonitoringServiceResponse) Await.result(future, Duration.create(5, TimeUnit.SECONDS));
+            monitoringServiceResponse = (MonitoringServiceResponse) AskUtils.askAndWait(monitoringService, getStatistics, 5);
         } catch (Exception exception) {
             return status(BAD_REQUEST).entity(exception.getMessage()).build();
         }
@@ -170,16 +178,27 @@ public class SupervisorEndpoint extends SecuredEndpoint{
         }
     }
 
+    // The metrics registry in the Prometheus text format, read without asking the monitoring service.
+    protected Response getPrometheusMetrics(final String accountSid) {
+        checkAuthenticatedAccount();
+        allowOnlySuperAdmin();
+        final StringWriter writer = new StringWriter();
+        try {
+            MetricsRegistry.getInstance().write(writer);
+        } catch (IOException exception) {
+            return status(INTERNAL_SERVER_ERROR).entity(exception.getMessage()).build();
+        }
+        return ok(writer.toString(), PROMETHEUS_TEXT).build();
+    }
+
     protected Response getLiveCalls(final String accountSid, final MediaType responseType) {
         //following 2 things are enough to grant access: 1. a valid authentication token is present. 2 it is a super admin.
         checkAuthenticatedAccount();
         allowOnlySuperAdmin();
         LiveCallsDetails callDetails;
         try {
-            final Timeout expires = new Timeout(Duration.create(5, TimeUnit.SECONDS));
             GetLiveCalls getLiveCalls = new GetLiveCalls();
-            Future<Object> future = (Future<Object>) ask(monitoringService, getLiveCalls, expires);
-            callDetails = (LiveCallsDetails) Await.result(future, Duration.create(5, TimeUnit.SECONDS));
+            callDetails = (LiveCallsDetails) AskUtils.askAndWait(monitoringService, getLiveCalls, 5);
         } catch (Exception exception) {
             return status(BAD_REQUEST).entity(exception.getMessage()).build();
         }
@@ -218,10 +237,8 @@ public class SupervisorEndpoint extends SecuredEndpoint{
         //Get the list of live calls from Monitoring Service
         MonitoringServiceResponse monitoringServiceResponse;
         try {
-            final Timeout expires = new Timeout(Duration.create(60, TimeUnit.SECONDS));
             GetStatistics getStatistics = new GetStatistics(withLiveCallDetails, withMgcpStats, accountSid);
-            Future<Object> future = (Future<Object>) ask(monitoringService, getStatistics, expires);
-            monitoringServiceResponse = (MonitoringServiceResponse) Await.result(future, Duration.create(10, TimeUnit.SECONDS));
+            monitoringServiceResponse = (MonitoringServiceResponse) AskUtils.askAndWait(monitoringService, getStatistics, 10);
         } catch (Exception exception) {
             return status(BAD_REQUEST).entity(exception.getMessage()).build();
         }
@@ -259,10 +276,8 @@ public class SupervisorEndpoint extends SecuredEndpoint{
         //Get the list of live calls from Monitoring Service
         MonitoringServiceResponse monitoringServiceResponse;
         try {
-            final Timeout expires = new Timeout(Duration.create(60, TimeUnit.SECONDS));
             GetStatistics getStatistics = new GetStatistics(withLiveCallDetails, withMgcpStats, accountSid);
-            Future<Object> future = (Future<Object>) ask(monitoringService, getStatistics, expires);
-            monitoringServiceResponse = (MonitoringServiceResponse) Await.result(future, Duration.create(10, TimeUnit.SECONDS));
+            monitoringServiceResponse = (MonitoringServiceResponse) AskUtils.askAndWait(monitoringService, getStatistics, 10);
         } catch (Exception exception) {
             return status(BAD_REQUEST).entity(exception.getMessage()).build();
         }
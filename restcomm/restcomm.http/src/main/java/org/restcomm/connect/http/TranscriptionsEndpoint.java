@@ -42,6 +42,7 @@ import javax.ws.rs.core.UriInfo;
 import org.apache.commons.configuration.Configuration;
 import org.restcomm.connect.commons.annotations.concurrency.NotThreadSafe;
 import org.restcomm.connect.commons.configuration.RestcommConfiguration;
+import org.restcomm.connect.http.converter.ListPage;
 import org.restcomm.connect.http.converter.RestCommResponseConverter;
 import org.restcomm.connect.http.converter.TranscriptionConverter;
 import org.restcomm.connect.http.converter.TranscriptionListConverter;
@@ -65,7 +66,6 @@ public abstract class TranscriptionsEndpoint extends SecuredEndpoint {
     protected TranscriptionsDao dao;
     protected Gson gson;
     protected XStream xstream;
-    protected TranscriptionListConverter listConverter;
     protected String instanceId;
 
     public TranscriptionsEndpoint() {
@@ -79,21 +79,33 @@ public abstract class TranscriptionsEndpoint extends SecuredEndpoint {
         configuration = configuration.subset("runtime-settings");
         super.init(configuration);
         dao = storage.getTranscriptionsDao();
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(TranscriptionsEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+
+        instanceId = RestcommConfiguration.getInstance().getMain().getInstanceId();
+    }
+
+    private Serializers createSerializers() {
         final TranscriptionConverter converter = new TranscriptionConverter(configuration);
-        listConverter = new TranscriptionListConverter(configuration);
+        final TranscriptionListConverter listConverter = new TranscriptionListConverter(configuration);
         final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(Transcription.class, converter);
         builder.registerTypeAdapter(TranscriptionList.class, listConverter);
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(new TranscriptionListConverter(configuration));
         xstream.registerConverter(new RestCommResponseConverter(configuration));
         xstream.registerConverter(listConverter);
-
-        instanceId = RestcommConfiguration.getInstance().getMain().getInstanceId();
+        return new Serializers(builder.create(), xstream);
     }
 
     protected Response getTranscription(final String accountSid, final String sid, final MediaType responseType) {
@@ -196,16 +208,14 @@ public abstract class TranscriptionsEndpoint extends SecuredEndpoint {
 
         final List<Transcription> cdrs = dao.getTranscriptions(filter);
 
-        listConverter.setCount(total);
-        listConverter.setPage(Integer.parseInt(page));
-        listConverter.setPageSize(Integer.parseInt(pageSize));
-        listConverter.setPathUri(info.getRequestUri().getPath());
+        final ListPage listPage = new ListPage(Integer.parseInt(page), Integer.parseInt(pageSize), total,
+                info.getRequestUri().getPath());
 
         if (APPLICATION_XML_TYPE == responseType) {
             final RestCommResponse response = new RestCommResponse(new TranscriptionList(cdrs));
-            return ok(xstream.toXML(response), APPLICATION_XML).build();
+            return ok(listPage.toXml(xstream, response), APPLICATION_XML).build();
         } else if (APPLICATION_JSON_TYPE == responseType) {
-            return ok(gson.toJson(new TranscriptionList(cdrs)), APPLICATION_JSON).build();
+            return ok(listPage.toJson(gson, new TranscriptionList(cdrs)), APPLICATION_JSON).build();
         } else {
             return null;
         }
@@ -80,16 +80,28 @@ public abstract class UsageEndpoint extends SecuredEndpoint {
     configuration = configuration.subset("runtime-settings");
     super.init(configuration);
     dao = storage.getUsageDao();
+    final Serializers serializers = SerializerRegistry.getInstance(context).get(UsageEndpoint.class,
+        new SerializerRegistry.Factory() {
+          @Override
+          public Serializers create() {
+            return createSerializers();
+          }
+        });
+    gson = serializers.getGson();
+    xstream = serializers.getXStream();
+  }
+
+  private Serializers createSerializers() {
     final UsageConverter converter = new UsageConverter(configuration);
     final GsonBuilder builder = new GsonBuilder();
     builder.registerTypeAdapter(Usage.class, converter);
     builder.setPrettyPrinting();
-    gson = builder.disableHtmlEscaping().create();
-    xstream = new XStream();
+    final XStream xstream = new XStream();
     xstream.alias("RestcommResponse", RestCommResponse.class);
     xstream.registerConverter(converter);
     xstream.registerConverter(new UsageListConverter(configuration));
     xstream.registerConverter(new RestCommResponseConverter(configuration));
+    return new Serializers(builder.disableHtmlEscaping().create(), xstream);
   }
 
   protected Response getUsage(final String accountSid, final String subresource, UriInfo info, final MediaType responseType) {
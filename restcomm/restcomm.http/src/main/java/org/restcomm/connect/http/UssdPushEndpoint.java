@@ -19,7 +19,6 @@
  */
 package org.restcomm.connect.http;
 
-import static akka.pattern.Patterns.ask;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE;
 import static javax.ws.rs.core.MediaType.APPLICATION_XML;
@@ -30,7 +29,6 @@ import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.INTERNAL_SERVER_ERROR;
 
 import java.net.URI;
-import java.util.concurrent.TimeUnit;
 
 import javax.annotation.PostConstruct;
 import javax.servlet.ServletContext;
@@ -56,11 +54,7 @@ import org.restcomm.connect.telephony.api.CreateCall;
 import org.restcomm.connect.telephony.api.ExecuteCallScript;
 import org.restcomm.connect.telephony.api.GetCallInfo;
 
-import scala.concurrent.Await;
-import scala.concurrent.Future;
-import scala.concurrent.duration.Duration;
 import akka.actor.ActorRef;
-import akka.util.Timeout;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -78,9 +72,7 @@ public class UssdPushEndpoint extends SecuredEndpoint {
     private ActorRef ussdCallManager;
     private DaoManager daos;
     private Gson gson;
-    private GsonBuilder builder;
     private XStream xstream;
-    private CallDetailRecordListConverter listConverter;
 
     public UssdPushEndpoint() {
         super();
@@ -93,18 +85,30 @@ public class UssdPushEndpoint extends SecuredEndpoint {
         ussdCallManager = (ActorRef) context.getAttribute("org.restcomm.connect.ussd.telephony.UssdCallManager");
         daos = (DaoManager) context.getAttribute(DaoManager.class.getName());
         super.init(configuration);
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(UssdPushEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+    }
+
+    private Serializers createSerializers() {
         CallDetailRecordConverter converter = new CallDetailRecordConverter(configuration);
-        listConverter = new CallDetailRecordListConverter(configuration);
-        builder = new GsonBuilder();
+        final CallDetailRecordListConverter listConverter = new CallDetailRecordListConverter(configuration);
+        final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(CallDetailRecord.class, converter);
         builder.registerTypeAdapter(CallDetailRecordList.class, listConverter);
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(new RestCommResponseConverter(configuration));
         xstream.registerConverter(listConverter);
+        return new Serializers(builder.create(), xstream);
     }
 
     @SuppressWarnings("unchecked")
@@ -121,22 +125,19 @@ public class UssdPushEndpoint extends SecuredEndpoint {
         final String username = data.getFirst("Username");
         final String password = data.getFirst("Password");
         final Integer timeout = getTimeout(data);
-        final Timeout expires = new Timeout(Duration.create(60, TimeUnit.SECONDS));
         CreateCall create = null;
         //Currently we don't support StatusCallback for USSD Push requests
         try {
             create = new CreateCall(from, to, username, password, true, timeout != null ? timeout : 30, CreateCallType.USSD,
                     accountId, null, null, null, null);
             create.setCreateCDR(false);
-            Future<Object> future = (Future<Object>) ask(ussdCallManager, create, expires);
-            Object object = Await.result(future, Duration.create(10, TimeUnit.SECONDS));
+            Object object = AskUtils.askAndWait(ussdCallManager, create, 10);
             Class<?> klass = object.getClass();
             if (CallManagerResponse.class.equals(klass)) {
                 final CallManagerResponse<ActorRef> managerResponse = (CallManagerResponse<ActorRef>) object;
                 if (managerResponse.succeeded()) {
                     final ActorRef call = managerResponse.get();
-                    future = (Future<Object>) ask(call, new GetCallInfo(), expires);
-                    object = Await.result(future, Duration.create(10, TimeUnit.SECONDS));
+                    object = AskUtils.askAndWait(call, new GetCallInfo(), 10);
                     klass = object.getClass();
                     if (CallResponse.class.equals(klass)) {
                         final CallResponse<CallInfo> callResponse = (CallResponse<CallInfo>) object;
@@ -66,15 +66,27 @@ public class VersionEndpoint extends SecuredEndpoint {
         super.init(configuration);
         dao = storage.getUsageDao();
         accountsDao = storage.getAccountsDao();
+        final Serializers serializers = SerializerRegistry.getInstance(context).get(VersionEndpoint.class,
+                new SerializerRegistry.Factory() {
+                    @Override
+                    public Serializers create() {
+                        return createSerializers();
+                    }
+                });
+        gson = serializers.getGson();
+        xstream = serializers.getXStream();
+    }
+
+    private Serializers createSerializers() {
         final VersionConverter converter = new VersionConverter(configuration);
         final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(VersionEntity.class, converter);
         builder.setPrettyPrinting();
-        gson = builder.create();
-        xstream = new XStream();
+        final XStream xstream = new XStream();
         xstream.alias("RestcommResponse", RestCommResponse.class);
         xstream.registerConverter(converter);
         xstream.registerConverter(new RestCommResponseConverter(configuration));
+        return new Serializers(builder.create(), xstream);
     }
 
     protected Response getVersion(final String accountSid, final MediaType mediaType) {
@@ -0,0 +1,52 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.http.client;
+
+import org.apache.http.HttpRequest;
+
+/**
+ * Lets the {@link Downloader} answer from, revalidate against and fill a cache of documents. Implementations decide what
+ * can be stored and for how long.
+ */
+public interface DocumentCache {
+    /**
+     * @return a stored response that is still fresh for the request, or null if the server has to be contacted.
+     */
+    HttpResponseDescriptor get(HttpRequestDescriptor request);
+
+    /**
+     * Adds the conditional headers of a stored response, if any, to the request about to be sent.
+     */
+    void addValidators(HttpRequestDescriptor request, HttpRequest message);
+
+    /**
+     * Called when the server answered 304 Not Modified.
+     *
+     * @return the stored response to use in its place, or null if there is none any more.
+     */
+    HttpResponseDescriptor notModified(HttpRequestDescriptor request, HttpResponseDescriptor response);
+
+    /**
+     * Offers a successful response to the cache.
+     *
+     * @return the response to hand to the requester, which may carry a document the cache parsed.
+     */
+    HttpResponseDescriptor put(HttpRequestDescriptor request, HttpResponseDescriptor response);
+}
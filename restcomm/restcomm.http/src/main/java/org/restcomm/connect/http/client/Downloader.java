@@ -29,29 +29,37 @@ import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.RedirectException;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.utils.URIBuilder;
+import org.apache.http.concurrent.FutureCallback;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.restcomm.connect.commons.common.http.CustomHttpClientBuilder;
 import org.restcomm.connect.commons.configuration.RestcommConfiguration;
+import org.restcomm.connect.commons.configuration.sets.MainConfigurationSet;
 import org.restcomm.connect.commons.faulttolerance.RestcommUntypedActor;
+import org.restcomm.connect.commons.metrics.Histogram;
+import org.restcomm.connect.commons.metrics.MetricsRegistry;
 import org.restcomm.connect.commons.util.StringUtils;
-import org.xml.sax.InputSource;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
-import java.io.ByteArrayInputStream;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.protocol.BasicHttpContext;
@@ -64,14 +72,49 @@ public final class Downloader extends RestcommUntypedActor {
 
     public static final int LOGGED_RESPONSE_MAX_SIZE = 100;
 
+    private static final XMLInputFactory inputs = XMLInputFactory.newInstance();
+
+    // The most redirects followed for one request, the same as the http client follows by itself.
+    private static final int MAX_REDIRECTS = RequestConfig.DEFAULT.getMaxRedirects();
+
+    private static final Histogram fetchLatency = MetricsRegistry.getInstance().histogram("restcomm_rcml_fetch_seconds",
+            "Time to fetch and parse an RCML document, redirects and cache hits included.", Histogram.LATENCY_SECONDS);
+
     private CloseableHttpClient client = null;
+    // Set when http-client/async is on. Requests then complete on the client's I/O threads, which hand the responses
+    // back to this actor to be read.
+    private CloseableHttpAsyncClient asyncClient = null;
+    // Reads the documents for the requester. Without one the downloader only checks that they are well formed.
+    private DocumentParser<?> documentParser = null;
+    // Shared cache of documents, null when the requester does not use one.
+    private DocumentCache documentCache = null;
 
     // Logger.
     private final LoggingAdapter logger = Logging.getLogger(getContext().system(), this);
 
     public Downloader () {
         super();
-        client = (CloseableHttpClient) CustomHttpClientBuilder.buildDefaultClient(RestcommConfiguration.getInstance().getMain());
+        final MainConfigurationSet main = RestcommConfiguration.getInstance().getMain();
+        if (main.isDefaultHttpAsync()) {
+            asyncClient = CustomHttpClientBuilder.buildDefaultAsyncClient(main);
+        } else {
+            client = (CloseableHttpClient) CustomHttpClientBuilder.buildDefaultClient(main);
+        }
+    }
+
+    public Downloader (final DocumentParser<?> documentParser) {
+        this();
+        this.documentParser = documentParser;
+    }
+
+    public Downloader (final DocumentParser<?> documentParser, final DocumentCache documentCache) {
+        this(documentParser);
+        this.documentCache = documentCache;
+    }
+
+    public Downloader (final CloseableHttpAsyncClient asyncClient) {
+        super();
+        this.asyncClient = asyncClient;
     }
 
 
@@ -83,10 +126,20 @@ public final class Downloader extends RestcommUntypedActor {
         HttpRequestDescriptor temp = descriptor;
         HttpResponseDescriptor responseDescriptor = null;
         HttpResponseDescriptor rawResponseDescriptor = null;
+        int redirects = 0;
+        if (documentCache != null) {
+            final HttpResponseDescriptor cached = documentCache.get(descriptor);
+            if (cached != null) {
+                return cached;
+            }
+        }
         try {
             do {
                 request = request(temp);
                 request.setHeader("http.protocol.content-charset", "UTF-8");
+                if (documentCache != null) {
+                    documentCache.addValidators(temp, request);
+                }
                 if (descriptor.getTimeout() > 0){
                     HttpContext httpContext = new BasicHttpContext();
                     httpContext.setAttribute(HttpClientContext.REQUEST_CONFIG, RequestConfig.custom().
@@ -101,6 +154,9 @@ public final class Downloader extends RestcommUntypedActor {
                 if (isRedirect(code)) {
                     final Header header = response.getFirstHeader(HttpHeaders.LOCATION);
                     if (header != null) {
+                        if (redirects++ >= MAX_REDIRECTS) {
+                            throw new ClientProtocolException(new RedirectException("Maximum redirects (" + MAX_REDIRECTS + ") exceeded"));
+                        }
                         final String location = header.getValue();
                         final URI uri = URI.create(location);
                         temp = new HttpRequestDescriptor(uri, temp.getMethod(), temp.getParameters());
@@ -111,7 +167,16 @@ public final class Downloader extends RestcommUntypedActor {
                 }
 //                HttpResponseDescriptor httpResponseDescriptor = response(request, response);
                 rawResponseDescriptor = response(request, response);
+                if (documentCache != null && HttpStatus.SC_NOT_MODIFIED == code) {
+                    final HttpResponseDescriptor cached = documentCache.notModified(temp, rawResponseDescriptor);
+                    if (cached != null) {
+                        return cached;
+                    }
+                }
                 responseDescriptor = validateXML(rawResponseDescriptor);
+                if (documentCache != null && HttpStatus.SC_OK == code) {
+                    responseDescriptor = documentCache.put(temp, responseDescriptor);
+                }
             } while (isRedirect(code));
             if (isHttpError(code)) {
                 // TODO - usually this part of code is not reached. Error codes are part of error responses that do not pass validateXML above and an exception is thrown. We need to re-thing this
@@ -146,6 +211,122 @@ public final class Downloader extends RestcommUntypedActor {
         return responseDescriptor;
     }
 
+    /**
+     * Non-blocking version of {@link #fetch(HttpRequestDescriptor)}. Returns at once and follows redirects on the I/O
+     * threads. The final response is sent back to this actor as a {@link Fetched}, which is read and answered by
+     * {@link #fetched(Fetched, ActorRef, ActorRef)}.
+     */
+    private void fetch (final HttpRequestDescriptor descriptor, final ActorRef sender, final ActorRef self, final long start,
+            final int redirects) {
+        if (documentCache != null) {
+            final HttpResponseDescriptor cached = documentCache.get(descriptor);
+            if (cached != null) {
+                reply(new DownloaderResponse(cached), sender, self, start);
+                return;
+            }
+        }
+        final HttpUriRequest request;
+        try {
+            request = request(descriptor);
+        } catch (final Exception exception) {
+            reply(new DownloaderResponse(exception, "Problem while trying to download RCML"), sender, self, start);
+            return;
+        }
+        request.setHeader("http.protocol.content-charset", "UTF-8");
+        if (documentCache != null) {
+            documentCache.addValidators(descriptor, request);
+        }
+        final HttpClientContext httpContext = HttpClientContext.create();
+        if (descriptor.getTimeout() > 0) {
+            httpContext.setRequestConfig(RequestConfig.custom().
+                    setConnectTimeout(descriptor.getTimeout()).
+                    setSocketTimeout(descriptor.getTimeout()).
+                    setConnectionRequestTimeout(descriptor.getTimeout()).build());
+        }
+        asyncClient.execute(request, httpContext, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed (final HttpResponse response) {
+                final int code = response.getStatusLine().getStatusCode();
+                if (isRedirect(code)) {
+                    final Header header = response.getFirstHeader(HttpHeaders.LOCATION);
+                    if (header != null) {
+                        if (redirects >= MAX_REDIRECTS) {
+                            reply(new DownloaderResponse(new RedirectException("Maximum redirects (" + MAX_REDIRECTS + ") exceeded"),
+                                    "Problem while trying to download RCML"), sender, self, start);
+                            return;
+                        }
+                        final URI uri = URI.create(header.getValue());
+                        fetch(new HttpRequestDescriptor(uri, descriptor.getMethod(), descriptor.getParameters()), sender, self,
+                                start, redirects + 1);
+                        return;
+                    }
+                }
+                // Parsing the document would hold up every other exchange of the I/O thread.
+                self.tell(new Fetched(descriptor, request, response, start), sender);
+            }
+
+            @Override
+            public void failed (final Exception exception) {
+                logger.warning("Problem while trying to download RCML from {}, exception: {}", request.getRequestLine(), exception);
+                reply(new DownloaderResponse(exception, "Problem while trying to download RCML"), sender, self, start);
+            }
+
+            @Override
+            public void cancelled () {
+                reply(new DownloaderResponse(new CancellationException(request.getRequestLine() + " was cancelled"),
+                        "Problem while trying to download RCML"), sender, self, start);
+            }
+        });
+    }
+
+    private void fetched (final Fetched fetched, final ActorRef sender, final ActorRef self) {
+        final HttpRequestDescriptor descriptor = fetched.descriptor;
+        final HttpUriRequest request = fetched.request;
+        final HttpResponse response = fetched.response;
+        final int code = response.getStatusLine().getStatusCode();
+        HttpResponseDescriptor rawResponseDescriptor = null;
+        try {
+            rawResponseDescriptor = response(request, response);
+            if (documentCache != null && HttpStatus.SC_NOT_MODIFIED == code) {
+                final HttpResponseDescriptor cached = documentCache.notModified(descriptor, rawResponseDescriptor);
+                if (cached != null) {
+                    reply(new DownloaderResponse(cached), sender, self, fetched.start);
+                    return;
+                }
+            }
+            HttpResponseDescriptor responseDescriptor = validateXML(rawResponseDescriptor);
+            if (documentCache != null && HttpStatus.SC_OK == code) {
+                responseDescriptor = documentCache.put(descriptor, responseDescriptor);
+            }
+            if (isHttpError(code)) {
+                logger.warning(String.format(
+                        "Problem while fetching http resource: %s \n Http status code: %d \n Http status message: %s",
+                        request.getRequestLine().getUri(), code, response.getStatusLine().getReasonPhrase()));
+            }
+            reply(new DownloaderResponse(responseDescriptor), sender, self, fetched.start);
+        } catch (final Exception exception) {
+            String responseInfo = "n/a";
+            try {
+                if (rawResponseDescriptor != null && rawResponseDescriptor.getContentAsString() != null) {
+                    int truncatedSize = (int) Math.min(rawResponseDescriptor.getContentLength(), LOGGED_RESPONSE_MAX_SIZE);
+                    responseInfo = String.format("%s %s", rawResponseDescriptor.getContentAsString().substring(0, truncatedSize), (rawResponseDescriptor.getContentLength() < LOGGED_RESPONSE_MAX_SIZE ? "" : "..."));
+                }
+            } catch (final IOException ignored) {
+            }
+            logger.warning(String.format("Problem while trying to download RCML. URL: %s, Status: %s, Response: %s ", request.getRequestLine(), response.getStatusLine(), responseInfo));
+            reply(new DownloaderResponse(exception, "Problem while trying to download RCML"), sender, self, fetched.start);
+        }
+    }
+
+    private void reply (final DownloaderResponse response, final ActorRef sender, final ActorRef self, final long start) {
+        fetchLatency.observe(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (sender != null && !sender.isTerminated()) {
+            sender.tell(response, self);
+        } else if (logger.isInfoEnabled()) {
+            logger.info("DownloaderResponse wont be send because sender is :" + (sender == null ? "null" : "terminated"));
+        }
+    }
+
     private boolean isRedirect (final int code) {
         return HttpStatus.SC_MOVED_PERMANENTLY == code || HttpStatus.SC_MOVED_TEMPORARILY == code
                 || HttpStatus.SC_SEE_OTHER == code || HttpStatus.SC_TEMPORARY_REDIRECT == code;
@@ -158,10 +339,18 @@ public final class Downloader extends RestcommUntypedActor {
     private HttpResponseDescriptor validateXML (final HttpResponseDescriptor descriptor) throws XMLStreamException {
         if (descriptor.getContentLength() > 0) {
             try {
-                // parse an XML document into a DOM tree
-                String xml = descriptor.getContentAsString().trim().replaceAll("&([^;]+(?!(?:\\w|;)))", "&amp;$1");
-                DocumentBuilder parser = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-                parser.parse(new InputSource(new ByteArrayInputStream(xml.getBytes("utf-8"))));
+                final String xml = descriptor.getContentAsString();
+                if (documentParser != null) {
+                    return descriptor.withDocument(documentParser.parse(xml));
+                }
+                final XMLStreamReader stream = inputs.createXMLStreamReader(new StringReader(StringUtils.escapeAmpersands(xml.trim())));
+                try {
+                    while (stream.hasNext()) {
+                        stream.next();
+                    }
+                } finally {
+                    stream.close();
+                }
                 return descriptor;
             } catch (final Exception e) {
                 throw new XMLStreamException("Error parsing the RCML:" + e);
@@ -180,19 +369,20 @@ public final class Downloader extends RestcommUntypedActor {
             if (logger.isDebugEnabled()) {
                 logger.debug("New HttpRequestDescriptor, method: " + request.getMethod() + " URI: " + request.getUri() + " parameters: " + request.getParametersAsString());
             }
+            final long start = System.nanoTime();
+            if (asyncClient != null) {
+                fetch(request, sender, self, start, 0);
+                return;
+            }
             DownloaderResponse response = null;
             try {
                 response = new DownloaderResponse(fetch(request));
             } catch (final Exception exception) {
                 response = new DownloaderResponse(exception, "Problem while trying to download RCML");
             }
-            if (sender != null && !sender.isTerminated()) {
-                sender.tell(response, self);
-            } else {
-                if (logger.isInfoEnabled()) {
-                    logger.info("DownloaderResponse wont be send because sender is :" + (sender.isTerminated() ? "terminated" : "null"));
-                }
-            }
+            reply(response, sender, self, start);
+        } else if (Fetched.class.equals(klass)) {
+            fetched((Fetched) message, sender, self);
         }
     }
 
@@ -261,4 +451,20 @@ public final class Downloader extends RestcommUntypedActor {
         }
         super.postStop();
     }
+
+    // A response of the async client, to be read by the actor. Its sender is the requester.
+    private static final class Fetched {
+        private final HttpRequestDescriptor descriptor;
+        private final HttpUriRequest request;
+        private final HttpResponse response;
+        private final long start;
+
+        private Fetched (final HttpRequestDescriptor descriptor, final HttpUriRequest request, final HttpResponse response,
+                final long start) {
+            this.descriptor = descriptor;
+            this.request = request;
+            this.response = response;
+            this.start = start;
+        }
+    }
 }
@@ -39,6 +39,7 @@ public final class HttpRequestDescriptor {
     private final String method;
     private final List<NameValuePair> parameters;
     private final Integer timeout;
+    private final String query;
 
     public HttpRequestDescriptor(final URI uri, final String method,
             final List<NameValuePair> parameters,
@@ -52,10 +53,10 @@ public final class HttpRequestDescriptor {
         } else {
             this.parameters = new ArrayList<NameValuePair>();
         }
-        final String query = uri.getQuery();
+        this.query = uri.getRawQuery();
         if (query != null) {
             final List<NameValuePair> other = URLEncodedUtils.parse(uri, "UTF-8");
-            parameters.addAll(other);
+            this.parameters.addAll(other);
         }
 
     }
@@ -102,6 +103,13 @@ public final class HttpRequestDescriptor {
         return uri;
     }
 
+    /**
+     * @return the raw query of the URI this descriptor was created with, which is otherwise merged into the parameters.
+     */
+    public String getQuery() {
+        return query;
+    }
+
     public Integer getTimeout() {
         return timeout;
     }
@@ -41,10 +41,11 @@ public final class HttpResponseDescriptor {
     private final String contentType;
     private final boolean isChunked;
     private final Header[] headers;
+    private final Object document;
 
     private HttpResponseDescriptor(final URI uri, final int statusCode, final String statusDescription,
             final String content, final long contentLength, final String contentEncoding, final String contentType,
-            final boolean isChunked, final Header[] headers) {
+            final boolean isChunked, final Header[] headers, final Object document) {
         super();
         this.uri = uri;
         this.statusCode = statusCode;
@@ -55,6 +56,7 @@ public final class HttpResponseDescriptor {
         this.contentType = contentType;
         this.isChunked = isChunked;
         this.headers = headers;
+        this.document = document;
     }
 
     public int getStatusCode() {
@@ -111,6 +113,18 @@ public final class HttpResponseDescriptor {
         return uri;
     }
 
+    /**
+     * @return the content as read by the {@link DocumentParser} of the downloader, or null if it was not parsed.
+     */
+    public Object getDocument() {
+        return document;
+    }
+
+    public HttpResponseDescriptor withDocument(final Object document) {
+        return new HttpResponseDescriptor(uri, statusCode, statusDescription, content, contentLength, contentEncoding,
+                contentType, isChunked, headers, document);
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -132,7 +146,7 @@ public final class HttpResponseDescriptor {
 
         public HttpResponseDescriptor build() {
             return new HttpResponseDescriptor(uri, statusCode, statusDescription, content, contentLength, contentEncoding,
-                    contentType, isChunked, headers);
+                    contentType, isChunked, headers, null);
         }
 
         public void setStatusCode(final int statusCode) {
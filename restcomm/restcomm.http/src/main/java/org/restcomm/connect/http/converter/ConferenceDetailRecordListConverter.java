@@ -23,6 +23,7 @@ import java.lang.reflect.Type;
 
 import org.apache.commons.configuration.Configuration;
 import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+import org.restcomm.connect.commons.dao.Sid;
 import org.restcomm.connect.dao.entities.ConferenceDetailRecord;
 import org.restcomm.connect.dao.entities.ConferenceDetailRecordList;
 
@@ -39,9 +40,6 @@ import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
 @ThreadSafe
 public final class ConferenceDetailRecordListConverter extends AbstractConverter implements JsonSerializer<ConferenceDetailRecordList> {
 
-    Integer page, pageSize, total;
-    String pathUri;
-
     public ConferenceDetailRecordListConverter(final Configuration configuration) {
         super(configuration);
     }
@@ -57,17 +55,10 @@ public final class ConferenceDetailRecordListConverter extends AbstractConverter
         final ConferenceDetailRecordList list = (ConferenceDetailRecordList) object;
 
         writer.startNode("Conferences");
-        writer.addAttribute("page", String.valueOf(page));
-        writer.addAttribute("numpages", String.valueOf(getTotalPages()));
-        writer.addAttribute("pagesize", String.valueOf(pageSize));
-        writer.addAttribute("total", String.valueOf(getTotalPages()));
-        writer.addAttribute("start", getFirstIndex());
-        writer.addAttribute("end", getLastIndex(list));
-        writer.addAttribute("uri", pathUri);
-        writer.addAttribute("firstpageuri", getFirstPageUri());
-        writer.addAttribute("previouspageuri", getPreviousPageUri());
-        writer.addAttribute("nextpageuri", getNextPageUri(list));
-        writer.addAttribute("lastpageuri", getLastPageUri());
+        final ListPage page = ListPage.current();
+        if (page != null) {
+            page.writeAttributes(writer, list.getConferenceDetailRecords().size(), getLastSid(list, page));
+        }
 
         for (final ConferenceDetailRecord cdr : list.getConferenceDetailRecords()) {
             context.convertAnother(cdr);
@@ -85,67 +76,16 @@ public final class ConferenceDetailRecordListConverter extends AbstractConverter
             array.add(context.serialize(cdr));
         }
 
-        result.addProperty("page", page);
-        result.addProperty("num_pages", getTotalPages());
-        result.addProperty("page_size", pageSize);
-        result.addProperty("total", total);
-        result.addProperty("start", getFirstIndex());
-        result.addProperty("end", getLastIndex(cdrList));
-        result.addProperty("uri", pathUri);
-        result.addProperty("first_page_uri", getFirstPageUri());
-        result.addProperty("previous_page_uri", getPreviousPageUri());
-        result.addProperty("next_page_uri", getNextPageUri(cdrList));
-        result.addProperty("last_page_uri", getLastPageUri());
+        final ListPage page = ListPage.current();
+        if (page != null) {
+            page.addProperties(result, cdrList.getConferenceDetailRecords().size(), getLastSid(cdrList, page));
+        }
         result.add("conferences", array);
 
         return result;
     }
 
-    private int getTotalPages() {
-        return total / pageSize;
-    }
-
-    private String getFirstIndex() {
-        return String.valueOf(page * pageSize);
-    }
-
-    private String getLastIndex(ConferenceDetailRecordList list) {
-        return String.valueOf((page == getTotalPages()) ? (page * pageSize) + list.getConferenceDetailRecords().size()
-                : (pageSize - 1) + (page * pageSize));
-    }
-
-    private String getFirstPageUri() {
-        return pathUri + "?Page=0&PageSize=" + pageSize;
-    }
-
-    private String getPreviousPageUri() {
-        return ((page == 0) ? "null" : pathUri + "?Page=" + (page - 1) + "&PageSize=" + pageSize);
-    }
-
-    private String getNextPageUri(ConferenceDetailRecordList list) {
-        String lastSid = (page == getTotalPages()) ? "null" : list.getConferenceDetailRecords().get(pageSize - 1).getSid().toString();
-        return (page == getTotalPages()) ? "null" : pathUri + "?Page=" + (page + 1) + "&PageSize=" + pageSize + "&AfterSid="
-                + lastSid;
-    }
-
-    private String getLastPageUri() {
-        return pathUri + "?Page=" + getTotalPages() + "&PageSize=" + pageSize;
-    }
-
-    public void setPage(Integer page) {
-        this.page = page;
-    }
-
-    public void setPageSize(Integer pageSize) {
-        this.pageSize = pageSize;
-    }
-
-    public void setCount(Integer count) {
-        this.total = count;
+    private Sid getLastSid(final ConferenceDetailRecordList list, final ListPage page) {
+        return page.isLast() ? null : list.getConferenceDetailRecords().get(page.getPageSize() - 1).getSid();
     }
-
-    public void setPathUri(String pathUri) {
-        this.pathUri = pathUri;
-    }
-
 }
@@ -23,6 +23,7 @@ import java.lang.reflect.Type;
 
 import org.apache.commons.configuration.Configuration;
 import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+import org.restcomm.connect.commons.dao.Sid;
 import org.restcomm.connect.dao.entities.IncomingPhoneNumber;
 import org.restcomm.connect.dao.entities.IncomingPhoneNumberList;
 
@@ -40,9 +41,6 @@ import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
 public final class IncomingPhoneNumberListConverter extends AbstractConverter
         implements JsonSerializer<IncomingPhoneNumberList> {
 
-    Integer page, pageSize, total;
-    String pathUri;
-
     public IncomingPhoneNumberListConverter(final Configuration configuration) {
         super(configuration);
     }
@@ -57,17 +55,10 @@ public final class IncomingPhoneNumberListConverter extends AbstractConverter
     public void marshal(final Object object, final HierarchicalStreamWriter writer, final MarshallingContext context) {
         final IncomingPhoneNumberList list = (IncomingPhoneNumberList) object;
         writer.startNode("IncomingPhoneNumbers");
-        writer.addAttribute("page", String.valueOf(page));
-        writer.addAttribute("numpages", String.valueOf(getTotalPages()));
-        writer.addAttribute("pagesize", String.valueOf(pageSize));
-        writer.addAttribute("total", String.valueOf(getTotalPages()));
-        writer.addAttribute("start", getFirstIndex());
-        writer.addAttribute("end", getLastIndex(list));
-        writer.addAttribute("uri", pathUri);
-        writer.addAttribute("firstpageuri", getFirstPageUri());
-        writer.addAttribute("previouspageuri", getPreviousPageUri());
-        writer.addAttribute("nextpageuri", getNextPageUri(list));
-        writer.addAttribute("lastpageuri", getLastPageUri());
+        final ListPage page = ListPage.current();
+        if (page != null) {
+            page.writeAttributes(writer, list.getIncomingPhoneNumbers().size(), getLastSid(list, page));
+        }
         for (final IncomingPhoneNumber incomingPhoneNumber : list.getIncomingPhoneNumbers()) {
             context.convertAnother(incomingPhoneNumber);
         }
@@ -84,18 +75,9 @@ public final class IncomingPhoneNumberListConverter extends AbstractConverter
             array.add(context.serialize(phoneNumber));
         }
 
-        if (total != null && pageSize != null && page != null) {
-            result.addProperty("page", page);
-            result.addProperty("num_pages", getTotalPages());
-            result.addProperty("page_size", pageSize);
-            result.addProperty("total", total);
-            result.addProperty("start", getFirstIndex());
-            result.addProperty("end", getLastIndex(list));
-            result.addProperty("uri", pathUri);
-            result.addProperty("first_page_uri", getFirstPageUri());
-            result.addProperty("previous_page_uri", getPreviousPageUri());
-            result.addProperty("next_page_uri", getNextPageUri(list));
-            result.addProperty("last_page_uri", getLastPageUri());
+        final ListPage page = ListPage.current();
+        if (page != null) {
+            page.addProperties(result, list.getIncomingPhoneNumbers().size(), getLastSid(list, page));
         }
 
         result.add("incomingPhoneNumbers", array);
@@ -103,51 +85,7 @@ public final class IncomingPhoneNumberListConverter extends AbstractConverter
         return result;
     }
 
-    private int getTotalPages() {
-        return total / pageSize;
-    }
-
-    private String getFirstIndex() {
-        return String.valueOf(page * pageSize);
-    }
-
-    private String getLastIndex(IncomingPhoneNumberList list) {
-        return String.valueOf((page == getTotalPages()) ? (page * pageSize) + list.getIncomingPhoneNumbers().size()
-                : (pageSize - 1) + (page * pageSize));
-    }
-
-    private String getFirstPageUri() {
-        return pathUri + "?Page=0&PageSize=" + pageSize;
-    }
-
-    private String getPreviousPageUri() {
-        return ((page == 0) ? "null" : pathUri + "?Page=" + (page - 1) + "&PageSize=" + pageSize);
-    }
-
-    private String getNextPageUri(IncomingPhoneNumberList list) {
-        String lastSid = (page == getTotalPages()) ? "null"
-                : list.getIncomingPhoneNumbers().get(pageSize - 1).getSid().toString();
-        return (page == getTotalPages()) ? "null"
-                : pathUri + "?Page=" + (page + 1) + "&PageSize=" + pageSize + "&AfterSid=" + lastSid;
-    }
-
-    private String getLastPageUri() {
-        return pathUri + "?Page=" + getTotalPages() + "&PageSize=" + pageSize;
-    }
-
-    public void setPage(Integer page) {
-        this.page = page;
-    }
-
-    public void setPageSize(Integer pageSize) {
-        this.pageSize = pageSize;
-    }
-
-    public void setCount(Integer count) {
-        this.total = count;
-    }
-
-    public void setPathUri(String pathUri) {
-        this.pathUri = pathUri;
+    private Sid getLastSid(final IncomingPhoneNumberList list, final ListPage page) {
+        return page.isLast() ? null : list.getIncomingPhoneNumbers().get(page.getPageSize() - 1).getSid();
     }
 }
@@ -0,0 +1,156 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.http.converter;
+
+import org.restcomm.connect.commons.annotations.concurrency.Immutable;
+import org.restcomm.connect.commons.dao.Sid;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+
+/**
+ * The paging details of one list response.
+ * <p>
+ * Converters are registered once and shared by every request, so the page being rendered can not live in the converter
+ * itself. Endpoints serialize through {@link #toXml(XStream, Object)} and {@link #toJson(Gson, Object)} instead, which make
+ * the page visible to the list converters running on the calling thread for the duration of that one call.
+ */
+@Immutable
+public final class ListPage {
+    private static final ThreadLocal<ListPage> current = new ThreadLocal<ListPage>();
+
+    private final int page;
+    private final int pageSize;
+    private final int total;
+    private final String pathUri;
+
+    public ListPage(final int page, final int pageSize, final int total, final String pathUri) {
+        super();
+        this.page = page;
+        this.pageSize = pageSize;
+        this.total = total;
+        this.pathUri = pathUri;
+    }
+
+    /**
+     * @return the page being serialized on this thread or null when the list is not paged.
+     */
+    static ListPage current() {
+        return current.get();
+    }
+
+    public String toXml(final XStream xstream, final Object object) {
+        current.set(this);
+        try {
+            return xstream.toXML(object);
+        } finally {
+            current.remove();
+        }
+    }
+
+    public String toJson(final Gson gson, final Object object) {
+        current.set(this);
+        try {
+            return gson.toJson(object);
+        } finally {
+            current.remove();
+        }
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public String getPathUri() {
+        return pathUri;
+    }
+
+    public boolean isLast() {
+        return page == getTotalPages();
+    }
+
+    // Issue 153: https://bitbucket.org/telestax/telscale-restcomm/issue/153
+    // Issue 110: https://bitbucket.org/telestax/telscale-restcomm/issue/110
+    void writeAttributes(final HierarchicalStreamWriter writer, final int size, final Sid lastSid) {
+        writer.addAttribute("page", String.valueOf(page));
+        writer.addAttribute("numpages", String.valueOf(getTotalPages()));
+        writer.addAttribute("pagesize", String.valueOf(pageSize));
+        writer.addAttribute("total", String.valueOf(getTotalPages()));
+        writer.addAttribute("start", getFirstIndex());
+        writer.addAttribute("end", getLastIndex(size));
+        writer.addAttribute("uri", pathUri);
+        writer.addAttribute("firstpageuri", getFirstPageUri());
+        writer.addAttribute("previouspageuri", getPreviousPageUri());
+        writer.addAttribute("nextpageuri", getNextPageUri(lastSid));
+        writer.addAttribute("lastpageuri", getLastPageUri());
+    }
+
+    void addProperties(final JsonObject result, final int size, final Sid lastSid) {
+        result.addProperty("page", page);
+        result.addProperty("num_pages", getTotalPages());
+        result.addProperty("page_size", pageSize);
+        result.addProperty("total", total);
+        result.addProperty("start", getFirstIndex());
+        result.addProperty("end", getLastIndex(size));
+        result.addProperty("uri", pathUri);
+        result.addProperty("first_page_uri", getFirstPageUri());
+        result.addProperty("previous_page_uri", getPreviousPageUri());
+        result.addProperty("next_page_uri", getNextPageUri(lastSid));
+        result.addProperty("last_page_uri", getLastPageUri());
+    }
+
+    private int getTotalPages() {
+        return total / pageSize;
+    }
+
+    private String getFirstIndex() {
+        return String.valueOf(page * pageSize);
+    }
+
+    private String getLastIndex(final int size) {
+        return String.valueOf(isLast() ? (page * pageSize) + size : (pageSize - 1) + (page * pageSize));
+    }
+
+    private String getFirstPageUri() {
+        return pathUri + "?Page=0&PageSize=" + pageSize;
+    }
+
+    private String getPreviousPageUri() {
+        return ((page == 0) ? "null" : pathUri + "?Page=" + (page - 1) + "&PageSize=" + pageSize);
+    }
+
+    private String getNextPageUri(final Sid lastSid) {
+        return isLast() ? "null" : pathUri + "?Page=" + (page + 1) + "&PageSize=" + pageSize + "&AfterSid=" + lastSid;
+    }
+
+    private String getLastPageUri() {
+        return pathUri + "?Page=" + getTotalPages() + "&PageSize=" + pageSize;
+    }
+}
@@ -46,14 +46,10 @@ import java.util.Map;
  */
 public class MonitoringServiceConverter extends AbstractConverter implements JsonSerializer<MonitoringServiceResponse>{
 
-    private String dateTimeNow;
+    private static final DateTimeFormatter fmt = DateTimeFormat.forPattern("EEE, dd MMM yyyy kk:mm:ss");
 
     public MonitoringServiceConverter(Configuration configuration) {
         super(configuration);
-        DateTime now = DateTime.now();
-        DateTimeFormatter fmt = DateTimeFormat.forPattern("EEE, dd MMM yyyy kk:mm:ss");
-        dateTimeNow = fmt.print(now);
-
     }
 
     @Override
@@ -70,7 +66,7 @@ public class MonitoringServiceConverter extends AbstractConverter implements Jso
         JsonArray callsArray = new JsonArray();
 
         //First add InstanceId and Version details
-        result.addProperty("DateTime", dateTimeNow);
+        result.addProperty("DateTime", fmt.print(DateTime.now()));
         result.addProperty("InstanceId", monitoringServiceResponse.getInstanceId().getId().toString());
         result.addProperty("Version", Version.getVersion());
         result.addProperty("Revision", Version.getRevision());
@@ -109,7 +105,7 @@ public class MonitoringServiceConverter extends AbstractConverter implements Jso
         Iterator<String> durationIterator = durationMap.keySet().iterator();
 
         writer.startNode("DateTime");
-        writer.setValue(dateTimeNow);
+        writer.setValue(fmt.print(DateTime.now()));
         writer.endNode();
 
         writer.startNode("InstanceId");
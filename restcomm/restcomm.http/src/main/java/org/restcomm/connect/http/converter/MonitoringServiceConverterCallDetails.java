@@ -45,13 +45,10 @@ import java.util.List;
  */
 public class MonitoringServiceConverterCallDetails extends AbstractConverter implements JsonSerializer<LiveCallsDetails>{
 
-    private String dateTimeNow;
+    private static final DateTimeFormatter fmt = DateTimeFormat.forPattern("EEE, dd MMM yyyy kk:mm:ss");
 
     public MonitoringServiceConverterCallDetails (Configuration configuration) {
         super(configuration);
-        DateTime now = DateTime.now();
-        DateTimeFormatter fmt = DateTimeFormat.forPattern("EEE, dd MMM yyyy kk:mm:ss");
-        dateTimeNow = fmt.print(now);
     }
 
     @Override
@@ -65,7 +62,7 @@ public class MonitoringServiceConverterCallDetails extends AbstractConverter imp
         JsonArray callsArray = new JsonArray();
 
         //First add InstanceId and Version details
-        result.addProperty("DateTime", dateTimeNow);
+        result.addProperty("DateTime", fmt.print(DateTime.now()));
         result.addProperty("InstanceId", RestcommConfiguration.getInstance().getMain().getInstanceId());
         result.addProperty("Version", Version.getVersion());
         result.addProperty("Revision", Version.getRevision());
@@ -85,7 +82,7 @@ public class MonitoringServiceConverterCallDetails extends AbstractConverter imp
         final List<CallInfo> callDetails = (List<CallInfo>) object;
 
         writer.startNode("DateTime");
-        writer.setValue(dateTimeNow);
+        writer.setValue(fmt.print(DateTime.now()));
         writer.endNode();
 
         writer.startNode("InstanceId");
@@ -27,6 +27,7 @@ import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
 import org.apache.commons.configuration.Configuration;
 import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+import org.restcomm.connect.commons.dao.Sid;
 import org.restcomm.connect.dao.entities.Notification;
 import org.restcomm.connect.dao.entities.NotificationList;
 
@@ -38,9 +39,6 @@ import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
  */
 @ThreadSafe
 public final class NotificationListConverter extends AbstractConverter implements JsonSerializer<NotificationList> {
-    Integer page, pageSize, total;
-    String pathUri;
-
     public NotificationListConverter(final Configuration configuration) {
         super(configuration);
     }
@@ -71,18 +69,9 @@ public final class NotificationListConverter extends AbstractConverter implement
             array.add(context.serialize(cdr));
         }
 
-        if (total != null && pageSize != null && page != null) {
-            result.addProperty("page", page);
-            result.addProperty("num_pages", getTotalPages());
-            result.addProperty("page_size", pageSize);
-            result.addProperty("total", total);
-            result.addProperty("start", getFirstIndex());
-            result.addProperty("end", getLastIndex(ntfList));
-            result.addProperty("uri", pathUri);
-            result.addProperty("first_page_uri", getFirstPageUri());
-            result.addProperty("previous_page_uri", getPreviousPageUri());
-            result.addProperty("next_page_uri", getNextPageUri(ntfList));
-            result.addProperty("last_page_uri", getLastPageUri());
+        final ListPage page = ListPage.current();
+        if (page != null) {
+            page.addProperties(result, ntfList.getNotifications().size(), getLastSid(ntfList, page));
         }
 
         result.add("notifications", array);
@@ -90,50 +79,7 @@ public final class NotificationListConverter extends AbstractConverter implement
         return result;
     }
 
-    private int getTotalPages() {
-        return total / pageSize;
-    }
-
-    private String getFirstIndex() {
-        return String.valueOf(page * pageSize);
-    }
-
-    private String getLastIndex(NotificationList list) {
-        return String.valueOf((page == getTotalPages()) ? (page * pageSize) + list.getNotifications().size()
-                : (pageSize - 1) + (page * pageSize));
-    }
-
-    private String getFirstPageUri() {
-        return pathUri + "?Page=0&PageSize=" + pageSize;
-    }
-
-    private String getPreviousPageUri() {
-        return ((page == 0) ? "null" : pathUri + "?Page=" + (page - 1) + "&PageSize=" + pageSize);
-    }
-
-    private String getNextPageUri(NotificationList list) {
-        String lastSid = (page == getTotalPages()) ? "null" : list.getNotifications().get(pageSize - 1).getSid().toString();
-        return (page == getTotalPages()) ? "null" : pathUri + "?Page=" + (page + 1) + "&PageSize=" + pageSize + "&AfterSid="
-                + lastSid;
-    }
-
-    private String getLastPageUri() {
-        return pathUri + "?Page=" + getTotalPages() + "&PageSize=" + pageSize;
-    }
-
-    public void setPage(Integer page) {
-        this.page = page;
-    }
-
-    public void setPageSize(Integer pageSize) {
-        this.pageSize = pageSize;
-    }
-
-    public void setCount(Integer count) {
-        this.total = count;
-    }
-
-    public void setPathUri(String pathUri) {
-        this.pathUri = pathUri;
+    private Sid getLastSid(final NotificationList list, final ListPage page) {
+        return page.isLast() ? null : list.getNotifications().get(page.getPageSize() - 1).getSid();
     }
 }
@@ -25,6 +25,7 @@ import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
 import org.apache.commons.configuration.Configuration;
 import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+import org.restcomm.connect.commons.dao.Sid;
 import org.restcomm.connect.dao.entities.Recording;
 import org.restcomm.connect.dao.entities.RecordingList;
 
@@ -37,9 +38,6 @@ import java.lang.reflect.Type;
  */
 @ThreadSafe
 public final class RecordingListConverter extends AbstractConverter implements JsonSerializer<RecordingList> {
-    Integer page, pageSize, total;
-    String pathUri;
-
     public RecordingListConverter(final Configuration configuration) {
         super(configuration);
     }
@@ -70,18 +68,9 @@ public final class RecordingListConverter extends AbstractConverter implements J
             array.add(context.serialize(cdr));
         }
 
-        if (total != null && pageSize != null && page != null) {
-            result.addProperty("page", page);
-            result.addProperty("num_pages", getTotalPages());
-            result.addProperty("page_size", pageSize);
-            result.addProperty("total", total);
-            result.addProperty("start", getFirstIndex());
-            result.addProperty("end", getLastIndex(recList));
-            result.addProperty("uri", pathUri);
-            result.addProperty("first_page_uri", getFirstPageUri());
-            result.addProperty("previous_page_uri", getPreviousPageUri());
-            result.addProperty("next_page_uri", getNextPageUri(recList));
-            result.addProperty("last_page_uri", getLastPageUri());
+        final ListPage page = ListPage.current();
+        if (page != null) {
+            page.addProperties(result, recList.getRecordings().size(), getLastSid(recList, page));
         }
 
         result.add("recordings", array);
@@ -89,50 +78,7 @@ public final class RecordingListConverter extends AbstractConverter implements J
         return result;
     }
 
-    private int getTotalPages() {
-        return total / pageSize;
-    }
-
-    private String getFirstIndex() {
-        return String.valueOf(page * pageSize);
-    }
-
-    private String getLastIndex(RecordingList list) {
-        return String.valueOf((page == getTotalPages()) ? (page * pageSize) + list.getRecordings().size()
-                : (pageSize - 1) + (page * pageSize));
-    }
-
-    private String getFirstPageUri() {
-        return pathUri + "?Page=0&PageSize=" + pageSize;
-    }
-
-    private String getPreviousPageUri() {
-        return ((page == 0) ? "null" : pathUri + "?Page=" + (page - 1) + "&PageSize=" + pageSize);
-    }
-
-    private String getNextPageUri(RecordingList list) {
-        String lastSid = (page == getTotalPages()) ? "null" : list.getRecordings().get(pageSize - 1).getSid().toString();
-        return (page == getTotalPages()) ? "null" : pathUri + "?Page=" + (page + 1) + "&PageSize=" + pageSize + "&AfterSid="
-                + lastSid;
-    }
-
-    private String getLastPageUri() {
-        return pathUri + "?Page=" + getTotalPages() + "&PageSize=" + pageSize;
-    }
-
-    public void setPage(Integer page) {
-        this.page = page;
-    }
-
-    public void setPageSize(Integer pageSize) {
-        this.pageSize = pageSize;
-    }
-
-    public void setCount(Integer count) {
-        this.total = count;
-    }
-
-    public void setPathUri(String pathUri) {
-        this.pathUri = pathUri;
+    private Sid getLastSid(final RecordingList list, final ListPage page) {
+        return page.isLast() ? null : list.getRecordings().get(page.getPageSize() - 1).getSid();
     }
 }
@@ -25,6 +25,7 @@ import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
 import org.apache.commons.configuration.Configuration;
 import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+import org.restcomm.connect.commons.dao.Sid;
 import org.restcomm.connect.dao.entities.Transcription;
 import org.restcomm.connect.dao.entities.TranscriptionList;
 
@@ -37,9 +38,6 @@ import java.lang.reflect.Type;
  */
 @ThreadSafe
 public final class TranscriptionListConverter extends AbstractConverter implements JsonSerializer<TranscriptionList> {
-    Integer page, pageSize, total;
-    String pathUri;
-
     public TranscriptionListConverter(final Configuration configuration) {
         super(configuration);
     }
@@ -70,18 +68,9 @@ public final class TranscriptionListConverter extends AbstractConverter implemen
             array.add(context.serialize(cdr));
         }
 
-        if (total != null && pageSize != null && page != null) {
-            result.addProperty("page", page);
-            result.addProperty("num_pages", getTotalPages());
-            result.addProperty("page_size", pageSize);
-            result.addProperty("total", total);
-            result.addProperty("start", getFirstIndex());
-            result.addProperty("end", getLastIndex(transList));
-            result.addProperty("uri", pathUri);
-            result.addProperty("first_page_uri", getFirstPageUri());
-            result.addProperty("previous_page_uri", getPreviousPageUri());
-            result.addProperty("next_page_uri", getNextPageUri(transList));
-            result.addProperty("last_page_uri", getLastPageUri());
+        final ListPage page = ListPage.current();
+        if (page != null) {
+            page.addProperties(result, transList.getTranscriptions().size(), getLastSid(transList, page));
         }
 
         result.add("transcriptions", array);
@@ -89,50 +78,7 @@ public final class TranscriptionListConverter extends AbstractConverter implemen
         return result;
     }
 
-    private int getTotalPages() {
-        return total / pageSize;
-    }
-
-    private String getFirstIndex() {
-        return String.valueOf(page * pageSize);
-    }
-
-    private String getLastIndex(TranscriptionList list) {
-        return String.valueOf((page == getTotalPages()) ? (page * pageSize) + list.getTranscriptions().size()
-                : (pageSize - 1) + (page * pageSize));
-    }
-
-    private String getFirstPageUri() {
-        return pathUri + "?Page=0&PageSize=" + pageSize;
-    }
-
-    private String getPreviousPageUri() {
-        return ((page == 0) ? "null" : pathUri + "?Page=" + (page - 1) + "&PageSize=" + pageSize);
-    }
-
-    private String getNextPageUri(TranscriptionList list) {
-        String lastSid = (page == getTotalPages()) ? "null" : list.getTranscriptions().get(pageSize - 1).getSid().toString();
-        return (page == getTotalPages()) ? "null" : pathUri + "?Page=" + (page + 1) + "&PageSize=" + pageSize + "&AfterSid="
-                + lastSid;
-    }
-
-    private String getLastPageUri() {
-        return pathUri + "?Page=" + getTotalPages() + "&PageSize=" + pageSize;
-    }
-
-    public void setPage(Integer page) {
-        this.page = page;
-    }
-
-    public void setPageSize(Integer pageSize) {
-        this.pageSize = pageSize;
-    }
-
-    public void setCount(Integer count) {
-        this.total = count;
-    }
-
-    public void setPathUri(String pathUri) {
-        this.pathUri = pathUri;
+    private Sid getLastSid(final TranscriptionList list, final ListPage page) {
+        return page.isLast() ? null : list.getTranscriptions().get(page.getPageSize() - 1).getSid();
     }
 }
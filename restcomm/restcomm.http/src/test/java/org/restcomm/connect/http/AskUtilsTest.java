@@ -0,0 +1,79 @@
+package org.restcomm.connect.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.actor.UntypedActor;
+
+public class AskUtilsTest {
+    private static final long DELAY_MILLIS = 500;
+
+    private static ActorSystem system;
+
+    @BeforeClass
+    public static void before() {
+        system = ActorSystem.create();
+    }
+
+    @AfterClass
+    public static void after() {
+        system.shutdown();
+    }
+
+    @Test
+    public void testBranchesAreAskedInParallel() throws Exception {
+        final List<ActorRef> branches = new ArrayList<ActorRef>();
+        for (int i = 0; i < 4; i++) {
+            branches.add(system.actorOf(new Props(SlowEcho.class)));
+        }
+        final long start = System.nanoTime();
+        final List<Object> replies = AskUtils.askAllAndWait(branches, "info", 5, system.dispatcher());
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(branches.size(), replies.size());
+        for (int i = 0; i < branches.size(); i++) {
+            assertEquals(branches.get(i), replies.get(i));
+        }
+        // One slow round trip, not one per branch.
+        assertTrue(elapsed < DELAY_MILLIS * 2);
+    }
+
+    @Test(expected = Exception.class)
+    public void testGivesUpAfterTimeout() throws Exception {
+        AskUtils.askAndWait(system.actorOf(new Props(Silent.class)), "info", 1);
+    }
+
+    private static final class SlowEcho extends UntypedActor {
+        @SuppressWarnings("unused")
+        public SlowEcho() {
+            super();
+        }
+
+        @Override
+        public void onReceive(final Object message) throws Exception {
+            Thread.sleep(DELAY_MILLIS);
+            sender().tell(self(), self());
+        }
+    }
+
+    private static final class Silent extends UntypedActor {
+        @SuppressWarnings("unused")
+        public Silent() {
+            super();
+        }
+
+        @Override
+        public void onReceive(final Object message) throws Exception {
+        }
+    }
+}
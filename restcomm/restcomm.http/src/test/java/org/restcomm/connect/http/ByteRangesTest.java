@@ -0,0 +1,87 @@
+package org.restcomm.connect.http;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ByteRangesTest {
+    private File file;
+
+    @Before
+    public void before() throws Exception {
+        file = File.createTempFile("recording", ".wav");
+        final FileOutputStream output = new FileOutputStream(file);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                output.write(i % 256);
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    @After
+    public void after() {
+        file.delete();
+    }
+
+    @Test
+    public void testParse() {
+        assertArrayEquals(new long[] { 0, 99 }, ByteRanges.parse("bytes=0-99", 1000));
+        assertArrayEquals(new long[] { 500, 999 }, ByteRanges.parse("bytes=500-", 1000));
+        assertArrayEquals(new long[] { 900, 999 }, ByteRanges.parse("bytes=-100", 1000));
+        assertArrayEquals(new long[] { 0, 999 }, ByteRanges.parse("bytes=-5000", 1000));
+        assertArrayEquals(new long[] { 990, 999 }, ByteRanges.parse("bytes=990-5000", 1000));
+        assertEquals(0, ByteRanges.parse("bytes=1000-", 1000).length);
+        assertNull(ByteRanges.parse(null, 1000));
+        assertNull(ByteRanges.parse("items=0-1", 1000));
+        assertNull(ByteRanges.parse("bytes=0-1,5-6", 1000));
+        assertNull(ByteRanges.parse("bytes=9-1", 1000));
+    }
+
+    @Test
+    public void testPartialContent() throws Exception {
+        final Response response = ByteRanges.serve(file, "audio/x-wav", "bytes=10-19", null, null);
+        assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+        assertEquals("bytes 10-19/1000", response.getMetadata().getFirst("Content-Range").toString());
+        final byte[] body = body(response);
+        assertEquals(10, body.length);
+        assertEquals(10, body[0]);
+        assertEquals(19, body[9]);
+    }
+
+    @Test
+    public void testFullContentWhenIfRangeIsStale() throws Exception {
+        final Response response = ByteRanges.serve(file, "audio/x-wav", "bytes=10-19", "\"stale\"", null);
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertEquals(1000, body(response).length);
+    }
+
+    @Test
+    public void testNotModifiedAndUnsatisfiable() throws Exception {
+        final Object etag = ByteRanges.serve(file, "audio/x-wav", null, null, null).getMetadata().getFirst("ETag");
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED,
+                ByteRanges.serve(file, "audio/x-wav", null, null, etag.toString()).getStatus());
+        final Response response = ByteRanges.serve(file, "audio/x-wav", "bytes=2000-", null, null);
+        assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+        assertEquals("bytes */1000", response.getMetadata().getFirst("Content-Range").toString());
+    }
+
+    private byte[] body(final Response response) throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(output);
+        return output.toByteArray();
+    }
+}
@@ -19,12 +19,16 @@
  */
 package org.restcomm.connect.http.client;
 
+import akka.actor.Actor;
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
 import akka.actor.Props;
+import akka.actor.UntypedActorFactory;
 import akka.testkit.JavaTestKit;
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
@@ -38,7 +42,9 @@ import java.net.URL;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.XMLConfiguration;
+import org.apache.http.client.RedirectException;
 import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 
 import org.junit.After;
 import static org.junit.Assert.*;
@@ -46,6 +52,7 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
+import org.restcomm.connect.commons.common.http.CustomHttpClientBuilder;
 import org.restcomm.connect.commons.configuration.RestcommConfiguration;
 
 import scala.concurrent.duration.FiniteDuration;
@@ -178,7 +185,7 @@ public final class DownloaderTest {
                     downloader = system.actorOf(new Props(Downloader.class));
                     downloader.tell(request, observer);
                 }           
-                Thread.sleep(1000);
+                awaitRequests("/testDownloaderWithRouteconfiguration", connsPerRoute);
                 downloader = system.actorOf(new Props(Downloader.class));
                 downloader.tell(request, observer);
                 final FiniteDuration timeout = FiniteDuration.create(30, TimeUnit.SECONDS);
@@ -189,4 +196,116 @@ public final class DownloaderTest {
             }
         };
     }
+
+    /**
+     * Waits until the mock server has received the requests, so they hold their connections.
+     */
+    private void awaitRequests(final String path, final int count) {
+        new JavaTestKit(system) {
+            {
+                new AwaitCond(FiniteDuration.create(10, TimeUnit.SECONDS)) {
+                    @Override
+                    protected boolean cond() {
+                        return findAll(getRequestedFor(urlMatching(path))).size() >= count;
+                    }
+                };
+            }
+        };
+    }
+
+    private ActorRef asyncDownloader(final CloseableHttpAsyncClient client) {
+        return system.actorOf(new Props(new UntypedActorFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Actor create() throws Exception {
+                return new Downloader(client);
+            }
+        }));
+    }
+
+    @Test
+    public void testGetAsync() throws Exception {
+        stubFor(get(urlMatching("/testGetAsync")).willReturn(aResponse()
+                .withStatus(200)
+                .withHeader("Content-Type", "application/json")
+                .withBody("expectedBody")));
+        final CloseableHttpAsyncClient client = CustomHttpClientBuilder.buildAsync(RestcommConfiguration.getInstance().getMain());
+        client.start();
+        try {
+            new JavaTestKit(system) {
+                {
+                    final ActorRef observer = getRef();
+                    final HttpRequestDescriptor request = new HttpRequestDescriptor(URI.create(PATH + "testGetAsync"), "GET");
+                    asyncDownloader(client).tell(request, observer);
+                    final FiniteDuration timeout = FiniteDuration.create(30, TimeUnit.SECONDS);
+                    final DownloaderResponse response = expectMsgClass(timeout, DownloaderResponse.class);
+                    assertTrue(response.succeeded());
+                    assertTrue(response.get().getContentAsString().contains("expectedBody"));
+                }
+            };
+        } finally {
+            client.close();
+        }
+    }
+
+    /**
+     * A single downloader keeps all the slow requests in flight, the route limit from restcomm.xml still applies.
+     */
+    @Test
+    public void testAsyncDownloaderWithRouteconfiguration() throws Exception {
+        stubFor(get(urlMatching("/testAsyncDownloaderWithRouteconfiguration")).willReturn(aResponse()
+                .withFixedDelay(5000 * 2)
+                .withStatus(200)
+                .withHeader("Content-Type", "application/json")
+                .withBody("{}")));
+        final CloseableHttpAsyncClient client = CustomHttpClientBuilder.buildAsync(RestcommConfiguration.getInstance().getMain());
+        client.start();
+        try {
+            new JavaTestKit(system) {
+                {
+                    int connsPerRoute = 5;
+                    final URI uri = URI.create(PATH + "testAsyncDownloaderWithRouteconfiguration");
+                    final HttpRequestDescriptor request = new HttpRequestDescriptor(uri, "GET");
+                    final ActorRef observer = getRef();
+                    final ActorRef downloader = asyncDownloader(client);
+                    for (int i = 0; i < connsPerRoute; i++) {
+                        downloader.tell(request, observer);
+                    }
+                    awaitRequests("/testAsyncDownloaderWithRouteconfiguration", connsPerRoute);
+                    downloader.tell(request, observer);
+                    // The request over the limit gives up waiting for a connection before any of the others complete.
+                    final FiniteDuration timeout = FiniteDuration.create(5, TimeUnit.SECONDS);
+                    final DownloaderResponse response = expectMsgClass(timeout, DownloaderResponse.class);
+                    assertFalse(response.succeeded());
+                }
+            };
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testAsyncRedirectLoop() throws Exception {
+        stubFor(post(urlMatching("/testAsyncRedirectLoop")).willReturn(aResponse()
+                .withStatus(302)
+                .withHeader("Location", PATH + "testAsyncRedirectLoop")));
+        final CloseableHttpAsyncClient client = CustomHttpClientBuilder.buildAsync(RestcommConfiguration.getInstance().getMain());
+        client.start();
+        try {
+            new JavaTestKit(system) {
+                {
+                    final ActorRef observer = getRef();
+                    final HttpRequestDescriptor request = new HttpRequestDescriptor(URI.create(PATH + "testAsyncRedirectLoop"), "POST");
+                    asyncDownloader(client).tell(request, observer);
+                    final FiniteDuration timeout = FiniteDuration.create(30, TimeUnit.SECONDS);
+                    final DownloaderResponse response = expectMsgClass(timeout, DownloaderResponse.class);
+                    assertFalse(response.succeeded());
+                    assertEquals(RedirectException.class, response.cause().getClass());
+                }
+            };
+        } finally {
+            client.close();
+        }
+    }
 }
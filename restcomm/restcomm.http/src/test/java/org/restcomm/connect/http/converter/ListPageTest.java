@@ -0,0 +1,57 @@
+package org.restcomm.connect.http.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+import org.restcomm.connect.dao.entities.CallDetailRecord;
+import org.restcomm.connect.dao.entities.CallDetailRecordList;
+import org.restcomm.connect.dao.entities.Recording;
+import org.restcomm.connect.dao.entities.RecordingList;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.thoughtworks.xstream.XStream;
+
+public class ListPageTest {
+
+    @Test
+    public void testJsonPagingComesFromTheListPage() {
+        final GsonBuilder builder = new GsonBuilder();
+        builder.registerTypeAdapter(RecordingList.class, new RecordingListConverter(null));
+        final Gson gson = builder.create();
+        final RecordingList list = new RecordingList(new ArrayList<Recording>());
+
+        final JsonObject paged = new JsonParser().parse(new ListPage(0, 50, 0, "/Recordings").toJson(gson, list)).getAsJsonObject();
+        assertEquals(0, paged.get("page").getAsInt());
+        assertEquals(50, paged.get("page_size").getAsInt());
+        assertEquals("/Recordings?Page=0&PageSize=50", paged.get("first_page_uri").getAsString());
+        assertEquals("null", paged.get("next_page_uri").getAsString());
+        // The page only applies to the call it was used for.
+        assertNull(ListPage.current());
+
+        final JsonObject plain = new JsonParser().parse(gson.toJson(list)).getAsJsonObject();
+        assertFalse(plain.has("page"));
+        assertTrue(plain.has("recordings"));
+    }
+
+    @Test
+    public void testSharedConverterRendersEachPage() {
+        final XStream xstream = new XStream();
+        xstream.registerConverter(new CallDetailRecordListConverter(null));
+        final CallDetailRecordList list = new CallDetailRecordList(new ArrayList<CallDetailRecord>());
+
+        final String first = new ListPage(0, 10, 5, "/Calls").toXml(xstream, list);
+        final String second = new ListPage(1, 2, 3, "/Calls").toXml(xstream, list);
+        assertTrue(first.contains("pagesize=\"10\""));
+        assertTrue(second.contains("pagesize=\"2\""));
+        assertTrue(second.contains("previouspageuri=\"/Calls?Page=0&amp;PageSize=2\""));
+        assertFalse(xstream.toXML(list).contains("pagesize"));
+    }
+}
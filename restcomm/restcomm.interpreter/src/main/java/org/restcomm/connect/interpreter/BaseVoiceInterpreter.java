@@ -83,7 +83,9 @@ import org.restcomm.connect.interpreter.rcml.Attribute;
 import org.restcomm.connect.interpreter.rcml.GetNextVerb;
 import org.restcomm.connect.interpreter.rcml.Parser;
 import org.restcomm.connect.interpreter.rcml.ParserFailed;
+import org.restcomm.connect.interpreter.rcml.RcmlCache;
 import org.restcomm.connect.interpreter.rcml.Tag;
+import org.restcomm.connect.interpreter.rcml.TagParser;
 import org.restcomm.connect.interpreter.rcml.Verbs;
 import org.restcomm.connect.interpreter.rcml.domain.GatherAttributes;
 import org.restcomm.connect.mscontrol.api.messages.Collect;
@@ -107,6 +109,7 @@ import org.restcomm.connect.telephony.api.Reject;
 import org.restcomm.connect.tts.api.GetSpeechSynthesizerInfo;
 import org.restcomm.connect.tts.api.SpeechSynthesizerInfo;
 import org.restcomm.connect.tts.api.SpeechSynthesizerRequest;
+import org.restcomm.connect.tts.api.SpeechSynthesizers;
 import org.restcomm.connect.tts.api.SpeechSynthesizerResponse;
 import scala.concurrent.Await;
 import scala.concurrent.Future;
@@ -506,7 +509,8 @@ public abstract class BaseVoiceInterpreter extends RestcommUntypedActor {
                 }
                 final List<NameValuePair> parameters = parameters();
                 requestCallback = new HttpRequestDescriptor(viStatusCallback, viStatusCallbackMethod, parameters);
-                if (!ask) {
+                // Requests made by the non-blocking client outlive the downloader, so there is nothing to wait for.
+                if (!ask || RestcommConfiguration.getInstance().getMain().isDefaultHttpAsync()) {
                     downloader.tell(requestCallback, null);
                 } else if (ask) {
                     final Timeout timeout = new Timeout(Duration.create(5, TimeUnit.SECONDS));
@@ -574,7 +578,7 @@ public abstract class BaseVoiceInterpreter extends RestcommUntypedActor {
 
             @Override
             public UntypedActor create() throws Exception {
-                return new Downloader();
+                return new Downloader(new TagParser(), RcmlCache.getInstance());
             }
         });
         return getContext().actorOf(props);
@@ -678,6 +682,10 @@ public abstract class BaseVoiceInterpreter extends RestcommUntypedActor {
         return getContext().actorOf(props);
     }
 
+    ActorRef parser(final HttpResponseDescriptor response) throws IOException {
+        return getContext().actorOf(Parser.props(response, self()));
+    }
+
     void postCleanup() {
         if (smsSessions.isEmpty() && outstandingAsrRequests == 0) {
             final UntypedActorContext context = getContext();
@@ -834,16 +842,7 @@ public abstract class BaseVoiceInterpreter extends RestcommUntypedActor {
     }
 
     ActorRef tts(final Configuration ttsConf) {
-        final String classpath = ttsConf.getString("[@class]");
-        final Props props = new Props(new UntypedActorFactory() {
-            private static final long serialVersionUID = 1L;
-
-            @Override
-            public Actor create() throws Exception {
-                return (UntypedActor) Class.forName(classpath).getConstructor(Configuration.class).newInstance(ttsConf);
-            }
-        });
-        return getContext().actorOf(props);
+        return SpeechSynthesizers.frontEnd(getContext().system(), ttsConf);
     }
 
     protected boolean is(State state) {
@@ -45,6 +45,7 @@ import org.restcomm.connect.interpreter.rcml.End;
 import org.restcomm.connect.interpreter.rcml.GetNextVerb;
 import org.restcomm.connect.interpreter.rcml.Parser;
 import org.restcomm.connect.interpreter.rcml.Tag;
+import org.restcomm.connect.interpreter.rcml.TagParser;
 import org.restcomm.connect.interpreter.rcml.Verbs;
 import org.restcomm.connect.mscontrol.api.messages.CreateMediaGroup;
 import org.restcomm.connect.mscontrol.api.messages.MediaGroupResponse;
@@ -59,6 +60,7 @@ import org.restcomm.connect.telephony.api.DestroyWaitUrlConfMediaGroup;
 import org.restcomm.connect.tts.api.GetSpeechSynthesizerInfo;
 import org.restcomm.connect.tts.api.SpeechSynthesizerInfo;
 import org.restcomm.connect.tts.api.SpeechSynthesizerRequest;
+import org.restcomm.connect.tts.api.SpeechSynthesizers;
 import org.restcomm.connect.tts.api.SpeechSynthesizerResponse;
 
 import java.io.IOException;
@@ -283,7 +285,7 @@ public class ConfVoiceInterpreter extends RestcommUntypedActor {
 
             @Override
             public UntypedActor create() throws Exception {
-                return new Downloader();
+                return new Downloader(new TagParser());
             }
         });
         return getContext().actorOf(props);
@@ -578,17 +580,7 @@ public class ConfVoiceInterpreter extends RestcommUntypedActor {
     }
 
     private ActorRef tts(final Configuration configuration) {
-        final String classpath = configuration.getString("[@class]");
-
-        final Props props = new Props(new UntypedActorFactory() {
-            private static final long serialVersionUID = 1L;
-
-            @Override
-            public Actor create() throws Exception {
-                return (UntypedActor) Class.forName(classpath).getConstructor(Configuration.class).newInstance(configuration);
-            }
-        });
-        return getContext().actorOf(props);
+        return SpeechSynthesizers.frontEnd(getContext().system(), configuration);
     }
 
     private abstract class AbstractAction implements Action {
@@ -676,7 +668,7 @@ public class ConfVoiceInterpreter extends RestcommUntypedActor {
 
                 final String type = response.getContentType();
                 if (type.contains("text/xml") || type.contains("application/xml") || type.contains("text/html")) {
-                    parser = parser(response.getContentAsString());
+                    parser = getContext().actorOf(Parser.props(response, self()));
                 } else if (type.contains("audio/wav") || type.contains("audio/wave") || type.contains("audio/x-wav")) {
                     parser = parser("<Play>" + request.getUri() + "</Play>");
                 } else if (type.contains("text/plain")) {
@@ -997,7 +989,6 @@ public class ConfVoiceInterpreter extends RestcommUntypedActor {
                 context.stop(mailerNotify);
             context.stop(downloader);
             context.stop(cache);
-            context.stop(synthesizer);
             // Stop the interpreter.
             postCleanup();
         }
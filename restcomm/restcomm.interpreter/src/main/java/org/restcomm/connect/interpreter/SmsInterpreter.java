@@ -64,7 +64,9 @@ import org.restcomm.connect.interpreter.rcml.Attribute;
 import org.restcomm.connect.interpreter.rcml.GetNextVerb;
 import org.restcomm.connect.interpreter.rcml.Parser;
 import org.restcomm.connect.interpreter.rcml.ParserFailed;
+import org.restcomm.connect.interpreter.rcml.RcmlCache;
 import org.restcomm.connect.interpreter.rcml.Tag;
+import org.restcomm.connect.interpreter.rcml.TagParser;
 import org.restcomm.connect.interpreter.rcml.Verbs;
 import org.restcomm.connect.sms.api.CreateSmsSession;
 import org.restcomm.connect.sms.api.DestroySmsSession;
@@ -237,7 +239,7 @@ public final class SmsInterpreter extends RestcommUntypedActor {
 
             @Override
             public UntypedActor create() throws Exception {
-                return new Downloader();
+                return new Downloader(new TagParser(), RcmlCache.getInstance());
             }
         });
         return getContext().actorOf(props);
@@ -440,18 +442,6 @@ public final class SmsInterpreter extends RestcommUntypedActor {
         return parameters;
     }
 
-    private ActorRef parser(final String xml) {
-        final Props props = new Props(new UntypedActorFactory() {
-            private static final long serialVersionUID = 1L;
-
-            @Override
-            public UntypedActor create() throws Exception {
-                return new Parser(xml, self());
-            }
-        });
-        return getContext().actorOf(props);
-    }
-
     private void response(final Object message) {
         final Class<?> klass = message.getClass();
         final ActorRef self = self();
@@ -617,7 +607,7 @@ public final class SmsInterpreter extends RestcommUntypedActor {
                 final String type = response.getContentType();
                 final String content = response.getContentAsString();
                 if ((type != null && content != null) && (type.contains("text/xml") || type.contains("application/xml") || type.contains("text/html"))) {
-                    parser = parser(content);
+                    parser = getContext().actorOf(Parser.props(response, self()));
                 } else {
                     if(logger.isInfoEnabled()) {
                         logger.info("DownloaderResponse getContentType is null: "+response);
@@ -502,7 +502,7 @@ public final class SubVoiceInterpreter extends BaseVoiceInterpreter {
 
                 final String type = response.getContentType();
                 if (type.contains("text/xml") || type.contains("application/xml") || type.contains("text/html")) {
-                    parser = parser(response.getContentAsString());
+                    parser = parser(response);
                 } else if (type.contains("audio/wav") || type.contains("audio/wave") || type.contains("audio/x-wav")) {
                     parser = parser("<Play>" + request.getUri() + "</Play>");
                 } else if (type.contains("text/plain")) {
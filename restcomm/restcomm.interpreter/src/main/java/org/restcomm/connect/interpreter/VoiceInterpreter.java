@@ -47,6 +47,7 @@ import org.restcomm.connect.commons.fsm.Transition;
 import org.restcomm.connect.commons.fsm.TransitionFailedException;
 import org.restcomm.connect.commons.fsm.TransitionNotFoundException;
 import org.restcomm.connect.commons.fsm.TransitionRollbackException;
+import org.restcomm.connect.commons.patterns.Continuation;
 import org.restcomm.connect.commons.patterns.Observe;
 import org.restcomm.connect.commons.patterns.StopObserving;
 import org.restcomm.connect.commons.telephony.CreateCallType;
@@ -379,6 +380,7 @@ public class VoiceInterpreter extends BaseVoiceInterpreter {
         transitions.add(new Transition(initializingBridge, hangingUp));
         transitions.add(new Transition(bridging, bridged));
         transitions.add(new Transition(bridging, finishDialing));
+        transitions.add(new Transition(bridging, hangingUp));
         transitions.add(new Transition(bridged, finishDialing));
         transitions.add(new Transition(bridged, finished));
         transitions.add(new Transition(finishDialing, ready));
@@ -603,9 +605,39 @@ public class VoiceInterpreter extends BaseVoiceInterpreter {
             onJoinComplete((JoinComplete)message);
         } else if (CallHoldStateChange.class.equals(klass)) {
             onCallHoldStateChange((CallHoldStateChange)message, sender);
+        } else if (Continuation.class.equals(klass)) {
+            onCallScreened((Continuation) message);
         }
     }
 
+    private void onCallScreened(Continuation continuation) throws Exception {
+        final ActorRef interpreter = (ActorRef) continuation.state();
+        if (!is(bridging)) {
+            // The call moved on while the screening script was running
+            getContext().stop(interpreter);
+            return;
+        }
+        if (!continuation.succeeded()) {
+            if(logger.isInfoEnabled()) {
+                logger.info("Exception while trying to execute call screening: " + continuation.failure());
+            }
+            fsm.transition(continuation, hangingUp);
+            return;
+        }
+        if (!End.class.equals(continuation.reply().getClass())) {
+            fsm.transition(continuation, hangingUp);
+            return;
+        }
+
+        // Stop SubVoiceInterpreter
+        outboundCall.tell(new StopObserving(interpreter), null);
+        getContext().stop(interpreter);
+
+        // Stop ringing from inbound call
+        final StopMediaGroup stop = new StopMediaGroup();
+        call.tell(stop, self());
+    }
+
     private void onJoinComplete(JoinComplete message) throws TransitionNotFoundException, TransitionFailedException, TransitionRollbackException {
         if (logger.isInfoEnabled()) {
             logger.info("JoinComplete received, sender: " + sender().path() + ", VI state: " + fsm.state());
@@ -1144,7 +1176,7 @@ public class VoiceInterpreter extends BaseVoiceInterpreter {
                 final String type = response.get().getContentType();
                 if (type != null) {
                     if (type.contains("text/xml") || type.contains("application/xml") || type.contains("text/html")) {
-                        parser = parser(response.get().getContentAsString());
+                        parser = parser(response.get());
                     } else if (type.contains("audio/wav") || type.contains("audio/wave") || type.contains("audio/x-wav")) {
                         parser = parser("<Play>" + request.getUri() + "</Play>");
                     } else if (type.contains("text/plain")) {
@@ -1870,7 +1902,7 @@ public class VoiceInterpreter extends BaseVoiceInterpreter {
                 final String type = response.getContentType();
                 if (type != null) {
                         if (type.contains("text/xml") || type.contains("application/xml") || type.contains("text/html")) {
-                            parser = parser(response.getContentAsString());
+                            parser = parser(response);
                         } else if (type.contains("audio/wav") || type.contains("audio/wave") || type.contains("audio/x-wav")) {
                             parser = parser("<Play>" + request.getUri() + "</Play>");
                         } else if (type.contains("text/plain")) {
@@ -3473,26 +3505,10 @@ public class VoiceInterpreter extends BaseVoiceInterpreter {
             if (child != null && child.attribute("url") != null) {
                 final ActorRef interpreter = buildSubVoiceInterpreter(child);
                 StartInterpreter start = new StartInterpreter(outboundCall);
-                try {
-                    Timeout expires = new Timeout(Duration.create(60, TimeUnit.SECONDS));
-                    Future<Object> future = (Future<Object>) ask(interpreter, start, expires);
-                    Object object = Await.result(future, Duration.create(60, TimeUnit.SECONDS));
-
-                    if (!End.class.equals(object.getClass())) {
-                        fsm.transition(message, hangingUp);
-                        return;
-                    }
-                } catch (Exception e) {
-                    if(logger.isInfoEnabled()) {
-                        logger.info("Exception while trying to execute call screening: "+e);
-                    }
-                    fsm.transition(message, hangingUp);
-                    return;
-                }
-
-                // Stop SubVoiceInterpreter
-                outboundCall.tell(new StopObserving(interpreter), null);
-                getContext().stop(interpreter);
+                // Bridging carries on in onCallScreened once the screening script ends
+                Timeout expires = new Timeout(Duration.create(60, TimeUnit.SECONDS));
+                Continuation.resume(ask(interpreter, start, expires), interpreter, self(), getContext().dispatcher());
+                return;
             }
 
             // Stop ringing from inbound call
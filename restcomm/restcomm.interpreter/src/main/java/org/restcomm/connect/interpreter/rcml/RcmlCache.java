@@ -0,0 +1,322 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.interpreter.rcml;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.apache.http.Header;
+import org.apache.http.HeaderElement;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.log4j.Logger;
+import org.restcomm.connect.commons.annotations.concurrency.Immutable;
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+import org.restcomm.connect.commons.configuration.RestcommConfiguration;
+import org.restcomm.connect.http.client.DocumentCache;
+import org.restcomm.connect.http.client.HttpRequestDescriptor;
+import org.restcomm.connect.http.client.HttpResponseDescriptor;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Keeps downloaded RCML documents together with their {@link Tag} tree, following the caching headers of the web server.
+ * <p>
+ * Documents are keyed by method and by the URL of the application, including its own query but not the parameters
+ * Restcomm adds to every request such as CallSid, From, To or Digits. A document is therefore shared by every call and
+ * is kept only when the server opts into that with Cache-Control public or s-maxage, and never when it is marked
+ * no-store or private or Varies on a header that is not the same on every request Restcomm sends. It also has to be
+ * revalidatable (ETag or Last-Modified) or carry a freshness lifetime (s-maxage, max-age or Expires). Fresh documents
+ * are served without contacting the server to GET requests only, a POST always reaches the server and the document is
+ * reused when it answers 304 Not Modified.
+ */
+@ThreadSafe
+public final class RcmlCache implements DocumentCache {
+    private static Logger logger = Logger.getLogger(RcmlCache.class);
+    private static volatile RcmlCache instance;
+    // Sent with the same value on every request, so a response varying on them is the same for every call.
+    private static final Set<String> INVARIANT_HEADERS = new HashSet<String>(Arrays.asList("accept", "accept-charset",
+            "accept-encoding", "accept-language", "user-agent"));
+
+    private final Cache<String, Entry> documents;
+    private final TagParser parser;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong revalidations;
+
+    public RcmlCache(final int maximumSize) {
+        super();
+        this.documents = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+        this.parser = new TagParser();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.revalidations = new AtomicLong();
+    }
+
+    /**
+     * @return the cache shared by the interpreters or null if http-client/rcml-cache-size is 0.
+     */
+    public static RcmlCache getInstance() {
+        if (instance == null) {
+            final int size = RestcommConfiguration.getInstance().getMain().getRcmlCacheSize();
+            if (size <= 0) {
+                return null;
+            }
+            synchronized (RcmlCache.class) {
+                if (instance == null) {
+                    instance = new RcmlCache(size);
+                }
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public HttpResponseDescriptor get(final HttpRequestDescriptor request) {
+        final Entry entry = documents.getIfPresent(key(request));
+        if (entry != null && "GET".equalsIgnoreCase(request.getMethod()) && entry.isFresh(System.currentTimeMillis())) {
+            hits.incrementAndGet();
+            return entry.response;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    @Override
+    public void addValidators(final HttpRequestDescriptor request, final HttpRequest message) {
+        final Entry entry = documents.getIfPresent(key(request));
+        if (entry != null) {
+            if (entry.etag != null) {
+                message.setHeader(HttpHeaders.IF_NONE_MATCH, entry.etag);
+            }
+            if (entry.lastModified != null) {
+                message.setHeader(HttpHeaders.IF_MODIFIED_SINCE, entry.lastModified);
+            }
+        }
+    }
+
+    @Override
+    public HttpResponseDescriptor notModified(final HttpRequestDescriptor request, final HttpResponseDescriptor response) {
+        final String key = key(request);
+        final Entry entry = documents.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        revalidations.incrementAndGet();
+        // A 304 may update the freshness of the document, otherwise the stored one starts over.
+        final long expires = expires(hasFreshness(response) ? response : entry.response, System.currentTimeMillis());
+        documents.put(key, new Entry(entry.response, entry.etag, entry.lastModified, expires));
+        return entry.response;
+    }
+
+    @Override
+    public HttpResponseDescriptor put(final HttpRequestDescriptor request, final HttpResponseDescriptor response) {
+        final String key = key(request);
+        final long now = System.currentTimeMillis();
+        if (!isStorable(response)) {
+            documents.invalidate(key);
+            return response;
+        }
+        final String etag = value(response, HttpHeaders.ETAG);
+        final String lastModified = value(response, HttpHeaders.LAST_MODIFIED);
+        final long expires = expires(response, now);
+        if (etag == null && lastModified == null && expires <= now) {
+            documents.invalidate(key);
+            return response;
+        }
+        HttpResponseDescriptor parsed = response;
+        if (!(response.getDocument() instanceof Tag)) {
+            try {
+                final String content = response.getContentAsString();
+                if (content == null || content.trim().isEmpty()) {
+                    documents.invalidate(key);
+                    return response;
+                }
+                parsed = response.withDocument(parser.parse(content));
+            } catch (final XMLStreamException | IOException exception) {
+                // Not an RCML document, the interpreter decides what to do with it.
+                documents.invalidate(key);
+                return response;
+            }
+        }
+        documents.put(key, new Entry(parsed, etag, lastModified, expires));
+        if (logger.isDebugEnabled()) {
+            logger.debug("Cached RCML from " + key + ", etag: " + etag + ", last modified: " + lastModified);
+        }
+        return parsed;
+    }
+
+    public void invalidateAll() {
+        documents.invalidateAll();
+    }
+
+    public long size() {
+        return documents.size();
+    }
+
+    /**
+     * @return the requests answered without contacting the server.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the requests that had to contact the server.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the requests for which the server confirmed the stored document with 304 Not Modified.
+     */
+    public long getRevalidations() {
+        return revalidations.get();
+    }
+
+    @Override
+    public String toString() {
+        return "RcmlCache [size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses() + ", revalidations="
+                + getRevalidations() + "]";
+    }
+
+    private static String key(final HttpRequestDescriptor request) {
+        final StringBuilder buffer = new StringBuilder();
+        buffer.append(request.getMethod().toUpperCase()).append(" ").append(request.getUri());
+        if (request.getQuery() != null) {
+            buffer.append("?").append(request.getQuery());
+        }
+        return buffer.toString();
+    }
+
+    private static boolean isStorable(final HttpResponseDescriptor response) {
+        if (response.getHeaders() == null) {
+            return false;
+        }
+        boolean shared = false;
+        for (final Header header : response.getHeaders()) {
+            if (HttpHeaders.CACHE_CONTROL.equalsIgnoreCase(header.getName())) {
+                for (final HeaderElement directive : header.getElements()) {
+                    final String name = directive.getName();
+                    if ("no-store".equalsIgnoreCase(name) || "private".equalsIgnoreCase(name)) {
+                        return false;
+                    }
+                    shared |= "public".equalsIgnoreCase(name) || "s-maxage".equalsIgnoreCase(name);
+                }
+            } else if (HttpHeaders.VARY.equalsIgnoreCase(header.getName())) {
+                for (final HeaderElement varied : header.getElements()) {
+                    if (!INVARIANT_HEADERS.contains(varied.getName().toLowerCase())) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return shared;
+    }
+
+    // The time until which the response may be used without revalidation, now if it has to be revalidated every time.
+    private static long expires(final HttpResponseDescriptor response, final long now) {
+        long maxAge = -1;
+        long sharedMaxAge = -1;
+        for (final Header header : response.getHeaders()) {
+            if (HttpHeaders.CACHE_CONTROL.equalsIgnoreCase(header.getName())) {
+                for (final HeaderElement directive : header.getElements()) {
+                    final String name = directive.getName();
+                    if ("no-cache".equalsIgnoreCase(name)) {
+                        return now;
+                    } else if ("max-age".equalsIgnoreCase(name)) {
+                        maxAge = seconds(directive.getValue());
+                    } else if ("s-maxage".equalsIgnoreCase(name)) {
+                        sharedMaxAge = seconds(directive.getValue());
+                    }
+                }
+            }
+        }
+        // This cache is shared by all the calls, so s-maxage wins over max-age.
+        if (sharedMaxAge >= 0) {
+            return now + sharedMaxAge * 1000;
+        } else if (maxAge >= 0) {
+            return now + maxAge * 1000;
+        }
+        final String expires = value(response, HttpHeaders.EXPIRES);
+        if (expires != null) {
+            final Date expiration = DateUtils.parseDate(expires);
+            if (expiration == null) {
+                return now;
+            }
+            final String date = value(response, HttpHeaders.DATE);
+            final Date served = date == null ? null : DateUtils.parseDate(date);
+            return now + expiration.getTime() - (served == null ? now : served.getTime());
+        }
+        return now;
+    }
+
+    private static boolean hasFreshness(final HttpResponseDescriptor response) {
+        return value(response, HttpHeaders.CACHE_CONTROL) != null || value(response, HttpHeaders.EXPIRES) != null;
+    }
+
+    private static long seconds(final String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (final NumberFormatException exception) {
+            return 0;
+        }
+    }
+
+    private static String value(final HttpResponseDescriptor response, final String name) {
+        if (response.getHeaders() != null) {
+            for (final Header header : response.getHeaders()) {
+                if (name.equalsIgnoreCase(header.getName())) {
+                    return header.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    @Immutable
+    private static final class Entry {
+        private final HttpResponseDescriptor response;
+        private final String etag;
+        private final String lastModified;
+        private final long expires;
+
+        private Entry(final HttpResponseDescriptor response, final String etag, final String lastModified, final long expires) {
+            super();
+            this.response = response;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.expires = expires;
+        }
+
+        private boolean isFresh(final long now) {
+            return now < expires;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.interpreter.rcml;
+
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.END_DOCUMENT;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Stack;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+import org.restcomm.connect.commons.util.StringUtils;
+import org.restcomm.connect.http.client.DocumentParser;
+
+/**
+ * Builds the {@link Tag} tree of an RCML document in a single streaming pass. Handed to the Downloader it also serves
+ * as the validation of the downloaded document, so the {@link Parser} can start from the tree.
+ */
+@ThreadSafe
+public final class TagParser implements DocumentParser<Tag> {
+    private static final XMLInputFactory inputs;
+
+    static {
+        inputs = XMLInputFactory.newInstance();
+        inputs.setProperty("javax.xml.stream.isCoalescing", true);
+    }
+
+    public TagParser() {
+        super();
+    }
+
+    @Override
+    public Tag parse(final String xml) throws XMLStreamException {
+        final Tag document = parse(new StringReader(StringUtils.escapeAmpersands(xml.trim())));
+        if (document == null) {
+            throw new XMLStreamException("There was an error parsing the RCML.");
+        }
+        return document;
+    }
+
+    /**
+     * @return the root of the document or null if it has no elements.
+     */
+    public Tag parse(final Reader reader) throws XMLStreamException {
+        final XMLStreamReader stream = inputs.createXMLStreamReader(reader);
+        try {
+            return parse(stream);
+        } finally {
+            stream.close();
+        }
+    }
+
+    private void end(final Stack<Tag.Builder> builders, final XMLStreamReader stream) {
+        if (builders.size() > 1) {
+            final Tag.Builder builder = builders.pop();
+            final Tag tag = builder.build();
+            builders.peek().addChild(tag);
+        }
+    }
+
+    private void start(final Stack<Tag.Builder> builders, final XMLStreamReader stream) {
+        final Tag.Builder builder = Tag.builder();
+        // Read the next tag.
+        builder.setName(stream.getLocalName());
+        // Read the attributes.
+        final int limit = stream.getAttributeCount();
+        for (int index = 0; index < limit; index++) {
+            final String name = stream.getAttributeLocalName(index);
+            final String value = stream.getAttributeValue(index).trim();
+            final Attribute attribute = new Attribute(name, value);
+            builder.addAttribute(attribute);
+        }
+        builders.push(builder);
+    }
+
+    private Tag parse(final XMLStreamReader stream) throws XMLStreamException {
+        final Stack<Tag.Builder> builders = new Stack<Tag.Builder>();
+        while (stream.hasNext()) {
+            switch (stream.next()) {
+                case START_ELEMENT: {
+                    start(builders, stream);
+                    continue;
+                }
+                case CHARACTERS: {
+                    text(builders, stream);
+                    continue;
+                }
+                case END_ELEMENT: {
+                    end(builders, stream);
+                    continue;
+                }
+                case END_DOCUMENT: {
+                    if (!builders.isEmpty()) {
+                        return builders.pop().build();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private void text(final Stack<Tag.Builder> builders, final XMLStreamReader stream) {
+        if (!stream.isWhiteSpace()) {
+            // Read the text.
+            final Tag.Builder builder = builders.peek();
+            final String text = stream.getText().trim();
+            builder.setText(text);
+        }
+    }
+}
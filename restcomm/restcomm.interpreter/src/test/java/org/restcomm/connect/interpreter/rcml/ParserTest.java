@@ -29,10 +29,14 @@ import akka.testkit.JavaTestKit;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.restcomm.connect.http.client.HttpResponseDescriptor;
 
 import java.io.InputStream;
 import java.util.List;
 
+import javax.xml.stream.XMLStreamException;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.restcomm.connect.interpreter.rcml.Verbs.dial;
 import static org.restcomm.connect.interpreter.rcml.Verbs.gather;
@@ -72,6 +76,17 @@ public final class ParserTest {
         }));
     }
 
+    private ActorRef parser(final Tag document) {
+        return system.actorOf(new Props(new UntypedActorFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public UntypedActor create() throws Exception {
+                return new Parser(document, null, null);
+            }
+        }));
+    }
+
     private ActorRef parser(final String input) {
         return system.actorOf(new Props(new UntypedActorFactory() {
             private static final long serialVersionUID = 1L;
@@ -207,4 +222,55 @@ public final class ParserTest {
             }
         };
     }
+
+    @Test
+    public void testParserFromDocument() throws Exception {
+        final String rcmlContent = "  <Response>\n<Say>Tom &amp; Jerry & co &#38; &lt;friends&gt;</Say>\n"
+                + "<Play>http://127.0.0.1/audio.wav?a=1&b=2</Play>\n</Response>  ";
+        final Tag document = new TagParser().parse(rcmlContent);
+        new JavaTestKit(system) {
+            {
+                final ActorRef observer = getRef();
+                final GetNextVerb next = new GetNextVerb();
+                final ActorRef parser = parser(document);
+                parser.tell(next, observer);
+                Tag verb = expectMsgClass(Tag.class);
+                assertTrue(say.equals(verb.name()));
+                assertEquals("Tom & Jerry & co & <friends>", verb.text());
+                parser.tell(next, observer);
+                verb = expectMsgClass(Tag.class);
+                assertTrue(play.equals(verb.name()));
+                assertEquals("http://127.0.0.1/audio.wav?a=1&b=2", verb.text());
+                parser.tell(next, observer);
+                expectMsgClass(End.class);
+            }
+        };
+    }
+
+    @Test
+    public void testPropsFromDownloadedResponse() throws Exception {
+        final String rcmlContent = "<Response><Say>Hello</Say></Response>";
+        final HttpResponseDescriptor.Builder builder = HttpResponseDescriptor.builder();
+        builder.setContent(rcmlContent);
+        builder.setContentLength(rcmlContent.length());
+        final HttpResponseDescriptor unread = builder.build();
+        final HttpResponseDescriptor read = unread.withDocument(new TagParser().parse(rcmlContent));
+        new JavaTestKit(system) {
+            {
+                final ActorRef observer = getRef();
+                for (final HttpResponseDescriptor response : new HttpResponseDescriptor[] { unread, read }) {
+                    final ActorRef parser = system.actorOf(Parser.props(response, null));
+                    parser.tell(new GetNextVerb(), observer);
+                    final Tag verb = expectMsgClass(Tag.class);
+                    assertEquals(say, verb.name());
+                    assertEquals("Hello", verb.text());
+                }
+            }
+        };
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void testDocumentNotWellFormed() throws Exception {
+        new TagParser().parse("<Response><Say>Hello</Response>");
+    }
 }
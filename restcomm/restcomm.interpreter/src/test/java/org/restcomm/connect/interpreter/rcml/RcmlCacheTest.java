@@ -0,0 +1,129 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.interpreter.rcml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.BasicNameValuePair;
+import org.junit.Test;
+import org.restcomm.connect.http.client.HttpRequestDescriptor;
+import org.restcomm.connect.http.client.HttpResponseDescriptor;
+
+public class RcmlCacheTest {
+    private static final String RCML = "<Response><Say>Hello</Say></Response>";
+
+    private static HttpRequestDescriptor request(final String uri, final String method) throws Exception {
+        return new HttpRequestDescriptor(URI.create(uri), method);
+    }
+
+    private static HttpRequestDescriptor request(final String uri, final String method, final String... parameters) {
+        final List<NameValuePair> pairs = new ArrayList<NameValuePair>();
+        for (int i = 0; i < parameters.length; i += 2) {
+            pairs.add(new BasicNameValuePair(parameters[i], parameters[i + 1]));
+        }
+        return new HttpRequestDescriptor(URI.create(uri), method, pairs);
+    }
+
+    private static HttpResponseDescriptor response(final int status, final String content, final Header... headers) {
+        final HttpResponseDescriptor.Builder builder = HttpResponseDescriptor.builder();
+        builder.setStatusCode(status);
+        builder.setContent(content);
+        builder.setContentLength(content == null ? 0 : content.length());
+        builder.setContentType("text/xml");
+        builder.setHeaders(headers);
+        return builder.build();
+    }
+
+    @Test
+    public void revalidatesDocumentsWithValidators() throws Exception {
+        final RcmlCache cache = new RcmlCache(10);
+        final HttpRequestDescriptor request = request("http://127.0.0.1/ivr.xml", "POST");
+        final HttpResponseDescriptor stored = cache.put(request, response(200, RCML, new BasicHeader(HttpHeaders.ETAG, "\"v1\""),
+                new BasicHeader(HttpHeaders.CACHE_CONTROL, "public")));
+        assertTrue(stored.getDocument() instanceof Tag);
+        assertEquals(1, cache.size());
+        // Without a freshness lifetime every use goes back to the server.
+        assertNull(cache.get(request));
+        final HttpGet message = new HttpGet("http://127.0.0.1/ivr.xml");
+        cache.addValidators(request, message);
+        assertEquals("\"v1\"", message.getFirstHeader(HttpHeaders.IF_NONE_MATCH).getValue());
+        assertSame(stored, cache.notModified(request, response(304, null, new BasicHeader(HttpHeaders.ETAG, "\"v1\""))));
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getRevalidations());
+    }
+
+    @Test
+    public void servesFreshDocumentsToGetOnly() throws Exception {
+        final RcmlCache cache = new RcmlCache(10);
+        final HttpRequestDescriptor get = request("http://127.0.0.1/ivr.xml?menu=1", "GET");
+        final HttpResponseDescriptor stored = cache.put(get, response(200, RCML, new BasicHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60")));
+        assertSame(stored, cache.get(get));
+        assertSame(stored, cache.get(request("http://127.0.0.1/ivr.xml?menu=1", "GET")));
+        assertNull(cache.get(request("http://127.0.0.1/ivr.xml?menu=2", "GET")));
+        final HttpRequestDescriptor post = request("http://127.0.0.1/ivr.xml?menu=1", "POST");
+        cache.put(post, response(200, RCML, new BasicHeader(HttpHeaders.CACHE_CONTROL, "s-maxage=60")));
+        assertNull(cache.get(post));
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void sharesDocumentsAcrossCalls() throws Exception {
+        final RcmlCache cache = new RcmlCache(10);
+        final HttpRequestDescriptor first = request("http://127.0.0.1/ivr.xml?menu=1", "GET", "CallSid", "CA1", "From", "+1");
+        final HttpResponseDescriptor stored = cache.put(first, response(200, RCML,
+                new BasicHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60"),
+                new BasicHeader(HttpHeaders.VARY, "Accept-Encoding")));
+        // The parameters Restcomm adds to every request do not select another document.
+        assertSame(stored, cache.get(request("http://127.0.0.1/ivr.xml?menu=1", "GET", "CallSid", "CA2", "From", "+2")));
+        assertNull(cache.get(request("http://127.0.0.1/ivr.xml?menu=2", "GET", "CallSid", "CA2", "From", "+2")));
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void skipsDocumentsThatCannotBeShared() throws Exception {
+        final RcmlCache cache = new RcmlCache(10);
+        final HttpRequestDescriptor request = request("http://127.0.0.1/ivr.xml", "GET");
+        cache.put(request, response(200, RCML));
+        cache.put(request, response(200, RCML, new BasicHeader(HttpHeaders.ETAG, "\"v1\""), new BasicHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=60")));
+        cache.put(request, response(200, RCML, new BasicHeader(HttpHeaders.CACHE_CONTROL, "no-store")));
+        cache.put(request, response(200, RCML, new BasicHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=60"),
+                new BasicHeader(HttpHeaders.VARY, "Cookie")));
+        // Not marked as shareable across calls.
+        cache.put(request, response(200, RCML, new BasicHeader(HttpHeaders.CACHE_CONTROL, "max-age=60")));
+        cache.put(request, response(200, "Hello", new BasicHeader(HttpHeaders.ETAG, "\"v1\""),
+                new BasicHeader(HttpHeaders.CACHE_CONTROL, "public")));
+        assertEquals(0, cache.size());
+        assertNull(cache.notModified(request, response(304, null)));
+    }
+}
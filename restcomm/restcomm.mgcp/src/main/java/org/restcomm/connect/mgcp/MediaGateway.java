@@ -40,17 +40,27 @@ import jain.protocol.ip.mgcp.message.parms.ConnectionIdentifier;
 import jain.protocol.ip.mgcp.message.parms.EventName;
 import jain.protocol.ip.mgcp.message.parms.NotifiedEntity;
 import org.restcomm.connect.commons.faulttolerance.RestcommUntypedActor;
+import org.restcomm.connect.commons.metrics.Histogram;
+import org.restcomm.connect.commons.metrics.MetricsRegistry;
 import org.restcomm.connect.commons.util.RevolvingCounter;
 
 import java.net.InetAddress;
 import java.util.Map;
 import java.util.TooManyListenersException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * @author quintana.thomas@gmail.com (Thomas Quintana)
  */
 public final class MediaGateway extends RestcommUntypedActor implements JainMgcpListener {
+    // Send times are kept by transaction id modulo this, larger than the transactions ever outstanding at once.
+    private static final int SENT_SLOTS = 4096;
+    private static final Histogram transactionLatency = MetricsRegistry.getInstance().histogram(
+            "restcomm_mgcp_transaction_seconds", "Time between sending an MGCP command and receiving its response.",
+            Histogram.LATENCY_SECONDS);
+
     private final LoggingAdapter logger = Logging.getLogger(getContext().system(), this);
     // MediaGateway connection information.
     private String name;
@@ -77,9 +87,11 @@ public final class MediaGateway extends RestcommUntypedActor implements JainMgcp
     private RevolvingCounter requestIdPool;
     private RevolvingCounter sessionIdPool;
     private RevolvingCounter transactionIdPool;
+    private final AtomicLongArray sent;
 
     public MediaGateway() {
         super();
+        sent = new AtomicLongArray(SENT_SLOTS);
         notificationListeners = new ConcurrentHashMap<String, ActorRef>();
         responseListeners = new ConcurrentHashMap<Integer, ActorRef>();
     }
@@ -291,6 +303,10 @@ public final class MediaGateway extends RestcommUntypedActor implements JainMgcp
     @Override
     public void processMgcpResponseEvent(final JainMgcpResponseEvent event) {
         final int id = event.getTransactionHandle();
+        final long start = sent.getAndSet(id & (SENT_SLOTS - 1), 0);
+        if (start != 0) {
+            transactionLatency.observe(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
         final ActorRef listener = responseListeners.remove(id);
         if (listener != null) {
             listener.tell(event, self());
@@ -366,6 +382,7 @@ public final class MediaGateway extends RestcommUntypedActor implements JainMgcp
             request.getRequestIdentifier().setRequestIdentifier(id);
             notificationListeners.put(id, sender);
         }
+        sent.set(transactionId & (SENT_SLOTS - 1), System.nanoTime());
         provider.sendMgcpEvents(new JainMgcpEvent[] { command });
     }
 
@@ -14,6 +14,10 @@ public class MonitoringMetrics {
     public static String COUNTERS_MAP_MAXIMUM_CONCURRENT_OUTGOING_CALLS="MaximumConcurrentOutgoingCalls";
     public static String DURATION_MAP_AVERAGE_CALL_DURATION_IN_SECONDS_LAST_24_HOURS="AverageCallDurationInSecondsLast24Hours";
     public static String DURATION_MAP_AVERAGE_CALL_DURATION_IN_SECONDS_LAST_HOUR="AverageCallDurationInSecondsLastHour";
+    public static String DURATION_MAP_95TH_PERCENTILE_CALL_DURATION_IN_SECONDS_LAST_24_HOURS="CallDurationInSeconds95thPercentileLast24Hours";
+    public static String DURATION_MAP_95TH_PERCENTILE_CALL_DURATION_IN_SECONDS_LAST_HOUR="CallDurationInSeconds95thPercentileLastHour";
+    public static String COUNTERS_MAP_ENDED_CALLS_LAST_24_HOURS="EndedCallsLast24Hours";
+    public static String COUNTERS_MAP_ENDED_CALLS_LAST_HOUR="EndedCallsLastHour";
     public static String COUNTERS_MAP_LIVE_INCOMING_CALLS="LiveIncomingCalls";
     public static String COUNTERS_MAP_LIVE_OUTGOING_CALLS="LiveOutgoingCalls";
     public static String COUNTERS_MAP_COMPLETED_CALLS="CompletedCalls";
@@ -25,6 +25,8 @@ import akka.event.Logging;
 import akka.event.LoggingAdapter;
 import org.restcomm.connect.commons.configuration.RestcommConfiguration;
 import org.restcomm.connect.commons.faulttolerance.RestcommUntypedActor;
+import org.restcomm.connect.commons.metrics.Gauge;
+import org.restcomm.connect.commons.metrics.MetricsRegistry;
 import org.restcomm.connect.commons.patterns.Observing;
 import org.restcomm.connect.commons.patterns.StopObserving;
 import org.restcomm.connect.dao.DaoManager;
@@ -55,6 +57,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -97,7 +100,9 @@ public class MonitoringService extends RestcommUntypedActor {
     private final Map<String, String> mgcpEndpointMap;
     private final Map<String, String> mgcpConnectionMap;
 
-
+    // Ended calls of the last 24 hours, per minute, and when the live calls were answered.
+    private final RollingCallMetrics endedCalls;
+    private final Map<String, Long> answeredCalls;
 
     private InstanceId instanceId;
 
@@ -137,11 +142,72 @@ public class MonitoringService extends RestcommUntypedActor {
         mgcpEndpointMap = new ConcurrentHashMap<String, String>();
         mgcpConnectionMap = new ConcurrentHashMap<String, String>();
 
+        endedCalls = new RollingCallMetrics(24, TimeUnit.HOURS);
+        answeredCalls = new ConcurrentHashMap<String, Long>();
+
+        exposeMetrics();
+
         if(logger.isInfoEnabled()){
             logger.info("Monitoring Service started");
         }
     }
 
+    // The counters can be scraped without asking this actor, see MetricsRegistry.
+    private void exposeMetrics() {
+        final MetricsRegistry registry = MetricsRegistry.getInstance();
+        final String calls = "restcomm_calls_total";
+        final String callsHelp = "Calls since uptime, by direction.";
+        registry.counter(calls, callsHelp, "direction", "inbound", gauge(incomingCallsUpToNow));
+        registry.counter(calls, callsHelp, "direction", "outbound", gauge(outgoingCallsUpToNow));
+        final String ended = "restcomm_calls_ended_total";
+        final String endedHelp = "Calls ended since uptime, by final state.";
+        registry.counter(ended, endedHelp, "state", "completed", gauge(completedCalls));
+        registry.counter(ended, endedHelp, "state", "failed", gauge(failedCalls));
+        registry.counter(ended, endedHelp, "state", "busy", gauge(busyCalls));
+        registry.counter(ended, endedHelp, "state", "canceled", gauge(canceledCalls));
+        registry.counter(ended, endedHelp, "state", "no_answer", gauge(noAnswerCalls));
+        registry.counter(ended, endedHelp, "state", "not_found", gauge(notFoundCalls));
+        final String live = "restcomm_live_calls";
+        final String liveHelp = "Calls in progress, by direction.";
+        registry.gauge(live, liveHelp, "direction", "inbound", gauge(incomingCallDetailsMap));
+        registry.gauge(live, liveHelp, "direction", "outbound", gauge(outgoingCallDetailsMap));
+        registry.gauge("restcomm_max_concurrent_calls", "Highest number of calls in progress at once since uptime.",
+                gauge(maxConcurrentCalls));
+        registry.gauge("restcomm_registered_users", "Users with a registration.", gauge(registeredUsers));
+        final String texts = "restcomm_text_messages_total";
+        final String textsHelp = "Text messages since uptime, by route.";
+        registry.counter(texts, textsHelp, "route", "inbound_to_app", gauge(textInboundToApp));
+        registry.counter(texts, textsHelp, "route", "inbound_to_client", gauge(textInboundToClient));
+        registry.counter(texts, textsHelp, "route", "inbound_to_proxy_out", gauge(textInboundToProxyOut));
+        registry.counter(texts, textsHelp, "route", "outbound", gauge(textOutbound));
+        registry.counter(texts, textsHelp, "route", "not_found", gauge(textNotFound));
+        final String endpoints = "restcomm_mgcp_endpoints";
+        final String endpointsHelp = "MGCP endpoints in use, by type.";
+        registry.gauge(endpoints, endpointsHelp, "type", "ivr", gauge(mgcpEndpointsIvr));
+        registry.gauge(endpoints, endpointsHelp, "type", "conference", gauge(mgcpEndpointsConference));
+        registry.gauge(endpoints, endpointsHelp, "type", "bridge", gauge(mgcpEndpointsBridge));
+        registry.gauge(endpoints, endpointsHelp, "type", "packet_relay", gauge(mgcpEndpointsPacketRelay));
+        registry.gauge("restcomm_mgcp_connections", "MGCP connections in use.", gauge(mgcpConnectionMap));
+    }
+
+    private static Gauge gauge(final AtomicInteger value) {
+        return new Gauge() {
+            @Override
+            public double get() {
+                return value.get();
+            }
+        };
+    }
+
+    private static Gauge gauge(final Map<?, ?> map) {
+        return new Gauge() {
+            @Override
+            public double get() {
+                return map.size();
+            }
+        };
+    }
+
     @Override
     public void onReceive(Object message) throws Exception {
         final Class<?> klass = message.getClass();
@@ -348,6 +414,7 @@ public class MonitoringService extends RestcommUntypedActor {
             outgoingCallDetailsMap.remove(senderPath);
         }
         callStateMap.remove(senderPath);
+        answeredCalls.remove(senderPath);
     }
 
     /**
@@ -396,10 +463,11 @@ public class MonitoringService extends RestcommUntypedActor {
         String senderPath = sender.path().name();
         if (senderPath != null && message != null && callStateMap != null && callDetailsMap != null) {
             CallStateChanged.State callState = message.state();
-            callStateMap.put(senderPath, callState);
+            CallStateChanged.State previousState = callStateMap.put(senderPath, callState);
             CallInfo callInfo = callDetailsMap.get(senderPath);
             if (callInfo != null) {
                 callInfo.setState(callState);
+                recordCallDuration(senderPath, previousState, callState);
                 if (callState.equals(CallStateChanged.State.FAILED)) {
                     failedCalls.incrementAndGet();
                 } else if (callState.equals(CallStateChanged.State.COMPLETED)) {
@@ -421,20 +489,34 @@ public class MonitoringService extends RestcommUntypedActor {
         }
     }
 
+    private void recordCallDuration(String senderPath, CallStateChanged.State previousState, CallStateChanged.State callState) {
+        final long now = System.currentTimeMillis();
+        if (callState.equals(CallStateChanged.State.IN_PROGRESS)) {
+            if (!answeredCalls.containsKey(senderPath)) {
+                answeredCalls.put(senderPath, now);
+            }
+        } else if (isEnded(callState) && (previousState == null || !isEnded(previousState))) {
+            // As in the call detail records, a call that was never answered lasted zero seconds.
+            final Long answered = answeredCalls.remove(senderPath);
+            endedCalls.record(now, answered == null ? 0 : now - answered, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private boolean isEnded(CallStateChanged.State callState) {
+        return callState.equals(CallStateChanged.State.COMPLETED) || callState.equals(CallStateChanged.State.FAILED)
+                || callState.equals(CallStateChanged.State.BUSY) || callState.equals(CallStateChanged.State.CANCELED)
+                || callState.equals(CallStateChanged.State.NO_ANSWER) || callState.equals(CallStateChanged.State.NOT_FOUND);
+    }
+
     /**
      * @param message
      * @param self
      * @param sender
      */
     private void onGetStatistics (GetStatistics message, ActorRef self, ActorRef sender) throws ParseException {
-
-        List<CallInfo> callDetailsList = new ArrayList<CallInfo>(callDetailsMap.values());
         Map<String, Integer> countersMap = new HashMap<String, Integer>();
         Map<String, Double> durationMap = new HashMap<String, Double>();
 
-        final AtomicInteger liveIncomingCalls = new AtomicInteger();
-        final AtomicInteger liveOutgoingCalls = new AtomicInteger();
-
         countersMap.put(MonitoringMetrics.COUNTERS_MAP_TOTAL_CALLS_SINCE_UPTIME,callsUpToNow.get());
         countersMap.put(MonitoringMetrics.COUNTERS_MAP_INCOMING_CALLS_SINCE_UPTIME, incomingCallsUpToNow.get());
         countersMap.put(MonitoringMetrics.COUNTERS_MAP_OUTGOING_CALL_SINCE_UPTIME, outgoingCallsUpToNow.get());
@@ -444,38 +526,19 @@ public class MonitoringService extends RestcommUntypedActor {
         countersMap.put(MonitoringMetrics.COUNTERS_MAP_MAXIMUM_CONCURRENT_INCOMING_CALLS, maxConcurrentIncomingCalls.get());
         countersMap.put(MonitoringMetrics.COUNTERS_MAP_MAXIMUM_CONCURRENT_OUTGOING_CALLS, maxConcurrentOutgoingCalls.get());
 
-        Double averageCallDurationLast24Hours = null;
-        Double averageCallDurationLastHour = null;
-
-        try {
-            averageCallDurationLast24Hours = daoManager.getCallDetailRecordsDao().getAverageCallDurationLast24Hours(instanceId.getId());
-            averageCallDurationLastHour = daoManager.getCallDetailRecordsDao().getAverageCallDurationLastHour(instanceId.getId());
-        } catch (Exception e) {
-            if (logger.isDebugEnabled()) {
-                logger.debug("MonitoringService Exception during the query for AVG Call Duration: "+e.getStackTrace());
-            }
-        }
+        // Served from the rolling window, the call detail records are never queried here.
+        final long now = System.currentTimeMillis();
+        final RollingCallMetrics.Snapshot last24Hours = endedCalls.snapshot(now, 24, TimeUnit.HOURS);
+        final RollingCallMetrics.Snapshot lastHour = endedCalls.snapshot(now, 1, TimeUnit.HOURS);
+        durationMap.put(MonitoringMetrics.DURATION_MAP_AVERAGE_CALL_DURATION_IN_SECONDS_LAST_24_HOURS, last24Hours.getAverageDurationInSeconds());
+        durationMap.put(MonitoringMetrics.DURATION_MAP_AVERAGE_CALL_DURATION_IN_SECONDS_LAST_HOUR, lastHour.getAverageDurationInSeconds());
+        durationMap.put(MonitoringMetrics.DURATION_MAP_95TH_PERCENTILE_CALL_DURATION_IN_SECONDS_LAST_24_HOURS, (double) last24Hours.getPercentileInSeconds(95));
+        durationMap.put(MonitoringMetrics.DURATION_MAP_95TH_PERCENTILE_CALL_DURATION_IN_SECONDS_LAST_HOUR, (double) lastHour.getPercentileInSeconds(95));
+        countersMap.put(MonitoringMetrics.COUNTERS_MAP_ENDED_CALLS_LAST_24_HOURS, (int) last24Hours.getCalls());
+        countersMap.put(MonitoringMetrics.COUNTERS_MAP_ENDED_CALLS_LAST_HOUR, (int) lastHour.getCalls());
 
-        if (averageCallDurationLast24Hours == null) {
-            averageCallDurationLast24Hours = 0.0;
-        }
-
-        if (averageCallDurationLastHour == null) {
-            averageCallDurationLastHour = 0.0;
-        }
-
-        durationMap.put(MonitoringMetrics.DURATION_MAP_AVERAGE_CALL_DURATION_IN_SECONDS_LAST_24_HOURS, averageCallDurationLast24Hours);
-        durationMap.put(MonitoringMetrics.DURATION_MAP_AVERAGE_CALL_DURATION_IN_SECONDS_LAST_HOUR, averageCallDurationLastHour);
-
-        for (CallInfo callInfo : callDetailsList) {
-            if (callInfo.direction().equalsIgnoreCase("inbound")) {
-                liveIncomingCalls.incrementAndGet();
-            } else if (callInfo.direction().contains("outbound")) {
-                liveOutgoingCalls.incrementAndGet();
-            }
-        }
-        countersMap.put(MonitoringMetrics.COUNTERS_MAP_LIVE_INCOMING_CALLS, liveIncomingCalls.get());
-        countersMap.put(MonitoringMetrics.COUNTERS_MAP_LIVE_OUTGOING_CALLS, liveOutgoingCalls.get());
+        countersMap.put(MonitoringMetrics.COUNTERS_MAP_LIVE_INCOMING_CALLS, incomingCallDetailsMap.size());
+        countersMap.put(MonitoringMetrics.COUNTERS_MAP_LIVE_OUTGOING_CALLS, outgoingCallDetailsMap.size());
 
         countersMap.put(MonitoringMetrics.COUNTERS_MAP_COMPLETED_CALLS, completedCalls.get());
         countersMap.put(MonitoringMetrics.COUNTERS_MAP_NO_ANSWER_CALLS, noAnswerCalls.get());
@@ -502,6 +565,7 @@ public class MonitoringService extends RestcommUntypedActor {
 
         MonitoringServiceResponse callInfoList = null;
         if (message.isWithLiveCallDetails()) {
+            List<CallInfo> callDetailsList = new ArrayList<CallInfo>(callDetailsMap.values());
             callInfoList = new MonitoringServiceResponse(instanceId, callDetailsList, countersMap, durationMap, true, null);
         } else {
             URI callDetailsUri = null;
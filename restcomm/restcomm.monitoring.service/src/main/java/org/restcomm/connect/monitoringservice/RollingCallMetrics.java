@@ -0,0 +1,166 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.monitoringservice;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.restcomm.connect.commons.annotations.concurrency.Immutable;
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+
+/**
+ * Count, total duration and duration histogram of the calls that ended in a rolling window, kept in one bucket per
+ * minute. Recording a call touches a single bucket and a snapshot reads at most one bucket per minute of the window,
+ * whatever the number of calls, so the statistics never need the call detail records.
+ * <p>
+ * Buckets are replaced without locking when their minute comes around again, readers on other threads only ever
+ * see a bucket of the minute they ask for.
+ */
+@ThreadSafe
+public final class RollingCallMetrics {
+    // Upper bounds, in seconds, of the histogram buckets. The last bucket counts the longer calls.
+    private static final long[] BOUNDS = { 10, 30, 60, 180, 300, 600, 1800, 3600 };
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    public RollingCallMetrics(final long window, final TimeUnit unit) {
+        super();
+        final int minutes = (int) unit.toMinutes(window);
+        if (minutes < 1) {
+            throw new IllegalArgumentException("The window must be at least one minute long.");
+        }
+        this.buckets = new AtomicReferenceArray<Bucket>(minutes);
+    }
+
+    public static long[] getBounds() {
+        return BOUNDS.clone();
+    }
+
+    public void record(final long now, final long duration, final TimeUnit unit) {
+        final long minute = now / MINUTE;
+        final int index = (int) (minute % buckets.length());
+        Bucket bucket = buckets.get(index);
+        while (bucket == null || bucket.minute < minute) {
+            final Bucket fresh = new Bucket(minute);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                bucket = fresh;
+            } else {
+                bucket = buckets.get(index);
+            }
+        }
+        if (bucket.minute == minute) {
+            bucket.add(unit.toSeconds(duration));
+        }
+    }
+
+    public Snapshot snapshot(final long now, final long window, final TimeUnit unit) {
+        final int minutes = (int) Math.min(Math.max(unit.toMinutes(window), 1), buckets.length());
+        final long last = now / MINUTE;
+        long calls = 0;
+        long seconds = 0;
+        final long[] histogram = new long[BOUNDS.length + 1];
+        for (long minute = last - minutes + 1; minute <= last; minute++) {
+            final Bucket bucket = buckets.get((int) (minute % buckets.length()));
+            if (bucket != null && bucket.minute == minute) {
+                calls += bucket.calls.get();
+                seconds += bucket.seconds.get();
+                for (int i = 0; i < histogram.length; i++) {
+                    histogram[i] += bucket.histogram.get(i);
+                }
+            }
+        }
+        return new Snapshot(calls, seconds, histogram);
+    }
+
+    private static final class Bucket {
+        private final long minute;
+        private final AtomicLong calls;
+        private final AtomicLong seconds;
+        private final AtomicLongArray histogram;
+
+        private Bucket(final long minute) {
+            super();
+            this.minute = minute;
+            this.calls = new AtomicLong();
+            this.seconds = new AtomicLong();
+            this.histogram = new AtomicLongArray(BOUNDS.length + 1);
+        }
+
+        private void add(final long duration) {
+            int slot = 0;
+            while (slot < BOUNDS.length && duration > BOUNDS[slot]) {
+                slot++;
+            }
+            histogram.incrementAndGet(slot);
+            seconds.addAndGet(duration);
+            calls.incrementAndGet();
+        }
+    }
+
+    @Immutable
+    public static final class Snapshot {
+        private final long calls;
+        private final long seconds;
+        private final long[] histogram;
+
+        private Snapshot(final long calls, final long seconds, final long[] histogram) {
+            super();
+            this.calls = calls;
+            this.seconds = seconds;
+            this.histogram = histogram;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getDurationInSeconds() {
+            return seconds;
+        }
+
+        public double getAverageDurationInSeconds() {
+            return calls == 0 ? 0.0 : (double) seconds / calls;
+        }
+
+        // Calls per histogram bucket, see getBounds().
+        public long[] getHistogram() {
+            return histogram.clone();
+        }
+
+        // The upper bound of the bucket holding the given percentile, or the last bound when the calls are longer.
+        public long getPercentileInSeconds(final double percentile) {
+            if (calls == 0) {
+                return 0;
+            }
+            final long rank = (long) Math.ceil(percentile / 100 * calls);
+            long seen = 0;
+            for (int i = 0; i < BOUNDS.length; i++) {
+                seen += histogram[i];
+                if (seen >= rank) {
+                    return BOUNDS[i];
+                }
+            }
+            return BOUNDS[BOUNDS.length - 1];
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.restcomm.connect.monitoringservice;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class RollingCallMetricsTest {
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Test
+    public void testWindowsAddUpTheirMinutes() {
+        final RollingCallMetrics metrics = new RollingCallMetrics(24, TimeUnit.HOURS);
+        final long now = 100 * HOUR;
+        metrics.record(now - 2 * HOUR, 120, TimeUnit.SECONDS);
+        metrics.record(now - 10000, 20, TimeUnit.SECONDS);
+        metrics.record(now, 40, TimeUnit.SECONDS);
+        final RollingCallMetrics.Snapshot lastHour = metrics.snapshot(now, 1, TimeUnit.HOURS);
+        assertEquals(2, lastHour.getCalls());
+        assertEquals(30.0, lastHour.getAverageDurationInSeconds(), 0.0);
+        final RollingCallMetrics.Snapshot last24Hours = metrics.snapshot(now, 24, TimeUnit.HOURS);
+        assertEquals(3, last24Hours.getCalls());
+        assertEquals(180, last24Hours.getDurationInSeconds());
+        assertArrayEquals(new long[] { 0, 1, 1, 1, 0, 0, 0, 0, 0 }, last24Hours.getHistogram());
+        assertEquals(180, last24Hours.getPercentileInSeconds(95));
+        assertEquals(30, last24Hours.getPercentileInSeconds(30));
+    }
+
+    @Test
+    public void testOldMinutesAreForgotten() {
+        final RollingCallMetrics metrics = new RollingCallMetrics(1, TimeUnit.HOURS);
+        final long now = 100 * HOUR;
+        metrics.record(now, 5, TimeUnit.SECONDS);
+        assertEquals(1, metrics.snapshot(now + HOUR - 1, 1, TimeUnit.HOURS).getCalls());
+        assertEquals(0, metrics.snapshot(now + HOUR, 1, TimeUnit.HOURS).getCalls());
+        // The bucket of that minute is reused an hour later.
+        metrics.record(now + HOUR, 7, TimeUnit.SECONDS);
+        final RollingCallMetrics.Snapshot snapshot = metrics.snapshot(now + HOUR, 1, TimeUnit.HOURS);
+        assertEquals(1, snapshot.getCalls());
+        assertEquals(7, snapshot.getDurationInSeconds());
+        assertEquals(0.0, metrics.snapshot(now + 3 * HOUR, 1, TimeUnit.HOURS).getAverageDurationInSeconds(), 0.0);
+    }
+}
@@ -450,11 +450,26 @@ public class MgcpMediaGroup extends MediaGroup {
                 getContext().stop(ivr);
                 ivr = null;
             }
+            if (link != null && !link.isTerminated()) {
+                if(logger.isInfoEnabled()) {
+                    logger.info("MediaGroup :" + self().path()
+                        + " got request to create link endpoint, will stop the existing one first: " + link.path());
+                }
+                gateway.tell(new DestroyLink(link), null);
+                getContext().stop(link);
+            }
             if(logger.isInfoEnabled()) {
                 logger.info("MediaGroup :" + self().path() + " state: " + fsm.state().toString() + " session: " + session.id()
-                    + " will ask to get IvrEndpoint: "+ivrEndpointName);
+                    + " will ask to get IvrEndpoint: "+ivrEndpointName+" and Link");
             }
+            // Neither request depends on the other and the gateway answers them in the order they were sent,
+            // so the link is asked for right away instead of after the ivr endpoint comes back.
+            // This only saves a gateway round trip, the MGCP transactions that follow are unchanged. There is no pool
+            // of pre-created ivr endpoints and links: the media server picks the endpoint at the CRCX that opens the
+            // link and ties that connection to this session's call id, so it cannot be opened before the call or
+            // reused by another one. A pool needs media server support and is left to a follow-up.
             gateway.tell(new CreateIvrEndpoint(session, ivrEndpointName), source);
+            gateway.tell(new CreateLink(session, ivrConnectionIdentifier), source);
         }
     }
 
@@ -469,19 +484,10 @@ public class MgcpMediaGroup extends MediaGroup {
             final MediaGatewayResponse<ActorRef> response = (MediaGatewayResponse<ActorRef>) message;
             ivr = response.get();
             ivr.tell(new Observe(source), source);
-            if (link != null && !link.isTerminated()) {
-                if(logger.isInfoEnabled()) {
-                    logger.info("MediaGroup :" + self().path()
-                        + " got request to create link endpoint, will stop the existing one first: " + link.path());
-                }
-                gateway.tell(new DestroyLink(link), null);
-                getContext().stop(link);
-            }
             if(logger.isInfoEnabled()) {
                 logger.info("MediaGroup :" + self().path() + " state: " + fsm.state().toString() + " session: " + session.id()
-                    + " ivr endpoint: " + ivr.path() + " will ask to get Link");
+                    + " ivr endpoint: " + ivr.path() + " waiting for Link");
             }
-            gateway.tell(new CreateLink(session, ivrConnectionIdentifier), source);
         }
     }
 
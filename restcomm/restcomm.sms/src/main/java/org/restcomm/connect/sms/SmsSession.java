@@ -54,10 +54,11 @@ import org.restcomm.connect.sms.api.SmsSessionAttribute;
 import org.restcomm.connect.sms.api.SmsSessionInfo;
 import org.restcomm.connect.sms.api.SmsSessionRequest;
 import org.restcomm.connect.sms.api.SmsSessionResponse;
-import org.restcomm.connect.sms.smpp.SmppClientOpsThread;
 import org.restcomm.connect.sms.smpp.SmppInboundMessageEntity;
 import org.restcomm.connect.sms.smpp.SmppMessageHandler;
 import org.restcomm.connect.sms.smpp.SmppOutboundMessageEntity;
+import org.restcomm.connect.sms.smpp.SmppOutboundMessageResponse;
+import org.restcomm.connect.sms.smpp.SmppSessionPool;
 import org.restcomm.connect.telephony.api.TextMessage;
 import org.restcomm.smpp.parameter.TlvSet;
 
@@ -240,19 +241,20 @@ public final class SmsSession extends RestcommUntypedActor {
             response(message);
         } else if (message instanceof SmppInboundMessageEntity) {
             inbound(message);
+        } else if (message instanceof SmppOutboundMessageResponse) {
+            response(message);
         }
     }
 
     private void response(final Object message) {
-        final SipServletResponse response = (SipServletResponse) message;
-        final int status = response.getStatus();
-        final SmsSessionInfo info = info();
-        SmsSessionResponse result = null;
-        if (SipServletResponse.SC_ACCEPTED == status || SipServletResponse.SC_OK == status) {
-            result = new SmsSessionResponse(info, true);
+        final boolean success;
+        if (message instanceof SmppOutboundMessageResponse) {
+            success = ((SmppOutboundMessageResponse) message).succeeded();
         } else {
-            result = new SmsSessionResponse(info, false);
+            final int status = ((SipServletResponse) message).getStatus();
+            success = SipServletResponse.SC_ACCEPTED == status || SipServletResponse.SC_OK == status;
         }
+        final SmsSessionResponse result = new SmsSessionResponse(info(), success);
         // Notify the observers.
         final ActorRef self = self();
         for (final ActorRef observer : observers) {
@@ -320,14 +322,14 @@ public final class SmsSession extends RestcommUntypedActor {
         return sendUsingSmpp(from, to, body, null, encoding);
     }
     private boolean sendUsingSmpp(String from, String to, String body, TlvSet tlvSet, Charset encoding) {
-        if ((SmppClientOpsThread.getSmppSession() != null && SmppClientOpsThread.getSmppSession().isBound()) && smppMessageHandler != null) {
+        if (SmppSessionPool.getInstance().isAvailable() && smppMessageHandler != null) {
             if(logger.isInfoEnabled()) {
                 logger.info("SMPP session is available and connected, outbound message will be forwarded to :  " + to );
                 logger.info("Encoding:  " + encoding );
             }
             try {
                 final SmppOutboundMessageEntity sms = new SmppOutboundMessageEntity(to, from, body, encoding, tlvSet);
-                smppMessageHandler.tell(sms, null);
+                smppMessageHandler.tell(sms, self());
             }catch (final Exception exception) {
                 // Log the exception.
                 logger.error("There was an error sending SMS to SMPP endpoint : " + exception);
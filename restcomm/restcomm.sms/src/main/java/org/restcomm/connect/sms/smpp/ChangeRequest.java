@@ -32,13 +32,15 @@ public final class ChangeRequest {
 
     private int type;
     private Smpp smpp;
+    private int bind;
     private long executionTime;
 
     /**
      *
      */
-    public ChangeRequest(Smpp smpp, int type, long executionTime) {
+    public ChangeRequest(Smpp smpp, int bind, int type, long executionTime) {
         this.smpp = smpp;
+        this.bind = bind;
         this.type = type;
         this.executionTime = executionTime;
     }
@@ -57,6 +59,13 @@ public final class ChangeRequest {
         return smpp;
     }
 
+    /**
+     * @return the index of the esme session
+     */
+    protected int getBind() {
+        return bind;
+    }
+
     /**
      * @return the executionTime
      */
@@ -37,15 +37,18 @@ public class Smpp {
 
     private long enquireLinkDelay;
 
+    // number of sessions bound to the same peer, each with its own window
+    private int binds;
+
     // not used as of today, but later we can allow users to stop each SMPP
     private boolean started = true;
 
-    private transient DefaultSmppSession defaultSmppSession = null;
+    private transient DefaultSmppSession[] defaultSmppSessions;
 
     public Smpp(String name, String systemId, String peerIp, int peerPort, SmppBindType smppBindType, String password,
             String systemType, byte interfaceVersion, Address address, long connectTimeout, int windowSize,
             long windowWaitTimeout, long requestExpiryTimeout, long windowMonitorInterval, boolean countersEnabled,
-            boolean logBytes, long enquireLinkDelay) {
+            boolean logBytes, long enquireLinkDelay, int binds) {
         super();
         this.name = name;
         this.systemId = systemId;
@@ -64,6 +67,8 @@ public class Smpp {
         this.countersEnabled = countersEnabled;
         this.logBytes = logBytes;
         this.enquireLinkDelay = enquireLinkDelay;
+        this.binds = binds < 1 ? 1 : binds;
+        this.defaultSmppSessions = new DefaultSmppSession[this.binds];
     }
 
     public String getName() {
@@ -202,6 +207,10 @@ public class Smpp {
         this.enquireLinkDelay = enquireLinkDelay;
     }
 
+    public int getBinds() {
+        return binds;
+    }
+
     public boolean isStarted() {
         return started;
     }
@@ -209,16 +218,21 @@ public class Smpp {
     public void setStarted(boolean started) {
         this.started = started;
         if (this.started == false) {
-            this.defaultSmppSession.close(5000);
+            for (DefaultSmppSession defaultSmppSession : this.defaultSmppSessions) {
+                if (defaultSmppSession != null) {
+                    SmppSessionPool.getInstance().remove(defaultSmppSession);
+                    defaultSmppSession.close(5000);
+                }
+            }
         }
     }
 
-    public DefaultSmppSession getSmppSession() {
-        return defaultSmppSession;
+    public DefaultSmppSession getSmppSession(int bind) {
+        return defaultSmppSessions[bind];
     }
 
-    public void setSmppSession(DefaultSmppSession smppSession) {
-        this.defaultSmppSession = smppSession;
+    public void setSmppSession(int bind, DefaultSmppSession smppSession) {
+        this.defaultSmppSessions[bind] = smppSession;
     }
 
     @Override
@@ -228,7 +242,7 @@ public class Smpp {
                 + ", interfaceVersion=" + interfaceVersion + ", address=" + address + ", connectTimeout=" + connectTimeout
                 + ", windowSize=" + windowSize + ", windowWaitTimeout=" + windowWaitTimeout + ", requestExpiryTimeout="
                 + requestExpiryTimeout + ", windowMonitorInterval=" + windowMonitorInterval + ", countersEnabled="
-                + countersEnabled + ", logBytes=" + logBytes + ", enquireLinkDelay=" + enquireLinkDelay + "]";
+                + countersEnabled + ", logBytes=" + logBytes + ", enquireLinkDelay=" + enquireLinkDelay + ", binds=" + binds + "]";
     }
 
     @Override
@@ -45,6 +45,7 @@ import java.io.IOException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author amit bhayani
@@ -58,11 +59,13 @@ public class SmppClientOpsThread implements Runnable {
     private List<ChangeRequest> pendingChanges = new CopyOnWriteArrayList<ChangeRequest>();
     private Object waitObject = new Object();
     private final DefaultSmppClient clientBootstrap;
-    private static SmppSession getSmppSession;
     protected volatile boolean started = true;
     private static int sipPort;
 
     private final ActorRef smppMessageHandler;
+    // Completed requests of the pool when its throughput was last logged.
+    private long sampleTime = System.nanoTime();
+    private long sampleCompleted;
 
     public SmppClientOpsThread(DefaultSmppClient clientBootstrap, int sipPort, final ActorRef smppMessageHandler) {
         this.clientBootstrap = clientBootstrap;
@@ -80,8 +83,14 @@ public class SmppClientOpsThread implements Runnable {
     }
 
     protected void scheduleConnect(Smpp esme) {
+        for (int bind = 0; bind < esme.getBinds(); bind++) {
+            this.scheduleConnect(esme, bind);
+        }
+    }
+
+    protected void scheduleConnect(Smpp esme, int bind) {
         synchronized (this.pendingChanges) {
-            this.pendingChanges.add(new ChangeRequest(esme,
+            this.pendingChanges.add(new ChangeRequest(esme, bind,
                     ChangeRequest.CONNECT, System.currentTimeMillis()
                     + SCHEDULE_CONNECT_DELAY));
         }
@@ -92,9 +101,9 @@ public class SmppClientOpsThread implements Runnable {
 
     }
 
-    protected void scheduleEnquireLink(Smpp esme) {
+    protected void scheduleEnquireLink(Smpp esme, int bind) {
         synchronized (this.pendingChanges) {
-            this.pendingChanges.add(new ChangeRequest(esme,
+            this.pendingChanges.add(new ChangeRequest(esme, bind,
                     ChangeRequest.ENQUIRE_LINK, System.currentTimeMillis()
                     + esme.getEnquireLinkDelay()));
         }
@@ -127,7 +136,7 @@ public class SmppClientOpsThread implements Runnable {
                                             .currentTimeMillis()) {
                                         pendingChanges.remove(change);
                                         // changes.remove();
-                                        initiateConnection(change.getSmpp());
+                                        initiateConnection(change.getSmpp(), change.getBind());
                                     }
                                 }
                                 break;
@@ -140,7 +149,7 @@ public class SmppClientOpsThread implements Runnable {
                                             .currentTimeMillis()) {
                                         pendingChanges.remove(change);
                                         // changes.remove();
-                                        enquireLink(change.getSmpp());
+                                        enquireLink(change.getSmpp(), change.getBind());
                                     }
                                 }
                                 break;
@@ -152,6 +161,19 @@ public class SmppClientOpsThread implements Runnable {
                     this.waitObject.wait(5000);
                 }
 
+                // Fails the requests that waited too long for a window slot even when no response comes back.
+                SmppSessionPool.getInstance().drain();
+
+                if (logger.isDebugEnabled()) {
+                    SmppSessionPool pool = SmppSessionPool.getInstance();
+                    long now = System.nanoTime();
+                    long completed = pool.getCompleted();
+                    double throughput = now == sampleTime ? 0 : (completed - sampleCompleted) * (double) TimeUnit.SECONDS.toNanos(1) / (now - sampleTime);
+                    sampleTime = now;
+                    sampleCompleted = completed;
+                    logger.debug(pool + " throughput=" + throughput + "/s");
+                }
+
             } catch (InterruptedException e) {
                 logger.error("Error while looping SmppClientOpsThread thread",
                         e);
@@ -163,8 +185,8 @@ public class SmppClientOpsThread implements Runnable {
         }
     }
 
-    private void enquireLink(Smpp esme) {
-        SmppSession smppSession = esme.getSmppSession();
+    private void enquireLink(Smpp esme, int bind) {
+        SmppSession smppSession = esme.getSmppSession(bind);
 
         if (!esme.isStarted()) {
             return;
@@ -176,7 +198,7 @@ public class SmppClientOpsThread implements Runnable {
                         new EnquireLink(), 10000);
 
                 // all ok lets scehdule another ENQUIRE_LINK
-                this.scheduleEnquireLink(esme);
+                this.scheduleEnquireLink(esme, bind);
                 return;
 
             } catch (RecoverablePduException e) {
@@ -187,7 +209,7 @@ public class SmppClientOpsThread implements Runnable {
 
                 // Recoverabel exception is ok
                 // all ok lets schedule another ENQUIRE_LINK
-                this.scheduleEnquireLink(esme);
+                this.scheduleEnquireLink(esme, bind);
                 return;
 
             } catch (Exception e) {
@@ -198,8 +220,8 @@ public class SmppClientOpsThread implements Runnable {
                                 esme.getSystemId()), e);
                 // For all other exceptions lets close session and re-try
                 // connect
-                smppSession.close();
-                this.scheduleConnect(esme);
+                close(smppSession);
+                this.scheduleConnect(esme, bind);
             }
 
         } else {
@@ -210,19 +232,24 @@ public class SmppClientOpsThread implements Runnable {
                                     : smppSession.getStateName())));
 
             if (smppSession != null) {
-                smppSession.close();
+                close(smppSession);
             }
-            this.scheduleConnect(esme);
+            this.scheduleConnect(esme, bind);
         }
     }
 
-    private void initiateConnection(Smpp esme) {
+    private void close(SmppSession smppSession) {
+        SmppSessionPool.getInstance().remove(smppSession);
+        smppSession.close();
+    }
+
+    private void initiateConnection(Smpp esme, int bind) {
         // If Esme is stopped, don't try to initiate connect
         if (!esme.isStarted()) {
             return;
         }
 
-        SmppSession smppSession = esme.getSmppSession();
+        SmppSession smppSession = esme.getSmppSession(bind);
         if ((smppSession != null && smppSession.isBound())
                 || (smppSession != null && smppSession.isBinding())) {
 
@@ -235,7 +262,8 @@ public class SmppClientOpsThread implements Runnable {
 
             SmppSessionConfiguration config0 = new SmppSessionConfiguration();
             config0.setWindowSize(esme.getWindowSize());
-            config0.setName(esme.getSystemId());
+            config0.setWindowWaitTimeout(esme.getWindowWaitTimeout());
+            config0.setName(esme.getBinds() > 1 ? esme.getSystemId() + "-" + bind : esme.getSystemId());
             config0.setType(esme.getSmppBindType());
             config0.setSystemType(esme.getSystemType());
             config0.setHost(esme.getPeerIp());
@@ -256,28 +284,27 @@ public class SmppClientOpsThread implements Runnable {
             config0.setAddressRange(address);
 
             SmppSessionHandler sessionHandler = new ClientSmppSessionHandler(
-                    esme);
+                    esme, bind);
 
             session0 = clientBootstrap.bind(config0, sessionHandler);
 
-
-            //getting session to be used to process SMS received from Restcomm
-            getSmppSession = session0;
-
             // Set in ESME
-            esme.setSmppSession((DefaultSmppSession) session0);
+            esme.setSmppSession(bind, (DefaultSmppSession) session0);
+
+            //making the session available to send SMS received from Restcomm
+            SmppSessionPool.getInstance().add(session0);
 
             // Finally set Enquire Link schedule
-            this.scheduleEnquireLink(esme);
+            this.scheduleEnquireLink(esme, bind);
         } catch (Exception e) {
             logger.error(
                     String.format(
                             "Exception when trying to bind client SMPP connection for ESME systemId=%s",
                             esme.getSystemId()), e);
             if (session0 != null) {
-                session0.close();
+                close(session0);
             }
-            this.scheduleConnect(esme);
+            this.scheduleConnect(esme, bind);
         }
     }
 
@@ -287,13 +314,16 @@ public class SmppClientOpsThread implements Runnable {
 
         //private final Smpp esme ;
         private Smpp esme = null;
+        private final int bind;
 
         /**
          * @param esme
+         * @param bind the index of the esme session handled
          */
-        public ClientSmppSessionHandler(Smpp esme) {
+        public ClientSmppSessionHandler(Smpp esme, int bind) {
             super();
             this.esme = esme;
+            this.bind = bind;
         }
 
         @Override
@@ -313,28 +343,28 @@ public class SmppClientOpsThread implements Runnable {
             logger.error("ChannelUnexpectedlyClosed for Smpp "
                     + this.esme.getName()
                     + " Closing Smpp session and restrting BIND process again");
-            this.esme.getSmppSession().close();
+            close(this.esme.getSmppSession(this.bind));
 
             // Schedule the connection again
-            scheduleConnect(this.esme);
+            scheduleConnect(this.esme, this.bind);
         }
 
         @Override
         public void fireExpectedPduResponseReceived(
                 PduAsyncResponse pduAsyncResponse) {
-            // TODO : SMPP Response received. Does RestComm need confirmation
-            // for this?
-            logger.warn("ExpectedPduResponseReceived received for Smpp "
-                    + this.esme.getName() + " PduAsyncResponse="
-                    + pduAsyncResponse);
+            if (logger.isDebugEnabled()) {
+                logger.debug("ExpectedPduResponseReceived received for Smpp "
+                        + this.esme.getName() + " PduAsyncResponse="
+                        + pduAsyncResponse);
+            }
+            SmppSessionPool.getInstance().responseReceived(pduAsyncResponse);
         }
 
         @Override
         public void firePduRequestExpired(PduRequest pduRequest) {
-            // TODO : SMPP request Expired. RestComm needs to notify Application
-            // about SMS failure
             logger.warn("PduRequestExpired for Smpp " + this.esme.getName()
                     + " PduRequest=" + pduRequest);
+            SmppSessionPool.getInstance().requestExpired(pduRequest);
         }
 
         @Override
@@ -394,10 +424,10 @@ public class SmppClientOpsThread implements Runnable {
                     e);
             // TODO is this ok?
 
-            this.esme.getSmppSession().close();
+            close(this.esme.getSmppSession(this.bind));
 
             // Schedule the connection again
-            scheduleConnect(this.esme);
+            scheduleConnect(this.esme, this.bind);
 
         }
 
@@ -409,20 +439,19 @@ public class SmppClientOpsThread implements Runnable {
                             + " Closing Smpp session and restrting BIND process again",
                     e);
 
-            this.esme.getSmppSession().close();
+            close(this.esme.getSmppSession(this.bind));
 
             // Schedule the connection again
-            scheduleConnect(this.esme);
+            scheduleConnect(this.esme, this.bind);
         }
     }
 
     //smpp session to be used for sending SMS from Restcomm to smpp endpoint
     public static SmppSession getSmppSession() {
-        return getSmppSession;
+        return SmppSessionPool.getInstance().select();
     }
 
     public void sendSmppMessageToRestcomm(String smppMessage, String smppTo, String smppFrom, Charset charset) throws IOException, ServletException {
-        SmppSession smppSession = SmppClientOpsThread.getSmppSession();
         String to = smppTo;
         String from = smppFrom;
         String inboundMessage = smppMessage;
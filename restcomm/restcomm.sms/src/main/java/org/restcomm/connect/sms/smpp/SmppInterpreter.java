@@ -46,6 +46,7 @@ import org.restcomm.connect.interpreter.rcml.Attribute;
 import org.restcomm.connect.interpreter.rcml.GetNextVerb;
 import org.restcomm.connect.interpreter.rcml.Parser;
 import org.restcomm.connect.interpreter.rcml.Tag;
+import org.restcomm.connect.interpreter.rcml.TagParser;
 import org.restcomm.connect.sms.api.CreateSmsSession;
 import org.restcomm.connect.sms.api.DestroySmsSession;
 import org.restcomm.connect.sms.api.GetLastSmsRequest;
@@ -215,7 +216,7 @@ public class SmppInterpreter extends RestcommUntypedActor {
             private static final long serialVersionUID = 1L;
             @Override
             public UntypedActor create() throws Exception {
-                return new Downloader();
+                return new Downloader(new TagParser());
             }
         });
         return getContext().actorOf(props);
@@ -414,18 +415,6 @@ public class SmppInterpreter extends RestcommUntypedActor {
         return parameters;
     }
 
-    private ActorRef parser(final String xml) {
-        final Props props = new Props(new UntypedActorFactory() {
-            private static final long serialVersionUID = 1L;
-
-            @Override
-            public UntypedActor create() throws Exception {
-                return new Parser(xml, self());
-            }
-        });
-        return getContext().actorOf(props);
-    }
-
     private void response(final Object message) {
         final Class<?> klass = message.getClass();
         final ActorRef self = self();
@@ -591,7 +580,7 @@ public class SmppInterpreter extends RestcommUntypedActor {
                     final String type = response.getContentType();
                     final String content = response.getContentAsString();
                     if ((type != null && content != null) && (type.contains("text/xml") || type.contains("application/xml") || type.contains("text/html"))) {
-                        parser = parser(content);
+                        parser = getContext().actorOf(Parser.props(response, self()));
                     } else {
                         if(logger.isInfoEnabled()) {
                             logger.info("DownloaderResponse getContentType is null: "+response);
@@ -2,6 +2,7 @@ package org.restcomm.connect.sms.smpp;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 
@@ -40,14 +41,13 @@ import org.restcomm.connect.sms.api.SmsServiceResponse;
 import org.restcomm.smpp.parameter.TlvSet;
 
 import com.cloudhopper.commons.charset.CharsetUtil;
+import com.cloudhopper.smpp.SmppConstants;
+import com.cloudhopper.smpp.pdu.PduResponse;
 import com.cloudhopper.smpp.pdu.SubmitSm;
 import com.cloudhopper.smpp.tlv.Tlv;
 import com.cloudhopper.smpp.type.Address;
-import com.cloudhopper.smpp.type.RecoverablePduException;
-import com.cloudhopper.smpp.type.SmppChannelException;
 import com.cloudhopper.smpp.type.SmppInvalidArgumentException;
-import com.cloudhopper.smpp.type.SmppTimeoutException;
-import com.cloudhopper.smpp.type.UnrecoverablePduException;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.i18n.phonenumbers.PhoneNumberUtil;
 
 import akka.actor.ActorRef;
@@ -100,7 +100,7 @@ public class SmppMessageHandler extends RestcommUntypedActor {
             if(logger.isInfoEnabled()) {
                 logger.info("SmppMessageHandler processing Outbound Message " + message.toString());
             }
-            outbound((SmppOutboundMessageEntity) message);
+            outbound((SmppOutboundMessageEntity) message, sender);
         } else if (message instanceof CreateSmsSession) {
             IExtensionCreateSmsSessionRequest ier = (CreateSmsSession)message;
             ier.setConfiguration(this.configuration);
@@ -149,24 +149,10 @@ public class SmppMessageHandler extends RestcommUntypedActor {
         try {
             phone = phoneNumberUtil.format(phoneNumberUtil.parse(to, "US"), PhoneNumberUtil.PhoneNumberFormat.E164);
         } catch (Exception e) {}
-        // Try to find an application defined for the phone number.
+        // Try to find an application defined for the phone number, falls back to the wildcard as default application.
         final IncomingPhoneNumbersDao numbersDao = storage.getIncomingPhoneNumbersDao();
-        List<IncomingPhoneNumber> numbers = numbersDao.getIncomingPhoneNumber(phone);
-        IncomingPhoneNumber number = null;
-        if(!numbers.isEmpty()){
-            number = numbers.get(0);
-        }
-
-        if(number == null){
-            numbers = numbersDao.getIncomingPhoneNumber(to);
-            number = numbers.isEmpty() ? null : numbers.get(0);
-        }
-
-        if(number == null){
-            // https://github.com/Mobicents/RestComm/issues/84 using wildcard as default application
-            numbers = numbersDao.getIncomingPhoneNumber("*");
-            number = numbers.isEmpty() ? null : numbers.get(0);
-        }
+        final List<IncomingPhoneNumber> numbers = numbersDao.getIncomingPhoneNumbersByValues(Arrays.asList(phone, to));
+        final IncomingPhoneNumber number = numbers.isEmpty() ? null : numbers.get(0);
         try {
             if (number != null) {
                 ActorRef interpreter = null;
@@ -244,7 +230,7 @@ public class SmppMessageHandler extends RestcommUntypedActor {
         return getContext().actorOf(props);
     }
 
-    public void outbound(SmppOutboundMessageEntity request) throws SmppInvalidArgumentException, IOException {
+    public void outbound(SmppOutboundMessageEntity request, final ActorRef sender) throws SmppInvalidArgumentException, IOException {
 //        if(logger.isInfoEnabled()) {
 //            logger.info("Message is Received by the SmppSessionOutbound Class");
 //        }
@@ -277,15 +263,32 @@ public class SmppMessageHandler extends RestcommUntypedActor {
                 logger.info("TlvSet is null");
             }
         }
-        try {
-            if(logger.isInfoEnabled()) {
-                logger.info("Sending SubmitSM for " + request);
+        if(logger.isInfoEnabled()) {
+            logger.info("Sending SubmitSM for " + request);
+        }
+        //send message through SMPP connector, queued without blocking while every session window is full
+        final ActorRef self = self();
+        SmppSessionPool.getInstance().submit(submit0, new FutureCallback<PduResponse>() {
+            @Override
+            public void onSuccess(PduResponse response) {
+                final boolean success = response.getCommandStatus() == SmppConstants.STATUS_OK;
+                if (!success) {
+                    logger.error("SMPP message rejected by SMSC : " + response);
+                }
+                reply(sender, new SmppOutboundMessageResponse(success, response.getResultMessage()), self);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                logger.error("SMPP message cannot be sent : " + t);
+                reply(sender, new SmppOutboundMessageResponse(false, t.getMessage()), self);
             }
-            SmppClientOpsThread.getSmppSession().submit(submit0, 10000); //send message through SMPP connector
-        } catch (RecoverablePduException | UnrecoverablePduException
-                | SmppTimeoutException | SmppChannelException
-                | InterruptedException e) {
-            logger.error("SMPP message cannot be sent : " + e );
+        });
+    }
+
+    private void reply(final ActorRef sender, final SmppOutboundMessageResponse response, final ActorRef self) {
+        if (sender != null && !sender.isTerminated()) {
+            sender.tell(response, self);
         }
     }
 }
@@ -0,0 +1,50 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.sms.smpp;
+
+import org.restcomm.connect.commons.annotations.concurrency.Immutable;
+
+/**
+ * Tells the sender of a {@link SmppOutboundMessageEntity} whether the SMSC accepted the message.
+ */
+@Immutable
+public final class SmppOutboundMessageResponse {
+    private final boolean success;
+    private final String reason;
+
+    public SmppOutboundMessageResponse(final boolean success, final String reason) {
+        super();
+        this.success = success;
+        this.reason = reason;
+    }
+
+    public boolean succeeded() {
+        return success;
+    }
+
+    public String reason() {
+        return reason;
+    }
+
+    @Override
+    public String toString() {
+        return "SmppOutboundMessageResponse[success=" + success + ",reason=" + reason + "]";
+    }
+}
@@ -160,9 +160,11 @@ public final class SmppService extends RestcommUntypedActor {
 
             long enquireLinkDelay = smppConfiguration.getLong("connections.connection(" + count + ").enquirelinkdelay");
 
+            int binds = smppConfiguration.getInt("connections.connection(" + count + ").binds", 1);
+
             Smpp smpp = new Smpp(name, systemId, peerIp, peerPort, bindtype, password, systemType, interfaceVersion, address,
                     connectTimeout, windowSize, windowWaitTimeout, requestExpiryTimeout, windowMonitorInterval,
-                    countersEnabled, logBytes, enquireLinkDelay);
+                    countersEnabled, logBytes, enquireLinkDelay, binds);
 
             this.smppList.add(smpp);
 
@@ -206,9 +208,13 @@ public final class SmppService extends RestcommUntypedActor {
         // threads it will ever use, despite the "max pool size", etc. set on
         // the executor passed in here
 
-        // Setting expected session to be 25. May be this should be
-        // configurable?
-        this.clientBootstrap = new DefaultSmppClient(this.executor, 25, monitorExecutor);
+        // Setting expected session to be at least 25, or the total number of
+        // binds when more sessions are configured
+        int expectedSessions = 0;
+        for (Smpp smpp : this.smppList) {
+            expectedSessions += smpp.getBinds();
+        }
+        this.clientBootstrap = new DefaultSmppClient(this.executor, Math.max(25, expectedSessions), monitorExecutor);
 
         this.smppClientOpsThread = new SmppClientOpsThread(this.clientBootstrap, outboundInterface("udp").getPort(), smppMessageHandler);
 
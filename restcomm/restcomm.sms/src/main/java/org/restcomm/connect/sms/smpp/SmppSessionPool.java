@@ -0,0 +1,411 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.sms.smpp;
+
+import com.cloudhopper.commons.util.windowing.WindowFuture;
+import com.cloudhopper.smpp.PduAsyncResponse;
+import com.cloudhopper.smpp.SmppSession;
+import com.cloudhopper.smpp.pdu.PduRequest;
+import com.cloudhopper.smpp.pdu.PduResponse;
+import com.cloudhopper.smpp.type.RecoverablePduException;
+import com.cloudhopper.smpp.type.SmppChannelException;
+import com.cloudhopper.smpp.type.SmppTimeoutException;
+import com.cloudhopper.smpp.type.UnrecoverablePduException;
+import com.google.common.util.concurrent.FutureCallback;
+import org.apache.log4j.Logger;
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+import org.restcomm.connect.commons.metrics.Gauge;
+import org.restcomm.connect.commons.metrics.Histogram;
+import org.restcomm.connect.commons.metrics.MetricsRegistry;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The bound SMPP sessions of every ESME, used as a single outbound pipeline.
+ * <p>
+ * Requests are sent with {@link SmppSession#sendRequestPdu(PduRequest, long, boolean)} so up to
+ * {@code windowsize} of them can be outstanding on each bind. The least loaded bound session is
+ * picked for each request, starting the scan at a rotating offset so that idle sessions are used
+ * round-robin. When every window is full the request waits in a bounded backlog and is sent as soon
+ * as a response or an expiry frees a slot, so the {@link SmppMessageHandler} actor that submits it
+ * never blocks. A request fails only if the backlog is full or it waited longer than the
+ * {@code windowwaittimeout} of the sessions.
+ */
+@ThreadSafe
+public final class SmppSessionPool {
+    private static final Logger logger = Logger.getLogger(SmppSessionPool.class);
+    // Requests waiting for a window slot, beyond which new ones are rejected.
+    static final int MAX_BACKLOG = 10000;
+    private static final SmppSessionPool instance = new SmppSessionPool(MAX_BACKLOG);
+    private static final Histogram submitLatency = MetricsRegistry.getInstance().histogram("restcomm_smpp_submit_seconds",
+            "Time between sending an SMPP request and receiving its response.", Histogram.LATENCY_SECONDS);
+
+    static {
+        final MetricsRegistry registry = MetricsRegistry.getInstance();
+        final String name = "restcomm_smpp_requests_total";
+        final String help = "SMPP requests sent through the pool, by outcome.";
+        registry.counter(name, help, "result", "submitted", new Gauge() {
+            @Override
+            public double get() {
+                return instance.getSubmitted();
+            }
+        });
+        registry.counter(name, help, "result", "completed", new Gauge() {
+            @Override
+            public double get() {
+                return instance.getCompleted();
+            }
+        });
+        registry.counter(name, help, "result", "failed", new Gauge() {
+            @Override
+            public double get() {
+                return instance.getFailed();
+            }
+        });
+        registry.counter(name, help, "result", "expired", new Gauge() {
+            @Override
+            public double get() {
+                return instance.getExpired();
+            }
+        });
+        registry.counter(name, help, "result", "rejected", new Gauge() {
+            @Override
+            public double get() {
+                return instance.getRejected();
+            }
+        });
+        registry.gauge("restcomm_smpp_backlog", "Requests waiting for a free window slot.", new Gauge() {
+            @Override
+            public double get() {
+                return instance.getBacklog();
+            }
+        });
+        registry.gauge("restcomm_smpp_window_fill", "Outstanding requests over the window size of the bound sessions.",
+                new Gauge() {
+                    @Override
+                    public double get() {
+                        return instance.getWindowFill();
+                    }
+                });
+    }
+
+    private final List<SmppSession> sessions;
+    private final AtomicInteger next;
+    // Guarded by itself, in the order the requests were submitted.
+    private final Queue<Pending> backlog;
+    private final int maxBacklog;
+
+    private final AtomicLong submitted;
+    private final AtomicLong completed;
+    private final AtomicLong failed;
+    private final AtomicLong expired;
+    private final AtomicLong rejected;
+    private final AtomicLong latency;
+
+    SmppSessionPool(final int maxBacklog) {
+        super();
+        this.sessions = new CopyOnWriteArrayList<SmppSession>();
+        this.next = new AtomicInteger();
+        this.backlog = new ArrayDeque<Pending>();
+        this.maxBacklog = maxBacklog;
+        this.submitted = new AtomicLong();
+        this.completed = new AtomicLong();
+        this.failed = new AtomicLong();
+        this.expired = new AtomicLong();
+        this.rejected = new AtomicLong();
+        this.latency = new AtomicLong();
+    }
+
+    public static SmppSessionPool getInstance() {
+        return instance;
+    }
+
+    void add(final SmppSession session) {
+        sessions.add(session);
+        drain();
+    }
+
+    /**
+     * Removes a session that is about to be closed and fails the requests still waiting in its window.
+     */
+    void remove(final SmppSession session) {
+        if (sessions.remove(session)) {
+            final Exception closed = new SmppChannelException("SMPP session " + session.getConfiguration().getName() + " closed");
+            for (final WindowFuture<Integer, PduRequest, PduResponse> future : session.getSendWindow().createSortedSnapshot().values()) {
+                final Object reference = future.getRequest().getReferenceObject();
+                if (reference instanceof Pending && ((Pending) reference).fail(closed)) {
+                    failed.incrementAndGet();
+                }
+            }
+            // The waiting requests go to the sessions left, or fail if there is none.
+            drain();
+        }
+    }
+
+    /**
+     * @return true if at least one session is bound.
+     */
+    public boolean isAvailable() {
+        for (final SmppSession session : sessions) {
+            if (session.isBound()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the bound session with the fewest outstanding requests or null if none is bound.
+     */
+    public SmppSession select() {
+        final Object[] snapshot = sessions.toArray();
+        final int size = snapshot.length;
+        if (size == 0) {
+            return null;
+        }
+        final int offset = (next.getAndIncrement() & Integer.MAX_VALUE) % size;
+        SmppSession result = null;
+        int outstanding = Integer.MAX_VALUE;
+        for (int count = 0; count < size; count++) {
+            final SmppSession session = (SmppSession) snapshot[(offset + count) % size];
+            if (session.isBound()) {
+                final int pending = session.getSendWindow().getSize();
+                if (pending < outstanding) {
+                    result = session;
+                    outstanding = pending;
+                    if (pending == 0) {
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Sends a request without waiting for a window slot or for its response. If every window is full
+     * the request is kept in the backlog and sent when a slot frees up. The callback is completed with
+     * the response from the SMSC, or fails if no session is bound, the backlog is full, the request
+     * waits too long for a slot or expires, or the channel fails.
+     */
+    public void submit(final PduRequest request, final FutureCallback<PduResponse> callback) {
+        final SmppSession session = select();
+        if (session == null) {
+            callback.onFailure(new SmppChannelException("No SMPP session is bound"));
+            return;
+        }
+        final Pending pending = new Pending(request, callback,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(session.getConfiguration().getWindowWaitTimeout()));
+        request.setReferenceObject(pending);
+        submitted.incrementAndGet();
+        synchronized (backlog) {
+            // Earlier requests still waiting go first.
+            if (backlog.isEmpty() && send(pending)) {
+                return;
+            }
+            if (backlog.size() >= maxBacklog) {
+                if (pending.fail(new SmppTimeoutException("SMPP windows full and " + maxBacklog + " requests waiting"))) {
+                    rejected.incrementAndGet();
+                }
+                return;
+            }
+            backlog.add(pending);
+        }
+    }
+
+    /**
+     * Sends the waiting requests while there are free window slots and fails those that waited past
+     * their deadline. Called whenever a slot may have been freed and periodically by the
+     * {@link SmppClientOpsThread}.
+     */
+    void drain() {
+        synchronized (backlog) {
+            final long now = System.nanoTime();
+            Pending pending;
+            while ((pending = backlog.peek()) != null) {
+                if (now - pending.deadline > 0) {
+                    backlog.poll();
+                    if (pending.fail(new SmppTimeoutException("No SMPP window slot freed up in time for " + pending.request))) {
+                        rejected.incrementAndGet();
+                    }
+                } else if (send(pending)) {
+                    backlog.poll();
+                } else {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return false if every window is full, true if the request was sent or failed.
+     */
+    private boolean send(final Pending pending) {
+        final SmppSession session = select();
+        if (session == null) {
+            if (pending.fail(new SmppChannelException("No SMPP session is bound"))) {
+                failed.incrementAndGet();
+            }
+            return true;
+        }
+        pending.sent = System.nanoTime();
+        try {
+            session.sendRequestPdu(pending.request, 0, false);
+            return true;
+        } catch (final SmppTimeoutException exception) {
+            return false;
+        } catch (final RecoverablePduException | UnrecoverablePduException | SmppChannelException exception) {
+            if (pending.fail(exception)) {
+                failed.incrementAndGet();
+            }
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            if (pending.fail(exception)) {
+                failed.incrementAndGet();
+            }
+        }
+        return true;
+    }
+
+    void responseReceived(final PduAsyncResponse response) {
+        final Object reference = response.getRequest().getReferenceObject();
+        if (reference instanceof Pending) {
+            final Pending pending = (Pending) reference;
+            if (pending.succeed(response.getResponse())) {
+                final long elapsed = System.nanoTime() - pending.sent;
+                latency.addAndGet(elapsed);
+                submitLatency.observe(elapsed, TimeUnit.NANOSECONDS);
+                completed.incrementAndGet();
+            }
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("Response received for a request not sent through the pool " + response);
+        }
+        drain();
+    }
+
+    void requestExpired(final PduRequest request) {
+        final Object reference = request.getReferenceObject();
+        if (reference instanceof Pending && ((Pending) reference).fail(new SmppTimeoutException("Request expired " + request))) {
+            expired.incrementAndGet();
+        }
+        drain();
+    }
+
+    /**
+     * @return the number of requests waiting for a window slot.
+     */
+    public int getBacklog() {
+        synchronized (backlog) {
+            return backlog.size();
+        }
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getExpired() {
+        return expired.get();
+    }
+
+    /**
+     * @return the number of requests that found the backlog full or waited too long for a window slot.
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * @return the mean time between sending a request and receiving its response, in milliseconds.
+     */
+    public double getAverageLatency() {
+        final long count = completed.get();
+        return count == 0 ? 0 : (double) TimeUnit.NANOSECONDS.toMicros(latency.get()) / count / 1000;
+    }
+
+    /**
+     * @return the outstanding requests of the bound sessions over their combined window size.
+     */
+    public double getWindowFill() {
+        int outstanding = 0;
+        int capacity = 0;
+        for (final SmppSession session : sessions) {
+            if (session.isBound()) {
+                outstanding += session.getSendWindow().getSize();
+                capacity += session.getSendWindow().getMaxSize();
+            }
+        }
+        return capacity == 0 ? 0 : (double) outstanding / capacity;
+    }
+
+    @Override
+    public String toString() {
+        return "SmppSessionPool [sessions=" + sessions.size() + ", submitted=" + submitted + ", completed=" + completed
+                + ", failed=" + failed + ", expired=" + expired + ", rejected=" + rejected + ", backlog=" + getBacklog() + ", windowFill="
+                + getWindowFill() + ", averageLatency=" + getAverageLatency() + "]";
+    }
+
+    private static final class Pending {
+        private final PduRequest request;
+        private final FutureCallback<PduResponse> callback;
+        // The latest time the request may still be sent, in System.nanoTime().
+        private final long deadline;
+        private volatile long sent;
+        private final AtomicBoolean done;
+
+        private Pending(final PduRequest request, final FutureCallback<PduResponse> callback, final long deadline) {
+            this.request = request;
+            this.callback = callback;
+            this.deadline = deadline;
+            this.done = new AtomicBoolean();
+        }
+
+        private boolean succeed(final PduResponse response) {
+            if (done.compareAndSet(false, true)) {
+                callback.onSuccess(response);
+                return true;
+            }
+            return false;
+        }
+
+        private boolean fail(final Throwable cause) {
+            if (done.compareAndSet(false, true)) {
+                callback.onFailure(cause);
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package org.restcomm.connect.sms.smpp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.cloudhopper.commons.util.windowing.OfferTimeoutException;
+import com.cloudhopper.commons.util.windowing.Window;
+import com.cloudhopper.smpp.PduAsyncResponse;
+import com.cloudhopper.smpp.SmppSession;
+import com.cloudhopper.smpp.SmppSessionConfiguration;
+import com.cloudhopper.smpp.pdu.PduRequest;
+import com.cloudhopper.smpp.pdu.PduResponse;
+import com.cloudhopper.smpp.pdu.SubmitSm;
+import com.cloudhopper.smpp.type.SmppTimeoutException;
+import com.google.common.util.concurrent.FutureCallback;
+
+public class SmppSessionPoolTest {
+    private SmppSessionPool pool;
+    private int sequence;
+    private List<Long> windowWaits;
+
+    @Before
+    public void before() {
+        pool = new SmppSessionPool(SmppSessionPool.MAX_BACKLOG);
+        sequence = 0;
+        windowWaits = new ArrayList<Long>();
+    }
+
+    @Test
+    public void idleSessionsAreUsedRoundRobin() throws Exception {
+        final SmppSession first = session("first", 2, 60000);
+        final SmppSession second = session("second", 2, 60000);
+        pool.add(first);
+        pool.add(second);
+        final SmppSession selected = pool.select();
+        assertNotSame(selected, pool.select());
+        assertSame(selected, pool.select());
+        // A busy session is skipped while another one is idle.
+        pool.submit(request(), new Callback());
+        final SmppSession busy = first.getSendWindow().getSize() == 1 ? first : second;
+        for (int count = 0; count < 4; count++) {
+            assertNotSame(busy, pool.select());
+        }
+    }
+
+    @Test
+    public void requestsWaitForAFreeSlotWithoutBlocking() throws Exception {
+        final SmppSession first = session("first", 2, 60000);
+        final SmppSession second = session("second", 2, 60000);
+        pool.add(first);
+        pool.add(second);
+        final List<Callback> callbacks = new ArrayList<Callback>();
+        for (int count = 0; count < 10; count++) {
+            final Callback callback = new Callback();
+            callbacks.add(callback);
+            pool.submit(request(), callback);
+        }
+        assertEquals(6, pool.getBacklog());
+        // Every response frees a slot for the next waiting request, until all are delivered.
+        boolean answered = true;
+        while (answered) {
+            answered = answerOne(first) | answerOne(second);
+        }
+        for (final Callback callback : callbacks) {
+            assertNull(callback.failure);
+            assertTrue(callback.response != null);
+        }
+        assertEquals(10, pool.getCompleted());
+        assertEquals(0, pool.getRejected());
+        assertEquals(0, pool.getBacklog());
+        for (final Long wait : windowWaits) {
+            assertEquals(0L, wait.longValue());
+        }
+    }
+
+    @Test
+    public void requestsAreRejectedWhenTheBacklogIsFull() throws Exception {
+        pool = new SmppSessionPool(1);
+        pool.add(session("full", 1, 60000));
+        final Callback sent = new Callback();
+        pool.submit(request(), sent);
+        final Callback waiting = new Callback();
+        pool.submit(request(), waiting);
+        final Callback rejected = new Callback();
+        pool.submit(request(), rejected);
+        assertNull(sent.failure);
+        assertNull(waiting.failure);
+        assertTrue(rejected.failure instanceof SmppTimeoutException);
+        assertEquals(1, pool.getRejected());
+        assertEquals(1, pool.getBacklog());
+    }
+
+    @Test
+    public void requestsFailWhenTheyWaitPastTheWindowWaitTimeout() throws Exception {
+        pool.add(session("slow", 1, 0));
+        pool.submit(request(), new Callback());
+        final Callback waiting = new Callback();
+        pool.submit(request(), waiting);
+        Thread.sleep(5);
+        pool.drain();
+        assertTrue(waiting.failure instanceof SmppTimeoutException);
+        assertEquals(1, pool.getRejected());
+        assertEquals(0, pool.getBacklog());
+    }
+
+    @Test
+    public void requestsFailWhenNoSessionIsBound() throws Exception {
+        final Callback callback = new Callback();
+        pool.submit(request(), callback);
+        assertTrue(callback.failure != null);
+        assertEquals(0, pool.getSubmitted());
+    }
+
+    @Test
+    public void expiredRequestsFailOnce() throws Exception {
+        pool.add(session("expiring", 1, 60000));
+        final PduRequest request = request();
+        final Callback callback = new Callback();
+        pool.submit(request, callback);
+        pool.requestExpired(request);
+        assertTrue(callback.failure instanceof SmppTimeoutException);
+        assertEquals(1, pool.getExpired());
+        // A late response does not complete the request again.
+        pool.responseReceived(response(request, request.createResponse()));
+        assertNull(callback.response);
+        assertEquals(0, pool.getCompleted());
+    }
+
+    @Test
+    public void responsesCompleteTheirRequest() throws Exception {
+        pool.add(session("answering", 1, 60000));
+        final PduRequest request = request();
+        final Callback callback = new Callback();
+        pool.submit(request, callback);
+        final PduResponse answer = request.createResponse();
+        pool.responseReceived(response(request, answer));
+        assertSame(answer, callback.response);
+        assertEquals(1, pool.getCompleted());
+    }
+
+    private PduRequest request() {
+        final SubmitSm request = new SubmitSm();
+        request.setSequenceNumber(++sequence);
+        return request;
+    }
+
+    /**
+     * Answers the oldest request in the window of the session, as the SMSC would.
+     *
+     * @return false if the window was empty.
+     */
+    private boolean answerOne(final SmppSession session) throws Exception {
+        final Window<Integer, PduRequest, PduResponse> window = session.getSendWindow();
+        if (window.getSize() == 0) {
+            return false;
+        }
+        final PduRequest request = window.createSortedSnapshot().values().iterator().next().getRequest();
+        final PduResponse answer = request.createResponse();
+        window.complete(request.getSequenceNumber(), answer);
+        pool.responseReceived(response(request, answer));
+        return true;
+    }
+
+    /**
+     * A bound session whose requests stay in its send window until the test removes them.
+     */
+    private SmppSession session(final String name, final int windowSize, final long windowWaitTimeout) {
+        final Window<Integer, PduRequest, PduResponse> window = new Window<Integer, PduRequest, PduResponse>(windowSize);
+        final SmppSessionConfiguration configuration = new SmppSessionConfiguration();
+        configuration.setName(name);
+        configuration.setWindowWaitTimeout(windowWaitTimeout);
+        return (SmppSession) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { SmppSession.class },
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] arguments) throws Throwable {
+                        final String operation = method.getName();
+                        if ("isBound".equals(operation)) {
+                            return true;
+                        } else if ("getSendWindow".equals(operation)) {
+                            return window;
+                        } else if ("getConfiguration".equals(operation)) {
+                            return configuration;
+                        } else if ("sendRequestPdu".equals(operation)) {
+                            final PduRequest request = (PduRequest) arguments[0];
+                            final long timeout = (Long) arguments[1];
+                            windowWaits.add(timeout);
+                            try {
+                                return window.offer(request.getSequenceNumber(), request, timeout);
+                            } catch (final OfferTimeoutException exception) {
+                                throw new SmppTimeoutException(exception.getMessage(), exception);
+                            }
+                        } else if ("hashCode".equals(operation)) {
+                            return System.identityHashCode(proxy);
+                        } else if ("equals".equals(operation)) {
+                            return proxy == arguments[0];
+                        } else if ("toString".equals(operation)) {
+                            return name;
+                        }
+                        throw new UnsupportedOperationException(operation);
+                    }
+                });
+    }
+
+    private static PduAsyncResponse response(final PduRequest request, final PduResponse response) {
+        return (PduAsyncResponse) Proxy.newProxyInstance(SmppSessionPoolTest.class.getClassLoader(),
+                new Class<?>[] { PduAsyncResponse.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method, final Object[] arguments) {
+                        if ("getRequest".equals(method.getName())) {
+                            return request;
+                        } else if ("getResponse".equals(method.getName())) {
+                            return response;
+                        }
+                        return null;
+                    }
+                });
+    }
+
+    private static final class Callback implements FutureCallback<PduResponse> {
+        private PduResponse response;
+        private Throwable failure;
+
+        @Override
+        public void onSuccess(final PduResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void onFailure(final Throwable failure) {
+            this.failure = failure;
+        }
+    }
+}
@@ -20,12 +20,11 @@
 package org.restcomm.connect.telephony.api.util;
 
 import static javax.servlet.sip.SipServletResponse.SC_PROXY_AUTHENTICATION_REQUIRED;
-import static org.restcomm.connect.commons.util.HexadecimalUtils.toHex;
 
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.sip.SipServletRequest;
 import javax.servlet.sip.SipServletResponse;
@@ -36,6 +35,7 @@ import org.restcomm.connect.dao.DaoManager;
 import org.restcomm.connect.dao.entities.Client;
 import org.restcomm.connect.commons.dao.Sid;
 import org.restcomm.connect.commons.util.DigestAuthentication;
+import org.restcomm.connect.commons.util.DigestNonceCache;
 
 /**
  *
@@ -46,8 +46,18 @@ import org.restcomm.connect.commons.util.DigestAuthentication;
  *
  */
 public class CallControlHelper {
+    // Clients may keep answering challenges with a nonce for this long before they are asked to pick up a new one.
+    private static final long NONCE_LIFETIME_MINUTES = 5;
+    private static final long NONCE_CACHE_SIZE = 50000;
 
-    static boolean permitted(final String authorization, final String method, DaoManager daoManager, final Sid organizationSid) {
+    private static final DigestNonceCache nonces = new DigestNonceCache(NONCE_CACHE_SIZE, NONCE_LIFETIME_MINUTES,
+            TimeUnit.MINUTES);
+
+    enum Verdict {
+        PERMITTED, STALE, DENIED
+    }
+
+    static Verdict permitted(final String authorization, final String method, DaoManager daoManager, final Sid organizationSid) {
         final Map<String, String> map = authHeaderToMap(authorization);
         final String user = map.get("username");
         final String algorithm = map.get("algorithm");
@@ -58,16 +68,34 @@ public class CallControlHelper {
         final String cnonce = map.get("cnonce");
         final String qop = map.get("qop");
         final String response = map.get("response");
-        final ClientsDao clients = daoManager.getClientsDao();
-        final Client client = clients.getClient(user, organizationSid);
-        if (client != null && Client.ENABLED == client.getStatus()) {
-            final String password = client.getPassword();
-            final String result = DigestAuthentication.response(algorithm, user, realm, password, nonce, nc, cnonce, method,
-                    uri, null, qop);
-            return result.equals(response);
-        } else {
-            return false;
+        if (user == null || realm == null || uri == null || nonce == null || response == null) {
+            return Verdict.DENIED;
         }
+        final DigestNonceCache.Nonce state = nonces.get(nonce);
+        // The HA1 is remembered with the nonce it was first verified with, so a client reusing its nonce
+        // costs neither a lookup nor a hash. Password changes are picked up once the nonce expires.
+        final String key = user + "@" + realm + "/" + organizationSid;
+        String ha1 = state == null ? null : state.getHA1(key);
+        if (ha1 == null) {
+            final ClientsDao clients = daoManager.getClientsDao();
+            final Client client = clients.getClient(user, organizationSid);
+            if (client == null || Client.ENABLED != client.getStatus()) {
+                return Verdict.DENIED;
+            }
+            ha1 = DigestAuthentication.HA1(user, realm, client.getPassword());
+        }
+        final String result = DigestAuthentication.response(ha1, algorithm, nonce, nc, cnonce, method, uri, null, qop);
+        if (!result.equals(response)) {
+            return Verdict.DENIED;
+        } else if (state == null) {
+            // Right credentials but a nonce that expired or was not issued by us.
+            return Verdict.STALE;
+        } else if (qop != null && !state.count(nc)) {
+            // A nonce count that does not increase means the request is being replayed.
+            return Verdict.DENIED;
+        }
+        state.setHA1(key, ha1);
+        return Verdict.PERMITTED;
     }
 
     /**
@@ -81,20 +109,22 @@ public class CallControlHelper {
         // Make sure we force clients to authenticate.
         final String authorization = request.getHeader("Proxy-Authorization");
         final String method = request.getMethod();
-        if (authorization == null || !CallControlHelper.permitted(authorization, method, storage, organizationSid)) {
-            authenticate(request);
+        final Verdict verdict = authorization == null ? Verdict.DENIED : CallControlHelper.permitted(authorization, method,
+                storage, organizationSid);
+        if (Verdict.PERMITTED != verdict) {
+            authenticate(request, Verdict.STALE == verdict);
             return false;
         } else {
             return true;
         }
     }
 
-    static void authenticate(final SipServletRequest request) throws IOException {
+    static void authenticate(final SipServletRequest request, final boolean stale) throws IOException {
         final SipServletResponse response = request.createResponse(SC_PROXY_AUTHENTICATION_REQUIRED);
-        final String nonce = nonce();
+        final String nonce = nonces.issue();
         final SipURI uri = (SipURI) request.getTo().getURI();
         final String realm = uri.getHost();
-        final String header = header(nonce, realm, "Digest");
+        final String header = header(nonce, realm, "Digest", stale);
         response.addHeader("Proxy-Authenticate", header);
         response.send();
     }
@@ -112,17 +142,16 @@ public class CallControlHelper {
         return map;
     }
 
-    static String nonce() {
-        final byte[] uuid = UUID.randomUUID().toString().getBytes();
-        final char[] hex = toHex(uuid);
-        return new String(hex).substring(0, 31);
-    }
-
-    static String header(final String nonce, final String realm, final String scheme) {
+    static String header(final String nonce, final String realm, final String scheme, final boolean stale) {
         final StringBuilder buffer = new StringBuilder();
         buffer.append(scheme).append(" ");
         buffer.append("realm=\"").append(realm).append("\", ");
-        buffer.append("nonce=\"").append(nonce).append("\"");
+        buffer.append("nonce=\"").append(nonce).append("\", ");
+        // Asking for qop makes clients send a nonce count, which is what lets a nonce be reused safely.
+        buffer.append("qop=\"auth\"");
+        if (stale) {
+            buffer.append(", stale=TRUE");
+        }
         return buffer.toString();
     }
 
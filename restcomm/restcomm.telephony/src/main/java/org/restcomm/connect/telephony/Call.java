@@ -46,6 +46,8 @@ import org.restcomm.connect.commons.fsm.Transition;
 import org.restcomm.connect.commons.fsm.TransitionFailedException;
 import org.restcomm.connect.commons.fsm.TransitionNotFoundException;
 import org.restcomm.connect.commons.fsm.TransitionRollbackException;
+import org.restcomm.connect.commons.metrics.Histogram;
+import org.restcomm.connect.commons.metrics.MetricsRegistry;
 import org.restcomm.connect.commons.patterns.Observe;
 import org.restcomm.connect.commons.patterns.Observing;
 import org.restcomm.connect.commons.patterns.StopObserving;
@@ -160,6 +162,15 @@ public final class Call extends RestcommUntypedActor {
     private static final String CALL_ON_HOLD_ACTION = "action=onHold";
     private static final String CALL_OFF_HOLD_ACTION = "action=offHold";
 
+    // Time from the creation of the call, when the INVITE is received or about to be sent, to its answer.
+    private static final double[] ANSWER_SECONDS = { 0.5, 1, 2, 3, 5, 10, 15, 20, 30, 45, 60, 120 };
+    private static final String ANSWER_METRIC = "restcomm_call_answer_seconds";
+    private static final String ANSWER_HELP = "Time from the INVITE to the answer of a call.";
+    private static final Histogram inboundAnswerTime = MetricsRegistry.getInstance().histogram(ANSWER_METRIC, ANSWER_HELP,
+            ANSWER_SECONDS, "direction", "inbound");
+    private static final Histogram outboundAnswerTime = MetricsRegistry.getInstance().histogram(ANSWER_METRIC, ANSWER_HELP,
+            ANSWER_SECONDS, "direction", "outbound");
+
     // Finite State Machine
     private final FiniteStateMachine fsm;
     private final State uninitialized;
@@ -213,6 +224,7 @@ public final class Call extends RestcommUntypedActor {
     private String direction;
     private String forwardedFrom;
     private DateTime created;
+    private boolean answered;
     private DateTime callUpdatedTime;
     private final List<ActorRef> observers;
     private boolean receivedBye;
@@ -1680,6 +1692,11 @@ public final class Call extends RestcommUntypedActor {
         public void execute(final Object message) throws Exception {
             // Notify the observers.
             if (external != null && !external.equals(CallStateChanged.State.IN_PROGRESS)) {
+                if (created != null && !answered) {
+                    answered = true;
+                    final Histogram answerTime = isInbound() ? inboundAnswerTime : outboundAnswerTime;
+                    answerTime.observe(System.currentTimeMillis() - created.getMillis(), TimeUnit.MILLISECONDS);
+                }
                 external = CallStateChanged.State.IN_PROGRESS;
                 final CallStateChanged event = new CallStateChanged(external);
                 for (final ActorRef observer : observers) {
@@ -38,11 +38,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import javax.sdp.SdpParseException;
@@ -68,6 +65,7 @@ import org.restcomm.connect.commons.configuration.RestcommConfiguration;
 import org.restcomm.connect.commons.configuration.sets.RcmlserverConfigurationSet;
 import org.restcomm.connect.commons.dao.Sid;
 import org.restcomm.connect.commons.faulttolerance.RestcommUntypedActor;
+import org.restcomm.connect.commons.patterns.Continuation;
 import org.restcomm.connect.commons.patterns.StopObserving;
 import org.restcomm.connect.commons.push.PushNotificationServerHelper;
 import org.restcomm.connect.commons.telephony.CreateCallType;
@@ -138,7 +136,6 @@ import akka.event.Logging;
 import akka.event.LoggingAdapter;
 import akka.util.Timeout;
 import gov.nist.javax.sip.header.UserAgent;
-import scala.concurrent.Await;
 import scala.concurrent.Future;
 import scala.concurrent.duration.Duration;
 
@@ -157,6 +154,8 @@ public final class CallManager extends RestcommUntypedActor {
     static final String EMAIL_SENDER = "restcomm@restcomm.org";
     static final String EMAIL_SUBJECT = "RestComm Error Notification - Attention Required";
     static final int DEFAUL_IMS_PROXY_PORT = -1;
+    // How long a REFER or live call modification waits on the call legs and interpreter it has to ask.
+    static final Timeout ASK_TIMEOUT = new Timeout(Duration.create(10, TimeUnit.SECONDS));
 
     private final ActorSystem system;
     private final Configuration configuration;
@@ -174,18 +173,7 @@ public final class CallManager extends RestcommUntypedActor {
     private boolean useTo;
     private boolean authenticateUsers;
 
-    private AtomicInteger numberOfFailedCalls;
-    private AtomicBoolean useFallbackProxy;
-    private boolean allowFallback;
-    private boolean allowFallbackToPrimary;
-    private int maxNumberOfFailedCalls;
-
-    private String primaryProxyUri;
-    private String primaryProxyUsername, primaryProxyPassword;
-    private String fallBackProxyUri;
-    private String fallBackProxyUsername, fallBackProxyPassword;
-    private String activeProxy;
-    private String activeProxyUsername, activeProxyPassword;
+    private final OutboundProxies proxies;
     private String mediaExternalIp;
     private String myHostIp;
     private String proxyIp;
@@ -248,6 +236,16 @@ public final class CallManager extends RestcommUntypedActor {
     public CallManager(final Configuration configuration, final ServletContext context,
                        final MediaServerControllerFactory msControllerFactory, final ActorRef conferences, final ActorRef bridges,
                        final ActorRef sms, final SipFactory factory, final DaoManager storage) {
+        this(configuration, context, msControllerFactory, conferences, bridges, sms, factory, storage,
+                new OutboundProxies(configuration.subset("runtime-settings").subset("outbound-proxy")));
+    }
+
+    /**
+     * @param proxies the outbound proxy state, shared with the other workers when the CallManager runs as several.
+     */
+    public CallManager(final Configuration configuration, final ServletContext context,
+                       final MediaServerControllerFactory msControllerFactory, final ActorRef conferences, final ActorRef bridges,
+                       final ActorRef sms, final SipFactory factory, final DaoManager storage, final OutboundProxies proxies) {
         super();
         this.system = context().system();
         this.configuration = configuration;
@@ -259,7 +257,6 @@ public final class CallManager extends RestcommUntypedActor {
         this.sipFactory = factory;
         this.storage = storage;
         final Configuration runtime = configuration.subset("runtime-settings");
-        final Configuration outboundProxyConfig = runtime.subset("outbound-proxy");
         SipURI outboundIntf = outboundInterface("udp");
         if (outboundIntf != null) {
             myHostIp = ((SipURI) outboundIntf).getHost().toString();
@@ -284,28 +281,7 @@ public final class CallManager extends RestcommUntypedActor {
         this.useTo = runtime.getBoolean("use-to");
         this.authenticateUsers = runtime.getBoolean("authenticate");
 
-        this.primaryProxyUri = outboundProxyConfig.getString("outbound-proxy-uri");
-        this.primaryProxyUsername = outboundProxyConfig.getString("outbound-proxy-user");
-        this.primaryProxyPassword = outboundProxyConfig.getString("outbound-proxy-password");
-
-        this.fallBackProxyUri = outboundProxyConfig.getString("fallback-outbound-proxy-uri");
-        this.fallBackProxyUsername = outboundProxyConfig.getString("fallback-outbound-proxy-user");
-        this.fallBackProxyPassword = outboundProxyConfig.getString("fallback-outbound-proxy-password");
-
-        this.activeProxy = primaryProxyUri;
-        this.activeProxyUsername = primaryProxyUsername;
-        this.activeProxyPassword = primaryProxyPassword;
-
-        numberOfFailedCalls = new AtomicInteger();
-        numberOfFailedCalls.set(0);
-        useFallbackProxy = new AtomicBoolean();
-        useFallbackProxy.set(false);
-
-        allowFallback = outboundProxyConfig.getBoolean("allow-fallback", false);
-
-        maxNumberOfFailedCalls = outboundProxyConfig.getInt("max-failed-calls", 20);
-
-        allowFallbackToPrimary = outboundProxyConfig.getBoolean("allow-fallback-to-primary", false);
+        this.proxies = proxies;
 
         patchForNatB2BUASessions = runtime.getBoolean("patch-for-nat-b2bua-sessions", true);
 
@@ -609,9 +585,10 @@ public final class CallManager extends RestcommUntypedActor {
                         proxyThroughMediaServerAsNumber(request, client, toUser);
                     } else {
                         // https://telestax.atlassian.net/browse/RESTCOMM-335
-                        String proxyURI = activeProxy;
-                        String proxyUsername = activeProxyUsername;
-                        String proxyPassword = activeProxyPassword;
+                        final OutboundProxies.Proxy activeProxy = proxies.active();
+                        String proxyURI = activeProxy.getUri();
+                        String proxyUsername = activeProxy.getUsername();
+                        String proxyPassword = activeProxy.getPassword();
                         SipURI from = null;
                         SipURI to = null;
                         boolean callToSipUri = false;
@@ -1005,17 +982,25 @@ public final class CallManager extends RestcommUntypedActor {
         }
     }
 
-    private void transfer(SipServletRequest request) throws Exception {
-        //Transferor is the one that initates the transfer
-        String transferor = ((SipURI) request.getAddressHeader("Contact").getURI()).getUser();
-        //Transferee is the one that gets transfered
-        String transferee = ((SipURI) request.getAddressHeader("To").getURI()).getUser();
-        //Trasnfer target, where the transferee will be transfered
-        String transferTarget = ((SipURI) request.getAddressHeader("Refer-To").getURI()).getUser();
+    private void resume(final Future<Object> future, final Object state) {
+        Continuation.resume(future, state, self(), getContext().dispatcher());
+    }
 
-        CallDetailRecord cdr = null;
-        CallDetailRecordsDao dao = storage.getCallDetailRecordsDao();
+    private void onContinuation(final Continuation continuation) throws Exception {
+        final Object state = continuation.state();
+        if (state instanceof Transfer) {
+            transfer((Transfer) state, continuation);
+        } else if (state instanceof Update) {
+            final Update update = (Update) state;
+            try {
+                update(update, continuation);
+            } catch (final Exception exception) {
+                update.sender.tell(new CallManagerResponse<ActorRef>(exception), self());
+            }
+        }
+    }
 
+    private void transfer(SipServletRequest request) throws Exception {
         SipServletResponse servletResponse = null;
 
         final SipApplicationSession appSession = request.getApplicationSession();
@@ -1032,12 +1017,44 @@ public final class CallManager extends RestcommUntypedActor {
             return;
         }
 
-        final Timeout expires = new Timeout(Duration.create(60, TimeUnit.SECONDS));
+        final Transfer transfer = new Transfer(request, transferorActor);
+        resume(ask(transferorActor, new GetCallInfo(), ASK_TIMEOUT), transfer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void transfer(final Transfer transfer, final Continuation continuation) throws Exception {
+        final SipServletRequest request = transfer.request;
+        if (!continuation.succeeded()) {
+            logger.error(continuation.failure(), "Problem while waiting on " + transfer.step + " during SIP Refer");
+            final SipServletResponse servletResponse = request.createResponse(SC_SERVER_INTERNAL_ERROR);
+            servletResponse.setHeader("Reason", "SIP Refer problem during execution");
+            servletResponse.setHeader("Event", "refer");
+            servletResponse.send();
+            return;
+        }
+        switch (transfer.step) {
+            case CALL_INFO:
+                checkTransfer(transfer, ((CallResponse<CallInfo>) continuation.reply()).get());
+                break;
+            case CALL_OBSERVERS:
+                // Get the Voice Interpreter currently handling the transferorActor
+                transfer.interpreter = ((CallResponse<List<ActorRef>>) continuation.reply()).get().iterator().next();
+                // Get the outbound leg of this transferorActor
+                transfer.step = Transfer.Step.RELATED_CALL;
+                resume(ask(transfer.interpreter, new GetRelatedCall(transfer.transferor), ASK_TIMEOUT), transfer);
+                break;
+            case RELATED_CALL:
+                completeTransfer(transfer, continuation.reply());
+                break;
+        }
+    }
+
+    private void checkTransfer(final Transfer transfer, final CallInfo callInfo) throws Exception {
+        final SipServletRequest request = transfer.request;
+        CallDetailRecord cdr = null;
+        CallDetailRecordsDao dao = storage.getCallDetailRecordsDao();
 
-        Future<Object> infoFuture = (Future<Object>) ask(transferorActor, new GetCallInfo(), expires);
-        CallResponse<CallInfo> infoResponse = (CallResponse<CallInfo>) Await.result(infoFuture,
-                Duration.create(10, TimeUnit.SECONDS));
-        CallInfo callInfo = infoResponse.get();
+        SipServletResponse servletResponse = null;
 
         //Call must be in-progress to accept Sip Refer
         if (callInfo != null && callInfo.state().equals(CallStateChanged.State.IN_PROGRESS)) {
@@ -1085,18 +1102,28 @@ public final class CallManager extends RestcommUntypedActor {
             return;
         }
 
+        transfer.cdr = cdr;
+        transfer.number = number;
+
         // Get first transferorActor leg observers
-        Future<Object> future = (Future<Object>) ask(transferorActor, new GetCallObservers(), expires);
-        CallResponse<List<ActorRef>> response = (CallResponse<List<ActorRef>>) Await.result(future,
-                Duration.create(10, TimeUnit.SECONDS));
-        List<ActorRef> callObservers = response.get();
+        transfer.step = Transfer.Step.CALL_OBSERVERS;
+        resume(ask(transfer.transferor, new GetCallObservers(), ASK_TIMEOUT), transfer);
+    }
 
-        // Get the Voice Interpreter currently handling the transferorActor
-        ActorRef existingInterpreter = callObservers.iterator().next();
+    private void completeTransfer(final Transfer transfer, final Object answer) throws Exception {
+        final SipServletRequest request = transfer.request;
+        //Transferor is the one that initates the transfer
+        String transferor = ((SipURI) request.getAddressHeader("Contact").getURI()).getUser();
+        //Transferee is the one that gets transfered
+        String transferee = ((SipURI) request.getAddressHeader("To").getURI()).getUser();
+        //Trasnfer target, where the transferee will be transfered
+        String transferTarget = ((SipURI) request.getAddressHeader("Refer-To").getURI()).getUser();
 
-        // Get the outbound leg of this transferorActor
-        future = (Future<Object>) ask(existingInterpreter, new GetRelatedCall(transferorActor), expires);
-        Object answer = (Object) Await.result(future, Duration.create(10, TimeUnit.SECONDS));
+        final ActorRef transferorActor = transfer.transferor;
+        final ActorRef existingInterpreter = transfer.interpreter;
+        final CallDetailRecord cdr = transfer.cdr;
+        final IncomingPhoneNumber number = transfer.number;
+        SipServletResponse servletResponse = null;
 
         //Transferee will be transfered to the transfer target
         ActorRef transfereeActor = null;
@@ -1382,12 +1409,9 @@ public final class CallManager extends RestcommUntypedActor {
         } else if (ExecuteCallScript.class.equals(klass)) {
             execute(message);
         } else if (UpdateCallScript.class.equals(klass)) {
-            try {
-                update(message);
-            } catch (final Exception exception) {
-                sender.tell(new CallManagerResponse<ActorRef>(exception), self);
-            }
-
+            update(message, sender);
+        } else if (Continuation.class.equals(klass)) {
+            onContinuation((Continuation) message);
         } else if (DestroyCall.class.equals(klass)) {
             destroy(message);
         } else if (message instanceof SipServletResponse) {
@@ -1585,28 +1609,36 @@ public final class CallManager extends RestcommUntypedActor {
         interpreter.tell(new StartInterpreter(request.call()), self);
     }
 
-    @SuppressWarnings("unchecked")
-    private void update(final Object message) throws Exception {
+    private void update(final Object message, final ActorRef sender) {
         final UpdateCallScript request = (UpdateCallScript) message;
-        final ActorRef self = self();
-        final ActorRef call = request.call();
-        final Boolean moveConnectedCallLeg = request.moveConnecteCallLeg();
-
         // Get first call leg observers
-        final Timeout expires = new Timeout(Duration.create(60, TimeUnit.SECONDS));
-        Future<Object> future = (Future<Object>) ask(call, new GetCallObservers(), expires);
-        CallResponse<List<ActorRef>> response = (CallResponse<List<ActorRef>>) Await.result(future,
-                Duration.create(10, TimeUnit.SECONDS));
-        List<ActorRef> callObservers = response.get();
+        resume(ask(request.call(), new GetCallObservers(), ASK_TIMEOUT), new Update(request, sender));
+    }
 
-        // Get the Voice Interpreter currently handling the call
-        //TODO possible bug here. Since we have more than one call observer, later there might be the case that the first one is not the VI
-        //TODO set the VI using specific message, also get the VI using specific message. The VI will still be in the observers list but it will set/get using specific method
-        ActorRef existingInterpreter = callObservers.iterator().next();
+    @SuppressWarnings("unchecked")
+    private void update(final Update update, final Continuation continuation) throws Exception {
+        if (!continuation.succeeded()) {
+            throw new Exception(continuation.failure());
+        }
+        if (update.interpreter == null) {
+            // Get the Voice Interpreter currently handling the call
+            //TODO possible bug here. Since we have more than one call observer, later there might be the case that the first one is not the VI
+            //TODO set the VI using specific message, also get the VI using specific message. The VI will still be in the observers list but it will set/get using specific method
+            update.interpreter = ((CallResponse<List<ActorRef>>) continuation.reply()).get().iterator().next();
+            // Get the outbound leg of this call
+            resume(ask(update.interpreter, new GetRelatedCall(update.request.call()), ASK_TIMEOUT), update);
+        } else {
+            completeUpdate(update, continuation.reply());
+        }
+    }
 
-        // Get the outbound leg of this call
-        future = (Future<Object>) ask(existingInterpreter, new GetRelatedCall(call), expires);
-        Object answer = (Object) Await.result(future, Duration.create(10, TimeUnit.SECONDS));
+    @SuppressWarnings("unchecked")
+    private void completeUpdate(final Update update, final Object answer) throws Exception {
+        final UpdateCallScript request = update.request;
+        final ActorRef self = self();
+        final ActorRef call = request.call();
+        final Boolean moveConnectedCallLeg = request.moveConnecteCallLeg();
+        final ActorRef existingInterpreter = update.interpreter;
 
         ActorRef relatedCall = null;
         List<ActorRef> listOfRelatedCalls = null;
@@ -1891,7 +1923,8 @@ public final class CallManager extends RestcommUntypedActor {
     }
 
     private void outboundToPstn(final CreateCall request, final ActorRef sender) throws ServletParseException {
-        final String uri = (request.getOutboundProxy() != null && (!request.getOutboundProxy().isEmpty())) ? request.getOutboundProxy() : activeProxy;
+        final OutboundProxies.Proxy activeProxy = proxies.active();
+        final String uri = (request.getOutboundProxy() != null && (!request.getOutboundProxy().isEmpty())) ? request.getOutboundProxy() : activeProxy.getUri();
         SipURI outboundIntf = null;
         SipURI from = null;
         SipURI to = null;
@@ -1899,7 +1932,7 @@ public final class CallManager extends RestcommUntypedActor {
         final Configuration runtime = configuration.subset("runtime-settings");
         final boolean useLocalAddressAtFromHeader = runtime.getBoolean("use-local-address", false);
 
-        final String proxyUsername = (request.username() != null) ? request.username() : activeProxyUsername;
+        final String proxyUsername = (request.username() != null) ? request.username() : activeProxy.getUsername();
 
         if (uri != null) {
             try {
@@ -2010,8 +2043,9 @@ public final class CallManager extends RestcommUntypedActor {
 
     private ActorRef createOutbound(final CreateCall request, final SipURI from, final SipURI to, final boolean webRTC) {
         final Configuration runtime = configuration.subset("runtime-settings");
-        final String proxyUsername = (request.username() != null) ? request.username() : activeProxyUsername;
-        final String proxyPassword = (request.password() != null) ? request.password() : activeProxyPassword;
+        final OutboundProxies.Proxy activeProxy = proxies.active();
+        final String proxyUsername = (request.username() != null) ? request.username() : activeProxy.getUsername();
+        final String proxyPassword = (request.password() != null) ? request.password() : activeProxy.getPassword();
 
         final ActorRef call = call(request);
         final ActorRef self = self();
@@ -2192,7 +2226,7 @@ public final class CallManager extends RestcommUntypedActor {
         final SipServletResponse response = (SipServletResponse) message;
 
         // If Allow-Falback is true, check for error reponses and switch proxy if needed
-        if (allowFallback)
+        if (proxies.isFallbackAllowed())
             checkErrorResponse(response);
 
         final SipApplicationSession application = response.getApplicationSession();
@@ -2209,7 +2243,8 @@ public final class CallManager extends RestcommUntypedActor {
                 }
                 String tempRealm = authHeader.substring(authHeader.indexOf("realm=\"") + "realm=\"".length());
                 String realm = tempRealm.substring(0, tempRealm.indexOf("\""));
-                authInfo.addAuthInfo(response.getStatus(), realm, activeProxyUsername, activeProxyPassword);
+                final OutboundProxies.Proxy activeProxy = proxies.active();
+                authInfo.addAuthInfo(response.getStatus(), realm, activeProxy.getUsername(), activeProxy.getPassword());
                 SipServletRequest challengeRequest = response.getSession().createRequest(response.getRequest().getMethod());
                 response.getSession().setAttribute(B2BUAHelper.B2BUA_LAST_FINAL_RESPONSE, response);
                 challengeRequest.addAuthHeader(response, authInfo);
@@ -2273,12 +2308,13 @@ public final class CallManager extends RestcommUntypedActor {
             if (status != SipServletResponse.SC_UNAUTHORIZED && status != SipServletResponse.SC_PROXY_AUTHENTICATION_REQUIRED
                     && status != SipServletResponse.SC_NOT_FOUND && status > 400) {
 
-                int failures = numberOfFailedCalls.incrementAndGet();
+                // The count is shared by every worker, only the one that reaches the maximum switches the proxy.
+                final boolean reached = proxies.failed();
                 if (logger.isInfoEnabled()) {
-                    logger.info("A total number of " + failures + " failures have now been counted.");
+                    logger.info("A total number of " + proxies.getNumberOfFailedCalls() + " failures have now been counted.");
                 }
 
-                if (failures >= maxNumberOfFailedCalls) {
+                if (reached) {
                     if (logger.isInfoEnabled()) {
                         logger.info("Max number of failed calls has been reached trying to switch over proxy.");
                         logger.info("Current proxy: " + getActiveProxy().get("ActiveProxy"));
@@ -2287,30 +2323,17 @@ public final class CallManager extends RestcommUntypedActor {
                     if (logger.isInfoEnabled()) {
                         logger.info("Switched to proxy: " + getActiveProxy().get("ActiveProxy"));
                     }
-                    numberOfFailedCalls.set(0);
                 }
             }
         }
     }
 
     public Map<String, String> getActiveProxy() {
-        Map<String, String> activeProxyMap = new ConcurrentHashMap<String, String>();
-        activeProxyMap.put("ActiveProxy", this.activeProxy);
-        return activeProxyMap;
+        return proxies.getActiveProxy();
     }
 
     public Map<String, String> switchProxy() {
-        if (activeProxy.equalsIgnoreCase(primaryProxyUri)) {
-            activeProxy = fallBackProxyUri;
-            activeProxyUsername = fallBackProxyUsername;
-            activeProxyPassword = fallBackProxyPassword;
-            useFallbackProxy.set(true);
-        } else if (allowFallbackToPrimary) {
-            activeProxy = primaryProxyUri;
-            activeProxyUsername = primaryProxyUsername;
-            activeProxyPassword = primaryProxyPassword;
-            useFallbackProxy.set(false);
-        }
+        proxies.switchProxy();
         final Notification notification = notification(null, WARNING_NOTIFICATION, 14110,
                 "Max number of failed calls has been reached! Outbound proxy switched");
         final NotificationsDao notifications = storage.getNotificationsDao();
@@ -2319,15 +2342,7 @@ public final class CallManager extends RestcommUntypedActor {
     }
 
     public Map<String, String> getProxies(final Object message) {
-        Map<String, String> proxies = new ConcurrentHashMap<String, String>();
-
-        proxies.put("ActiveProxy", activeProxy);
-        proxies.put("UsingFallBackProxy", useFallbackProxy.toString());
-        proxies.put("AllowFallbackToPrimary", String.valueOf(allowFallbackToPrimary));
-        proxies.put("PrimaryProxy", primaryProxyUri);
-        proxies.put("FallbackProxy", fallBackProxyUri);
-
-        return proxies;
+        return proxies.getProxies();
     }
 
     private Notification notification(Sid accountId, final int log, final int error, final String message) {
@@ -2520,8 +2535,9 @@ public final class CallManager extends RestcommUntypedActor {
             if (logger.isInfoEnabled()) {
                 logger.info("outboundToIms: from: " + from + ", to: " + to);
             }
-            final String proxyUsername = (request.username() != null) ? request.username() : activeProxyUsername;
-            final String proxyPassword = (request.password() != null) ? request.password() : activeProxyPassword;
+            final OutboundProxies.Proxy activeProxy = proxies.active();
+            final String proxyUsername = (request.username() != null) ? request.username() : activeProxy.getUsername();
+            final String proxyPassword = (request.password() != null) ? request.password() : activeProxy.getPassword();
             boolean isToWebRTC = false;
             Registration toReg = findRegistration(to);
             if (toReg != null) {
@@ -2540,4 +2556,38 @@ public final class CallManager extends RestcommUntypedActor {
             sender.tell(new CallManagerResponse<ActorRef>(call), self());
         }
     }
+
+    // Where a SIP REFER stands while the transferor leg and its interpreter are being asked about the call.
+    private static final class Transfer {
+        private enum Step {
+            CALL_INFO, CALL_OBSERVERS, RELATED_CALL
+        }
+
+        private final SipServletRequest request;
+        private final ActorRef transferor;
+        private Step step;
+        private CallDetailRecord cdr;
+        private IncomingPhoneNumber number;
+        private ActorRef interpreter;
+
+        private Transfer(final SipServletRequest request, final ActorRef transferor) {
+            super();
+            this.request = request;
+            this.transferor = transferor;
+            this.step = Step.CALL_INFO;
+        }
+    }
+
+    // Where a live call modification stands while the call and its interpreter are being asked about related calls.
+    private static final class Update {
+        private final UpdateCallScript request;
+        private final ActorRef sender;
+        private ActorRef interpreter;
+
+        private Update(final UpdateCallScript request, final ActorRef sender) {
+            super();
+            this.request = request;
+            this.sender = sender;
+        }
+    }
 }
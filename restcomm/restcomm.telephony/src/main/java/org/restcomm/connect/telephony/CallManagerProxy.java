@@ -46,6 +46,8 @@ import javax.servlet.sip.SipSession;
 import javax.sip.message.Request;
 import javax.sip.message.Response;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author quintana.thomas@gmail.com (Thomas Quintana)
@@ -60,6 +62,8 @@ public final class CallManagerProxy extends SipServlet implements SipServletList
 
     private ActorSystem system;
     private ActorRef manager;
+    // Set when the CallManager runs as several workers, SIP messages then go straight to the owning worker
+    private CallManagerShards shards;
     private ActorRef ussdManager;
     private ServletContext context;
 
@@ -86,7 +90,7 @@ public final class CallManagerProxy extends SipServlet implements SipServletList
                 SipServletResponse resp = request.createResponse(Response.TRYING);
                 resp.send();
             }
-            manager.tell(request, null);
+            manager(request).tell(request, null);
         }
     }
 
@@ -106,10 +110,14 @@ public final class CallManagerProxy extends SipServlet implements SipServletList
         if (isUssdMessage(response)) {
             ussdManager.tell(response, null);
         } else {
-            manager.tell(response, null);
+            manager(response).tell(response, null);
         }
     }
 
+    private ActorRef manager(final SipServletMessage message) {
+        return shards == null ? manager : shards.route(message);
+    }
+
     @Override
     public void init(final ServletConfig config) throws ServletException {
         super.init(config);
@@ -117,12 +125,23 @@ public final class CallManagerProxy extends SipServlet implements SipServletList
 
     private ActorRef manager(final Configuration configuration, final ServletContext context,
             final MediaServerControllerFactory msControllerfactory, final ActorRef conferences, final ActorRef bridges,
-            final ActorRef sms, final SipFactory factory, final DaoManager storage) {
+            final ActorRef sms, final SipFactory factory, final DaoManager storage, final OutboundProxies proxies) {
+        final Props props = new Props(new UntypedActorFactory() {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public UntypedActor create() throws Exception {
+                return new CallManager(configuration, context, msControllerfactory, conferences, bridges, sms, factory, storage, proxies);
+            }
+        });
+        return system.actorOf(props);
+    }
+
+    private ActorRef router(final CallManagerShards shards) {
         final Props props = new Props(new UntypedActorFactory() {
             private static final long serialVersionUID = 1L;
             @Override
             public UntypedActor create() throws Exception {
-                return new CallManager(configuration, context, msControllerfactory, conferences, bridges, sms, factory, storage);
+                return new CallManagerRouter(shards);
             }
         });
         return system.actorOf(props);
@@ -198,7 +217,22 @@ public final class CallManagerProxy extends SipServlet implements SipServletList
             final ActorRef conferences = conferences(mscontrolFactory, storage);
             final ActorRef bridges = bridges(mscontrolFactory);
             final ActorRef sms = (ActorRef) context.getAttribute(SmsService.class.getName());
-            manager = manager(configuration, context, mscontrolFactory, conferences, bridges, sms, factory, storage);
+            final int workers = configuration.subset("runtime-settings").getInt("call-manager-shards", 1);
+            final OutboundProxies proxies = new OutboundProxies(configuration.subset("runtime-settings").subset("outbound-proxy"));
+            if (workers > 1) {
+                final List<ActorRef> managers = new ArrayList<ActorRef>(workers);
+                for (int i = 0; i < workers; i++) {
+                    managers.add(manager(configuration, context, mscontrolFactory, conferences, bridges, sms, factory, storage, proxies));
+                }
+                shards = new CallManagerShards(managers, proxies);
+                manager = router(shards);
+                context.setAttribute(CallManagerShards.class.getName(), shards);
+                if(logger.isInfoEnabled()) {
+                    logger.info("CallManager will run as " + workers + " workers");
+                }
+            } else {
+                manager = manager(configuration, context, mscontrolFactory, conferences, bridges, sms, factory, storage, proxies);
+            }
             ussdManager = ussdManager(configuration, context, factory, storage);
             context.setAttribute(CallManager.class.getName(), manager);
             context.setAttribute(UssdCallManager.class.getName(), ussdManager);
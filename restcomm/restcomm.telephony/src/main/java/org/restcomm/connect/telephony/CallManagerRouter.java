@@ -0,0 +1,71 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.telephony;
+
+import javax.servlet.sip.SipServletMessage;
+
+import org.restcomm.connect.commons.faulttolerance.RestcommUntypedActor;
+import org.restcomm.connect.telephony.api.CreateCall;
+import org.restcomm.connect.telephony.api.DestroyCall;
+import org.restcomm.connect.telephony.api.ExecuteCallScript;
+import org.restcomm.connect.telephony.api.GetActiveProxy;
+import org.restcomm.connect.telephony.api.GetCall;
+import org.restcomm.connect.telephony.api.GetProxies;
+import org.restcomm.connect.telephony.api.UpdateCallScript;
+
+import akka.actor.ActorRef;
+
+/**
+ * Stands in for the CallManager when it runs as several workers, so the rest of Restcomm can keep talking to one
+ * actor. Messages about an existing call go to the worker that owns it and new calls are spread over all workers. The
+ * outbound proxy state is shared by the workers, so it is answered here and switched once, by the first worker.
+ */
+public final class CallManagerRouter extends RestcommUntypedActor {
+    private final CallManagerShards shards;
+
+    public CallManagerRouter(final CallManagerShards shards) {
+        super();
+        this.shards = shards;
+    }
+
+    @Override
+    public void onReceive(final Object message) throws Exception {
+        final Class<?> klass = message.getClass();
+        if (CreateCall.class.equals(klass)) {
+            shards.next().forward(message, getContext());
+        } else if (ExecuteCallScript.class.equals(klass)) {
+            shards.route(((ExecuteCallScript) message).call()).forward(message, getContext());
+        } else if (UpdateCallScript.class.equals(klass)) {
+            shards.route(((UpdateCallScript) message).call()).forward(message, getContext());
+        } else if (DestroyCall.class.equals(klass)) {
+            shards.route(((DestroyCall) message).call()).forward(message, getContext());
+        } else if (GetCall.class.equals(klass)) {
+            shards.route(((GetCall) message).getIdentifier()).forward(message, getContext());
+        } else if (message instanceof SipServletMessage) {
+            shards.route((SipServletMessage) message).forward(message, getContext());
+        } else if (GetActiveProxy.class.equals(klass)) {
+            sender().tell(shards.proxies().getActiveProxy(), self());
+        } else if (GetProxies.class.equals(klass)) {
+            sender().tell(shards.proxies().getProxies(), self());
+        } else {
+            shards.workers().get(0).forward(message, getContext());
+        }
+    }
+}
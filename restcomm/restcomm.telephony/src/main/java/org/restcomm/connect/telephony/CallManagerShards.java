@@ -0,0 +1,136 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.telephony;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.servlet.sip.SipApplicationSession;
+import javax.servlet.sip.SipServletMessage;
+
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+
+import akka.actor.ActorPath;
+import akka.actor.ActorRef;
+
+/**
+ * Spreads call handling over several CallManager workers.
+ *
+ * Every Call actor is a child of the worker that created it, so anything about an existing call goes to that worker.
+ * A SIP message that belongs to no call yet is placed by its Call-ID, which keeps a dialog on one worker until its
+ * Call actor exists. New outbound calls are handed out round robin. The outbound proxy fallback state is kept here and
+ * shared by every worker, so failed calls are counted once for all of them.
+ */
+@ThreadSafe
+public final class CallManagerShards {
+    private final List<ActorRef> workers;
+    private final AtomicInteger next;
+    private final AtomicLongArray routed;
+    private final OutboundProxies proxies;
+
+    public CallManagerShards(final List<ActorRef> workers, final OutboundProxies proxies) {
+        super();
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("At least one CallManager worker is required.");
+        }
+        this.workers = Collections.unmodifiableList(new ArrayList<ActorRef>(workers));
+        this.next = new AtomicInteger();
+        this.routed = new AtomicLongArray(workers.size());
+        this.proxies = proxies;
+    }
+
+    public int size() {
+        return workers.size();
+    }
+
+    public List<ActorRef> workers() {
+        return workers;
+    }
+
+    public OutboundProxies proxies() {
+        return proxies;
+    }
+
+    /**
+     * Number of messages routed to the given shard so far.
+     */
+    public long routed(final int shard) {
+        return routed.get(shard);
+    }
+
+    public ActorRef route(final SipServletMessage message) {
+        final SipApplicationSession session = message.getApplicationSession();
+        if (session != null && session.isValid()) {
+            final Object call = session.getAttribute(Call.class.getName());
+            if (call instanceof ActorRef) {
+                final int shard = owner((ActorRef) call);
+                if (shard >= 0) {
+                    return select(shard);
+                }
+            }
+        }
+        final String callId = message.getCallId();
+        return select(callId == null ? 0 : (callId.hashCode() & Integer.MAX_VALUE) % workers.size());
+    }
+
+    /**
+     * The worker that created the call, or the next worker in turn if the call is unknown.
+     */
+    public ActorRef route(final ActorRef call) {
+        final int shard = call == null ? -1 : owner(call);
+        return shard >= 0 ? select(shard) : next();
+    }
+
+    /**
+     * The worker whose Call actors live under the given path, or the next worker in turn if none does.
+     */
+    public ActorRef route(final String callPath) {
+        if (callPath != null) {
+            for (int shard = 0; shard < workers.size(); shard++) {
+                if (callPath.startsWith(workers.get(shard).path().toString() + "/")) {
+                    return select(shard);
+                }
+            }
+        }
+        return next();
+    }
+
+    public ActorRef next() {
+        return select((next.getAndIncrement() & Integer.MAX_VALUE) % workers.size());
+    }
+
+    private int owner(final ActorRef call) {
+        final ActorPath parent = call.path().parent();
+        for (int shard = 0; shard < workers.size(); shard++) {
+            if (workers.get(shard).path().equals(parent)) {
+                return shard;
+            }
+        }
+        return -1;
+    }
+
+    private ActorRef select(final int shard) {
+        routed.incrementAndGet(shard);
+        return workers.get(shard);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.telephony;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.configuration.Configuration;
+import org.restcomm.connect.commons.annotations.concurrency.Immutable;
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+
+/**
+ * The outbound proxy settings and the fallback state, shared by every CallManager worker so they all count failed
+ * calls together and always agree on the active proxy.
+ */
+@ThreadSafe
+public final class OutboundProxies {
+    private final Proxy primary;
+    private final Proxy fallback;
+    private final boolean allowFallback;
+    private final boolean allowFallbackToPrimary;
+    private final int maxNumberOfFailedCalls;
+    private final AtomicInteger numberOfFailedCalls;
+    private final AtomicReference<Proxy> active;
+
+    /**
+     * @param configuration the runtime-settings/outbound-proxy configuration.
+     */
+    public OutboundProxies(final Configuration configuration) {
+        super();
+        this.primary = new Proxy(configuration.getString("outbound-proxy-uri"), configuration.getString("outbound-proxy-user"),
+                configuration.getString("outbound-proxy-password"));
+        this.fallback = new Proxy(configuration.getString("fallback-outbound-proxy-uri"),
+                configuration.getString("fallback-outbound-proxy-user"), configuration.getString("fallback-outbound-proxy-password"));
+        this.allowFallback = configuration.getBoolean("allow-fallback", false);
+        this.allowFallbackToPrimary = configuration.getBoolean("allow-fallback-to-primary", false);
+        this.maxNumberOfFailedCalls = configuration.getInt("max-failed-calls", 20);
+        this.numberOfFailedCalls = new AtomicInteger();
+        this.active = new AtomicReference<Proxy>(primary);
+    }
+
+    public boolean isFallbackAllowed() {
+        return allowFallback;
+    }
+
+    public Proxy active() {
+        return active.get();
+    }
+
+    /**
+     * Counts a failed call.
+     *
+     * @return true if this failure reached the maximum number of failed calls, in which case the count starts over and
+     *         the caller is the only one expected to switch the proxy.
+     */
+    public boolean failed() {
+        final int failures = numberOfFailedCalls.incrementAndGet();
+        return failures >= maxNumberOfFailedCalls && numberOfFailedCalls.compareAndSet(failures, 0);
+    }
+
+    public int getNumberOfFailedCalls() {
+        return numberOfFailedCalls.get();
+    }
+
+    /**
+     * Moves from the primary to the fallback proxy, or back to the primary one if that is allowed.
+     *
+     * @return the proxy active after the switch.
+     */
+    public Proxy switchProxy() {
+        while (true) {
+            final Proxy current = active.get();
+            final Proxy next;
+            if (current == primary || equalsIgnoreCase(current.getUri(), primary.getUri())) {
+                next = fallback;
+            } else if (allowFallbackToPrimary) {
+                next = primary;
+            } else {
+                return current;
+            }
+            if (active.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    public Map<String, String> getActiveProxy() {
+        final Map<String, String> activeProxyMap = new ConcurrentHashMap<String, String>();
+        put(activeProxyMap, "ActiveProxy", active().getUri());
+        return activeProxyMap;
+    }
+
+    public Map<String, String> getProxies() {
+        final Map<String, String> proxies = new ConcurrentHashMap<String, String>();
+        final Proxy current = active();
+        put(proxies, "ActiveProxy", current.getUri());
+        proxies.put("UsingFallBackProxy", String.valueOf(current == fallback));
+        proxies.put("AllowFallbackToPrimary", String.valueOf(allowFallbackToPrimary));
+        put(proxies, "PrimaryProxy", primary.getUri());
+        put(proxies, "FallbackProxy", fallback.getUri());
+        return proxies;
+    }
+
+    // ConcurrentHashMap takes no null values, an unset proxy is left out.
+    private static void put(final Map<String, String> map, final String key, final String value) {
+        if (value != null) {
+            map.put(key, value);
+        }
+    }
+
+    private static boolean equalsIgnoreCase(final String first, final String second) {
+        return first == null ? second == null : first.equalsIgnoreCase(second);
+    }
+
+    @Immutable
+    public static final class Proxy {
+        private final String uri;
+        private final String username;
+        private final String password;
+
+        private Proxy(final String uri, final String username, final String password) {
+            super();
+            this.uri = uri;
+            this.username = username;
+            this.password = password;
+        }
+
+        public String getUri() {
+            return uri;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+    }
+}
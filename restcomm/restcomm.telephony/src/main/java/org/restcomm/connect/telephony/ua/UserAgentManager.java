@@ -28,11 +28,16 @@ import static org.restcomm.connect.commons.util.HexadecimalUtils.toHex;
 
 import java.io.IOException;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
@@ -53,6 +58,7 @@ import org.restcomm.connect.commons.configuration.RestcommConfiguration;
 import org.restcomm.connect.commons.dao.Sid;
 import org.restcomm.connect.commons.faulttolerance.RestcommUntypedActor;
 import org.restcomm.connect.commons.util.DigestAuthentication;
+import org.restcomm.connect.commons.util.TimerWheel;
 import org.restcomm.connect.dao.ClientsDao;
 import org.restcomm.connect.dao.DaoManager;
 import org.restcomm.connect.dao.RegistrationsDao;
@@ -77,6 +83,12 @@ public final class UserAgentManager extends RestcommUntypedActor {
     private static final int DEFAUL_IMS_PROXY_PORT = -1;
     private static final String REGISTER = "REGISTER";
     private static final String REQ_PARAMETER = "Req";
+    // How often the keep-alive wheel is advanced, see UserAgentManagerProxy.
+    static final long KEEP_ALIVE_TICK_MILLIS = 1000;
+    // Keep-alives are sent between 80% and 100% of the ping interval after the previous one.
+    private static final double KEEP_ALIVE_JITTER = 0.2;
+    // Registrations are checked against the store every so many ping intervals.
+    private static final int RECONCILE_INTERVALS = 10;
 
     private final LoggingAdapter logger = Logging.getLogger(getContext().system(), this);
     private boolean authenticateUsers = true;
@@ -87,6 +99,14 @@ public final class UserAgentManager extends RestcommUntypedActor {
     private final int pingInterval;
     private final String instanceId;
 
+    // Every registration of this instance has its own keep-alive, due at its next ping or its expiry.
+    private final TimerWheel<String> keepAlives;
+    private final Map<String, Registration> tracked;
+    // OPTIONS sent and not answered yet, by host:port of the contact.
+    private final Map<String, Long> pendingPings;
+    private final Random random;
+    private long ticks;
+
     // IMS authentication
     private boolean actAsImsUa;
     private String imsProxyAddress;
@@ -104,6 +124,11 @@ public final class UserAgentManager extends RestcommUntypedActor {
         this.factory = factory;
         this.storage = storage;
         pingInterval = runtime.getInt("ping-interval", 60);
+        final int slots = (int) (TimeUnit.SECONDS.toMillis(pingInterval) / KEEP_ALIVE_TICK_MILLIS) + 1;
+        this.keepAlives = new TimerWheel<String>(KEEP_ALIVE_TICK_MILLIS, TimeUnit.MILLISECONDS, slots, System.currentTimeMillis());
+        this.tracked = new HashMap<String, Registration>();
+        this.pendingPings = new HashMap<String, Long>();
+        this.random = new Random();
         logger.info("About to run firstTimeCleanup()");
         instanceId = RestcommConfiguration.getInstance().getMain().getInstanceId();
         if(!runtime.subset("ims-authentication").isEmpty()){
@@ -165,52 +190,12 @@ public final class UserAgentManager extends RestcommUntypedActor {
             }
         }
         results = registrations.getRegistrationsByInstanceId(instanceId);
-        if (logger.isInfoEnabled())
-            logger.info("Initial registration cleanup finished, starting Restcomm with "+results.size()+" registrations");
-    }
-
-    private void clean() throws ServletException {
-        final RegistrationsDao registrations = storage.getRegistrationsDao();
-        final List<Registration> results = registrations.getRegistrationsByInstanceId(instanceId);
+        final long now = System.currentTimeMillis();
         for (final Registration result : results) {
-            final DateTime expires = result.getDateExpires();
-            if (expires.isBeforeNow() || expires.isEqualNow()) {
-                if(logger.isInfoEnabled()) {
-                    logger.info("Registration: "+result.getAddressOfRecord()+" expired. Will ping again.");
-                }
-                //Instead of removing registrations we ping the client one last time to ensure it was not a temporary loss
-                // of connectivity. We don't need to remove the registration here. It will be handled only if the OPTIONS ping
-                // times out and the related calls from the client cleaned up as well
-                try{
-                    ping(result.getLocation());
-                }catch(ServletParseException spe){
-                    logger.warning("Bad Parameters: "+result.getLocation());
-                    registrations.removeRegistration(result);
-                }
-                //registrations.removeRegistration(result);
-                //monitoringService.tell(new UserRegistration(result.getUserName(), result.getLocation(), false), self());
-            } else {
-                final DateTime updated = result.getDateUpdated();
-                Long pingIntervalMillis = new Long(pingInterval * 1000 * 3);
-                if ((DateTime.now().getMillis() - updated.getMillis()) > pingIntervalMillis) {
-                    //Last time this registration updated was older than (pingInterval * 3), looks like it doesn't respond to OPTIONS
-                    if (logger.isInfoEnabled()) {
-                        logger.info("Registration: " + result.getAddressOfRecord() + " didn't respond to OPTIONS. Will ping again.");
-                    }
-                    // Instead of removing registrations we ping the client one last time to ensure it was not a temporary loss
-                    // of connectivity. We don't need to remove the registration here. It will be handled only if the OPTIONS ping
-                    // times out and the related calls from the client cleaned up as well
-                    try{
-                        ping(result.getLocation());
-                    }catch(ServletParseException spe){
-                        logger.warning("Bad Parameters: "+result.getLocation());
-                        registrations.removeRegistration(result);
-                    }
-                    // registrations.removeRegistration(result);
-                    // monitoringService.tell(new UserRegistration(result.getUserName(), result.getLocation(), false), self());
-                }
-            }
+            track(result, now);
         }
+        if (logger.isInfoEnabled())
+            logger.info("Initial registration cleanup finished, starting Restcomm with "+results.size()+" registrations");
     }
 
     private void disconnectActiveCalls(ActorRef call) {
@@ -242,25 +227,91 @@ public final class UserAgentManager extends RestcommUntypedActor {
         response.send();
     }
 
-    private void keepAlive() throws Exception {
-        final RegistrationsDao registrations = storage.getRegistrationsDao();
-        final List<Registration> results = registrations.getRegistrationsByInstanceId(instanceId);
-        if (results != null && results.size() > 0) {
-            if (logger.isDebugEnabled()) {
-                logger.debug("Registrations for InstanceId: "+ instanceId +" , returned "+results.size()+" registrations");
-            }
-            for (final Registration result : results) {
-                final String to = result.getLocation();
-                try{
-                    ping(to);
-                }catch(ServletParseException spe){
-                    logger.warning("Bad Parameters: "+to);
-                    registrations.removeRegistration(result);
+    private void tick() throws ServletException {
+        final long now = System.currentTimeMillis();
+        final List<String> due = keepAlives.advance(now);
+        if (logger.isDebugEnabled() && !due.isEmpty()) {
+            logger.debug("Keep alive due for " + due.size() + " of " + keepAlives.size() + " registrations, "
+                    + pendingPings.size() + " OPTIONS pending");
+        }
+        for (final String location : due) {
+            keepAlive(location, now);
+        }
+        if (++ticks % (RECONCILE_INTERVALS * TimeUnit.SECONDS.toMillis(pingInterval) / KEEP_ALIVE_TICK_MILLIS) == 0) {
+            reconcile(now);
+        }
+    }
+
+    private void keepAlive(final String location, final long now) throws ServletException {
+        final Registration registration = tracked.get(location);
+        if (registration == null) {
+            return;
+        }
+        schedule(registration, now);
+        try {
+            final SipURI uri = (SipURI) factory.createURI(location);
+            final String contact = uri.getHost() + ":" + uri.getPort();
+            final Long sent = pendingPings.get(contact);
+            // An OPTIONS transaction times out well before this, so an older one was simply never answered.
+            if (sent != null && now - sent < TimeUnit.SECONDS.toMillis(pingInterval) * 2) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Still waiting for the OPTIONS sent to " + location);
                 }
+                return;
             }
-        } else {
-            if (logger.isDebugEnabled()) {
-                logger.debug("Registrations for InstanceId: "+ instanceId +" , returned no registrations");
+            pendingPings.put(contact, now);
+            ping(location);
+        } catch (ServletParseException spe) {
+            logger.warning("Bad Parameters: " + location);
+            storage.getRegistrationsDao().removeRegistration(registration);
+            untrack(location);
+        }
+    }
+
+    // Keeps the latest copy of a registration. New ones get their first keep-alive anywhere in the coming
+    // ping interval so that registrations loaded together are not pinged together.
+    private void track(final Registration registration, final long now) {
+        if (tracked.put(registration.getLocation(), registration) == null) {
+            final long first = now + (long) (random.nextDouble() * TimeUnit.SECONDS.toMillis(pingInterval));
+            keepAlives.schedule(registration.getLocation(), Math.min(first, expiry(registration, now)));
+        }
+    }
+
+    private void untrack(final String location) {
+        tracked.remove(location);
+        keepAlives.cancel(location);
+    }
+
+    private void schedule(final Registration registration, final long now) {
+        final long interval = TimeUnit.SECONDS.toMillis(pingInterval);
+        final long next = now + interval - (long) (random.nextDouble() * KEEP_ALIVE_JITTER * interval);
+        keepAlives.schedule(registration.getLocation(), Math.min(next, expiry(registration, now)));
+    }
+
+    // Like the old periodic cleanup, an expired registration is pinged one last time instead of being removed,
+    // the removal happens only if that OPTIONS times out.
+    private long expiry(final Registration registration, final long now) {
+        final long expires = registration.getDateExpires().getMillis();
+        return expires > now ? expires : Long.MAX_VALUE;
+    }
+
+    // Picks up registrations added or removed behind our back and forgets OPTIONS whose answers were lost.
+    private void reconcile(final long now) {
+        final List<Registration> results = storage.getRegistrationsDao().getRegistrationsByInstanceId(instanceId);
+        final Set<String> locations = new HashSet<String>();
+        for (final Registration result : results) {
+            locations.add(result.getLocation());
+            track(result, now);
+        }
+        for (final String location : new ArrayList<String>(tracked.keySet())) {
+            if (!locations.contains(location)) {
+                untrack(location);
+            }
+        }
+        final Iterator<Long> sent = pendingPings.values().iterator();
+        while (sent.hasNext()) {
+            if (now - sent.next() >= TimeUnit.SECONDS.toMillis(pingInterval) * 2) {
+                sent.remove();
             }
         }
     }
@@ -275,16 +326,15 @@ public final class UserAgentManager extends RestcommUntypedActor {
     public void onReceive(final Object message) throws Exception {
         final Class<?> klass = message.getClass();
         final ActorRef sender = sender();
+        if (message instanceof ReceiveTimeout) {
+            // The keep-alive tick, every second.
+            tick();
+            return;
+        }
         if (logger.isInfoEnabled()) {
             logger.info("UserAgentManager Processing Message: \"" + klass.getName() + " sender : "+ sender.getClass()+" self is terminated: "+self().isTerminated());
         }
-        if (message instanceof ReceiveTimeout) {
-            if (logger.isDebugEnabled()) {
-                logger.debug("Timeout received, ping interval: "+pingInterval+" , will clean up registrations and send keep alive");
-            }
-            clean();
-            keepAlive();
-        } else if (message instanceof SipServletRequest) {
+        if (message instanceof SipServletRequest) {
             final SipServletRequest request = (SipServletRequest) message;
             final String method = request.getMethod();
             if ("REGISTER".equalsIgnoreCase(method)) {
@@ -311,6 +361,10 @@ public final class UserAgentManager extends RestcommUntypedActor {
             }
         } else if (message instanceof SipServletResponse) {
             SipServletResponse response = (SipServletResponse) message;
+            if (response.getMethod().equalsIgnoreCase("OPTIONS")) {
+                final SipURI to = (SipURI) response.getTo().getURI();
+                pendingPings.remove(to.getHost() + ":" + to.getPort());
+            }
             if (response.getStatus()>400 && response.getMethod().equalsIgnoreCase("OPTIONS")) {
                 removeRegistration(response);
             } else if (actAsImsUa && response.getMethod().equalsIgnoreCase(REGISTER)) {
@@ -377,6 +431,7 @@ public final class UserAgentManager extends RestcommUntypedActor {
                     }
 
                     regDao.removeRegistration(reg);
+                    untrack(reg.getLocation());
                     monitoringService.tell(new UserRegistration(reg.getUserName(), reg.getLocation(), false, reg.getOrganizationSid()), self());
                     monitoringService.tell(new GetCall(reg.getLocation()), self());
                 } else {
@@ -578,6 +633,7 @@ public final class UserAgentManager extends RestcommUntypedActor {
         if (ttl == 0) {
             // Remove Registration if ttl=0
             registrations.removeRegistration(registration);
+            untrack(registration.getLocation());
             response.setHeader("Expires", "0");
             monitoringService.tell(new UserRegistration(user, address, false, organizationSid), self());
             if(logger.isInfoEnabled()) {
@@ -588,12 +644,14 @@ public final class UserAgentManager extends RestcommUntypedActor {
             if (registrations.hasRegistration(registration)) {
                 // Update Registration if exists
                 registrations.updateRegistration(registration);
+                track(registration, System.currentTimeMillis());
                 if(logger.isInfoEnabled()) {
                     logger.info("The user agent manager updated " + user + " at address " + address+":"+port);
                 }
             } else {
                 // Add registration since it doesn't exists on the DB
                 registrations.addRegistration(registration);
+                track(registration, System.currentTimeMillis());
                 if(logger.isInfoEnabled()) {
                     logger.info("The user agent manager registered " + user + " at address " + address+":"+port);
                 }
@@ -802,6 +860,7 @@ public final class UserAgentManager extends RestcommUntypedActor {
             if (ttl == 0) {
                 // Remove Registration if ttl=0
                 registrations.removeRegistration(registration);
+                untrack(registration.getLocation());
                 incomingLegResposne.setHeader("Expires", "0");
                 monitoringService.tell(new UserRegistration(user, address, false, organizationSid), self());
                 if(logger.isInfoEnabled()) {
@@ -812,12 +871,14 @@ public final class UserAgentManager extends RestcommUntypedActor {
                 if (registrations.hasRegistration(registration)) {
                     // Update Registration if exists
                     registrations.updateRegistration(registration);
+                    track(registration, System.currentTimeMillis());
                     if(logger.isInfoEnabled()) {
                         logger.info("The user agent manager updated " + user + " at address " + address+":"+port);
                     }
                 } else {
                     // Add registration since it doesn't exists on the DB
                     registrations.addRegistration(registration);
+                    track(registration, System.currentTimeMillis());
                     if(logger.isInfoEnabled()) {
                         logger.info("The user agent manager registered " + user + " at address " + address+":"+port);
                     }
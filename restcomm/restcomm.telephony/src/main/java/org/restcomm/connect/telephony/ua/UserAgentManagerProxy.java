@@ -52,7 +52,6 @@ public final class UserAgentManagerProxy extends SipServlet implements SipServle
     private ActorSystem system;
     private ActorRef manager;
     private ServletContext servletContext;
-    private int pingInterval;
 
     private Configuration configuration;
 
@@ -118,8 +117,9 @@ public final class UserAgentManagerProxy extends SipServlet implements SipServle
             system = (ActorSystem) servletContext.getAttribute(ActorSystem.class.getName());
             logger.info("About to create new UserAgentManager");
             manager = manager(configuration, factory, storage);
-            pingInterval = configuration.subset("runtime-settings").getInt("ping-interval", 60);
-            system.scheduler().schedule(Duration.create(5, TimeUnit.SECONDS), Duration.create(pingInterval, TimeUnit.SECONDS),
+            // Keep-alives are spread over the ping interval, the manager checks which ones are due on every tick.
+            system.scheduler().schedule(Duration.create(5, TimeUnit.SECONDS),
+                    Duration.create(UserAgentManager.KEEP_ALIVE_TICK_MILLIS, TimeUnit.MILLISECONDS),
                     manager, ReceiveTimeout.getInstance(), system.dispatcher());
         }
     }
@@ -0,0 +1,148 @@
+package org.restcomm.connect.telephony;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.configuration.BaseConfiguration;
+import org.apache.commons.configuration.Configuration;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.restcomm.connect.telephony.api.GetActiveProxy;
+import org.restcomm.connect.telephony.api.GetProxies;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.actor.UntypedActor;
+import akka.actor.UntypedActorFactory;
+import akka.testkit.JavaTestKit;
+
+public class CallManagerShardsTest {
+    private static ActorSystem system;
+
+    @BeforeClass
+    public static void before() {
+        system = ActorSystem.create();
+    }
+
+    @AfterClass
+    public static void after() {
+        system.shutdown();
+    }
+
+    private static OutboundProxies proxies(final int maxFailedCalls) {
+        final Configuration configuration = new BaseConfiguration();
+        configuration.setProperty("outbound-proxy-uri", "127.0.0.1:5080");
+        configuration.setProperty("outbound-proxy-user", "primary");
+        configuration.setProperty("fallback-outbound-proxy-uri", "127.0.0.1:5090");
+        configuration.setProperty("fallback-outbound-proxy-user", "fallback");
+        configuration.setProperty("allow-fallback", "true");
+        configuration.setProperty("allow-fallback-to-primary", "true");
+        configuration.setProperty("max-failed-calls", String.valueOf(maxFailedCalls));
+        return new OutboundProxies(configuration);
+    }
+
+    private static CallManagerShards shards(final int size, final OutboundProxies proxies) {
+        final List<ActorRef> workers = new ArrayList<ActorRef>(size);
+        for (int i = 0; i < size; i++) {
+            workers.add(system.actorOf(new Props(Worker.class)));
+        }
+        return new CallManagerShards(workers, proxies);
+    }
+
+    @Test
+    public void testCallsAreRoutedToTheirWorker() {
+        new JavaTestKit(system) {
+            {
+                final CallManagerShards shards = shards(3, proxies(20));
+                final ActorRef worker = shards.workers().get(1);
+                worker.tell("call", getRef());
+                final ActorRef call = expectMsgClass(ActorRef.class);
+                assertSame(worker, shards.route(call));
+                assertSame(worker, shards.route(call.path().toString()));
+                assertEquals(2, shards.routed(1));
+                // Unknown calls are handed out in turn.
+                final ActorRef first = shards.route((ActorRef) null);
+                final ActorRef second = shards.route("akka://unknown/user/call");
+                assertNotSame(first, second);
+                assertSame(shards.workers().get(0), first);
+                assertSame(shards.workers().get(1), second);
+                assertSame(shards.workers().get(2), shards.next());
+            }
+        };
+    }
+
+    @Test
+    public void testFailedCallsAreCountedOnceForAllWorkers() {
+        final OutboundProxies proxies = proxies(3);
+        final CallManagerShards shards = shards(3, proxies);
+        // Every worker sees one failure, together they reach the maximum.
+        assertFalse(shards.proxies().failed());
+        assertFalse(shards.proxies().failed());
+        assertTrue(shards.proxies().failed());
+        assertEquals(0, proxies.getNumberOfFailedCalls());
+        assertEquals("127.0.0.1:5090", proxies.switchProxy().getUri());
+        assertEquals("fallback", proxies.active().getUsername());
+        assertEquals("true", proxies.getProxies().get("UsingFallBackProxy"));
+        assertEquals("127.0.0.1:5080", proxies.switchProxy().getUri());
+        assertEquals("false", proxies.getProxies().get("UsingFallBackProxy"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRouterAnswersWithTheSharedProxyState() {
+        new JavaTestKit(system) {
+            {
+                final OutboundProxies proxies = proxies(20);
+                final CallManagerShards shards = shards(2, proxies);
+                final ActorRef router = system.actorOf(new Props(new UntypedActorFactory() {
+                    private static final long serialVersionUID = 1L;
+
+                    @Override
+                    public UntypedActor create() throws Exception {
+                        return new CallManagerRouter(shards);
+                    }
+                }));
+                proxies.switchProxy();
+                router.tell(new GetActiveProxy(), getRef());
+                assertEquals("127.0.0.1:5090", expectMsgClass(Map.class).get("ActiveProxy"));
+                router.tell(new GetProxies(), getRef());
+                final Map<String, String> state = expectMsgClass(Map.class);
+                assertEquals("true", state.get("UsingFallBackProxy"));
+                assertEquals("127.0.0.1:5080", state.get("PrimaryProxy"));
+            }
+        };
+    }
+
+    // Creates a Call stand-in as its child, like the CallManager does.
+    private static final class Worker extends UntypedActor {
+        @SuppressWarnings("unused")
+        public Worker() {
+            super();
+        }
+
+        @Override
+        public void onReceive(final Object message) throws Exception {
+            sender().tell(getContext().actorOf(new Props(Idle.class)), self());
+        }
+    }
+
+    private static final class Idle extends UntypedActor {
+        @SuppressWarnings("unused")
+        public Idle() {
+            super();
+        }
+
+        @Override
+        public void onReceive(final Object message) throws Exception {
+        }
+    }
+}
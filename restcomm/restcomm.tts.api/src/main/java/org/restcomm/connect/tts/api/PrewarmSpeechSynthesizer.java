@@ -0,0 +1,45 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.tts.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.restcomm.connect.commons.annotations.concurrency.Immutable;
+
+/**
+ * Asks a {@link SpeechSynthesizerFrontEnd} to synthesize a batch of phrases ahead of time, for example before a
+ * campaign starts. It answers with a SpeechSynthesizerResponse holding the URIs in the order of the requests, with
+ * null for any phrase that could not be synthesized.
+ */
+@Immutable
+public final class PrewarmSpeechSynthesizer {
+    private final List<SpeechSynthesizerRequest> requests;
+
+    public PrewarmSpeechSynthesizer(final List<SpeechSynthesizerRequest> requests) {
+        super();
+        this.requests = Collections.unmodifiableList(new ArrayList<SpeechSynthesizerRequest>(requests));
+    }
+
+    public List<SpeechSynthesizerRequest> requests() {
+        return requests;
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.tts.api;
+
+import static akka.pattern.Patterns.ask;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.configuration.Configuration;
+import org.restcomm.connect.commons.cache.HashGenerator;
+import org.restcomm.connect.commons.faulttolerance.RestcommUntypedActor;
+import org.restcomm.connect.commons.patterns.Continuation;
+
+import scala.concurrent.duration.Duration;
+import akka.actor.Actor;
+import akka.actor.ActorRef;
+import akka.actor.Props;
+import akka.actor.UntypedActor;
+import akka.actor.UntypedActorFactory;
+import akka.event.Logging;
+import akka.event.LoggingAdapter;
+import akka.util.Timeout;
+
+/**
+ * Sits in front of a speech synthesizer provider and is shared by every interpreter using it (see
+ * {@link SpeechSynthesizers}). Concurrent requests for the same phrase, keyed by
+ * {@link HashGenerator#hashMessage(String, String, String)}, are synthesized once and every caller gets the same URI.
+ * At most "workers" provider actors synthesize at a time; further phrases queue here. The URIs of recently
+ * synthesized phrases are remembered for as long as their file exists.
+ *
+ * The provider element of the configuration may set the number of workers and the number of remembered phrases:
+ * &lt;voicerss class="..." workers="4" cached-prompts="1000"&gt;.
+ */
+public final class SpeechSynthesizerFrontEnd extends RestcommUntypedActor {
+    static final int DEFAULT_WORKERS = 4;
+    static final int DEFAULT_CACHED_PROMPTS = 1000;
+    private static final Timeout SYNTHESIS_TIMEOUT = new Timeout(Duration.create(60, TimeUnit.SECONDS));
+
+    private final LoggingAdapter logger = Logging.getLogger(getContext().system(), this);
+
+    private final List<ActorRef> workers;
+    private final Queue<ActorRef> idle;
+    // Phrases waiting for a worker, by hash.
+    private final Queue<String> pending;
+    private final Map<String, Flight> flights;
+    private final Map<String, URI> synthesized;
+
+    public SpeechSynthesizerFrontEnd(final Configuration configuration) {
+        this(workers(configuration), configuration.getInt("[@workers]", DEFAULT_WORKERS),
+                configuration.getInt("[@cached-prompts]", DEFAULT_CACHED_PROMPTS));
+    }
+
+    SpeechSynthesizerFrontEnd(final Props worker, final int workers, final int cachedPrompts) {
+        super();
+        final int size = Math.max(1, workers);
+        this.workers = new ArrayList<ActorRef>(size);
+        this.idle = new ArrayDeque<ActorRef>(size);
+        for (int i = 0; i < size; i++) {
+            final ActorRef actor = getContext().actorOf(worker);
+            this.workers.add(actor);
+            this.idle.add(actor);
+        }
+        this.pending = new ArrayDeque<String>();
+        this.flights = new HashMap<String, Flight>();
+        this.synthesized = new LinkedHashMap<String, URI>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, URI> eldest) {
+                return size() > cachedPrompts;
+            }
+        };
+    }
+
+    private static Props workers(final Configuration configuration) {
+        final String classpath = configuration.getString("[@class]");
+        return new Props(new UntypedActorFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Actor create() throws Exception {
+                return (UntypedActor) Class.forName(classpath).getConstructor(Configuration.class).newInstance(configuration);
+            }
+        });
+    }
+
+    @Override
+    public void onReceive(final Object message) throws Exception {
+        final Class<?> klass = message.getClass();
+        final ActorRef sender = sender();
+        if (SpeechSynthesizerRequest.class.equals(klass)) {
+            synthesize((SpeechSynthesizerRequest) message, sender, null);
+        } else if (PrewarmSpeechSynthesizer.class.equals(klass)) {
+            prewarm((PrewarmSpeechSynthesizer) message, sender);
+        } else if (Continuation.class.equals(klass)) {
+            onSynthesized((Continuation) message);
+        } else if (GetSpeechSynthesizerInfo.class.equals(klass)) {
+            workers.get(0).forward(message, getContext());
+        }
+    }
+
+    private void synthesize(final SpeechSynthesizerRequest request, final ActorRef sender, final Batch batch) {
+        final String hash = HashGenerator.hashMessage(request.gender(), request.language(), request.text());
+        final URI uri = synthesized(hash);
+        if (uri != null) {
+            if (sender != null) {
+                sender.tell(new SpeechSynthesizerResponse<URI>(uri), self());
+            }
+            if (batch != null) {
+                batch.done(hash, uri);
+            }
+            return;
+        }
+        Flight flight = flights.get(hash);
+        if (flight == null) {
+            flight = new Flight(request);
+            flights.put(hash, flight);
+            pending.add(hash);
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("Joining the synthesis already under way for " + hash);
+        }
+        if (sender != null) {
+            flight.waiters.add(sender);
+        }
+        if (batch != null) {
+            flight.batches.add(batch);
+        }
+        dispatch();
+    }
+
+    private void prewarm(final PrewarmSpeechSynthesizer message, final ActorRef sender) {
+        final Batch batch = new Batch(sender);
+        for (final SpeechSynthesizerRequest request : message.requests()) {
+            batch.add(HashGenerator.hashMessage(request.gender(), request.language(), request.text()));
+        }
+        batch.replyIfDone();
+        for (final SpeechSynthesizerRequest request : message.requests()) {
+            synthesize(request, null, batch);
+        }
+    }
+
+    private URI synthesized(final String hash) {
+        final URI uri = synthesized.get(hash);
+        if (uri != null && "file".equals(uri.getScheme()) && !new File(uri).exists()) {
+            synthesized.remove(hash);
+            return null;
+        }
+        return uri;
+    }
+
+    private void dispatch() {
+        while (!idle.isEmpty() && !pending.isEmpty()) {
+            final String hash = pending.poll();
+            final ActorRef worker = idle.poll();
+            Continuation.resume(ask(worker, flights.get(hash).request, SYNTHESIS_TIMEOUT), new Job(hash, worker), self(),
+                    getContext().dispatcher());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onSynthesized(final Continuation continuation) {
+        final Job job = (Job) continuation.state();
+        idle.add(job.worker);
+        final Flight flight = flights.remove(job.hash);
+        final SpeechSynthesizerResponse<URI> response;
+        if (!continuation.succeeded()) {
+            response = new SpeechSynthesizerResponse<URI>(continuation.failure());
+        } else if (continuation.reply() instanceof SpeechSynthesizerResponse) {
+            response = (SpeechSynthesizerResponse<URI>) continuation.reply();
+        } else {
+            response = new SpeechSynthesizerResponse<URI>(new SpeechSynthesizerException("Unexpected reply "
+                    + continuation.reply()));
+        }
+        URI uri = null;
+        if (response.succeeded()) {
+            uri = response.get();
+            synthesized.put(job.hash, uri);
+        } else {
+            logger.warning("Could not synthesize " + job.hash + ": " + response.cause());
+        }
+        for (final ActorRef waiter : flight.waiters) {
+            waiter.tell(response, self());
+        }
+        for (final Batch batch : flight.batches) {
+            batch.done(job.hash, uri);
+        }
+        dispatch();
+    }
+
+    private static final class Job {
+        private final String hash;
+        private final ActorRef worker;
+
+        private Job(final String hash, final ActorRef worker) {
+            super();
+            this.hash = hash;
+            this.worker = worker;
+        }
+    }
+
+    private static final class Flight {
+        private final SpeechSynthesizerRequest request;
+        private final List<ActorRef> waiters;
+        private final Set<Batch> batches;
+
+        private Flight(final SpeechSynthesizerRequest request) {
+            super();
+            this.request = request;
+            this.waiters = new ArrayList<ActorRef>();
+            this.batches = new HashSet<Batch>();
+        }
+    }
+
+    private final class Batch {
+        private final ActorRef sender;
+        private final List<String> hashes;
+        private final Set<String> remaining;
+        private final Map<String, URI> uris;
+
+        private Batch(final ActorRef sender) {
+            super();
+            this.sender = sender;
+            this.hashes = new ArrayList<String>();
+            this.remaining = new HashSet<String>();
+            this.uris = new HashMap<String, URI>();
+        }
+
+        private void add(final String hash) {
+            hashes.add(hash);
+            remaining.add(hash);
+        }
+
+        private void done(final String hash, final URI uri) {
+            if (remaining.remove(hash)) {
+                uris.put(hash, uri);
+                replyIfDone();
+            }
+        }
+
+        private void replyIfDone() {
+            if (remaining.isEmpty() && sender != null) {
+                final List<URI> result = new ArrayList<URI>(hashes.size());
+                for (final String hash : hashes) {
+                    result.add(uris.get(hash));
+                }
+                sender.tell(new SpeechSynthesizerResponse<List<URI>>(result), self());
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2014, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>
+ *
+ */
+package org.restcomm.connect.tts.api;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.commons.configuration.Configuration;
+import org.restcomm.connect.commons.annotations.concurrency.ThreadSafe;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.actor.UntypedActor;
+import akka.actor.UntypedActorFactory;
+
+/**
+ * Hands out one {@link SpeechSynthesizerFrontEnd} per provider and actor system so that every interpreter shares the
+ * same single-flight front-end and worker pool. The front-end lives for as long as the actor system, callers must not
+ * stop it.
+ */
+@ThreadSafe
+public final class SpeechSynthesizers {
+    private static final Map<ActorSystem, Map<String, ActorRef>> frontEnds = new WeakHashMap<ActorSystem, Map<String, ActorRef>>();
+
+    private SpeechSynthesizers() {
+        super();
+    }
+
+    /**
+     * @param configuration the provider element, for example the voicerss element of restcomm.xml
+     */
+    public static synchronized ActorRef frontEnd(final ActorSystem system, final Configuration configuration) {
+        Map<String, ActorRef> providers = frontEnds.get(system);
+        if (providers == null) {
+            providers = new HashMap<String, ActorRef>();
+            frontEnds.put(system, providers);
+        }
+        final String classpath = configuration.getString("[@class]");
+        ActorRef frontEnd = providers.get(classpath);
+        if (frontEnd == null || frontEnd.isTerminated()) {
+            frontEnd = system.actorOf(new Props(new UntypedActorFactory() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public UntypedActor create() throws Exception {
+                    return new SpeechSynthesizerFrontEnd(configuration);
+                }
+            }));
+            providers.put(classpath, frontEnd);
+        }
+        return frontEnd;
+    }
+}
@@ -0,0 +1,134 @@
+package org.restcomm.connect.tts.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.restcomm.connect.commons.cache.HashGenerator;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.actor.UntypedActor;
+import akka.actor.UntypedActorFactory;
+import akka.testkit.JavaTestKit;
+
+public class SpeechSynthesizerFrontEndTest {
+    private static final AtomicInteger calls = new AtomicInteger();
+    private static final AtomicInteger active = new AtomicInteger();
+    private static final AtomicInteger busiest = new AtomicInteger();
+
+    private ActorSystem system;
+
+    @Before
+    public void before() {
+        system = ActorSystem.create();
+        calls.set(0);
+        active.set(0);
+        busiest.set(0);
+    }
+
+    @After
+    public void after() {
+        system.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testConcurrentRequestsAreSynthesizedOnce() {
+        new JavaTestKit(system) {
+            {
+                final ActorRef frontEnd = frontEnd(4);
+                final SpeechSynthesizerRequest request = new SpeechSynthesizerRequest("woman", "en", "Welcome");
+                for (int i = 0; i < 10; i++) {
+                    frontEnd.tell(request, getRef());
+                }
+                URI first = null;
+                for (int i = 0; i < 10; i++) {
+                    final SpeechSynthesizerResponse<URI> response = expectMsgClass(duration("5 seconds"),
+                            SpeechSynthesizerResponse.class);
+                    assertTrue(response.succeeded());
+                    if (first == null) {
+                        first = response.get();
+                    }
+                    assertEquals(first, response.get());
+                }
+                assertEquals(1, calls.get());
+                // Later callers are answered from the remembered URI.
+                frontEnd.tell(request, getRef());
+                assertEquals(first, expectMsgClass(SpeechSynthesizerResponse.class).get());
+                assertEquals(1, calls.get());
+                new File(first).delete();
+            }
+        };
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPrewarmWithBoundedWorkers() {
+        new JavaTestKit(system) {
+            {
+                final ActorRef frontEnd = frontEnd(2);
+                final List<SpeechSynthesizerRequest> requests = Arrays.asList(
+                        new SpeechSynthesizerRequest("man", "en", "One"), new SpeechSynthesizerRequest("man", "en", "Two"),
+                        new SpeechSynthesizerRequest("man", "en", "Three"), new SpeechSynthesizerRequest("man", "en", "One"),
+                        new SpeechSynthesizerRequest("man", "en", "Four"), new SpeechSynthesizerRequest("man", "en", "Five"));
+                frontEnd.tell(new PrewarmSpeechSynthesizer(requests), getRef());
+                final SpeechSynthesizerResponse<List<URI>> response = expectMsgClass(duration("5 seconds"),
+                        SpeechSynthesizerResponse.class);
+                final List<URI> uris = response.get();
+                assertEquals(requests.size(), uris.size());
+                assertEquals(uris.get(0), uris.get(3));
+                assertTrue(uris.get(1).toString().endsWith(HashGenerator.hashMessage("man", "en", "Two") + ".wav"));
+                assertEquals(5, calls.get());
+                assertTrue(busiest.get() <= 2);
+                for (final URI uri : uris) {
+                    new File(uri).delete();
+                }
+            }
+        };
+    }
+
+    private ActorRef frontEnd(final int workers) {
+        final Props provider = new Props(FakeSynthesizer.class);
+        return system.actorOf(new Props(new UntypedActorFactory() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public UntypedActor create() throws Exception {
+                return new SpeechSynthesizerFrontEnd(provider, workers, 100);
+            }
+        }));
+    }
+
+    private static final class FakeSynthesizer extends UntypedActor {
+        @SuppressWarnings("unused")
+        public FakeSynthesizer() {
+            super();
+        }
+
+        @Override
+        public void onReceive(final Object message) throws Exception {
+            final SpeechSynthesizerRequest request = (SpeechSynthesizerRequest) message;
+            calls.incrementAndGet();
+            final int now = active.incrementAndGet();
+            int max;
+            while ((max = busiest.get()) < now && !busiest.compareAndSet(max, now)) {
+            }
+            Thread.sleep(100);
+            final File file = new File(System.getProperty("java.io.tmpdir"), HashGenerator.hashMessage(request.gender(),
+                    request.language(), request.text()) + ".wav");
+            file.createNewFile();
+            active.decrementAndGet();
+            sender().tell(new SpeechSynthesizerResponse<URI>(file.toURI()), self());
+        }
+    }
+}
@@ -43,6 +43,7 @@ import org.restcomm.connect.tts.api.SpeechSynthesizerResponse;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
@@ -192,15 +193,19 @@ public class AWSPollySpeechSyntetizer extends RestcommUntypedActor {
         //retrieve audio result
         SynthesizeSpeechResult result = pollyClient.synthesizeSpeech(pollyRequest);
 
-        //create a temporary file
-        File srcFile = new File(System.getProperty("java.io.tmpdir") + File.separator + hash + ".pcm");
         File dstFile = new File(System.getProperty("java.io.tmpdir") + File.separator + hash + ".wav");
-
-        //save temporary pcm file
-        Files.copy(result.getAudioStream(), srcFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-
-        //convert pcm file to wav
-        new PcmToWavConverterUtils().rawToWave(srcFile, dstFile);
+        File partFile = new File(dstFile.getPath() + ".part");
+
+        //stream the pcm audio into a wav file, only publishing it under its final name once complete
+        final InputStream audio = result.getAudioStream();
+        try {
+            new PcmToWavConverterUtils().rawToWave(audio, partFile);
+            Files.move(partFile.toPath(), dstFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            audio.close();
+            Files.deleteIfExists(partFile.toPath());
+        }
 
         //return file URI
         return dstFile.toURI();
@@ -64,7 +64,9 @@ import org.restcomm.connect.interpreter.rcml.End;
 import org.restcomm.connect.interpreter.rcml.GetNextVerb;
 import org.restcomm.connect.interpreter.rcml.Parser;
 import org.restcomm.connect.interpreter.rcml.ParserFailed;
+import org.restcomm.connect.interpreter.rcml.RcmlCache;
 import org.restcomm.connect.interpreter.rcml.Tag;
+import org.restcomm.connect.interpreter.rcml.TagParser;
 import org.restcomm.connect.telephony.api.Answer;
 import org.restcomm.connect.telephony.api.CallInfo;
 import org.restcomm.connect.telephony.api.CallResponse;
@@ -319,7 +321,7 @@ public class UssdInterpreter extends RestcommUntypedActor {
             private static final long serialVersionUID = 1L;
             @Override
             public UntypedActor create() throws Exception {
-                return new Downloader();
+                return new Downloader(new TagParser(), RcmlCache.getInstance());
             }
         });
         return getContext().actorOf(props);
@@ -793,7 +795,7 @@ public class UssdInterpreter extends RestcommUntypedActor {
                 }
                 final String type = response.getContentType();
                 if (type.contains("text/xml") || type.contains("application/xml") || type.contains("text/html")) {
-                    parser = parser(response.getContentAsString());
+                    parser = getContext().actorOf(Parser.props(response, self()));
                 } else if (type.contains("text/plain")) {
                     parser = parser("<UssdMessage>" + response.getContentAsString() + "</UssdMessage>");
                 } else {